@@ -0,0 +1,102 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Medição das operações de {@link Kernels} com a implementação escolhida na
+ * carga da classe. Para comparar as duas implementações, executa-se uma vez
+ * com <code>-jvmArgsAppend --add-modules=jdk.incubator.vector</code> (Vector
+ * API, JDK 17 ou superior) e outra com
+ * <code>-jvmArgsAppend -Dbr.com.pereiraeng.dsp.vector=false</code> (escalar):
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="KernelsBenchmark -jvmArgsAppend --add-modules=jdk.incubator.vector"
+ * </pre>
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KernelsBenchmark {
+
+	@Param({ "256", "4096" })
+	private int n;
+
+	private double[] a, b, re, im, out;
+
+	/**
+	 * multiplicadores de módulo unitário, para que os valores repetidamente
+	 * multiplicados não cresçam nem se anulem
+	 */
+	private double[] cr, ci, sign;
+
+	@Setup
+	public void setup() {
+		Random r = new Random(35);
+		a = new double[n];
+		b = new double[n];
+		re = new double[n];
+		im = new double[n];
+		out = new double[n];
+		cr = new double[n];
+		ci = new double[n];
+		sign = new double[n];
+		for (int i = 0; i < n; i++) {
+			a[i] = r.nextGaussian();
+			b[i] = r.nextGaussian();
+			re[i] = r.nextGaussian();
+			im[i] = r.nextGaussian();
+			out[i] = r.nextGaussian();
+			double t = 2. * Math.PI * r.nextDouble();
+			cr[i] = Math.cos(t);
+			ci[i] = Math.sin(t);
+			sign[i] = r.nextBoolean() ? 1. : -1.;
+		}
+	}
+
+	@Benchmark
+	public double dot() {
+		return Kernels.dot(a, 0, b, 0, n);
+	}
+
+	@Benchmark
+	public double sumOfSquares() {
+		return Kernels.sumOfSquares(re, im, n);
+	}
+
+	@Benchmark
+	public double[] magnitude2() {
+		Kernels.magnitude2(re, im, out, n);
+		return out;
+	}
+
+	@Benchmark
+	public double[] multiplyComplex() {
+		Kernels.multiplyComplex(re, im, cr, ci, n);
+		return re;
+	}
+
+	@Benchmark
+	public double[] multiply() {
+		Kernels.multiply(out, 0, sign, n);
+		return out;
+	}
+}
@@ -0,0 +1,74 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Medição de {@link PhasorEstimator} sobre um segundo de sinal (em blocos de
+ * um ciclo nominal), numa única thread. A razão entre 1000 ms e o tempo medido
+ * é quantas vezes o processamento é mais rápido que o tempo real:
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="PhasorEstimatorBenchmark"
+ * </pre>
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhasorEstimatorBenchmark {
+
+	@Param({ "300" })
+	private int channels;
+
+	@Param({ "7680" })
+	private double fs;
+
+	@Param({ "1", "2" })
+	private int cycles;
+
+	private final double f0 = 60., reportRate = 60.;
+
+	private double[][] x;
+
+	private PhasorEstimator pe;
+
+	private Blackhole bh;
+
+	@Setup
+	public void setup(Blackhole bh) {
+		this.bh = bh;
+		int n = (int) fs;
+		x = new double[channels][n];
+		for (int c = 0; c < channels; c++) {
+			double phi = 2. * Math.PI * c / channels;
+			for (int m = 0; m < n; m++)
+				x[c][m] = 100. * Math.cos(2. * Math.PI * 60.3 * m / fs + phi);
+		}
+		pe = new PhasorEstimator(channels, fs, f0, cycles, reportRate, frame -> this.bh.consume(frame));
+	}
+
+	@Benchmark
+	public void process() {
+		int n = x[0].length, block = (int) (fs / f0);
+		for (int m = 0; m < n; m += block)
+			pe.process(x, m, Math.min(block, n - m));
+	}
+}
@@ -0,0 +1,81 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Medição da triangularização de Delaunay incremental e da de divisão e
+ * conquista com pools de tamanhos diferentes, para pontos aleatórios no
+ * quadrado unitário. A escalabilidade é a razão entre o tempo com uma thread e
+ * com várias (só faz sentido se a máquina tiver ao menos esse número de
+ * processadores):
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="DelaunayBenchmark -jvmArgsAppend -Xmx4g"
+ * </pre>
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DelaunayBenchmark {
+
+	@Param({ "100000", "2000000" })
+	private int n;
+
+	@Param({ "1", "2", "4", "8" })
+	private int threads;
+
+	private double[] xs, ys;
+
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setup() {
+		Random r = new Random(43);
+		xs = new double[n];
+		ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = r.nextDouble();
+			ys[i] = r.nextDouble();
+		}
+		pool = new ForkJoinPool(threads);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * algoritmo incremental (sequencial: o número de threads não o afeta)
+	 */
+	@Benchmark
+	public TriangleMesh incremental() {
+		return Delaunay.triangulate(xs, ys);
+	}
+
+	@Benchmark
+	public TriangleMesh divideAndConquer() {
+		return Delaunay.triangulate(xs, ys, pool);
+	}
+}
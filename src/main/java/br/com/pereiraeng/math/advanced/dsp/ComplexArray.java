@@ -0,0 +1,157 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import br.com.pereiraeng.math.Complex;
+
+/**
+ * Classe do objeto que representa um vetor de números complexos armazenado em
+ * dois vetores primitivos (partes real e imaginária). As operações são feitas
+ * no próprio lugar, de modo que os laços de processamento de sinais não
+ * precisem criar um {@link Complex} para cada componente
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class ComplexArray {
+
+	private final double[] re, im;
+
+	/**
+	 * Construtor de um vetor de zeros
+	 *
+	 * @param n tamanho do vetor
+	 */
+	public ComplexArray(int n) {
+		this(new double[n], new double[n]);
+	}
+
+	/**
+	 * Construtor de um vetor a partir de suas partes real e imaginária (os vetores
+	 * não são copiados)
+	 *
+	 * @param re partes reais
+	 * @param im partes imaginárias
+	 */
+	public ComplexArray(double[] re, double[] im) {
+		if (re.length != im.length)
+			throw new IllegalArgumentException("Partes real e imaginária de tamanhos diferentes");
+		this.re = re;
+		this.im = im;
+	}
+
+	/**
+	 * Função que cria um vetor a partir de números complexos
+	 *
+	 * @param cs vetor de números complexos
+	 * @return vetor primitivo com os mesmos valores
+	 */
+	public static ComplexArray of(Complex[] cs) {
+		ComplexArray out = new ComplexArray(cs.length);
+		for (int i = 0; i < cs.length; i++)
+			out.set(i, cs[i].getRe(), cs[i].getIm());
+		return out;
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	public int length() {
+		return re.length;
+	}
+
+	public double[] getRe() {
+		return re;
+	}
+
+	public double[] getIm() {
+		return im;
+	}
+
+	public double getRe(int i) {
+		return re[i];
+	}
+
+	public double getIm(int i) {
+		return im[i];
+	}
+
+	/**
+	 * Função que retorna o quadrado do módulo de um componente
+	 *
+	 * @param i posição do componente
+	 * @return quadrado do módulo
+	 */
+	public double getMod2(int i) {
+		return re[i] * re[i] + im[i] * im[i];
+	}
+
+	public void set(int i, double re, double im) {
+		this.re[i] = re;
+		this.im[i] = im;
+	}
+
+	/**
+	 * Função que cria um {@link Complex} com o valor de um componente
+	 *
+	 * @param i posição do componente
+	 * @return número complexo
+	 */
+	public Complex get(int i) {
+		return new Complex(re[i], im[i]);
+	}
+
+	/**
+	 * Função que converte o vetor para números complexos
+	 *
+	 * @return vetor de números complexos
+	 */
+	public Complex[] toComplex() {
+		Complex[] out = new Complex[re.length];
+		for (int i = 0; i < re.length; i++)
+			out[i] = new Complex(re[i], im[i]);
+		return out;
+	}
+
+	// ------------------------------ OPERAÇÕES ------------------------------
+
+	/**
+	 * Função que multiplica um componente por um número complexo
+	 *
+	 * @param i  posição do componente
+	 * @param re parte real do multiplicador
+	 * @param im parte imaginária do multiplicador
+	 */
+	public void mult(int i, double re, double im) {
+		double r = this.re[i] * re - this.im[i] * im;
+		this.im[i] = this.re[i] * im + this.im[i] * re;
+		this.re[i] = r;
+	}
+
+	/**
+	 * Função que multiplica todos os componentes por um número real
+	 *
+	 * @param d multiplicador
+	 */
+	public void mult(double d) {
+		Kernels.scale(re, 0, re.length, d);
+		Kernels.scale(im, 0, im.length, d);
+	}
+
+	/**
+	 * Função que multiplica todos os componentes por um número complexo
+	 *
+	 * @param re parte real do multiplicador
+	 * @param im parte imaginária do multiplicador
+	 */
+	public void mult(double re, double im) {
+		for (int i = 0; i < this.re.length; i++)
+			mult(i, re, im);
+	}
+
+	/**
+	 * Função que calcula a norma euclidiana do vetor
+	 *
+	 * @return norma
+	 */
+	public double norm() {
+		return Math.sqrt(Kernels.sumOfSquares(re, im, re.length));
+	}
+}
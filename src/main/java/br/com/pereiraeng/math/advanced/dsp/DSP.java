@@ -3,12 +3,10 @@ package br.com.pereiraeng.math.advanced.dsp;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 
-import br.com.pereiraeng.core.ExtendedMath;
 import br.com.pereiraeng.core.ReflectionUtils;
-import br.com.pereiraeng.core.collections.ArrayUtils;
 import br.com.pereiraeng.math.Spline;
-import br.com.pereiraeng.math.probability.ProbEstat;
 import br.com.pereiraeng.math.timeseries.SrT;
 
 /**
@@ -21,7 +19,8 @@ public class DSP {
 
 	/**
 	 * <code>true</code> para encontrar o zero a partir da reta que passa pelos
-	 * pontos de sinais opostos, <code>false</code> para calcular o spline
+	 * pontos de sinais opostos, <code>false</code> para calcular o spline (modo
+	 * padrão de {@link ZeroCrossingEstimator})
 	 */
 	public static final boolean ZERO_LINE = true;
 
@@ -32,8 +31,12 @@ public class DSP {
 	public static final int SPLINE_POINTS = 4;
 
 	/**
-	 * Função que calcula frequência de um sinal
-	 * 
+	 * Função que calcula frequência de um sinal. Os instantes dos cruzamentos por
+	 * zero são calculados em precisão dupla; apenas os instantes da tabela de saída
+	 * são convertidos para o tipo do registro (de modo que, para instantes
+	 * inteiros, os cruzamentos não são arredondados antes de se calcular a
+	 * frequência)
+	 *
 	 * @param srt        sinais, representado por um registro que armazena várias
 	 *                   medições para um dado instante de tempo
 	 * @param pos        inteiro que indica qual a posição das medições dentro do
@@ -42,123 +45,115 @@ public class DSP {
 	 *                   dividida por este fator)
 	 * @return tabela de dispersão ordenada que associa para instante de tempo (nas
 	 *         unidades do registro de entrada), a frequência calculada do sinal
+	 * @see ZeroCrossingEstimator
 	 */
 	public static <T extends Number> TreeMap<T, Float> getFreq(SrT<T> srt, int pos, double timeFactor) {
 		TreeMap<T, Float> out = new TreeMap<>();
+		if (srt.isEmpty())
+			return out;
 
-		Iterator<Entry<T, float[]>> it = srt.entrySet().iterator();
-		Entry<T, float[]> entry = it.next();
+		T sample = srt.firstKey();
+		ZeroCrossingEstimator zc = new ZeroCrossingEstimator(timeFactor,
+				(t, f) -> out.put(ReflectionUtils.double2number(sample, t), (float) f));
+		for (Entry<T, float[]> entry : srt.entrySet())
+			zc.push(entry.getKey().doubleValue(), entry.getValue()[pos]);
 
-		T lastTime = entry.getKey();
-		float lastValue = entry.getValue()[pos];
+		// TODO filtro passa baixa...
 
-		boolean previousSign = lastValue > 0;
-		T lastZero = null;
+		DSP.filtroMedia(out, 10);
 
-		double[][] buffer = null;
-		if (!DSP.ZERO_LINE) {
-			buffer = new double[2][DSP.SPLINE_POINTS];
-			buffer[0][DSP.SPLINE_POINTS - 1] = lastTime.doubleValue();
-			buffer[1][DSP.SPLINE_POINTS - 1] = lastValue;
-		}
+		return out;
+	}
 
-		int c = 1;
-		while (it.hasNext()) {
-			entry = it.next();
-
-			T time = entry.getKey();
-			float value = entry.getValue()[pos];
-
-			boolean sign = value > 0;
-			double timeAtZeroCrossing = Double.NaN;
-
-			if (DSP.ZERO_LINE) {
-				// aproximar por uma reta
-				if (sign ^ previousSign)
-					timeAtZeroCrossing = ExtendedMath.getZero(lastTime.doubleValue(), time.doubleValue(), lastValue,
-							value);
-			} else {
-				// aproximar por um spline
-
-				// buffer
-
-				ArrayUtils.shiftedArray(buffer[0], -1);
-				ArrayUtils.shiftedArray(buffer[1], -1);
-				buffer[0][DSP.SPLINE_POINTS - 1] = time.doubleValue();
-				buffer[1][DSP.SPLINE_POINTS - 1] = value;
-				if (c > 0) {
-					// enchendo
-					c++;
-					if (c == DSP.SPLINE_POINTS)
-						c = 0;
-				} else if (c == 0) {
-					// cheio, esperando zero
-					if (sign ^ previousSign)
-						c = -1;
-				} else if (c < 0) {
-					// cheio, achou o zero
-					c--;
-
-					if (-c == DSP.SPLINE_POINTS / 2) {
-						// zero pronto para ser calculado
-						double[] m = Spline.getSpline(buffer[0], buffer[1]);
-						timeAtZeroCrossing = Spline.solve(buffer[0], buffer[1], m, /* POINTS / 2 */0);
-						c = 0;
-					}
-				}
-			}
-
-			if (!Double.isNaN(timeAtZeroCrossing)) {
-				// achou um novo zero!
-				T newZero = ReflectionUtils.double2number(time, timeAtZeroCrossing);
-				if (lastZero != null) {
-					double f = .5 / ((newZero.doubleValue() - lastZero.doubleValue()) * timeFactor);
-					T tf = ReflectionUtils.double2number(time, (newZero.doubleValue() + lastZero.doubleValue()) * .5);
-					out.put(tf, (float) f);
-				}
-
-				previousSign = sign;
-				lastZero = newZero;
-			}
-
-			lastTime = time;
-			lastValue = value;
-		}
+	// ================================ ESPECTRO ================================
 
-		// TODO filtro passa baixa...
+	/**
+	 * Função que calcula a transformada discreta de Fourier de todos os sinais de
+	 * um registro, em paralelo no pool comum de threads
+	 * 
+	 * @param srt sinais <strong>regularmente amostrados</strong>, representado por
+	 *            um registro que armazena várias medições para um dado instante de
+	 *            tempo
+	 * @return matriz tridimensional cujo primeiro índice indica a parte real (0) ou
+	 *         imaginária (1), o segundo o sinal (posição da medição dentro do
+	 *         registro) e o terceiro o componente espectral, com a mesma
+	 *         normalização de {@link FourierSerie#dft(double[], double)}
+	 */
+	public static <T extends Number> double[][][] fft(SrT<T> srt) {
+		return fft(srt, ForkJoinPool.commonPool());
+	}
 
-		DSP.filtroMedia(out, 10);
+	/**
+	 * Função que calcula a transformada discreta de Fourier de todos os sinais de
+	 * um registro, em paralelo. O registro é percorrido uma única vez, copiando-se
+	 * cada sinal para um vetor contíguo, e então cada sinal é transformado por uma
+	 * {@link FFT} numa thread do pool
+	 * 
+	 * @param srt  sinais <strong>regularmente amostrados</strong>, representado
+	 *             por um registro que armazena várias medições para um dado
+	 *             instante de tempo
+	 * @param pool pool de threads onde as transformadas serão executadas
+	 * @return matriz tridimensional cujo primeiro índice indica a parte real (0) ou
+	 *         imaginária (1), o segundo o sinal (posição da medição dentro do
+	 *         registro) e o terceiro o componente espectral, com a mesma
+	 *         normalização de {@link FourierSerie#dft(double[], double)}
+	 */
+	public static <T extends Number> double[][][] fft(SrT<T> srt, ForkJoinPool pool) {
+		double[][] re = getChannels(srt);
+		int n = re.length == 0 ? 0 : re[0].length;
+		double[][] im = new double[re.length][n];
+		if (n > 0)
+			FFT.transform(re, im, 1. / n, pool);
+		return new double[][][] { re, im };
+	}
 
+	/**
+	 * Função que copia todos os sinais de um registro para vetores contíguos,
+	 * percorrendo-o uma única vez
+	 * 
+	 * @param srt sinais, representado por um registro que armazena várias medições
+	 *            para um dado instante de tempo
+	 * @return matriz cujo primeiro índice indica o sinal (posição da medição dentro
+	 *         do registro) e o segundo o instante de tempo
+	 */
+	public static <T extends Number> double[][] getChannels(SrT<T> srt) {
+		if (srt.isEmpty())
+			return new double[0][0];
+
+		int n = srt.size();
+		int nc = srt.firstEntry().getValue().length;
+
+		double[][] out = new double[nc][n];
+		int i = 0;
+		for (float[] v : srt.values()) {
+			for (int c = 0; c < nc; c++)
+				out[c][i] = v[c];
+			i++;
+		}
 		return out;
 	}
 
 	// ================================ FILTRAGEM ================================
 
 	/**
+	 * Função que substitui cada valor de uma série pela média dos
+	 * <code>last</code> últimos valores (inclusive ele), em O(1) por valor (ver
+	 * {@link MovingAverage}). Os <code>last - 1</code> primeiros valores, para os
+	 * quais a janela ainda não está cheia, são removidos da série
 	 * 
-	 * @param serie
+	 * @param serie série a ser filtrada (é modificada)
 	 * @param last  número de pontos usados para se calcular a média
 	 */
 	public static <T> void filtroMedia(TreeMap<T, Float> serie, final int last) {
-		int c = 0;
-		double[] buffer = new double[last];
-		Iterator<Entry<T, Float>> it0 = serie.entrySet().iterator();
-		while (it0.hasNext()) {
-			Entry<T, Float> e0 = it0.next();
-
-			ArrayUtils.shiftedArray(buffer, -1);
-			buffer[last - 1] = e0.getValue();
-
-			if (c >= 0) {
-				// enchendo
-				c++;
-				it0.remove();
-				if (c == last - 1)
-					c = -1;
-			} else if (c == -1) {
-				// cheio
-				e0.setValue((float) ProbEstat.media(buffer));
-			}
+		MovingAverage ma = new MovingAverage(last);
+		Iterator<Entry<T, Float>> it = serie.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<T, Float> e = it.next();
+			double m = ma.push(e.getValue());
+			if (ma.isFull())
+				e.setValue((float) m);
+			else
+				it.remove();
 		}
 	}
 }
@@ -0,0 +1,115 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+/**
+ * Classe do objeto que suaviza um sinal por uma média móvel exponencial:
+ * <code>s[n] = s[n-1] + α·(x[n] - s[n-1])</code>, com <code>s[0] = x[0]</code>.
+ * Equivale a um filtro passa-baixa de primeira ordem e requer apenas um valor de
+ * estado.<br>
+ *
+ * Um mesmo objeto não deve ser usado por mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ * @see MovingAverage
+ */
+public class ExponentialSmoothing {
+
+	private final double alpha;
+
+	private double s;
+
+	private boolean started;
+
+	/**
+	 * Construtor do filtro
+	 *
+	 * @param alpha fator de suavização, entre 0 (exclusive) e 1 (quanto menor,
+	 *              mais suave)
+	 */
+	public ExponentialSmoothing(double alpha) {
+		if (!(alpha > 0. && alpha <= 1.))
+			throw new IllegalArgumentException("O fator de suavização deve estar em (0, 1]");
+		this.alpha = alpha;
+	}
+
+	/**
+	 * Função que cria um filtro a partir de sua constante de tempo
+	 *
+	 * @param tau constante de tempo
+	 * @param dt  espaço de tempo entre duas amostras
+	 * @return filtro equivalente ao de primeira ordem com a constante de tempo dada
+	 */
+	public static ExponentialSmoothing ofTimeConstant(double tau, double dt) {
+		return new ExponentialSmoothing(1. - Math.exp(-dt / tau));
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	public double getAlpha() {
+		return alpha;
+	}
+
+	/**
+	 * Função que retorna o valor suavizado atual
+	 *
+	 * @return valor suavizado, ou <code>NaN</code> se nenhuma amostra foi
+	 *         fornecida
+	 */
+	public double getValue() {
+		return started ? s : Double.NaN;
+	}
+
+	/**
+	 * Função que descarta todas as amostras já fornecidas
+	 */
+	public void reset() {
+		started = false;
+		s = 0.;
+	}
+
+	// ------------------------------ FILTRAGEM ------------------------------
+
+	/**
+	 * Função que fornece uma nova amostra
+	 *
+	 * @param x amostra
+	 * @return valor suavizado atual
+	 */
+	public double push(double x) {
+		if (started)
+			s += alpha * (x - s);
+		else {
+			s = x;
+			started = true;
+		}
+		return s;
+	}
+
+	/**
+	 * Função que filtra um trecho de um bloco de amostras
+	 *
+	 * @param in        amostras de entrada
+	 * @param inOffset  posição da primeira amostra de entrada
+	 * @param out       vetor a ser preenchido com o valor suavizado após cada
+	 *                  amostra (pode ser o próprio vetor de entrada)
+	 * @param outOffset posição da primeira amostra de saída
+	 * @param n         número de amostras
+	 */
+	public void process(double[] in, int inOffset, double[] out, int outOffset, int n) {
+		for (int i = 0; i < n; i++)
+			out[outOffset + i] = push(in[inOffset + i]);
+	}
+
+	/**
+	 * Função que suaviza um sinal inteiro
+	 *
+	 * @param y     amostras do sinal
+	 * @param alpha fator de suavização, entre 0 (exclusive) e 1
+	 * @return vetor com o valor suavizado após cada amostra
+	 */
+	public static double[] filter(double[] y, double alpha) {
+		double[] out = new double[y.length];
+		new ExponentialSmoothing(alpha).process(y, 0, out, 0, y.length);
+		return out;
+	}
+}
@@ -0,0 +1,359 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import br.com.pereiraeng.core.ExtendedMath;
+
+/**
+ * Classe do objeto que representa um plano de cálculo da transformada rápida
+ * de Fourier (FFT) para um dado tamanho de sinal. Tamanhos que são potência de
+ * dois usam o algoritmo de Cooley-Tukey (radix-2), os demais usam o algoritmo
+ * de Bluestein sobre uma FFT radix-2 de tamanho maior.<br>
+ *
+ * Os vetores são transformados no próprio lugar, com partes real e imaginária
+ * separadas. A transformada direta não é normalizada (ao contrário de
+ * {@link FourierSerie#dft(double[], double)}, que divide pelo número de
+ * amostras) e a inversa divide pelo número de amostras.<br>
+ *
+ * Os planos são imutáveis e podem ser compartilhados entre threads (ver
+ * {@link #get(int)}).
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class FFT {
+
+	/**
+	 * número máximo de planos compartilhados guardados
+	 */
+	private static final int MAX_PLANS = 32;
+
+	private static final Map<Integer, FFT> PLANS = new ConcurrentHashMap<>();
+
+	/**
+	 * tamanho do sinal
+	 */
+	private final int n;
+
+	// ---- radix-2 ----
+
+	/**
+	 * tabela de cossenos e senos de 2&pi;k/n, k = 0, ..., n/2 - 1
+	 */
+	private final double[] cos, sin;
+
+	/**
+	 * tabela de permutação por inversão de bits
+	 */
+	private final int[] rev;
+
+	// ---- Bluestein ----
+
+	/**
+	 * plano radix-2 usado na convolução
+	 */
+	private final FFT conv;
+
+	/**
+	 * chirp e<sup>-i&pi;k²/n</sup>
+	 */
+	private final double[] wRe, wIm;
+
+	/**
+	 * transformada do conjugado do chirp, já estendido de forma circular
+	 */
+	private final double[] bRe, bIm;
+
+	/**
+	 * Construtor do plano
+	 *
+	 * @param n tamanho do sinal a ser transformado
+	 */
+	public FFT(int n) {
+		if (n < 1)
+			throw new IllegalArgumentException("Tamanho de FFT inválido: " + n);
+		this.n = n;
+
+		if (isPowerOf2(n)) {
+			int h = n / 2;
+			this.cos = new double[h];
+			this.sin = new double[h];
+			for (int k = 0; k < h; k++) {
+				double a = ExtendedMath.TWO_PI * k / n;
+				this.cos[k] = Math.cos(a);
+				this.sin[k] = Math.sin(a);
+			}
+
+			this.rev = new int[n];
+			int bits = Integer.numberOfTrailingZeros(n);
+			for (int i = 0; i < n; i++)
+				this.rev[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+
+			this.conv = null;
+			this.wRe = this.wIm = this.bRe = this.bIm = null;
+		} else {
+			this.cos = this.sin = null;
+			this.rev = null;
+
+			int m = nextPowerOf2(2 * n - 1);
+			this.conv = get(m);
+
+			this.wRe = new double[n];
+			this.wIm = new double[n];
+			long n2 = 2L * n;
+			for (int k = 0; k < n; k++) {
+				// k² mod 2n para não perder precisão no argumento
+				double a = Math.PI * (((long) k * k) % n2) / n;
+				this.wRe[k] = Math.cos(a);
+				this.wIm[k] = -Math.sin(a);
+			}
+
+			this.bRe = new double[m];
+			this.bIm = new double[m];
+			this.bRe[0] = this.wRe[0];
+			this.bIm[0] = -this.wIm[0];
+			for (int k = 1; k < n; k++) {
+				this.bRe[k] = this.bRe[m - k] = this.wRe[k];
+				this.bIm[k] = this.bIm[m - k] = -this.wIm[k];
+			}
+			this.conv.transform(this.bRe, this.bIm, 0);
+		}
+	}
+
+	/**
+	 * Função que retorna um plano compartilhado para um dado tamanho de sinal,
+	 * criando-o na primeira vez em que for solicitado. São guardados no máximo
+	 * {@value #MAX_PLANS} planos: quando esse número é atingido, os planos
+	 * guardados são descartados (os que ainda estiverem em uso continuam
+	 * válidos), de modo que sinais de muitos tamanhos diferentes não acumulam
+	 * tabelas indefinidamente
+	 *
+	 * @param n tamanho do sinal a ser transformado
+	 * @return plano de cálculo da FFT
+	 */
+	public static FFT get(int n) {
+		FFT out = PLANS.get(n);
+		if (out == null) {
+			out = new FFT(n);
+			if (PLANS.size() >= MAX_PLANS)
+				PLANS.clear();
+			FFT other = PLANS.putIfAbsent(n, out);
+			if (other != null)
+				out = other;
+		}
+		return out;
+	}
+
+	/**
+	 * Função que retorna o tamanho do sinal transformado por este plano
+	 *
+	 * @return tamanho do sinal
+	 */
+	public int size() {
+		return n;
+	}
+
+	// ------------------------------ DIRETA ------------------------------
+
+	/**
+	 * Função que calcula a transformada direta (e<sup>-i2&pi;kj/n</sup>, sem
+	 * normalização) no próprio lugar
+	 *
+	 * @param re partes reais do sinal (serão substituídas pelas do espectro)
+	 * @param im partes imaginárias do sinal (serão substituídas pelas do espectro)
+	 */
+	public void transform(double[] re, double[] im) {
+		transform(re, im, 0);
+	}
+
+	/**
+	 * Função que calcula a transformada direta (e<sup>-i2&pi;kj/n</sup>, sem
+	 * normalização) no próprio lugar, sobre um trecho de tamanho {@link #size()}
+	 * dos vetores dados
+	 *
+	 * @param re     partes reais do sinal (serão substituídas pelas do espectro)
+	 * @param im     partes imaginárias do sinal (serão substituídas pelas do
+	 *               espectro)
+	 * @param offset posição da primeira amostra do trecho
+	 */
+	public void transform(double[] re, double[] im, int offset) {
+		if (conv == null)
+			radix2(re, im, offset);
+		else
+			bluestein(re, im, offset);
+	}
+
+	// ------------------------------ INVERSA ------------------------------
+
+	/**
+	 * Função que calcula a transformada inversa (e<sup>+i2&pi;kj/n</sup>, dividida
+	 * por n) no próprio lugar
+	 *
+	 * @param re partes reais do espectro (serão substituídas pelas do sinal)
+	 * @param im partes imaginárias do espectro (serão substituídas pelas do sinal)
+	 */
+	public void inverse(double[] re, double[] im) {
+		inverse(re, im, 0);
+	}
+
+	/**
+	 * Função que calcula a transformada inversa (e<sup>+i2&pi;kj/n</sup>, dividida
+	 * por n) no próprio lugar, sobre um trecho de tamanho {@link #size()} dos
+	 * vetores dados
+	 *
+	 * @param re     partes reais do espectro (serão substituídas pelas do sinal)
+	 * @param im     partes imaginárias do espectro (serão substituídas pelas do
+	 *               sinal)
+	 * @param offset posição da primeira amostra do trecho
+	 */
+	public void inverse(double[] re, double[] im, int offset) {
+		Kernels.scale(im, offset, n, -1.);
+		transform(re, im, offset);
+		double f = 1. / n;
+		Kernels.scale(re, offset, n, f);
+		Kernels.scale(im, offset, n, -f);
+	}
+
+	// ------------------------------ ALGORITMOS ------------------------------
+
+	private void radix2(double[] re, double[] im, int offset) {
+		// permutação
+		for (int i = 0; i < n; i++) {
+			int j = rev[i];
+			if (j > i) {
+				double t = re[offset + i];
+				re[offset + i] = re[offset + j];
+				re[offset + j] = t;
+				t = im[offset + i];
+				im[offset + i] = im[offset + j];
+				im[offset + j] = t;
+			}
+		}
+
+		// borboletas
+		for (int len = 2; len <= n; len <<= 1) {
+			int half = len >> 1;
+			int step = n / len;
+			for (int i = offset, end = offset + n; i < end; i += len) {
+				for (int j = 0, k = 0; j < half; j++, k += step) {
+					double wr = cos[k], wi = -sin[k];
+					int a = i + j, b = a + half;
+					double xr = re[b] * wr - im[b] * wi;
+					double xi = re[b] * wi + im[b] * wr;
+					re[b] = re[a] - xr;
+					im[b] = im[a] - xi;
+					re[a] += xr;
+					im[a] += xi;
+				}
+			}
+		}
+	}
+
+	private void bluestein(double[] re, double[] im, int offset) {
+		int m = conv.n;
+		double[] aRe = new double[m], aIm = new double[m];
+		for (int k = 0; k < n; k++) {
+			double xr = re[offset + k], xi = im[offset + k];
+			aRe[k] = xr * wRe[k] - xi * wIm[k];
+			aIm[k] = xr * wIm[k] + xi * wRe[k];
+		}
+
+		conv.transform(aRe, aIm, 0);
+		for (int k = 0; k < m; k++) {
+			double r = aRe[k] * bRe[k] - aIm[k] * bIm[k];
+			aIm[k] = aRe[k] * bIm[k] + aIm[k] * bRe[k];
+			aRe[k] = r;
+		}
+		conv.inverse(aRe, aIm, 0);
+
+		for (int k = 0; k < n; k++) {
+			re[offset + k] = aRe[k] * wRe[k] - aIm[k] * wIm[k];
+			im[offset + k] = aRe[k] * wIm[k] + aIm[k] * wRe[k];
+		}
+	}
+
+	// ------------------------------ LOTES ------------------------------
+
+	/**
+	 * Função que calcula a transformada direta de vários sinais de mesmo tamanho em
+	 * paralelo
+	 *
+	 * @param re   partes reais de cada sinal (serão substituídas pelas dos
+	 *             espectros)
+	 * @param im   partes imaginárias de cada sinal (serão substituídas pelas dos
+	 *             espectros)
+	 * @param norm fator pelo qual cada componente do espectro será multiplicado
+	 * @param pool pool de threads onde as transformadas serão executadas
+	 */
+	public static void transform(double[][] re, double[][] im, double norm, ForkJoinPool pool) {
+		if (re.length == 0)
+			return;
+		pool.invoke(new Batch(get(re[0].length), re, im, norm, 0, re.length));
+	}
+
+	private static class Batch extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final FFT plan;
+
+		private final double[][] re, im;
+
+		private final double norm;
+
+		private final int from, to;
+
+		private Batch(FFT plan, double[][] re, double[][] im, double norm, int from, int to) {
+			this.plan = plan;
+			this.re = re;
+			this.im = im;
+			this.norm = norm;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Batch(plan, re, im, norm, from, mid), new Batch(plan, re, im, norm, mid, to));
+			} else {
+				for (int c = from; c < to; c++) {
+					plan.transform(re[c], im[c], 0);
+					if (norm != 1.) {
+						double[] r = re[c], i = im[c];
+						for (int k = 0; k < r.length; k++) {
+							r[k] *= norm;
+							i[k] *= norm;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	// ------------------------------ AUXILIARES ------------------------------
+
+	/**
+	 * Função que indica se um número é potência de dois
+	 *
+	 * @param n número inteiro positivo
+	 * @return <code>true</code> se for potência de dois, <code>false</code> senão
+	 */
+	public static boolean isPowerOf2(int n) {
+		return n > 0 && (n & (n - 1)) == 0;
+	}
+
+	/**
+	 * Função que retorna a menor potência de dois maior ou igual a um número
+	 *
+	 * @param n número inteiro positivo
+	 * @return potência de dois
+	 */
+	public static int nextPowerOf2(int n) {
+		return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+}
@@ -0,0 +1,334 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import br.com.pereiraeng.math.advanced.dsp.Windowing.WindowType;
+
+/**
+ * Classe do objeto que representa um filtro digital de resposta ao impulso
+ * finita (FIR), que filtra sinais de tamanho ilimitado em blocos sucessivos,
+ * guardando o estado entre as chamadas.<br>
+ *
+ * Filtros curtos (até {@link #DIRECT_MAX_TAPS} coeficientes) são aplicados pela
+ * convolução direta; filtros maiores pela convolução rápida por
+ * <i>overlap-save</i>, com uma {@link FFT} de tamanho fixo.<br>
+ *
+ * As funções estáticas projetam os coeficientes de filtros passa-baixa,
+ * passa-alta e passa-faixa pelo método da janela (sinc janelado). Um mesmo
+ * objeto não deve ser usado por mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class FIRFilter {
+
+	/**
+	 * maior número de coeficientes para o qual se usa a convolução direta
+	 */
+	public static final int DIRECT_MAX_TAPS = 64;
+
+	/**
+	 * coeficientes do filtro
+	 */
+	private final double[] h;
+
+	// ---- convolução direta ----
+
+	/**
+	 * coeficientes em ordem reversa
+	 */
+	private final double[] hr;
+
+	/**
+	 * últimas amostras de entrada, duplicadas para que a janela seja contígua
+	 */
+	private final double[] hist;
+
+	private int pos;
+
+	// ---- overlap-save ----
+
+	private final FFT fft;
+
+	/**
+	 * espectro dos coeficientes
+	 */
+	private final double[] hRe, hIm;
+
+	/**
+	 * área de trabalho da FFT
+	 */
+	private final double[] bufRe, bufIm;
+
+	/**
+	 * Construtor do filtro, que escolhe o método de convolução conforme o número
+	 * de coeficientes
+	 *
+	 * @param h coeficientes do filtro (resposta ao impulso)
+	 */
+	public FIRFilter(double[] h) {
+		this(h, h.length > DIRECT_MAX_TAPS);
+	}
+
+	/**
+	 * Construtor do filtro
+	 *
+	 * @param h    coeficientes do filtro (resposta ao impulso)
+	 * @param fast <code>true</code> para a convolução rápida (overlap-save),
+	 *             <code>false</code> para a convolução direta
+	 */
+	public FIRFilter(double[] h, boolean fast) {
+		int t = h.length;
+		this.h = h.clone();
+
+		if (fast) {
+			int n = FFT.nextPowerOf2(Math.max(4 * t, 256));
+			this.fft = FFT.get(n);
+			this.hRe = new double[n];
+			this.hIm = new double[n];
+			System.arraycopy(h, 0, this.hRe, 0, t);
+			this.fft.transform(this.hRe, this.hIm);
+			this.bufRe = new double[n];
+			this.bufIm = new double[n];
+
+			this.hr = null;
+			this.hist = new double[t - 1];
+		} else {
+			this.fft = null;
+			this.hRe = this.hIm = this.bufRe = this.bufIm = null;
+
+			this.hr = new double[t];
+			for (int k = 0; k < t; k++)
+				this.hr[k] = h[t - 1 - k];
+			this.hist = new double[2 * t];
+		}
+	}
+
+	/**
+	 * Função que retorna os coeficientes do filtro
+	 *
+	 * @return coeficientes (resposta ao impulso)
+	 */
+	public double[] getTaps() {
+		return h.clone();
+	}
+
+	/**
+	 * Função que zera o estado do filtro
+	 */
+	public void reset() {
+		for (int i = 0; i < hist.length; i++)
+			hist[i] = 0.;
+		pos = 0;
+	}
+
+	// ------------------------------ FILTRAGEM ------------------------------
+
+	/**
+	 * Função que filtra um bloco de amostras
+	 *
+	 * @param in  amostras de entrada
+	 * @param out vetor a ser preenchido com as amostras de saída (pode ser o
+	 *            próprio vetor de entrada)
+	 */
+	public void process(double[] in, double[] out) {
+		process(in, 0, out, 0, in.length);
+	}
+
+	/**
+	 * Função que filtra um trecho de um bloco de amostras. A saída não tem
+	 * atraso além daquele do próprio filtro: cada amostra de saída corresponde à
+	 * amostra de entrada de mesma posição
+	 *
+	 * @param in        amostras de entrada
+	 * @param inOffset  posição da primeira amostra de entrada
+	 * @param out       vetor a ser preenchido com as amostras de saída (pode ser o
+	 *                  próprio vetor de entrada)
+	 * @param outOffset posição da primeira amostra de saída
+	 * @param n         número de amostras
+	 */
+	public void process(double[] in, int inOffset, double[] out, int outOffset, int n) {
+		if (fft == null)
+			direct(in, inOffset, out, outOffset, n);
+		else
+			overlapSave(in, inOffset, out, outOffset, n);
+	}
+
+	private void direct(double[] in, int inOffset, double[] out, int outOffset, int n) {
+		int t = hr.length;
+		for (int i = 0; i < n; i++) {
+			double x = in[inOffset + i];
+			hist[pos] = x;
+			hist[pos + t] = x;
+
+			// hist[pos + 1 .. pos + t] contém as t últimas amostras, da mais antiga
+			// para a mais recente
+			out[outOffset + i] = Kernels.dot(hr, 0, hist, pos + 1, t);
+
+			if (++pos == t)
+				pos = 0;
+		}
+	}
+
+	private void overlapSave(double[] in, int inOffset, double[] out, int outOffset, int n) {
+		int m = hist.length; // t - 1
+		int size = fft.size();
+		int block = size - m; // amostras novas por bloco
+
+		while (n > 0) {
+			int len = Math.min(block, n);
+
+			// [m amostras anteriores | len amostras novas | zeros]
+			System.arraycopy(hist, 0, bufRe, 0, m);
+			System.arraycopy(in, inOffset, bufRe, m, len);
+			for (int i = m + len; i < size; i++)
+				bufRe[i] = 0.;
+			for (int i = 0; i < size; i++)
+				bufIm[i] = 0.;
+
+			// guarda as m últimas amostras para o próximo bloco
+			System.arraycopy(bufRe, len, hist, 0, m);
+
+			fft.transform(bufRe, bufIm);
+			Kernels.multiplyComplex(bufRe, bufIm, hRe, hIm, size);
+			fft.inverse(bufRe, bufIm);
+
+			// as m primeiras saídas estão contaminadas pela convolução circular
+			System.arraycopy(bufRe, m, out, outOffset, len);
+
+			inOffset += len;
+			outOffset += len;
+			n -= len;
+		}
+	}
+
+	// ------------------------------ PROJETO ------------------------------
+
+	/**
+	 * Função que projeta um filtro passa-baixa pelo método da janela, com ganho
+	 * unitário em frequência zero
+	 *
+	 * @param taps número de coeficientes (ímpar, para que o atraso seja inteiro)
+	 * @param wc   frequência de corte, em rad/u.t.
+	 * @param dt   espaço de tempo entre duas amostras
+	 * @param type janela aplicada sobre a função sinc
+	 * @return coeficientes do filtro
+	 */
+	public static double[] lowPass(int taps, double wc, double dt, WindowType type) {
+		return lowPass(taps, wc, dt, new Windowing(type));
+	}
+
+	/**
+	 * Função que projeta um filtro passa-baixa pelo método da janela, com ganho
+	 * unitário em frequência zero
+	 *
+	 * @param taps   número de coeficientes (ímpar, para que o atraso seja inteiro)
+	 * @param wc     frequência de corte, em rad/u.t.
+	 * @param dt     espaço de tempo entre duas amostras
+	 * @param window janela aplicada sobre a função sinc (por exemplo, uma janela
+	 *               de Kaiser com o β desejado)
+	 * @return coeficientes do filtro
+	 */
+	public static double[] lowPass(int taps, double wc, double dt, Windowing window) {
+		double[] h = sinc(taps, wc * dt);
+		window.applyInPlace(h);
+
+		double sum = 0.;
+		for (double c : h)
+			sum += c;
+		for (int k = 0; k < taps; k++)
+			h[k] /= sum;
+		return h;
+	}
+
+	/**
+	 * Função que projeta um filtro passa-alta pelo método da janela (inversão
+	 * espectral do passa-baixa)
+	 *
+	 * @param taps número de coeficientes (ímpar)
+	 * @param wc   frequência de corte, em rad/u.t.
+	 * @param dt   espaço de tempo entre duas amostras
+	 * @param type janela aplicada sobre a função sinc
+	 * @return coeficientes do filtro
+	 */
+	public static double[] highPass(int taps, double wc, double dt, WindowType type) {
+		return highPass(taps, wc, dt, new Windowing(type));
+	}
+
+	/**
+	 * Função que projeta um filtro passa-alta pelo método da janela (inversão
+	 * espectral do passa-baixa)
+	 *
+	 * @param taps   número de coeficientes (ímpar)
+	 * @param wc     frequência de corte, em rad/u.t.
+	 * @param dt     espaço de tempo entre duas amostras
+	 * @param window janela aplicada sobre a função sinc
+	 * @return coeficientes do filtro
+	 */
+	public static double[] highPass(int taps, double wc, double dt, Windowing window) {
+		if (taps % 2 == 0)
+			throw new IllegalArgumentException("O filtro passa-alta deve ter um número ímpar de coeficientes");
+		double[] h = lowPass(taps, wc, dt, window);
+		for (int k = 0; k < taps; k++)
+			h[k] = -h[k];
+		h[taps / 2] += 1.;
+		return h;
+	}
+
+	/**
+	 * Função que projeta um filtro passa-faixa pelo método da janela (diferença
+	 * entre dois passa-baixas), com ganho unitário na frequência central
+	 *
+	 * @param taps número de coeficientes (ímpar)
+	 * @param w1   frequência de corte inferior, em rad/u.t.
+	 * @param w2   frequência de corte superior, em rad/u.t.
+	 * @param dt   espaço de tempo entre duas amostras
+	 * @param type janela aplicada sobre a função sinc
+	 * @return coeficientes do filtro
+	 */
+	public static double[] bandPass(int taps, double w1, double w2, double dt, WindowType type) {
+		return bandPass(taps, w1, w2, dt, new Windowing(type));
+	}
+
+	/**
+	 * Função que projeta um filtro passa-faixa pelo método da janela (diferença
+	 * entre dois passa-baixas), com ganho unitário na frequência central
+	 *
+	 * @param taps   número de coeficientes (ímpar)
+	 * @param w1     frequência de corte inferior, em rad/u.t.
+	 * @param w2     frequência de corte superior, em rad/u.t.
+	 * @param dt     espaço de tempo entre duas amostras
+	 * @param window janela aplicada sobre a função sinc
+	 * @return coeficientes do filtro
+	 */
+	public static double[] bandPass(int taps, double w1, double w2, double dt, Windowing window) {
+		double[] h1 = sinc(taps, w1 * dt), h2 = sinc(taps, w2 * dt);
+		for (int k = 0; k < taps; k++)
+			h2[k] -= h1[k];
+		window.applyInPlace(h2);
+
+		// ganho na frequência central (os coeficientes são simétricos)
+		double w0 = (w1 + w2) * dt / 2., c = (taps - 1) / 2., gain = 0.;
+		for (int k = 0; k < taps; k++)
+			gain += h2[k] * Math.cos(w0 * (k - c));
+		for (int k = 0; k < taps; k++)
+			h2[k] /= gain;
+		return h2;
+	}
+
+	/**
+	 * Função que calcula a resposta ao impulso de um passa-baixa ideal, centrada
+	 * no meio do vetor
+	 *
+	 * @param taps número de coeficientes
+	 * @param wn   frequência de corte normalizada, em rad/amostra
+	 * @return coeficientes
+	 */
+	private static double[] sinc(int taps, double wn) {
+		double[] h = new double[taps];
+		double c = (taps - 1) / 2.;
+		for (int k = 0; k < taps; k++) {
+			double x = k - c;
+			h[k] = x == 0. ? wn / Math.PI : Math.sin(wn * x) / (Math.PI * x);
+		}
+		return h;
+	}
+}
@@ -1,9 +1,11 @@
 package br.com.pereiraeng.math.advanced.dsp;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import br.com.pereiraeng.core.ExtendedMath;
 import br.com.pereiraeng.math.Complex;
-import br.com.pereiraeng.math.ExtendedMathComplex;
-import br.com.pereiraeng.math.Vec;
 
 /**
  * Classe que representa um filtro linear
@@ -15,6 +17,11 @@ public class Filter {
 
 	private static final double A_DEF = 2463.4769331170933454375253832454;
 
+	/**
+	 * número máximo de respostas em frequência guardadas por filtro
+	 */
+	private static final int MAX_RESPONSES = 32;
+
 	private FilterType type;
 
 	public enum FilterType {
@@ -23,7 +30,27 @@ public class Filter {
 
 	private Object[] params;
 
+	/**
+	 * protótipo analógico (zeros, pólos e ganho), calculado sob demanda
+	 */
+	private double[][] prototype;
+
+	/**
+	 * respostas em frequência já calculadas, para cada par (w, N)
+	 */
+	private final Map<ResponseKey, ComplexArray> responses = new ConcurrentHashMap<>();
+
+	/**
+	 * Construtor do filtro
+	 * 
+	 * @param type   tipo do filtro
+	 * @param params ordem do filtro e frequência de corte, em rad/u.t.
+	 * @throws IllegalArgumentException se o tipo de filtro ainda não foi
+	 *                                  implementado ({@link FilterType#ELLIPTIC})
+	 */
 	public Filter(FilterType type, Object... params) {
+		if (type == FilterType.ELLIPTIC)
+			throw new IllegalArgumentException("Filtro " + type + " não implementado");
 		this.type = type;
 		this.params = params;
 	}
@@ -52,133 +79,387 @@ public class Filter {
 	}
 
 	public Complex[] get(double w, int nc) {
-		Complex[] out = new Complex[nc];
+		ComplexArray out = new ComplexArray(nc);
+		get(w, out);
+		return out.toComplex();
+	}
 
-		int n = (int) params[0];
-		double wc = (double) params[1];
+	/**
+	 * Função que calcula a resposta em frequência do filtro, normalizada (norma
+	 * euclidiana unitária), para as frequências múltiplas de uma fundamental, sem
+	 * criar objetos intermediários
+	 * 
+	 * @param w   frequência fundamental (menor frequência/distância entre duas
+	 *            componentes)
+	 * @param out vetor a ser preenchido com a resposta em cada componente (o
+	 *            número de componentes é o tamanho deste vetor)
+	 */
+	public void get(double w, ComplexArray out) {
+		get(w, out.getRe(), out.getIm());
+	}
 
-		switch (type) {
-		case BUTTERWORTH:
+	/**
+	 * Função que calcula a resposta em frequência do filtro, normalizada (norma
+	 * euclidiana unitária), para as frequências múltiplas de uma fundamental, sem
+	 * criar objetos intermediários
+	 * 
+	 * @param w  frequência fundamental (menor frequência/distância entre duas
+	 *           componentes)
+	 * @param re vetor a ser preenchido com as partes reais da resposta (o número
+	 *           de componentes é o tamanho deste vetor)
+	 * @param im vetor a ser preenchido com as partes imaginárias da resposta
+	 */
+	public void get(double w, double[] re, double[] im) {
+		response(w, re, im);
+
+		// normatiza
+		double norm = 0.;
+		for (int i = 0; i < re.length; i++)
+			norm += re[i] * re[i] + im[i] * im[i];
+		if (norm > 0.) {
+			norm = 1. / Math.sqrt(norm);
+			for (int i = 0; i < re.length; i++) {
+				re[i] *= norm;
+				im[i] *= norm;
+			}
+		}
+	}
 
-			Complex[] sk = new Complex[n];
+	/**
+	 * Função que calcula a resposta em frequência H(iwk) do filtro, sem
+	 * normalização, para as frequências múltiplas de uma fundamental
+	 * 
+	 * @param w  frequência fundamental, em rad/u.t.
+	 * @param re vetor a ser preenchido com as partes reais da resposta (o número
+	 *           de componentes é o tamanho deste vetor)
+	 * @param im vetor a ser preenchido com as partes imaginárias da resposta
+	 */
+	public void response(double w, double[] re, double[] im) {
+		double[][] zpk = getPrototype();
+
+		double[] zr = zpk[0], zi = zpk[1], pr = zpk[2], pi = zpk[3];
+		double kr = zpk[4][0], ki = zpk[4][1];
+
+		for (int i = 0; i < re.length; i++) {
+			double s = w * i; // s = i·w·k, puramente imaginário
+
+			// numerador: k·prod(s - z)
+			double nr = kr, ni = ki;
+			for (int j = 0; j < zr.length; j++) {
+				double ar = -zr[j], ai = s - zi[j];
+				double t = nr * ar - ni * ai;
+				ni = nr * ai + ni * ar;
+				nr = t;
+			}
 
-			for (int k = 1; k <= sk.length; k++)
-				sk[k - 1] = new Complex(wc, (2 * k + n - 1) * Math.PI / (2 * n), false);
+			// denominador: prod(s - p)
+			double dr = 1., di = 0.;
+			for (int j = 0; j < pr.length; j++) {
+				double ar = -pr[j], ai = s - pi[j];
+				double t = dr * ar - di * ai;
+				di = dr * ai + di * ar;
+				dr = t;
+			}
 
-			for (int i = 0; i < nc; i++) {
-				Complex s = new Complex(0, w * i);
+			double d2 = dr * dr + di * di;
+			re[i] = (nr * dr + ni * di) / d2;
+			im[i] = (ni * dr - nr * di) / d2;
+		}
+	}
 
-				Complex hs = new Complex(1, 0);
-				for (int k = 0; k < n; k++)
-					hs.mult(Complex.mult(1 / wc, Complex.sub(s, sk[k])));
-				hs = Complex.inv(hs);
+	/**
+	 * Função que retorna o protótipo analógico do filtro na forma de zeros, pólos
+	 * e ganho, H(s) = k·prod(s - z)/prod(s - p). O protótipo é calculado uma única
+	 * vez por filtro
+	 * 
+	 * @return matriz cujas linhas são: partes reais dos zeros, partes imaginárias
+	 *         dos zeros, partes reais dos pólos, partes imaginárias dos pólos e
+	 *         ganho (real e imaginário)
+	 */
+	double[][] getPrototype() {
+		double[][] out = prototype;
+		if (out == null)
+			prototype = out = prototype();
+		return out;
+	}
 
-				out[i] = hs;
+	private double[][] prototype() {
+		int n = (int) params[0];
+		double wc = (double) params[1];
+
+		double[] zr = new double[0], zi = new double[0];
+		double[] pr = new double[n], pi = new double[n];
+		double kr = 1., ki = 0.;
+
+		switch (type) {
+		case BUTTERWORTH:
+			// 1/prod((s - sk)/wc)
+			for (int k = 1; k <= n; k++) {
+				double a = (2 * k + n - 1) * Math.PI / (2 * n);
+				pr[k - 1] = wc * Math.cos(a);
+				pi[k - 1] = wc * Math.sin(a);
 			}
+			kr = Math.pow(wc, n);
 			break;
 		case CHEBYSHEV_1:
+			// 1/(eps·2^(n-1)·prod(s/wc - spm))
 			double eps = 0.5;
-
-			Complex[] spm = new Complex[n];
-
+			double arg = ExtendedMath.asinh(1 / eps) / n;
 			for (int m = 1; m <= n; m++) {
 				double tm = (2 * m - 1) * Math.PI / 2 / n;
-				double arg = ExtendedMath.asinh(1 / eps) / n;
-				spm[m - 1] = new Complex(-Math.sinh(arg) * Math.sin(tm), Math.cosh(arg) * Math.cos(tm));
-			}
-
-			for (int i = 0; i < nc; i++) {
-				Complex s = new Complex(0, w * i);
-
-				Complex hs = new Complex(1, 0);
-				for (int m = 0; m < n; m++)
-					hs.mult(Complex.sub(Complex.mult(1 / wc, s), spm[m]));
-				hs = Complex.mult(1. / (eps * Math.pow(2, n - 1)), Complex.inv(hs));
-
-				out[i] = hs;
+				pr[m - 1] = -wc * Math.sinh(arg) * Math.sin(tm);
+				pi[m - 1] = wc * Math.cosh(arg) * Math.cos(tm);
 			}
+			kr = Math.pow(wc, n) / (eps * Math.pow(2, n - 1));
 			break;
 		case CHEBYSHEV_2:
+			// H0·prod(s - zk)/prod(s - pk)
 			double A = Math.sqrt(2);
-
-			Complex[] zk = new Complex[n];
-			Complex[] pk = new Complex[n];
-
 			double gamma = Math.pow(A + Math.sqrt(A * A - 1), 1. / n);
 
-			for (int k = 1; k <= n; k++) {
-				double arg = Math.PI * (2 * k - 1) / 2. / n;
+			// para n ímpar, o zero do meio (cos = 0) está no infinito
+			int nz = n - (n % 2 == 0 ? 0 : 1);
+			zr = new double[nz];
+			zi = new double[nz];
 
-				zk[k - 1] = new Complex(0, wc / Math.cos(arg));
+			for (int k = 1, j = 0; k <= n; k++) {
+				double a = Math.PI * (2 * k - 1) / 2. / n;
 
-				double alpha = -(gamma - 1 / gamma) * Math.sin(arg) / 2.;
-				double betha = (gamma + 1 / gamma) * Math.cos(arg) / 2.;
+				if (n % 2 == 0 || 2 * k - 1 != n)
+					zi[j++] = wc / Math.cos(a);
+
+				double alpha = -(gamma - 1 / gamma) * Math.sin(a) / 2.;
+				double betha = (gamma + 1 / gamma) * Math.cos(a) / 2.;
 
 				double a2b2 = Math.hypot(alpha, betha);
-				pk[k - 1] = new Complex(wc * alpha / a2b2, -wc * betha / a2b2);
+				pr[k - 1] = wc * alpha / a2b2;
+				pi[k - 1] = -wc * betha / a2b2;
 			}
 
-			Complex H0 = new Complex(1, 0);
-			for (int k = 1; k <= n; k++)
-				H0.mult(Complex.mult(-1., pk[k - 1]));
-			for (int k = 1; k <= n - (n % 2 == 0 ? 0 : 1); k++)
-				H0.div(Complex.mult(-1., zk[k - 1]));
-
-			for (int i = 0; i < nc; i++) {
-				Complex s = new Complex(0, w * i);
-
-				Complex hs = new Complex(H0);
-
-				for (int k = 1; k <= n - (n % 2 == 0 ? 0 : 1); k++)
-					hs.mult(Complex.sub(s, zk[k - 1]));
-				for (int k = 1; k <= n; k++)
-					hs.div(Complex.sub(s, pk[k - 1]));
-
-				out[i] = hs;
+			// H0 = prod(-pk)/prod(-zk)
+			for (int k = 0; k < n; k++) {
+				double t = kr * -pr[k] - ki * -pi[k];
+				ki = kr * -pi[k] + ki * -pr[k];
+				kr = t;
+			}
+			for (int k = 0; k < nz; k++) {
+				double d2 = zr[k] * zr[k] + zi[k] * zi[k];
+				double t = (kr * -zr[k] + ki * -zi[k]) / d2;
+				ki = (ki * -zr[k] - kr * -zi[k]) / d2;
+				kr = t;
 			}
 			break;
 		case BESSEL:
-
-			Complex tn0 = ExtendedMathComplex.revBesselPol(new Complex(), n);
-			double iw0 = 1 / wc;
-
-			for (int i = 0; i < nc; i++) {
-				Complex s = new Complex(0, w * i);
-
-				Complex hs = Complex.div(tn0, ExtendedMathComplex.revBesselPol(Complex.mult(iw0, s), n));
-
-				out[i] = hs;
+			// theta(0)/theta(s/wc), onde theta é o polinômio de Bessel reverso
+			double[] c = revBesselCoefs(n);
+			double[][] roots = roots(c);
+			for (int k = 0; k < n; k++) {
+				pr[k] = wc * roots[0][k];
+				pi[k] = wc * roots[1][k];
 			}
-
-			break;
-		case ELLIPTIC:
-			// TODO
-
+			kr = c[n] * Math.pow(wc, n);
 			break;
 		case SPECIAL:
 			// QUE MERDA É ESSE BUTTERWORTH COM SINAL TROCADO E PÓLO GIRADO?!
+			for (int k = 0; k < n; k++) {
+				double a = (2 * k + n - 1) * Math.PI / (2 * n);
+				pr[k] = wc * Math.cos(a);
+				pi[k] = wc * Math.sin(a);
+			}
+			kr = -Math.pow(wc, n);
+			break;
+		}
+
+		return new double[][] { zr, zi, pr, pi, { kr, ki } };
+	}
+
+	/**
+	 * Função que calcula os coeficientes do polinômio de Bessel reverso
+	 * 
+	 * @param n ordem do polinômio
+	 * @return coeficientes, da maior para a menor potência (o primeiro é sempre 1)
+	 */
+	private static double[] revBesselCoefs(int n) {
+		// a_k = (n+k)!/((n-k)!·k!·2^k), coeficiente de x^(n-k)
+		double[] out = new double[n + 1];
+		out[0] = 1.;
+		for (int k = 1; k <= n; k++)
+			out[k] = out[k - 1] * (n + k) * (n - k + 1) / (2. * k);
+		return out;
+	}
 
-			sk = new Complex[n];
+	/**
+	 * Função que calcula as raízes de um polinômio mônico pelo método de
+	 * Durand-Kerner
+	 * 
+	 * @param c coeficientes do polinômio, da maior para a menor potência (c[0] =
+	 *          1)
+	 * @return matriz com as partes reais e imaginárias das raízes
+	 */
+	private static double[][] roots(double[] c) {
+		int n = c.length - 1;
+		double[] xr = new double[n], xi = new double[n];
+
+		// chute inicial: pontos de um círculo de raio da ordem das raízes
+		double r = 1. + Math.pow(Math.abs(c[n]), 1. / n);
+		for (int k = 0; k < n; k++) {
+			double a = ExtendedMath.TWO_PI * k / n + .4;
+			xr[k] = r * Math.cos(a);
+			xi[k] = r * Math.sin(a);
+		}
 
-			for (int k = 0; k < sk.length; k++)
-				sk[k] = new Complex(wc, (2 * k + n - 1) * Math.PI / (2 * n), false);
+		for (int it = 0; it < 500; it++) {
+			double delta = 0.;
+			for (int k = 0; k < n; k++) {
+				// p(x_k) por Horner
+				double vr = 1., vi = 0.;
+				for (int j = 1; j <= n; j++) {
+					double t = vr * xr[k] - vi * xi[k] + c[j];
+					vi = vr * xi[k] + vi * xr[k];
+					vr = t;
+				}
+				// prod(x_k - x_j)
+				double dr = 1., di = 0.;
+				for (int j = 0; j < n; j++) {
+					if (j == k)
+						continue;
+					double ar = xr[k] - xr[j], ai = xi[k] - xi[j];
+					double t = dr * ar - di * ai;
+					di = dr * ai + di * ar;
+					dr = t;
+				}
+				double d2 = dr * dr + di * di;
+				double qr = (vr * dr + vi * di) / d2;
+				double qi = (vi * dr - vr * di) / d2;
+				xr[k] -= qr;
+				xi[k] -= qi;
+				delta = Math.max(delta, Math.hypot(qr, qi));
+			}
+			if (delta < 1E-14 * r)
+				break;
+		}
+		return new double[][] { xr, xi };
+	}
 
-			for (int i = 0; i < nc; i++) {
-				Complex s = new Complex(0, w * i);
+	// ------------------------------ DIGITAL ------------------------------
 
-				Complex hs = new Complex(1, 0);
-				for (int k = 0; k < n; k++)
-					hs.mult(Complex.mult(1 / wc, Complex.sub(s, sk[k])));
-				hs = Complex.mult(-1, Complex.inv(hs));
+	/**
+	 * Função que converte o filtro analógico num filtro digital IIR, na forma de
+	 * uma cascata de seções de segunda ordem, através da transformação bilinear
+	 * com pré-distorção (prewarping) da frequência de corte, de modo que a
+	 * frequência de corte do filtro digital seja exatamente a do analógico
+	 * 
+	 * @param dt espaço de tempo entre duas amostras (nas mesmas unidades de tempo
+	 *           da frequência de corte)
+	 * @return filtro digital
+	 */
+	public IIRFilter toIIR(double dt) {
+		double[][] zpk = getPrototype();
 
-				out[i] = hs;
+		double wc = (double) params[1];
+		int nz = zpk[0].length, np = zpk[2].length;
+
+		// pré-distorção: H(s·wc/wd), wd = (2/dt)·tan(wc·dt/2)
+		double fs2 = 2. / dt;
+		double r = fs2 * Math.tan(wc * dt / 2.) / wc;
+
+		// transformação bilinear: z = (fs2 + s)/(fs2 - s)
+		double[] zr = new double[np], zi = new double[np];
+		double[] pr = new double[np], pi = new double[np];
+
+		double kr = zpk[4][0] * Math.pow(r, np - nz), ki = zpk[4][1] * Math.pow(r, np - nz);
+		for (int j = 0; j < nz; j++) {
+			double sr = zpk[0][j] * r, si = zpk[1][j] * r;
+			bilinear(fs2, sr, si, zr, zi, j);
+			// k·prod(fs2 - z)
+			double t = kr * (fs2 - sr) + ki * si;
+			ki = ki * (fs2 - sr) - kr * si;
+			kr = t;
+		}
+		for (int j = 0; j < np; j++) {
+			double sr = zpk[2][j] * r, si = zpk[3][j] * r;
+			bilinear(fs2, sr, si, pr, pi, j);
+			// k/prod(fs2 - p)
+			double dr = fs2 - sr, di = -si;
+			double d2 = dr * dr + di * di;
+			double t = (kr * dr + ki * di) / d2;
+			ki = (ki * dr - kr * di) / d2;
+			kr = t;
+		}
+		// zeros no infinito vão para z = -1
+		for (int j = nz; j < np; j++)
+			zr[j] = -1.;
+
+		double[][] zq = quadratics(zr, zi);
+		double[][] pq = quadratics(pr, pi);
+
+		// cada par de pólos fica com o par de zeros mais próximo
+		double[][] sos = new double[pq.length][];
+		boolean[] used = new boolean[zq.length];
+		for (int i = 0; i < pq.length; i++) {
+			int best = -1;
+			double min = Double.POSITIVE_INFINITY;
+			for (int j = 0; j < zq.length; j++) {
+				if (used[j])
+					continue;
+				double d = Math.hypot(zq[j][2] - pq[i][2], zq[j][3] - pq[i][3]);
+				if (d < min) {
+					min = d;
+					best = j;
+				}
 			}
-			break;
+			double[] z = best < 0 ? new double[] { 0., 0. } : zq[best];
+			if (best >= 0)
+				used[best] = true;
+			sos[i] = new double[] { 1., z[0], z[1], pq[i][0], pq[i][1] };
 		}
 
-		Vec.normatize(out, 2); // normatiza
+		// ganho na primeira seção
+		if (sos.length > 0)
+			for (int j = 0; j < 3; j++)
+				sos[0][j] *= kr;
 
-		return out;
+		return new IIRFilter(sos);
+	}
+
+	private static void bilinear(double fs2, double sr, double si, double[] zr, double[] zi, int pos) {
+		// (fs2 + s)/(fs2 - s)
+		double nr = fs2 + sr, dr = fs2 - sr, di = -si;
+		double d2 = dr * dr + di * di;
+		zr[pos] = (nr * dr + si * di) / d2;
+		zi[pos] = (si * dr - nr * di) / d2;
+	}
+
+	/**
+	 * Função que agrupa raízes conjugadas (ou reais, duas a duas) em fatores
+	 * 1 + c1·z<sup>-1</sup> + c2·z<sup>-2</sup>
+	 * 
+	 * @param re partes reais das raízes
+	 * @param im partes imaginárias das raízes
+	 * @return matriz com uma linha para cada fator, contendo {c1, c2} e a posição
+	 *         (real e imaginária) de uma das raízes do fator
+	 */
+	private static double[][] quadratics(double[] re, double[] im) {
+		int n = re.length;
+		double[] reals = new double[n];
+		int nr = 0;
+		double[][] out = new double[n][];
+		int c = 0;
+		for (int j = 0; j < n; j++) {
+			double tol = 1E-10 * (1. + Math.abs(re[j]));
+			if (Math.abs(im[j]) <= tol)
+				reals[nr++] = re[j];
+			else if (im[j] > 0.) // o conjugado é implícito
+				out[c++] = new double[] { -2. * re[j], re[j] * re[j] + im[j] * im[j], re[j], im[j] };
+		}
+		Arrays.sort(reals, 0, nr);
+		for (int j = 0; j < nr; j += 2) {
+			if (j + 1 < nr)
+				out[c++] = new double[] { -(reals[j] + reals[j + 1]), reals[j] * reals[j + 1], reals[j], 0. };
+			else
+				out[c++] = new double[] { -reals[j], 0., reals[j], 0. };
+		}
+		return Arrays.copyOf(out, c);
 	}
 
 	public Complex[] getZeros() {
@@ -269,27 +550,150 @@ public class Filter {
 	 * @return vetor com os componentes espectrais modificadas
 	 */
 	public Complex[] apply(double w, Complex[] cn) {
-		Complex[] out = new Complex[cn.length];
-		Complex[] fn = get(w, cn.length); // norma 1, por definição
-		for (int i = 0; i < cn.length; i++) { // para cada coordenada
-			out[i] = new Complex();
-			for (int j = 0; j < cn.length; j++)
-				out[i].sum(Complex.mult(cn[j], Complex.conj(fn[j])));
-			out[i].mult(fn[i]);
+		ComplexArray out = new ComplexArray(cn.length);
+		apply(w, ComplexArray.of(cn), out);
+		return out.toComplex();
+	}
+
+	/**
+	 * Função que aplica o filtro sobre um espectro, sem criar objetos
+	 * intermediários
+	 * 
+	 * @param w   frequência fundamental (menor frequência/distância entre duas
+	 *            componentes). Está associada com o tamanho da janela amostral
+	 * @param cn  espectro (vetor de números complexos para cada um dos componentes
+	 *            espectrais)
+	 * @param out vetor, de mesmo tamanho do espectro, a ser preenchido com os
+	 *            componentes espectrais modificados
+	 */
+	public void apply(double w, ComplexArray cn, ComplexArray out) {
+		get(w, out); // norma 1, por definição
+
+		// projeção do espectro sobre a resposta do filtro: sum cn[j]·conj(fn[j])
+		double[] cr = cn.getRe(), ci = cn.getIm(), fr = out.getRe(), fi = out.getIm();
+		double pr = 0., pi = 0.;
+		for (int j = 0; j < cr.length; j++) {
+			pr += cr[j] * fr[j] + ci[j] * fi[j];
+			pi += ci[j] * fr[j] - cr[j] * fi[j];
 		}
-		return out;
+		out.mult(pr, pi);
 	}
 
 	public double[] apply(double w, double[] cn) {
 		double[] out = new double[cn.length];
-		Complex[] fn = get(w, cn.length); // norma 1, por definição
+		double[] fi = new double[cn.length];
+		get(w, out, fi); // norma 1, por definição
 
-		for (int i = 0; i < cn.length; i++) {
-			for (int j = 0; j < cn.length; j++)
-				out[i] += (cn[j] * fn[j].getRe());
-			out[i] *= fn[i].getRe();
-		}
+		// projeção do espectro sobre a parte real da resposta do filtro
+		double p = 0.;
+		for (int j = 0; j < cn.length; j++)
+			p += cn[j] * out[j];
+		for (int i = 0; i < cn.length; i++)
+			out[i] *= p;
 
 		return out;
 	}
+
+	// --------------------------- FILTRAGEM ESPECTRAL ---------------------------
+
+	/**
+	 * Função que aplica o filtro sobre um espectro multiplicando-se cada
+	 * componente k pela resposta H(iwk) do filtro (sem normalização), em O(N)
+	 * 
+	 * @param w  frequência fundamental (menor frequência/distância entre duas
+	 *           componentes). Está associada com o tamanho da janela amostral
+	 * @param cn espectro (vetor de números complexos para cada um dos componentes
+	 *           espectrais)
+	 * @return vetor com os componentes espectrais modificadas
+	 */
+	public Complex[] applySpectral(double w, Complex[] cn) {
+		ComplexArray out = ComplexArray.of(cn);
+		applySpectral(w, out);
+		return out.toComplex();
+	}
+
+	/**
+	 * Função que aplica o filtro sobre um espectro, no próprio lugar,
+	 * multiplicando-se cada componente k pela resposta H(iwk) do filtro (sem
+	 * normalização). A resposta é guardada para cada par (w, N), de modo que
+	 * aplicar o mesmo filtro sobre vários espectros de mesmo tamanho não requer
+	 * recalculá-la
+	 * 
+	 * @param w  frequência fundamental (menor frequência/distância entre duas
+	 *           componentes). Está associada com o tamanho da janela amostral
+	 * @param cn espectro (será substituído pelo espectro filtrado)
+	 */
+	public void applySpectral(double w, ComplexArray cn) {
+		ComplexArray h = getResponse(w, cn.length());
+		double[] hr = h.getRe(), hi = h.getIm();
+		Kernels.multiplyComplex(cn.getRe(), cn.getIm(), hr, hi, cn.length());
+	}
+
+	/**
+	 * Função que aplica o filtro sobre um espectro de coeficientes reais (série
+	 * dos cossenos), multiplicando-se cada componente k pelo módulo da resposta
+	 * |H(iwk)| do filtro, em O(N)
+	 * 
+	 * @param w  frequência fundamental (menor frequência/distância entre duas
+	 *           componentes). Está associada com o tamanho da janela amostral
+	 * @param cn espectro
+	 * @return vetor com os componentes espectrais modificadas
+	 */
+	public double[] applySpectral(double w, double[] cn) {
+		ComplexArray h = getResponse(w, cn.length);
+		double[] out = new double[cn.length];
+		for (int i = 0; i < cn.length; i++)
+			out[i] = cn[i] * Math.sqrt(h.getMod2(i));
+		return out;
+	}
+
+	/**
+	 * Função que retorna a resposta em frequência (sem normalização) para um dado
+	 * par (w, N), guardando-a para chamadas seguintes. O vetor retornado é
+	 * compartilhado e não deve ser alterado
+	 * 
+	 * @param w  frequência fundamental, em rad/u.t.
+	 * @param nc número de componentes
+	 * @return resposta do filtro em cada componente
+	 */
+	ComplexArray getResponse(double w, int nc) {
+		ResponseKey key = new ResponseKey(w, nc);
+		ComplexArray out = responses.get(key);
+		if (out == null) {
+			out = new ComplexArray(nc);
+			response(w, out.getRe(), out.getIm());
+
+			if (responses.size() >= MAX_RESPONSES)
+				responses.clear();
+			responses.put(key, out);
+		}
+		return out;
+	}
+
+	private static class ResponseKey {
+
+		private final double w;
+
+		private final int nc;
+
+		private ResponseKey(double w, int nc) {
+			this.w = w;
+			this.nc = nc;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Double.hashCode(w) + nc;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof ResponseKey))
+				return false;
+			ResponseKey other = (ResponseKey) obj;
+			return nc == other.nc && Double.doubleToLongBits(w) == Double.doubleToLongBits(other.w);
+		}
+	}
 }
@@ -52,7 +52,7 @@ public class FourierSerie extends HarmSerie {
 	public static double getPower(Complex[] coefs) {
 		double out = 0.;
 		for (int i = 0; i < coefs.length; i++)
-			out += Math.pow(coefs[i].getMod(), 2);
+			out += coefs[i].getMod2();
 		return Math.sqrt(out);
 	}
 
@@ -84,14 +84,92 @@ public class FourierSerie extends HarmSerie {
 	 * @return vetor com os números complexos do sinal transformado
 	 */
 	public static Complex[] dft(double[] y, double dt, double w) {
-		int N = (int) Math.round((ExtendedMath.TWO_PI / w) / dt);
-		Complex[] out = new Complex[N];
-		for (int i = 0; i < N; i++) {
-			out[i] = new Complex();
+		ComplexArray out = new ComplexArray(getN(dt, w));
+		dft(y, dt, w, out.getRe(), out.getIm());
+		return out.toComplex();
+	}
+
+	/**
+	 * Função que calcula a transformada discreta de Fourier de uma sequência de
+	 * sinais discretos <strong>regularmente amostrados</strong>, sem criar objetos
+	 * intermediários. Se o período da frequência dada for múltiplo inteiro do
+	 * espaço entre as amostras, o cálculo é feito por uma {@link FFT}
+	 * 
+	 * @param y  vetor com os valores dos sinais discretos
+	 * @param dt espaço de tempo suposto entre duas amostras
+	 * @param w  frequência angular, em rad/u.t.
+	 * @param re vetor a ser preenchido com as partes reais do sinal transformado
+	 *           (deve ter ao menos {@link #getN(double, double)} posições)
+	 * @param im vetor a ser preenchido com as partes imaginárias do sinal
+	 *           transformado
+	 */
+	public static void dft(double[] y, double dt, double w, double[] re, double[] im) {
+		int N = getN(dt, w);
+		double inv = 1. / y.length;
+
+		if (Math.abs(w * dt * N - ExtendedMath.TWO_PI) < 1E-12 * ExtendedMath.TWO_PI) {
+			// e^(-i2pi·ij/N) é periódico em j: rebate-se o sinal e usa-se a FFT
+			for (int i = 0; i < N; i++)
+				re[i] = im[i] = 0.;
 			for (int j = 0; j < y.length; j++)
-				out[i] = Complex.sum(out[i], Complex.mult(y[j], new Complex(1, -w * i * j * dt, false)));
-			out[i].div(y.length);
+				re[j % N] += y[j];
+			FFT.get(N).transform(re, im);
+			Kernels.scale(re, 0, N, inv);
+			Kernels.scale(im, 0, N, inv);
+		} else {
+			for (int i = 0; i < N; i++) {
+				// fasor que gira -w·i·dt a cada amostra
+				double a = -w * i * dt;
+				double c = Math.cos(a), s = Math.sin(a);
+				double pr = 1., pi = 0., sr = 0., si = 0.;
+				for (int j = 0; j < y.length; j++) {
+					sr += y[j] * pr;
+					si += y[j] * pi;
+					double t = pr * c - pi * s;
+					pi = pr * s + pi * c;
+					pr = t;
+				}
+				re[i] = sr * inv;
+				im[i] = si * inv;
+			}
 		}
+	}
+
+	/**
+	 * Função que retorna o número de componentes da transformada discreta de
+	 * Fourier
+	 * 
+	 * @param dt espaço de tempo suposto entre duas amostras
+	 * @param w  frequência angular, em rad/u.t.
+	 * @return número de componentes espectrais
+	 */
+	public static int getN(double dt, double w) {
+		return (int) Math.round((ExtendedMath.TWO_PI / w) / dt);
+	}
+
+	/**
+	 * Função que calcula somente os primeiros harmônicos da transformada discreta
+	 * de Fourier de uma sequência de sinais discretos <strong>regularmente
+	 * amostrados</strong>, através do algoritmo de {@link Goertzel}. O resultado é
+	 * o mesmo de {@link #dft(double[], double)} seguido de {@link #setNh(int)},
+	 * porém com custo O(N·nh) ao invés de O(N²)
+	 *
+	 * @param y  vetor com os valores dos sinais discretos
+	 * @param nh número de harmônicos a serem calculados
+	 * @return vetor com os números complexos dos primeiros harmônicos do sinal
+	 *         transformado
+	 */
+	public static Complex[] goertzel(double[] y, int nh) {
+		int[] hs = new int[nh];
+		for (int i = 0; i < nh; i++)
+			hs[i] = i;
+
+		double[] re = new double[nh], im = new double[nh];
+		Goertzel.harmonics(y, hs, re, im);
+
+		Complex[] out = new Complex[nh];
+		for (int i = 0; i < nh; i++)
+			out[i] = new Complex(re[i], im[i]);
 		return out;
 	}
 
@@ -109,10 +187,7 @@ public class FourierSerie extends HarmSerie {
 	 * @return valor da transformada no ponto dado
 	 */
 	public static double dft(double t, Complex[] f, double w) {
-		double out = 0.;
-		for (int i = 0; i < f.length; i++)
-			out += f[i].getMod() * Math.cos(w * i * t + f[i].getArg());
-		return out;
+		return FourierSynthesis.eval(t, f, w);
 	}
 
 	// vários valores
@@ -128,9 +203,9 @@ public class FourierSerie extends HarmSerie {
 	 * @return valor da transformada numa série de pontos
 	 */
 	public static double[] dft(double[] t, Complex[] f, double w) {
+		double[][] c = FourierSynthesis.split(f);
 		double[] out = new double[t.length];
-		for (int j = 0; j < t.length; j++)
-			out[j] = dft(t[j], f, w);
+		FourierSynthesis.eval(t, c[0], c[1], w, out);
 		return out;
 	}
 
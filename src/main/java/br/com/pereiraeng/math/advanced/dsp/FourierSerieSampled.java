@@ -20,8 +20,10 @@ public class FourierSerieSampled extends HarmSerieSampled {
 	}
 
 	public FourierSerieSampled(FourierSerieSampled fss, Filter f) {
-		Complex[] nf = f.apply(fss.getFf(), fss.getCoefs());
-		this.fs = new FourierSerie(fss.getFf(), nf);
+		ComplexArray cn = ComplexArray.of(fss.getCoefs());
+		ComplexArray nf = new ComplexArray(cn.length());
+		f.apply(fss.getFf(), cn, nf);
+		this.fs = new FourierSerie(fss.getFf(), nf.toComplex());
 		setOffset(fss.getOffset());
 	}
 
@@ -156,11 +158,8 @@ public class FourierSerieSampled extends HarmSerieSampled {
 
 		// de posse da curva contínua, reconstroi-se usando-se o passo que quiser (novo
 		// número de pontos)
-		double[] yout = new double[pts];
 		double newStep = T / (pts - 1); // TODO pts - 1 ?
-		for (int j = 0; j < pts; j++)
-			yout[j] = FourierSerie.dft(begin + j * newStep, fss.fs.getCoefs(), w);
-		return yout;
+		return FourierSynthesis.uniform(fss.fs.getCoefs(), w, begin, newStep, pts);
 	}
 
 	/**
@@ -178,9 +177,11 @@ public class FourierSerieSampled extends HarmSerieSampled {
 		double dt = Ttotal / pts;
 
 		// reconstruir sinal
-		double[][] ty = new double[2][pts];
+		double[][] ty = new double[2][];
+		ty[1] = FourierSynthesis.uniform(cs, w, fss.getOffset(), dt, pts);
+		ty[0] = new double[pts];
 		for (int i = 0; i < pts; i++)
-			ty[1][i] = FourierSerie.dft(ty[0][i] = fss.getOffset() + i * dt, cs, w);
+			ty[0][i] = fss.getOffset() + i * dt;
 		return ty;
 	}
 
@@ -200,9 +201,11 @@ public class FourierSerieSampled extends HarmSerieSampled {
 		double dt = T / pts;
 
 		// reconstruir sinal
-		double[][] ty = new double[2][pts];
+		double[][] ty = new double[2][];
+		ty[1] = FourierSynthesis.uniform(cs, w, fss.getOffset(), dt, pts);
+		ty[0] = new double[pts];
 		for (int i = 0; i < pts; i++)
-			ty[1][i] = FourierSerie.dft(ty[0][i] = fss.getOffset() + i * dt, cs, w);
+			ty[0][i] = fss.getOffset() + i * dt;
 		return ty;
 	}
 }
@@ -0,0 +1,199 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import br.com.pereiraeng.core.ExtendedMath;
+import br.com.pereiraeng.math.Complex;
+
+/**
+ * Classe das funções que reconstroem um sinal a partir dos coeficientes de sua
+ * série de Fourier (transformada inversa), calculando
+ * <code>sum Re(f[k]·e<sup>ikwt</sup>)</code> - o mesmo que
+ * {@link FourierSerie#dft(double, Complex[], double)}.<br>
+ *
+ * Para pontos quaisquer usa-se a recorrência de Clenshaw, que requer apenas um
+ * seno e um cosseno por ponto (ao invés de um por coeficiente). Para pontos
+ * regularmente espaçados cujo passo divide o período da fundamental usa-se a
+ * {@link FFT} inversa.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class FourierSynthesis {
+
+	/**
+	 * tolerância relativa para se considerar que um passo divide o período
+	 */
+	private static final double TOL = 1E-9;
+
+	/**
+	 * Função que separa as partes real e imaginária de um vetor de números
+	 * complexos
+	 *
+	 * @param f vetor de números complexos
+	 * @return matriz com duas linhas: a primeira com as partes reais e a segunda
+	 *         com as partes imaginárias
+	 */
+	public static double[][] split(Complex[] f) {
+		double[][] out = new double[2][f.length];
+		for (int k = 0; k < f.length; k++) {
+			out[0][k] = f[k].getRe();
+			out[1][k] = f[k].getIm();
+		}
+		return out;
+	}
+
+	// ---------------------------- PONTOS QUAISQUER ----------------------------
+
+	/**
+	 * Função que calcula o valor da série de Fourier para um dado ponto
+	 *
+	 * @param t  abscissa do ponto a ser calculado
+	 * @param re partes reais dos coeficientes harmônicos
+	 * @param im partes imaginárias dos coeficientes harmônicos
+	 * @param w  frequência angular fundamental, em rad/u.t.
+	 * @return valor da série no ponto dado
+	 */
+	public static double eval(double t, double[] re, double[] im, double w) {
+		int n = re.length;
+		if (n == 0)
+			return 0.;
+
+		double a = w * t;
+		double c = Math.cos(a), s = Math.sin(a);
+		double c2 = 2. * c;
+
+		// Clenshaw: u[k] = re[k] + 2cos·u[k+1] - u[k+2] (idem para v)
+		double u1 = 0., u2 = 0., v1 = 0., v2 = 0.;
+		for (int k = n - 1; k >= 1; k--) {
+			double u0 = re[k] + c2 * u1 - u2;
+			u2 = u1;
+			u1 = u0;
+			double v0 = im[k] + c2 * v1 - v2;
+			v2 = v1;
+			v1 = v0;
+		}
+		return re[0] + c * u1 - u2 - s * v1;
+	}
+
+	/**
+	 * Função que calcula o valor da série de Fourier para um dado ponto
+	 *
+	 * @param t abscissa do ponto a ser calculado
+	 * @param f números complexo que representam a transformação (seus coefientes
+	 *          harmônicos, com módulo e fase)
+	 * @param w frequência angular fundamental, em rad/u.t.
+	 * @return valor da série no ponto dado
+	 */
+	public static double eval(double t, Complex[] f, double w) {
+		int n = f.length;
+		if (n == 0)
+			return 0.;
+
+		double a = w * t;
+		double c = Math.cos(a), s = Math.sin(a);
+		double c2 = 2. * c;
+
+		double u1 = 0., u2 = 0., v1 = 0., v2 = 0.;
+		for (int k = n - 1; k >= 1; k--) {
+			double u0 = f[k].getRe() + c2 * u1 - u2;
+			u2 = u1;
+			u1 = u0;
+			double v0 = f[k].getIm() + c2 * v1 - v2;
+			v2 = v1;
+			v1 = v0;
+		}
+		return f[0].getRe() + c * u1 - u2 - s * v1;
+	}
+
+	/**
+	 * Função que calcula o valor da série de Fourier para uma série de pontos
+	 *
+	 * @param t   vetor com as abscissas dos pontos a serem calculados
+	 * @param re  partes reais dos coeficientes harmônicos
+	 * @param im  partes imaginárias dos coeficientes harmônicos
+	 * @param w   frequência angular fundamental, em rad/u.t.
+	 * @param out vetor a ser preenchido com o valor da série em cada ponto
+	 */
+	public static void eval(double[] t, double[] re, double[] im, double w, double[] out) {
+		for (int j = 0; j < t.length; j++)
+			out[j] = eval(t[j], re, im, w);
+	}
+
+	// ---------------------------- PONTOS REGULARES ----------------------------
+
+	/**
+	 * Função que calcula o valor da série de Fourier para pontos regularmente
+	 * espaçados
+	 *
+	 * @param f   números complexo que representam a transformação (seus
+	 *            coefientes harmônicos, com módulo e fase)
+	 * @param w   frequência angular fundamental, em rad/u.t.
+	 * @param t0  abscissa do primeiro ponto
+	 * @param dt  espaço entre dois pontos
+	 * @param pts número de pontos
+	 * @return vetor com o valor da série em cada ponto
+	 */
+	public static double[] uniform(Complex[] f, double w, double t0, double dt, int pts) {
+		double[][] c = split(f);
+		double[] out = new double[pts];
+		uniform(c[0], c[1], w, t0, dt, out);
+		return out;
+	}
+
+	/**
+	 * Função que calcula o valor da série de Fourier para pontos regularmente
+	 * espaçados. Se o período da fundamental for múltiplo inteiro L do passo, os
+	 * coeficientes são rebatidos módulo L e a série é calculada por uma FFT
+	 * inversa de tamanho L (O(n + L·log L)); senão, ou se L for tão grande que a
+	 * FFT custaria mais que a recorrência de Clenshaw em cada ponto (O(pts·n)),
+	 * usa-se esta última
+	 *
+	 * @param re  partes reais dos coeficientes harmônicos
+	 * @param im  partes imaginárias dos coeficientes harmônicos
+	 * @param w   frequência angular fundamental, em rad/u.t.
+	 * @param t0  abscissa do primeiro ponto
+	 * @param dt  espaço entre dois pontos
+	 * @param out vetor a ser preenchido com o valor da série em cada ponto
+	 */
+	public static void uniform(double[] re, double[] im, double w, double t0, double dt, double[] out) {
+		int pts = out.length;
+		if (pts == 0)
+			return;
+
+		double phi = w * dt; // avanço de fase da fundamental entre dois pontos
+		double l = ExtendedMath.TWO_PI / Math.abs(phi);
+		int L = (int) Math.round(l);
+
+		if (L < 1 || Math.abs(l - L) > TOL * l || (double) L * log2(L) > (double) pts * re.length) {
+			// passo incomensurável com o período, ou período longo demais em amostras
+			for (int j = 0; j < pts; j++)
+				out[j] = eval(t0 + j * dt, re, im, w);
+			return;
+		}
+
+		// g[k] = f[k]·e^(ikwt0), rebatido módulo L (e^(ik·2pi·j/L) é periódico em k)
+		double[] gRe = new double[L], gIm = new double[L];
+		double a0 = w * t0;
+		for (int k = 0; k < re.length; k++) {
+			double a = a0 * k;
+			double c = Math.cos(a), s = Math.sin(a);
+			int m = k % L;
+			gRe[m] += re[k] * c - im[k] * s;
+			gIm[m] += re[k] * s + im[k] * c;
+		}
+
+		// sum g[m]·e^(+i2pi·mj/L) (a inversa divide por L)
+		FFT.get(L).inverse(gRe, gIm);
+
+		boolean forward = phi > 0.;
+		for (int j = 0; j < pts; j++) {
+			int m = j % L;
+			if (!forward && m != 0)
+				m = L - m;
+			out[j] = gRe[m] * L;
+		}
+	}
+
+	private static double log2(int n) {
+		return 32 - Integer.numberOfLeadingZeros(n);
+	}
+}
@@ -0,0 +1,154 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import br.com.pereiraeng.core.ExtendedMath;
+
+/**
+ * Classe das funções que calculam componentes isolados da transformada
+ * discreta de Fourier através do algoritmo de Goertzel. Para k componentes de
+ * uma sequência de N amostras o custo é O(N·k), ao invés de O(N²) da
+ * {@link FourierSerie#dft(double[], double) transformada completa}.<br>
+ *
+ * Os coeficientes calculados seguem a mesma convenção de
+ * {@link FourierSerie#dft(double[], double, double)} (expoente negativo e
+ * divisão pelo número de amostras).
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class Goertzel {
+
+	// ---------------------------- HARMÔNICOS ----------------------------
+
+	/**
+	 * Função que calcula os coeficientes de um conjunto de harmônicos de uma
+	 * sequência de sinais discretos <strong>regularmente amostrados</strong>,
+	 * supondo-se que a janela de amostras compreende exatamente um período da
+	 * frequência fundamental
+	 *
+	 * @param y  vetor com os valores dos sinais discretos
+	 * @param hs ordens dos harmônicos desejados (0 para o nível médio)
+	 * @return matriz com duas linhas: a primeira com as partes reais e a segunda
+	 *         com as partes imaginárias dos coeficientes de cada harmônico
+	 */
+	public static double[][] harmonics(double[] y, int... hs) {
+		double[][] out = new double[2][hs.length];
+		harmonics(y, hs, out[0], out[1]);
+		return out;
+	}
+
+	/**
+	 * Função que calcula os coeficientes de um conjunto de harmônicos de uma
+	 * sequência de sinais discretos <strong>regularmente amostrados</strong>, sem
+	 * alocar memória
+	 *
+	 * @param y  vetor com os valores dos sinais discretos
+	 * @param hs ordens dos harmônicos desejados (0 para o nível médio)
+	 * @param re vetor a ser preenchido com as partes reais dos coeficientes
+	 * @param im vetor a ser preenchido com as partes imaginárias dos coeficientes
+	 */
+	public static void harmonics(double[] y, int[] hs, double[] re, double[] im) {
+		harmonics(y, 0, y.length, hs, re, im);
+	}
+
+	/**
+	 * Função que calcula os coeficientes de um conjunto de harmônicos de um trecho
+	 * de uma sequência de sinais discretos <strong>regularmente
+	 * amostrados</strong>, sem alocar memória
+	 *
+	 * @param y      vetor com os valores dos sinais discretos
+	 * @param offset posição da primeira amostra do trecho
+	 * @param n      número de amostras do trecho (um período da fundamental)
+	 * @param hs     ordens dos harmônicos desejados (0 para o nível médio)
+	 * @param re     vetor a ser preenchido com as partes reais dos coeficientes
+	 * @param im     vetor a ser preenchido com as partes imaginárias dos
+	 *               coeficientes
+	 */
+	public static void harmonics(double[] y, int offset, int n, int[] hs, double[] re, double[] im) {
+		for (int i = 0; i < hs.length; i++) {
+			// para harmônicos inteiros, e^(-iwN) = 1 e não há correção de fase
+			double w = ExtendedMath.TWO_PI * hs[i] / n;
+			bin(y, offset, n, w, false, re, im, i);
+		}
+	}
+
+	// ---------------------------- FREQUÊNCIAS ----------------------------
+
+	/**
+	 * Função que calcula o coeficiente da transformada de Fourier de uma sequência
+	 * de sinais discretos <strong>regularmente amostrados</strong> para
+	 * frequências quaisquer (não necessariamente múltiplas da fundamental)
+	 *
+	 * @param y  vetor com os valores dos sinais discretos
+	 * @param dt espaço de tempo entre duas amostras
+	 * @param ws frequências angulares, em rad/u.t.
+	 * @return matriz com duas linhas: a primeira com as partes reais e a segunda
+	 *         com as partes imaginárias dos coeficientes de cada frequência
+	 */
+	public static double[][] frequencies(double[] y, double dt, double... ws) {
+		double[][] out = new double[2][ws.length];
+		frequencies(y, dt, ws, out[0], out[1]);
+		return out;
+	}
+
+	/**
+	 * Função que calcula o coeficiente da transformada de Fourier de uma sequência
+	 * de sinais discretos <strong>regularmente amostrados</strong> para
+	 * frequências quaisquer, sem alocar memória
+	 *
+	 * @param y  vetor com os valores dos sinais discretos
+	 * @param dt espaço de tempo entre duas amostras
+	 * @param ws frequências angulares, em rad/u.t.
+	 * @param re vetor a ser preenchido com as partes reais dos coeficientes
+	 * @param im vetor a ser preenchido com as partes imaginárias dos coeficientes
+	 */
+	public static void frequencies(double[] y, double dt, double[] ws, double[] re, double[] im) {
+		for (int i = 0; i < ws.length; i++)
+			bin(y, 0, y.length, ws[i] * dt, true, re, im, i);
+	}
+
+	// ---------------------------- RECORRÊNCIA ----------------------------
+
+	/**
+	 * Função que executa a recorrência de Goertzel para uma frequência
+	 *
+	 * @param y      vetor com os valores dos sinais discretos
+	 * @param offset posição da primeira amostra
+	 * @param n      número de amostras
+	 * @param w      frequência angular normalizada, em rad/amostra
+	 * @param align  <code>true</code> para corrigir a fase referente ao fim da
+	 *               janela (necessário quando a frequência não é múltipla de
+	 *               2&pi;/n)
+	 * @param re     vetor onde será escrita a parte real
+	 * @param im     vetor onde será escrita a parte imaginária
+	 * @param pos    posição nos vetores de saída
+	 */
+	private static void bin(double[] y, int offset, int n, double w, boolean align, double[] re, double[] im,
+			int pos) {
+		double c = Math.cos(w), s = Math.sin(w);
+		double coef = 2. * c;
+
+		double s1 = 0., s2 = 0.;
+		for (int j = offset, end = offset + n; j < end; j++) {
+			double s0 = y[j] + coef * s1 - s2;
+			s2 = s1;
+			s1 = s0;
+		}
+
+		// y[N] = s[N] - e^(-iw)·s[N-1] = e^(iwN)·sum x[j]·e^(-iwj)
+		double r = c * s1 - s2;
+		double i = s * s1;
+
+		if (align) {
+			// multiplica por e^(-iwN) para que a referência de fase seja a primeira
+			// amostra
+			double a = -w * n;
+			double ca = Math.cos(a), sa = Math.sin(a);
+			double t = r * ca - i * sa;
+			i = r * sa + i * ca;
+			r = t;
+		}
+
+		re[pos] = r / n;
+		im[pos] = i / n;
+	}
+}
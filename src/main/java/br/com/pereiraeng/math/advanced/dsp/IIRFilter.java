@@ -0,0 +1,141 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+/**
+ * Classe do objeto que representa um filtro digital de resposta ao impulso
+ * infinita (IIR) na forma de uma cascata de seções de segunda ordem (biquads),
+ * cada uma implementada na forma direta II transposta:<br>
+ * <code>H(z) = prod (b0 + b1·z<sup>-1</sup> + b2·z<sup>-2</sup>)/(1 + a1·z<sup>-1</sup> + a2·z<sup>-2</sup>)</code><br>
+ *
+ * O filtro guarda seu estado entre chamadas de {@link #process(double[], double[])},
+ * de modo que um sinal pode ser filtrado em blocos sucessivos. Um mesmo objeto
+ * não deve ser usado por mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ * @see Filter#toIIR(double)
+ */
+public class IIRFilter {
+
+	/**
+	 * coeficientes de cada seção
+	 */
+	private final double[] b0, b1, b2, a1, a2;
+
+	/**
+	 * estado de cada seção
+	 */
+	private final double[] z1, z2;
+
+	/**
+	 * Construtor do filtro
+	 *
+	 * @param sos matriz com uma linha para cada seção, contendo os coeficientes
+	 *            {b0, b1, b2, a1, a2} (a0 = 1)
+	 */
+	public IIRFilter(double[][] sos) {
+		int n = sos.length;
+		this.b0 = new double[n];
+		this.b1 = new double[n];
+		this.b2 = new double[n];
+		this.a1 = new double[n];
+		this.a2 = new double[n];
+		for (int i = 0; i < n; i++) {
+			this.b0[i] = sos[i][0];
+			this.b1[i] = sos[i][1];
+			this.b2[i] = sos[i][2];
+			this.a1[i] = sos[i][3];
+			this.a2[i] = sos[i][4];
+		}
+		this.z1 = new double[n];
+		this.z2 = new double[n];
+	}
+
+	/**
+	 * Função que retorna o número de seções de segunda ordem
+	 *
+	 * @return número de seções
+	 */
+	public int getSections() {
+		return b0.length;
+	}
+
+	/**
+	 * Função que retorna os coeficientes das seções
+	 *
+	 * @return matriz com uma linha para cada seção, contendo os coeficientes {b0,
+	 *         b1, b2, a1, a2}
+	 */
+	public double[][] getSos() {
+		double[][] out = new double[b0.length][];
+		for (int i = 0; i < b0.length; i++)
+			out[i] = new double[] { b0[i], b1[i], b2[i], a1[i], a2[i] };
+		return out;
+	}
+
+	/**
+	 * Função que zera o estado do filtro
+	 */
+	public void reset() {
+		for (int i = 0; i < z1.length; i++)
+			z1[i] = z2[i] = 0.;
+	}
+
+	// ------------------------------ FILTRAGEM ------------------------------
+
+	/**
+	 * Função que filtra uma amostra
+	 *
+	 * @param x amostra de entrada
+	 * @return amostra de saída
+	 */
+	public double process(double x) {
+		for (int i = 0; i < b0.length; i++) {
+			double y = b0[i] * x + z1[i];
+			z1[i] = b1[i] * x - a1[i] * y + z2[i];
+			z2[i] = b2[i] * x - a2[i] * y;
+			x = y;
+		}
+		return x;
+	}
+
+	/**
+	 * Função que filtra um bloco de amostras
+	 *
+	 * @param in  amostras de entrada
+	 * @param out vetor a ser preenchido com as amostras de saída (pode ser o
+	 *            próprio vetor de entrada)
+	 */
+	public void process(double[] in, double[] out) {
+		process(in, 0, out, 0, in.length);
+	}
+
+	/**
+	 * Função que filtra um trecho de um bloco de amostras
+	 *
+	 * @param in        amostras de entrada
+	 * @param inOffset  posição da primeira amostra de entrada
+	 * @param out       vetor a ser preenchido com as amostras de saída (pode ser o
+	 *                  próprio vetor de entrada)
+	 * @param outOffset posição da primeira amostra de saída
+	 * @param n         número de amostras
+	 */
+	public void process(double[] in, int inOffset, double[] out, int outOffset, int n) {
+		if (in != out || inOffset != outOffset)
+			System.arraycopy(in, inOffset, out, outOffset, n);
+
+		// seção por seção, para que os coeficientes fiquem em registradores
+		for (int i = 0; i < b0.length; i++) {
+			double c0 = b0[i], c1 = b1[i], c2 = b2[i], d1 = a1[i], d2 = a2[i];
+			double s1 = z1[i], s2 = z2[i];
+			for (int j = outOffset, end = outOffset + n; j < end; j++) {
+				double x = out[j];
+				double y = c0 * x + s1;
+				s1 = c1 * x - d1 * y + s2;
+				s2 = c2 * x - d2 * y;
+				out[j] = y;
+			}
+			z1[i] = s1;
+			z2[i] = s2;
+		}
+	}
+}
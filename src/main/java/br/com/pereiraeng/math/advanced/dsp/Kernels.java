@@ -0,0 +1,214 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+/**
+ * Classe das operações elementares sobre vetores primitivos usadas nos laços
+ * mais internos do processamento de sinais (aplicação de janelas, produto de
+ * espectros, módulo, escala e produto interno).<br>
+ *
+ * Os laços são escritos sobre trechos contíguos de vetores, sem chamadas a
+ * métodos, de modo que o compilador JIT possa vetorizá-los (SIMD). Em JDK 17 ou
+ * superior, se o módulo <code>jdk.incubator.vector</code> estiver disponível
+ * (<code>--add-modules jdk.incubator.vector</code>), usa-se uma implementação
+ * explícita com a Vector API, distribuída na parte de versão 17 do jar
+ * multi-release. A propriedade de sistema
+ * <code>br.com.pereiraeng.dsp.vector=false</code> força a implementação
+ * escalar.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public final class Kernels {
+
+	/**
+	 * implementação em uso, escolhida na carga da classe
+	 */
+	private static final Impl IMPL = select();
+
+	private Kernels() {
+	}
+
+	private static Impl select() {
+		if (!"false".equalsIgnoreCase(System.getProperty("br.com.pereiraeng.dsp.vector")))
+			try {
+				Class<?> c = Class.forName(Kernels.class.getPackage().getName() + ".VectorKernels");
+				return (Impl) c.getDeclaredConstructor().newInstance();
+			} catch (Throwable e) {
+				// Java 8 a 16, ou módulo jdk.incubator.vector ausente
+			}
+		return new Scalar();
+	}
+
+	/**
+	 * Função que indica se a implementação com a Vector API está em uso
+	 *
+	 * @return <code>true</code> se as operações usam a Vector API
+	 */
+	public static boolean isVectorized() {
+		return !(IMPL instanceof Scalar);
+	}
+
+	// ------------------------------ OPERAÇÕES ------------------------------
+
+	/**
+	 * Função que multiplica um trecho de um vetor, componente a componente, por
+	 * outro vetor: <code>x[off + i] *= w[i]</code>
+	 *
+	 * @param x   vetor a ser multiplicado
+	 * @param off posição do primeiro componente de <code>x</code>
+	 * @param w   multiplicadores
+	 * @param n   número de componentes
+	 */
+	public static void multiply(double[] x, int off, double[] w, int n) {
+		IMPL.multiply(x, off, w, n);
+	}
+
+	/**
+	 * Função que multiplica um vetor de números complexos, componente a
+	 * componente, por outro: <code>(re + i·im)[k] *= (wRe + i·wIm)[k]</code>
+	 *
+	 * @param re  partes reais do vetor a ser multiplicado
+	 * @param im  partes imaginárias do vetor a ser multiplicado
+	 * @param wRe partes reais dos multiplicadores
+	 * @param wIm partes imaginárias dos multiplicadores
+	 * @param n   número de componentes
+	 */
+	public static void multiplyComplex(double[] re, double[] im, double[] wRe, double[] wIm, int n) {
+		IMPL.multiplyComplex(re, im, wRe, wIm, n);
+	}
+
+	/**
+	 * Função que calcula o quadrado do módulo de cada componente de um vetor de
+	 * números complexos
+	 *
+	 * @param re  partes reais
+	 * @param im  partes imaginárias
+	 * @param out vetor a ser preenchido com os quadrados dos módulos
+	 * @param n   número de componentes
+	 */
+	public static void magnitude2(double[] re, double[] im, double[] out, int n) {
+		IMPL.magnitude2(re, im, out, n);
+	}
+
+	/**
+	 * Função que calcula a soma dos quadrados dos módulos de um vetor de números
+	 * complexos (energia)
+	 *
+	 * @param re partes reais
+	 * @param im partes imaginárias
+	 * @param n  número de componentes
+	 * @return soma dos quadrados dos módulos
+	 */
+	public static double sumOfSquares(double[] re, double[] im, int n) {
+		return IMPL.sumOfSquares(re, im, n);
+	}
+
+	/**
+	 * Função que multiplica um trecho de um vetor por um escalar
+	 *
+	 * @param x   vetor
+	 * @param off posição do primeiro componente
+	 * @param n   número de componentes
+	 * @param d   multiplicador
+	 */
+	public static void scale(double[] x, int off, int n, double d) {
+		IMPL.scale(x, off, n, d);
+	}
+
+	/**
+	 * Função que calcula o produto interno de dois trechos de vetores
+	 *
+	 * @param a    primeiro vetor
+	 * @param aOff posição do primeiro componente de <code>a</code>
+	 * @param b    segundo vetor
+	 * @param bOff posição do primeiro componente de <code>b</code>
+	 * @param n    número de componentes
+	 * @return produto interno
+	 */
+	public static double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+		return IMPL.dot(a, aOff, b, bOff, n);
+	}
+
+	// ------------------------------ IMPLEMENTAÇÕES ------------------------------
+
+	/**
+	 * Operações implementadas por cada alternativa (escalar ou Vector API)
+	 */
+	interface Impl {
+
+		void multiply(double[] x, int off, double[] w, int n);
+
+		void multiplyComplex(double[] re, double[] im, double[] wRe, double[] wIm, int n);
+
+		void magnitude2(double[] re, double[] im, double[] out, int n);
+
+		double sumOfSquares(double[] re, double[] im, int n);
+
+		void scale(double[] x, int off, int n, double d);
+
+		double dot(double[] a, int aOff, double[] b, int bOff, int n);
+	}
+
+	/**
+	 * Implementação com laços simples, vetorizáveis pelo compilador JIT
+	 */
+	static final class Scalar implements Impl {
+
+		@Override
+		public void multiply(double[] x, int off, double[] w, int n) {
+			for (int i = 0; i < n; i++)
+				x[off + i] *= w[i];
+		}
+
+		@Override
+		public void multiplyComplex(double[] re, double[] im, double[] wRe, double[] wIm, int n) {
+			for (int i = 0; i < n; i++) {
+				double r = re[i] * wRe[i] - im[i] * wIm[i];
+				im[i] = re[i] * wIm[i] + im[i] * wRe[i];
+				re[i] = r;
+			}
+		}
+
+		@Override
+		public void magnitude2(double[] re, double[] im, double[] out, int n) {
+			for (int i = 0; i < n; i++)
+				out[i] = re[i] * re[i] + im[i] * im[i];
+		}
+
+		@Override
+		public double sumOfSquares(double[] re, double[] im, int n) {
+			// quatro acumuladores independentes, para não serializar as somas
+			double s0 = 0., s1 = 0., s2 = 0., s3 = 0.;
+			int i = 0;
+			for (; i + 3 < n; i += 4) {
+				s0 += re[i] * re[i] + im[i] * im[i];
+				s1 += re[i + 1] * re[i + 1] + im[i + 1] * im[i + 1];
+				s2 += re[i + 2] * re[i + 2] + im[i + 2] * im[i + 2];
+				s3 += re[i + 3] * re[i + 3] + im[i + 3] * im[i + 3];
+			}
+			for (; i < n; i++)
+				s0 += re[i] * re[i] + im[i] * im[i];
+			return (s0 + s1) + (s2 + s3);
+		}
+
+		@Override
+		public void scale(double[] x, int off, int n, double d) {
+			for (int i = off, end = off + n; i < end; i++)
+				x[i] *= d;
+		}
+
+		@Override
+		public double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+			double s0 = 0., s1 = 0., s2 = 0., s3 = 0.;
+			int i = 0;
+			for (; i + 3 < n; i += 4) {
+				s0 += a[aOff + i] * b[bOff + i];
+				s1 += a[aOff + i + 1] * b[bOff + i + 1];
+				s2 += a[aOff + i + 2] * b[bOff + i + 2];
+				s3 += a[aOff + i + 3] * b[bOff + i + 3];
+			}
+			for (; i < n; i++)
+				s0 += a[aOff + i] * b[bOff + i];
+			return (s0 + s1) + (s2 + s3);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+/**
+ * Classe do objeto que calcula a média móvel das últimas amostras de um sinal,
+ * em O(1) por amostra: as amostras ficam num buffer circular e a soma é
+ * atualizada a cada nova amostra (com a compensação de Kahan, para que o erro
+ * de arredondamento não se acumule ao longo de sinais longos). Amostras não
+ * finitas não entram na soma, apenas são contadas: enquanto estiverem na
+ * janela, a média é <code>NaN</code> ou infinita, como seria a média calculada
+ * diretamente, e a média volta a ser finita assim que elas saem.<br>
+ *
+ * Um mesmo objeto não deve ser usado por mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ * @see MovingMedian
+ * @see ExponentialSmoothing
+ */
+public class MovingAverage {
+
+	/**
+	 * últimas amostras (buffer circular)
+	 */
+	private final double[] buffer;
+
+	private int pos, count;
+
+	/**
+	 * soma das amostras do buffer e sua compensação de Kahan
+	 */
+	private double sum, comp;
+
+	/**
+	 * número de amostras <code>NaN</code>, +∞ e -∞ do buffer
+	 */
+	private int nan, posInf, negInf;
+
+	/**
+	 * Construtor do filtro
+	 *
+	 * @param window número de pontos usados para se calcular a média
+	 */
+	public MovingAverage(int window) {
+		if (window < 1)
+			throw new IllegalArgumentException("A janela deve ter ao menos um ponto");
+		this.buffer = new double[window];
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	public int getWindow() {
+		return buffer.length;
+	}
+
+	/**
+	 * Função que indica se a janela já está cheia
+	 *
+	 * @return <code>true</code> se já foram fornecidas ao menos
+	 *         {@link #getWindow()} amostras
+	 */
+	public boolean isFull() {
+		return count == buffer.length;
+	}
+
+	/**
+	 * Função que retorna a média atual
+	 *
+	 * @return média das amostras da janela (ou das amostras já fornecidas, se a
+	 *         janela ainda não estiver cheia), ou <code>NaN</code> se nenhuma
+	 *         amostra foi fornecida
+	 */
+	public double getMean() {
+		return count == 0 ? Double.NaN : mean();
+	}
+
+	/**
+	 * Função que descarta todas as amostras já fornecidas
+	 */
+	public void reset() {
+		for (int i = 0; i < buffer.length; i++)
+			buffer[i] = 0.;
+		pos = count = nan = posInf = negInf = 0;
+		sum = comp = 0.;
+	}
+
+	// ------------------------------ FILTRAGEM ------------------------------
+
+	/**
+	 * Função que fornece uma nova amostra
+	 *
+	 * @param x amostra
+	 * @return média atual (ver {@link #getMean()})
+	 */
+	public double push(double x) {
+		if (count == buffer.length)
+			add(buffer[pos], -1);
+		else
+			count++;
+		add(x, 1);
+
+		buffer[pos] = x;
+		if (++pos == buffer.length)
+			pos = 0;
+		return mean();
+	}
+
+	/**
+	 * Função que filtra um trecho de um bloco de amostras
+	 *
+	 * @param in        amostras de entrada
+	 * @param inOffset  posição da primeira amostra de entrada
+	 * @param out       vetor a ser preenchido com a média após cada amostra (pode
+	 *                  ser o próprio vetor de entrada)
+	 * @param outOffset posição da primeira amostra de saída
+	 * @param n         número de amostras
+	 */
+	public void process(double[] in, int inOffset, double[] out, int outOffset, int n) {
+		for (int i = 0; i < n; i++)
+			out[outOffset + i] = push(in[inOffset + i]);
+	}
+
+	/**
+	 * Função que calcula a média móvel de um sinal inteiro
+	 *
+	 * @param y      amostras do sinal
+	 * @param window número de pontos usados para se calcular a média
+	 * @return vetor com a média após cada amostra (as primeiras
+	 *         <code>window - 1</code> posições contêm a média das amostras
+	 *         disponíveis até então)
+	 */
+	public static double[] filter(double[] y, int window) {
+		double[] out = new double[y.length];
+		new MovingAverage(window).process(y, 0, out, 0, y.length);
+		return out;
+	}
+
+	/**
+	 * Função que retorna a média das amostras do buffer (há ao menos uma)
+	 */
+	private double mean() {
+		if (nan > 0 || (posInf > 0 && negInf > 0))
+			return Double.NaN;
+		if (posInf > 0)
+			return Double.POSITIVE_INFINITY;
+		if (negInf > 0)
+			return Double.NEGATIVE_INFINITY;
+		return sum / count;
+	}
+
+	/**
+	 * Função que acrescenta uma amostra ao buffer ou a retira dele: as finitas
+	 * entram na soma corrente, pela soma compensada de Kahan, e as demais são
+	 * apenas contadas
+	 *
+	 * @param x    amostra
+	 * @param sign 1 para acrescentar, -1 para retirar
+	 */
+	private void add(double x, int sign) {
+		if (Double.isNaN(x)) {
+			nan += sign;
+			return;
+		}
+		if (Double.isInfinite(x)) {
+			if (x > 0.)
+				posInf += sign;
+			else
+				negInf += sign;
+			return;
+		}
+		double y = sign * x - comp;
+		double t = sum + y;
+		comp = (t - sum) - y;
+		sum = t;
+	}
+}
@@ -0,0 +1,140 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import java.util.Arrays;
+
+/**
+ * Classe do objeto que calcula a mediana móvel das últimas amostras de um
+ * sinal. Além do buffer circular com as amostras em ordem cronológica, mantém-se
+ * uma cópia ordenada da janela: a cada nova amostra, a mais antiga é retirada e
+ * a nova inserida por busca binária e um único deslocamento de memória, sem
+ * reordenar a janela.<br>
+ *
+ * Um mesmo objeto não deve ser usado por mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ * @see MovingAverage
+ */
+public class MovingMedian {
+
+	/**
+	 * últimas amostras (buffer circular)
+	 */
+	private final double[] buffer;
+
+	/**
+	 * amostras da janela em ordem crescente (somente as <code>count</code>
+	 * primeiras posições são válidas)
+	 */
+	private final double[] sorted;
+
+	private int pos, count;
+
+	/**
+	 * Construtor do filtro
+	 *
+	 * @param window número de pontos usados para se calcular a mediana
+	 */
+	public MovingMedian(int window) {
+		if (window < 1)
+			throw new IllegalArgumentException("A janela deve ter ao menos um ponto");
+		this.buffer = new double[window];
+		this.sorted = new double[window];
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	public int getWindow() {
+		return buffer.length;
+	}
+
+	/**
+	 * Função que indica se a janela já está cheia
+	 *
+	 * @return <code>true</code> se já foram fornecidas ao menos
+	 *         {@link #getWindow()} amostras
+	 */
+	public boolean isFull() {
+		return count == buffer.length;
+	}
+
+	/**
+	 * Função que retorna a mediana atual
+	 *
+	 * @return mediana das amostras da janela (ou das amostras já fornecidas, se a
+	 *         janela ainda não estiver cheia), ou <code>NaN</code> se nenhuma
+	 *         amostra foi fornecida
+	 */
+	public double getMedian() {
+		if (count == 0)
+			return Double.NaN;
+		int h = count / 2;
+		return count % 2 == 1 ? sorted[h] : .5 * (sorted[h - 1] + sorted[h]);
+	}
+
+	/**
+	 * Função que descarta todas as amostras já fornecidas
+	 */
+	public void reset() {
+		pos = count = 0;
+	}
+
+	// ------------------------------ FILTRAGEM ------------------------------
+
+	/**
+	 * Função que fornece uma nova amostra
+	 *
+	 * @param x amostra
+	 * @return mediana atual (ver {@link #getMedian()})
+	 */
+	public double push(double x) {
+		if (count == buffer.length) {
+			// retira a amostra mais antiga
+			int i = Arrays.binarySearch(sorted, 0, count, buffer[pos]);
+			System.arraycopy(sorted, i + 1, sorted, i, count - i - 1);
+			count--;
+		}
+
+		int i = Arrays.binarySearch(sorted, 0, count, x);
+		if (i < 0)
+			i = -i - 1;
+		System.arraycopy(sorted, i, sorted, i + 1, count - i);
+		sorted[i] = x;
+		count++;
+
+		buffer[pos] = x;
+		if (++pos == buffer.length)
+			pos = 0;
+		return getMedian();
+	}
+
+	/**
+	 * Função que filtra um trecho de um bloco de amostras
+	 *
+	 * @param in        amostras de entrada
+	 * @param inOffset  posição da primeira amostra de entrada
+	 * @param out       vetor a ser preenchido com a mediana após cada amostra
+	 *                  (pode ser o próprio vetor de entrada)
+	 * @param outOffset posição da primeira amostra de saída
+	 * @param n         número de amostras
+	 */
+	public void process(double[] in, int inOffset, double[] out, int outOffset, int n) {
+		for (int i = 0; i < n; i++)
+			out[outOffset + i] = push(in[inOffset + i]);
+	}
+
+	/**
+	 * Função que calcula a mediana móvel de um sinal inteiro
+	 *
+	 * @param y      amostras do sinal
+	 * @param window número de pontos usados para se calcular a mediana
+	 * @return vetor com a mediana após cada amostra (as primeiras
+	 *         <code>window - 1</code> posições contêm a mediana das amostras
+	 *         disponíveis até então)
+	 */
+	public static double[] filter(double[] y, int window) {
+		double[] out = new double[y.length];
+		new MovingMedian(window).process(y, 0, out, 0, y.length);
+		return out;
+	}
+}
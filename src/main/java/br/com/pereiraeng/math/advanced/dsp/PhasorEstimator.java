@@ -0,0 +1,434 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import java.util.Arrays;
+
+import br.com.pereiraeng.core.ExtendedMath;
+
+/**
+ * Classe do objeto que estima continuamente, para vários sinais amostrados
+ * simultaneamente, o fasor da componente fundamental (módulo eficaz e ângulo),
+ * a frequência e a taxa de variação da frequência (ROCOF), à maneira de uma
+ * unidade de medição fasorial.<br>
+ *
+ * O fasor é a DFT de um ou dois ciclos nominais, atualizada recursivamente a
+ * cada amostra (DFT deslizante não-rotativa) em O(1) por amostra e por sinal, e
+ * recalculada por completo periodicamente para que o erro de arredondamento não
+ * se acumule. A frequência é obtida da variação do ângulo entre dois relatórios
+ * sucessivos; com ela, corrige-se o ganho da janela, o atraso do seu centro e a
+ * imagem da frequência negativa quando o sinal está fora da frequência
+ * nominal.<br>
+ *
+ * A cada relatório, um {@link Frame} - reaproveitado entre os relatórios, sem
+ * criação de objetos - é entregue ao {@link Listener}. Um mesmo objeto não deve
+ * ser usado por mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class PhasorEstimator {
+
+	/**
+	 * número de janelas entre dois recálculos completos da DFT
+	 */
+	private static final int RESYNC_WINDOWS = 32;
+
+	private static final double SQRT2 = Math.sqrt(2.);
+
+	/**
+	 * Interface do objeto que recebe os relatórios
+	 */
+	public interface Listener {
+
+		/**
+		 * Função chamada a cada relatório
+		 *
+		 * @param frame relatório (reaproveitado: deve ser copiado se for guardado)
+		 */
+		void onFrame(Frame frame);
+	}
+
+	/**
+	 * Classe do objeto que contém as grandezas estimadas para todos os sinais num
+	 * dado instante. Os vetores são indexados pelo sinal
+	 */
+	public static class Frame {
+
+		private long sample;
+
+		private double time;
+
+		private final double[] magnitude, angle, frequency, rocof;
+
+		private Frame(int channels) {
+			this.magnitude = new double[channels];
+			this.angle = new double[channels];
+			this.frequency = new double[channels];
+			this.rocof = new double[channels];
+		}
+
+		/**
+		 * Função que retorna a posição da última amostra considerada
+		 *
+		 * @return número de amostras fornecidas até o relatório, menos um
+		 */
+		public long getSample() {
+			return sample;
+		}
+
+		/**
+		 * Função que retorna o instante do relatório
+		 *
+		 * @return instante da última amostra considerada, contado a partir da
+		 *         primeira amostra
+		 */
+		public double getTime() {
+			return time;
+		}
+
+		/**
+		 * @return módulo eficaz (RMS) do fasor de cada sinal
+		 */
+		public double[] getMagnitude() {
+			return magnitude;
+		}
+
+		/**
+		 * @return ângulo do fasor de cada sinal, em rad, referido a
+		 *         cos(2&pi;f<sub>0</sub>t)
+		 */
+		public double[] getAngle() {
+			return angle;
+		}
+
+		/**
+		 * @return frequência de cada sinal (<code>NaN</code> no primeiro relatório)
+		 */
+		public double[] getFrequency() {
+			return frequency;
+		}
+
+		/**
+		 * @return taxa de variação da frequência de cada sinal, por u.t.
+		 *         (<code>NaN</code> nos dois primeiros relatórios)
+		 */
+		public double[] getRocof() {
+			return rocof;
+		}
+	}
+
+	private final int channels;
+
+	private final double fs, f0, reportRate;
+
+	private final Listener listener;
+
+	/**
+	 * número de amostras da janela
+	 */
+	private final int n;
+
+	/**
+	 * 2/N, para que o módulo do fasor seja o valor de pico
+	 */
+	private final double scale;
+
+	/**
+	 * cos e sen de 2&pi;f<sub>0</sub>j/fs para cada posição j da janela
+	 */
+	private final double[] cos, sin;
+
+	/**
+	 * últimas amostras de cada sinal (buffers circulares)
+	 */
+	private final double[][] ring;
+
+	/**
+	 * DFT corrente de cada sinal
+	 */
+	private final double[] re, im;
+
+	/**
+	 * DFT e frequência do relatório anterior
+	 */
+	private final double[] lastXr, lastXi, lastFreq;
+
+	/**
+	 * fasor calculado por {@link #correct(double, double, double, int)}
+	 */
+	private double pr, pi;
+
+	private final Frame frame;
+
+	/**
+	 * número de amostras já fornecidas
+	 */
+	private long count;
+
+	private int pos;
+
+	private long sinceResync;
+
+	/**
+	 * índice e amostra do próximo relatório, e amostra do relatório anterior
+	 */
+	private long reportIndex, reportAt, lastReport;
+
+	/**
+	 * Construtor do estimador
+	 *
+	 * @param channels   número de sinais
+	 * @param fs         taxa de amostragem, em amostras/u.t.
+	 * @param f0         frequência nominal, em ciclos/u.t.
+	 * @param cycles     número de ciclos nominais da janela (1 ou 2); a taxa de
+	 *                   amostragem deve conter um número inteiro de amostras em
+	 *                   cada janela
+	 * @param reportRate taxa de relatórios, em relatórios/u.t.
+	 * @param listener   objeto que recebe os relatórios
+	 */
+	public PhasorEstimator(int channels, double fs, double f0, int cycles, double reportRate, Listener listener) {
+		double spc = cycles * fs / f0;
+		int n = (int) Math.round(spc);
+		if (cycles < 1 || n < 2 || Math.abs(spc - n) > 1E-9 * spc)
+			throw new IllegalArgumentException("A janela deve conter um número inteiro de amostras");
+		if (!(reportRate > 0. && reportRate <= fs))
+			throw new IllegalArgumentException("Taxa de relatórios inválida");
+
+		this.channels = channels;
+		this.fs = fs;
+		this.f0 = f0;
+		this.reportRate = reportRate;
+		this.listener = listener;
+		this.n = n;
+		this.scale = 2. / n;
+
+		this.cos = new double[n];
+		this.sin = new double[n];
+		for (int j = 0; j < n; j++) {
+			double a = ExtendedMath.TWO_PI * cycles * j / n;
+			this.cos[j] = Math.cos(a);
+			this.sin[j] = Math.sin(a);
+		}
+
+		this.ring = new double[channels][n];
+		this.re = new double[channels];
+		this.im = new double[channels];
+		this.lastXr = new double[channels];
+		this.lastXi = new double[channels];
+		this.lastFreq = new double[channels];
+		this.frame = new Frame(channels);
+		reset();
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	public int getChannels() {
+		return channels;
+	}
+
+	/**
+	 * Função que retorna o tamanho da janela
+	 *
+	 * @return número de amostras da janela da DFT
+	 */
+	public int getWindow() {
+		return n;
+	}
+
+	/**
+	 * Função que descarta todas as amostras já fornecidas
+	 */
+	public void reset() {
+		for (int c = 0; c < channels; c++) {
+			Arrays.fill(ring[c], 0.);
+			re[c] = im[c] = 0.;
+			lastXr[c] = lastXi[c] = 0.;
+			lastFreq[c] = Double.NaN;
+		}
+		count = 0L;
+		pos = 0;
+		sinceResync = 0L;
+		// primeiro relatório com a janela cheia
+		reportIndex = (long) Math.ceil(n * reportRate / fs - 1E-9);
+		reportAt = reportSample(reportIndex);
+		lastReport = -1L;
+	}
+
+	private long reportSample(long index) {
+		return Math.max(n, Math.round(index * fs / reportRate));
+	}
+
+	// ------------------------------ ESTIMAÇÃO ------------------------------
+
+	/**
+	 * Função que fornece uma amostra simultânea de todos os sinais
+	 *
+	 * @param sample valor de cada sinal
+	 */
+	public void push(double[] sample) {
+		for (int c = 0; c < channels; c++) {
+			double x = sample[c];
+			double d = (x - ring[c][pos]) * scale;
+			re[c] += d * cos[pos];
+			im[c] -= d * sin[pos];
+			ring[c][pos] = x;
+		}
+		advance(1);
+	}
+
+	/**
+	 * Função que fornece um bloco de amostras de todos os sinais
+	 *
+	 * @param x      matriz cujo primeiro índice indica o sinal e o segundo a
+	 *               amostra
+	 * @param offset posição da primeira amostra
+	 * @param len    número de amostras
+	 */
+	public void process(double[][] x, int offset, int len) {
+		while (len > 0) {
+			// até o próximo relatório ou o fim do buffer circular
+			int chunk = (int) Math.min(len, Math.min(reportAt - count, n - pos));
+
+			for (int c = 0; c < channels; c++) {
+				double[] in = x[c], r = ring[c];
+				double sr = re[c], si = im[c];
+				for (int i = 0, j = pos; i < chunk; i++, j++) {
+					double v = in[offset + i];
+					double d = (v - r[j]) * scale;
+					sr += d * cos[j];
+					si -= d * sin[j];
+					r[j] = v;
+				}
+				re[c] = sr;
+				im[c] = si;
+			}
+
+			advance(chunk);
+			offset += chunk;
+			len -= chunk;
+		}
+	}
+
+	private void advance(int samples) {
+		pos += samples;
+		if (pos == n)
+			pos = 0;
+		count += samples;
+		sinceResync += samples;
+
+		if (sinceResync >= (long) RESYNC_WINDOWS * n) {
+			resync();
+			sinceResync = 0L;
+		}
+		if (count == reportAt) {
+			report();
+			reportAt = reportSample(++reportIndex);
+			while (reportAt <= count)
+				reportAt = reportSample(++reportIndex);
+		}
+	}
+
+	/**
+	 * Função que recalcula a DFT de cada sinal a partir das amostras da janela
+	 */
+	private void resync() {
+		for (int c = 0; c < channels; c++) {
+			// a posição j do buffer contém a amostra m tal que m mod N = j
+			re[c] = scale * Kernels.dot(ring[c], 0, cos, 0, n);
+			im[c] = -scale * Kernels.dot(ring[c], 0, sin, 0, n);
+		}
+	}
+
+	private void report() {
+		double dt = lastReport < 0L ? Double.NaN : (count - lastReport) / fs;
+		long sample = count - 1L;
+		int j = (int) (sample % n);
+
+		int lj = (int) ((lastReport - 1L + n) % n);
+
+		for (int c = 0; c < channels; c++) {
+			double xr = re[c], xi = im[c];
+			double raw = Math.atan2(xi, xr);
+
+			double f = Double.NaN, rocof = Double.NaN;
+			if (lastReport >= 0L) {
+				// estimativa grosseira pelo ângulo da DFT, refinada pelos ângulos dos
+				// fasores (deste relatório e do anterior) corrigidos com ela
+				double w = ExtendedMath.TWO_PI * dt;
+				f = f0 + wrap(raw - Math.atan2(lastXi[c], lastXr[c])) / w;
+				correct(lastXr[c], lastXi[c], f, lj);
+				double a0 = Math.atan2(pi, pr);
+				correct(xr, xi, f, j);
+				f = f0 + wrap(Math.atan2(pi, pr) - a0) / w;
+				if (!Double.isNaN(lastFreq[c]))
+					rocof = (f - lastFreq[c]) / dt;
+			}
+			correct(xr, xi, Double.isNaN(f) ? f0 : f, j);
+
+			lastXr[c] = xr;
+			lastXi[c] = xi;
+			lastFreq[c] = f;
+
+			frame.magnitude[c] = Math.hypot(pr, pi) / SQRT2;
+			frame.angle[c] = Math.atan2(pi, pr);
+			frame.frequency[c] = f;
+			frame.rocof[c] = rocof;
+		}
+		frame.sample = sample;
+		frame.time = sample / fs;
+		lastReport = count;
+
+		if (listener != null)
+			listener.onFrame(frame);
+	}
+
+	/**
+	 * Função que calcula o fasor na última amostra a partir da DFT, dada a
+	 * frequência do sinal. Para um sinal A·cos(&theta;m + &phi;), a DFT é
+	 * <code>X = a·P + b·conj(P)</code>, onde P é o fasor na última amostra, a
+	 * contém o ganho da janela e o atraso do seu centro e b a imagem da frequência
+	 * negativa (nula na frequência nominal); resolve-se então P. O resultado fica
+	 * em {@link #pr} e {@link #pi}
+	 *
+	 * @param xr parte real da DFT
+	 * @param xi parte imaginária da DFT
+	 * @param f  frequência do sinal
+	 * @param j  posição da última amostra na janela
+	 */
+	private void correct(double xr, double xi, double f, int j) {
+		double th0 = ExtendedMath.TWO_PI * f0 / fs, th = ExtendedMath.TWO_PI * f / fs;
+		double d = th - th0, s = th + th0;
+		double h = (n - 1) / 2.;
+
+		double g1 = dirichlet(d) / n;
+		double ar = g1 * Math.cos(d * h), ai = -g1 * Math.sin(d * h);
+
+		// e^(i·s·h)·e^(-2i·th0·j)
+		double g2 = dirichlet(s) / n;
+		double c = cos[j], sn = sin[j];
+		double c2 = c * c - sn * sn, s2 = 2. * c * sn;
+		double er = Math.cos(s * h), ei = Math.sin(s * h);
+		double br = g2 * (er * c2 + ei * s2), bi = g2 * (ei * c2 - er * s2);
+
+		double det = ar * ar + ai * ai - br * br - bi * bi;
+		pr = (ar * xr + ai * xi - br * xr - bi * xi) / det;
+		pi = (ar * xi - ai * xr - bi * xr + br * xi) / det;
+	}
+
+	/**
+	 * Função que calcula sen(N&alpha;/2)/sen(&alpha;/2), o ganho de uma soma de N
+	 * exponenciais complexas
+	 */
+	private double dirichlet(double alpha) {
+		double den = Math.sin(alpha / 2.);
+		return Math.abs(den) < 1E-12 ? (Math.cos(n * alpha / 2.) / Math.cos(alpha / 2.)) * n : Math.sin(n * alpha / 2.) / den;
+	}
+
+	private static double wrap(double a) {
+		a %= ExtendedMath.TWO_PI;
+		if (a > Math.PI)
+			a -= ExtendedMath.TWO_PI;
+		else if (a <= -Math.PI)
+			a += ExtendedMath.TWO_PI;
+		return a;
+	}
+}
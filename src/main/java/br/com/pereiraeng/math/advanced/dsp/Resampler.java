@@ -0,0 +1,359 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import br.com.pereiraeng.math.advanced.dsp.Windowing.WindowType;
+
+/**
+ * Classe do objeto que reamostra um sinal regularmente amostrado por uma razão
+ * racional L/M (interpolação por L seguida de dizimação por M), através de
+ * filtros polifásicos: cada amostra de saída custa apenas os coeficientes de
+ * uma fase do filtro anti-aliasing, sem que as amostras nulas da interpolação
+ * ou as amostras descartadas na dizimação sejam calculadas.<br>
+ *
+ * Razões grandes são decompostas em estágios sucessivos, cada um com fatores de
+ * no máximo {@link #MAX_STAGE_FACTOR} (exceto fatores primos maiores), o que
+ * mantém os filtros curtos. O objeto guarda seu estado entre as chamadas de
+ * {@link #process(double[], int, int, double[], int)}, de modo que um sinal de
+ * tamanho ilimitado pode ser reamostrado em blocos sucessivos. Um mesmo objeto
+ * não deve ser usado por mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class Resampler {
+
+	/**
+	 * maior fator de interpolação ou dizimação de um estágio
+	 */
+	public static final int MAX_STAGE_FACTOR = 8;
+
+	/**
+	 * número padrão de cruzamentos por zero da sinc de cada lado do centro do
+	 * filtro
+	 */
+	public static final int DEFAULT_HALF_LENGTH = 12;
+
+	/**
+	 * fração da frequência de Nyquist usada como corte dos filtros
+	 */
+	private static final double CUTOFF = .9;
+
+	private final int up, down;
+
+	private final Stage[] stages;
+
+	/**
+	 * saídas intermediárias de cada estágio (exceto o último)
+	 */
+	private final double[][] buffers;
+
+	/**
+	 * Construtor do reamostrador
+	 *
+	 * @param up   fator de interpolação L
+	 * @param down fator de dizimação M
+	 */
+	public Resampler(int up, int down) {
+		this(up, down, DEFAULT_HALF_LENGTH);
+	}
+
+	/**
+	 * Construtor do reamostrador
+	 *
+	 * @param up         fator de interpolação L
+	 * @param down       fator de dizimação M
+	 * @param halfLength número de cruzamentos por zero da sinc de cada lado do
+	 *                   centro dos filtros (quanto maior, mais seletivos e mais
+	 *                   caros)
+	 */
+	public Resampler(int up, int down, int halfLength) {
+		if (up < 1 || down < 1 || halfLength < 1)
+			throw new IllegalArgumentException("Fatores de reamostragem inválidos");
+
+		int g = gcd(up, down);
+		this.up = up / g;
+		this.down = down / g;
+
+		int[] ls = factors(this.up), ms = factors(this.down);
+		int ns = Math.max(1, Math.max(ls.length, ms.length));
+		this.stages = new Stage[ns];
+		for (int i = 0; i < ns; i++) {
+			// interpola-se nos primeiros estágios e dizima-se com os maiores fatores
+			// primeiro, de modo que a taxa intermediária fique próxima das taxas
+			// de entrada e saída
+			int l = i < ls.length ? ls[i] : 1;
+			int m = i < ms.length ? ms[i] : 1;
+			this.stages[i] = new Stage(l, m, halfLength);
+		}
+		this.buffers = new double[ns - 1][0];
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	/**
+	 * Função que retorna o fator de interpolação (já simplificado)
+	 *
+	 * @return fator L
+	 */
+	public int getUp() {
+		return up;
+	}
+
+	/**
+	 * Função que retorna o fator de dizimação (já simplificado)
+	 *
+	 * @return fator M
+	 */
+	public int getDown() {
+		return down;
+	}
+
+	/**
+	 * Função que retorna o número de estágios
+	 *
+	 * @return número de estágios
+	 */
+	public int getStages() {
+		return stages.length;
+	}
+
+	/**
+	 * Função que retorna o atraso introduzido pelos filtros
+	 *
+	 * @return atraso, em número de amostras de entrada
+	 */
+	public double getDelay() {
+		double out = 0., rate = 1.; // taxa do estágio relativa à de entrada
+		for (Stage s : stages) {
+			out += s.delay() / rate;
+			rate *= (double) s.l / s.m;
+		}
+		return out;
+	}
+
+	/**
+	 * Função que retorna o maior número de amostras de saída que um bloco de
+	 * entrada pode produzir
+	 *
+	 * @param n número de amostras de entrada
+	 * @return tamanho suficiente para o vetor de saída
+	 */
+	public int getMaxOutput(int n) {
+		for (Stage s : stages)
+			n = s.maxOutput(n);
+		return n;
+	}
+
+	/**
+	 * Função que zera o estado do reamostrador
+	 */
+	public void reset() {
+		for (Stage s : stages)
+			s.reset();
+	}
+
+	// ------------------------------ REAMOSTRAGEM ------------------------------
+
+	/**
+	 * Função que reamostra um bloco de amostras
+	 *
+	 * @param in  amostras de entrada
+	 * @param out vetor a ser preenchido com as amostras de saída (deve ter ao
+	 *            menos {@link #getMaxOutput(int)} posições)
+	 * @return número de amostras de saída produzidas
+	 */
+	public int process(double[] in, double[] out) {
+		return process(in, 0, in.length, out, 0);
+	}
+
+	/**
+	 * Função que reamostra um trecho de um bloco de amostras
+	 *
+	 * @param in        amostras de entrada
+	 * @param inOffset  posição da primeira amostra de entrada
+	 * @param n         número de amostras de entrada
+	 * @param out       vetor a ser preenchido com as amostras de saída (deve ter
+	 *                  ao menos {@link #getMaxOutput(int)} posições a partir de
+	 *                  <code>outOffset</code>)
+	 * @param outOffset posição da primeira amostra de saída
+	 * @return número de amostras de saída produzidas
+	 */
+	public int process(double[] in, int inOffset, int n, double[] out, int outOffset) {
+		int last = stages.length - 1;
+		for (int i = 0; i < last; i++) {
+			int max = stages[i].maxOutput(n);
+			if (buffers[i].length < max)
+				buffers[i] = new double[max];
+			n = stages[i].process(in, inOffset, n, buffers[i], 0);
+			in = buffers[i];
+			inOffset = 0;
+		}
+		return stages[last].process(in, inOffset, n, out, outOffset);
+	}
+
+	/**
+	 * Função que reamostra um sinal inteiro, a partir de um estado zerado
+	 *
+	 * @param y    amostras do sinal
+	 * @param up   fator de interpolação L
+	 * @param down fator de dizimação M
+	 * @return amostras do sinal reamostrado (com o atraso dos filtros, ver
+	 *         {@link #getDelay()})
+	 */
+	public static double[] resample(double[] y, int up, int down) {
+		Resampler r = new Resampler(up, down);
+		double[] out = new double[r.getMaxOutput(y.length)];
+		int n = r.process(y, out);
+		return n == out.length ? out : Arrays.copyOf(out, n);
+	}
+
+	// ------------------------------ FATORAÇÃO ------------------------------
+
+	private static int gcd(int a, int b) {
+		while (b != 0) {
+			int t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	/**
+	 * Função que agrupa os fatores primos de um número em fatores de no máximo
+	 * {@link #MAX_STAGE_FACTOR} (fatores primos maiores ficam isolados)
+	 *
+	 * @param n número
+	 * @return fatores, em ordem decrescente
+	 */
+	private static int[] factors(int n) {
+		List<Integer> primes = new ArrayList<>();
+		for (int p = 2; p * p <= n; p++)
+			while (n % p == 0) {
+				primes.add(p);
+				n /= p;
+			}
+		if (n > 1)
+			primes.add(n);
+
+		// agrupamento guloso, dos maiores primos para os menores
+		List<Integer> out = new ArrayList<>();
+		for (int i = primes.size() - 1; i >= 0; i--) {
+			int p = primes.get(i);
+			boolean placed = false;
+			for (int j = 0; j < out.size() && !placed; j++)
+				if (out.get(j) * p <= MAX_STAGE_FACTOR) {
+					out.set(j, out.get(j) * p);
+					placed = true;
+				}
+			if (!placed)
+				out.add(p);
+		}
+
+		int[] f = new int[out.size()];
+		for (int i = 0; i < f.length; i++)
+			f[i] = out.get(i);
+		Arrays.sort(f);
+		for (int i = 0; i < f.length / 2; i++) {
+			int t = f[i];
+			f[i] = f[f.length - 1 - i];
+			f[f.length - 1 - i] = t;
+		}
+		return f;
+	}
+
+	// ------------------------------ ESTÁGIO ------------------------------
+
+	/**
+	 * Estágio de reamostragem polifásica por l/m
+	 */
+	private static class Stage {
+
+		private final int l, m;
+
+		/**
+		 * coeficientes de cada fase, em ordem reversa
+		 */
+		private final double[][] phases;
+
+		/**
+		 * número de coeficientes do protótipo
+		 */
+		private final int taps;
+
+		/**
+		 * últimas amostras de entrada, duplicadas para que a janela seja contígua
+		 */
+		private final double[] hist;
+
+		private int pos;
+
+		/**
+		 * posição da próxima saída na taxa interpolada, relativa à última amostra
+		 * de entrada
+		 */
+		private int t;
+
+		private Stage(int l, int m, int halfLength) {
+			this.l = l;
+			this.m = m;
+
+			int r = Math.max(l, m);
+			int k = (2 * halfLength * r + l) / l; // coeficientes por fase
+			this.taps = k * l - 1;
+
+			if (r == 1) {
+				this.phases = new double[][] { { 1. } };
+				this.hist = new double[2];
+				return;
+			}
+
+			// passa-baixa na taxa interpolada, com ganho l para compensar os zeros
+			double[] h = FIRFilter.lowPass(taps, CUTOFF * Math.PI / r, 1., WindowType.HAMMING);
+
+			this.phases = new double[l][k];
+			for (int p = 0; p < l; p++)
+				for (int j = 0; j < k; j++) {
+					int i = p + j * l;
+					this.phases[p][k - 1 - j] = i < taps ? l * h[i] : 0.;
+				}
+			this.hist = new double[2 * k];
+		}
+
+		private double delay() {
+			// atraso do protótipo em amostras da taxa de entrada
+			return phases.length == 1 && phases[0].length == 1 ? 0. : (taps - 1) / 2. / l;
+		}
+
+		private int maxOutput(int n) {
+			return (int) (((long) n * l + m - 1) / m) + 1;
+		}
+
+		private void reset() {
+			Arrays.fill(hist, 0.);
+			pos = 0;
+			t = 0;
+		}
+
+		private int process(double[] in, int inOffset, int n, double[] out, int outOffset) {
+			int k = phases[0].length;
+			int o = outOffset;
+			for (int i = 0; i < n; i++) {
+				double x = in[inOffset + i];
+				hist[pos] = x;
+				hist[pos + k] = x;
+
+				// saídas cujo instante interpolado está entre esta amostra e a próxima
+				for (; t < l; t += m)
+					out[o++] = Kernels.dot(phases[t], 0, hist, pos + 1, k);
+				t -= l;
+
+				if (++pos == k)
+					pos = 0;
+			}
+			return o - outOffset;
+		}
+	}
+}
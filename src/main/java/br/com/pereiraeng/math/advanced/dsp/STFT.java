@@ -0,0 +1,310 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import br.com.pereiraeng.math.advanced.dsp.Windowing.WindowType;
+
+/**
+ * Classe do objeto que calcula a transformada de Fourier de tempo curto (STFT)
+ * de um sinal regularmente amostrado: o sinal é dividido em quadros de tamanho
+ * fixo, espaçados de um passo (que pode ser menor que o quadro), e cada quadro
+ * é janelado e transformado por uma {@link FFT}.<br>
+ *
+ * O resultado é o módulo de cada componente de 0 até a frequência de Nyquist,
+ * normalizado de modo que uma senoide no centro de um componente tenha o valor
+ * de sua amplitude de pico. Os quadros de um sinal inteiro são calculados em
+ * paralelo e escritos num único vetor (quadro por quadro); sinais de tamanho
+ * ilimitado podem ser processados por um {@link Stream}, que entrega os quadros
+ * um a um sem guardar o espectrograma.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class STFT {
+
+	/**
+	 * número mínimo de quadros de uma tarefa paralela
+	 */
+	private static final int MIN_FRAMES = 16;
+
+	private final int frame, hop, bins;
+
+	private final FFT fft;
+
+	/**
+	 * coeficientes da janela
+	 */
+	private final double[] window;
+
+	/**
+	 * fator de normalização de cada componente
+	 */
+	private final double[] norm;
+
+	/**
+	 * Construtor
+	 *
+	 * @param frame número de amostras de cada quadro
+	 * @param hop   número de amostras entre o início de dois quadros sucessivos
+	 * @param type  janela aplicada sobre cada quadro
+	 */
+	public STFT(int frame, int hop, WindowType type) {
+		this(frame, hop, new Windowing(type));
+	}
+
+	/**
+	 * Construtor
+	 *
+	 * @param frame  número de amostras de cada quadro
+	 * @param hop    número de amostras entre o início de dois quadros sucessivos
+	 * @param window janela aplicada sobre cada quadro
+	 */
+	public STFT(int frame, int hop, Windowing window) {
+		if (frame < 2 || hop < 1)
+			throw new IllegalArgumentException("Quadro ou passo inválido");
+		this.frame = frame;
+		this.hop = hop;
+		this.bins = frame / 2 + 1;
+		this.fft = FFT.get(frame);
+		this.window = window.table(frame);
+
+		double sum = 0.;
+		for (double w : this.window)
+			sum += w;
+		this.norm = new double[bins];
+		for (int k = 0; k < bins; k++)
+			// componentes que têm par conjugado valem a metade da amplitude
+			this.norm[k] = (k == 0 || 2 * k == frame ? 1. : 2.) / sum;
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	public int getFrame() {
+		return frame;
+	}
+
+	public int getHop() {
+		return hop;
+	}
+
+	/**
+	 * Função que retorna o número de componentes de cada quadro
+	 *
+	 * @return número de componentes, de 0 até a frequência de Nyquist
+	 */
+	public int getBins() {
+		return bins;
+	}
+
+	/**
+	 * Função que retorna o número de quadros completos de um sinal
+	 *
+	 * @param n número de amostras do sinal
+	 * @return número de quadros
+	 */
+	public int getFrames(int n) {
+		return n < frame ? 0 : 1 + (n - frame) / hop;
+	}
+
+	// ------------------------------ SINAL INTEIRO ------------------------------
+
+	/**
+	 * Função que calcula o espectrograma de um sinal, em paralelo no pool comum de
+	 * threads
+	 *
+	 * @param y amostras do sinal
+	 * @return matriz cujo primeiro índice indica o quadro e o segundo o componente
+	 */
+	public float[][] spectrogram(double[] y) {
+		int frames = getFrames(y.length);
+		float[] flat = new float[frames * bins];
+		process(y, 0, y.length, flat, ForkJoinPool.commonPool());
+
+		float[][] out = new float[frames][bins];
+		for (int f = 0; f < frames; f++)
+			System.arraycopy(flat, f * bins, out[f], 0, bins);
+		return out;
+	}
+
+	/**
+	 * Função que calcula o espectrograma de um trecho de um sinal, em paralelo
+	 *
+	 * @param y      amostras do sinal
+	 * @param offset posição da primeira amostra
+	 * @param n      número de amostras
+	 * @param out    vetor a ser preenchido quadro por quadro (o componente k do
+	 *               quadro f fica na posição <code>f·getBins() + k</code>); deve
+	 *               ter ao menos <code>getFrames(n)·getBins()</code> posições
+	 * @param pool   pool de threads onde os quadros serão calculados
+	 * @return número de quadros calculados
+	 */
+	public int process(double[] y, int offset, int n, float[] out, ForkJoinPool pool) {
+		int frames = getFrames(n);
+		if (frames > 0)
+			pool.invoke(new Frames(y, offset, out, 0, frames));
+		return frames;
+	}
+
+	/**
+	 * Função que calcula o módulo dos componentes de um quadro
+	 *
+	 * @param y      amostras do sinal
+	 * @param offset posição da primeira amostra do quadro
+	 * @param re     área de trabalho (tamanho do quadro)
+	 * @param im     área de trabalho (tamanho do quadro)
+	 * @param out    vetor a ser preenchido com o módulo dos componentes
+	 * @param outOff posição do primeiro componente
+	 */
+	private void frame(double[] y, int offset, double[] re, double[] im, float[] out, int outOff) {
+		System.arraycopy(y, offset, re, 0, frame);
+		Kernels.multiply(re, 0, window, frame);
+		for (int i = 0; i < frame; i++)
+			im[i] = 0.;
+		fft.transform(re, im);
+		for (int k = 0; k < bins; k++)
+			out[outOff + k] = (float) (Math.sqrt(re[k] * re[k] + im[k] * im[k]) * norm[k]);
+	}
+
+	private class Frames extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] y;
+
+		private final float[] out;
+
+		private final int offset, from, to;
+
+		private Frames(double[] y, int offset, float[] out, int from, int to) {
+			this.y = y;
+			this.offset = offset;
+			this.out = out;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > MIN_FRAMES) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Frames(y, offset, out, from, mid), new Frames(y, offset, out, mid, to));
+			} else {
+				double[] re = new double[frame], im = new double[frame];
+				for (int f = from; f < to; f++)
+					frame(y, offset + f * hop, re, im, out, f * bins);
+			}
+		}
+	}
+
+	// ------------------------------ FLUXO ------------------------------
+
+	/**
+	 * Interface do objeto que recebe os quadros de um {@link Stream}
+	 */
+	public interface Listener {
+
+		/**
+		 * Função chamada a cada quadro
+		 *
+		 * @param index      índice do quadro (o quadro começa na amostra
+		 *                   <code>index·getHop()</code>)
+		 * @param magnitudes módulo de cada componente (vetor reaproveitado: deve ser
+		 *                   copiado se for guardado)
+		 */
+		void onFrame(long index, float[] magnitudes);
+	}
+
+	/**
+	 * Função que cria um objeto que calcula a STFT de um sinal fornecido em blocos
+	 * sucessivos
+	 *
+	 * @param listener objeto que recebe os quadros
+	 * @return fluxo
+	 */
+	public Stream stream(Listener listener) {
+		return new Stream(listener);
+	}
+
+	/**
+	 * Classe do objeto que calcula a STFT de um sinal fornecido em blocos
+	 * sucessivos, entregando cada quadro assim que ele estiver completo. Somente
+	 * as amostras de um quadro são guardadas. Um mesmo objeto não deve ser usado
+	 * por mais de uma thread ao mesmo tempo
+	 */
+	public class Stream {
+
+		private final Listener listener;
+
+		/**
+		 * amostras do quadro corrente
+		 */
+		private final double[] buffer;
+
+		private final double[] re, im;
+
+		private final float[] magnitudes;
+
+		/**
+		 * número de amostras do quadro corrente e amostras a descartar antes do
+		 * próximo quadro (passo maior que o quadro)
+		 */
+		private int fill, skip;
+
+		private long index;
+
+		private Stream(Listener listener) {
+			this.listener = listener;
+			this.buffer = new double[frame];
+			this.re = new double[frame];
+			this.im = new double[frame];
+			this.magnitudes = new float[bins];
+		}
+
+		/**
+		 * Função que fornece um bloco de amostras
+		 *
+		 * @param y      amostras do sinal
+		 * @param offset posição da primeira amostra
+		 * @param n      número de amostras
+		 */
+		public void push(double[] y, int offset, int n) {
+			while (n > 0) {
+				if (skip > 0) {
+					int s = Math.min(skip, n);
+					skip -= s;
+					offset += s;
+					n -= s;
+					continue;
+				}
+
+				int c = Math.min(frame - fill, n);
+				System.arraycopy(y, offset, buffer, fill, c);
+				fill += c;
+				offset += c;
+				n -= c;
+
+				if (fill == frame) {
+					frame(buffer, 0, re, im, magnitudes, 0);
+					listener.onFrame(index++, magnitudes);
+
+					if (hop < frame) {
+						System.arraycopy(buffer, hop, buffer, 0, frame - hop);
+						fill = frame - hop;
+					} else {
+						fill = 0;
+						skip = hop - frame;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Função que descarta as amostras já fornecidas
+		 */
+		public void reset() {
+			fill = skip = 0;
+			index = 0L;
+		}
+	}
+}
@@ -0,0 +1,310 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import br.com.pereiraeng.math.advanced.dsp.Windowing.WindowType;
+
+/**
+ * Classe do objeto que estima a densidade espectral de potência (PSD) de um
+ * sinal pelo método de Welch: o sinal é dividido em segmentos sobrepostos, cada
+ * segmento é janelado e transformado por uma {@link FFT}, e os quadrados dos
+ * módulos são somados. Com dois sinais, estima-se também a densidade espectral
+ * cruzada (CSD) e a coerência quadrática.<br>
+ *
+ * As amostras são fornecidas em blocos sucessivos de qualquer tamanho e só se
+ * guardam as amostras de um segmento e as somas de cada componente, de modo que
+ * registros de qualquer duração são processados numa única passagem e com
+ * memória limitada. As estimativas são unilaterais (de 0 até a frequência de
+ * Nyquist), em unidade<sup>2</sup>/Hz. Um mesmo objeto não deve ser usado por
+ * mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class Welch {
+
+	private final int segment, hop, bins;
+
+	private final double fs;
+
+	/**
+	 * <code>true</code> se dois sinais são analisados
+	 */
+	private final boolean cross;
+
+	private final FFT fft;
+
+	private final double[] window;
+
+	/**
+	 * fator que converte a média dos quadrados dos módulos em densidade
+	 */
+	private final double[] scale;
+
+	/**
+	 * amostras do segmento corrente de cada sinal
+	 */
+	private final double[] bx, by;
+
+	private final double[] re, im;
+
+	/**
+	 * somas de |X|², |Y|² e X·conj(Y) de cada componente
+	 */
+	private final double[] sxx, syy, sxyRe, sxyIm;
+
+	private int fill;
+
+	private long segments;
+
+	/**
+	 * Construtor do estimador da PSD de um sinal
+	 *
+	 * @param segment número de amostras de cada segmento
+	 * @param overlap número de amostras em comum entre dois segmentos sucessivos
+	 *                (usualmente a metade do segmento)
+	 * @param type    janela aplicada sobre cada segmento
+	 * @param fs      taxa de amostragem, em amostras/u.t.
+	 */
+	public Welch(int segment, int overlap, WindowType type, double fs) {
+		this(segment, overlap, new Windowing(type), fs, false);
+	}
+
+	/**
+	 * Construtor do estimador
+	 *
+	 * @param segment número de amostras de cada segmento
+	 * @param overlap número de amostras em comum entre dois segmentos sucessivos
+	 *                (usualmente a metade do segmento)
+	 * @param window  janela aplicada sobre cada segmento
+	 * @param fs      taxa de amostragem, em amostras/u.t.
+	 * @param cross   <code>true</code> para analisar dois sinais (PSD de cada um,
+	 *                CSD e coerência), <code>false</code> para um único sinal
+	 */
+	public Welch(int segment, int overlap, Windowing window, double fs, boolean cross) {
+		if (segment < 2 || overlap < 0 || overlap >= segment)
+			throw new IllegalArgumentException("Segmento ou sobreposição inválidos");
+		this.segment = segment;
+		this.hop = segment - overlap;
+		this.bins = segment / 2 + 1;
+		this.fs = fs;
+		this.cross = cross;
+		this.fft = FFT.get(segment);
+		this.window = window.table(segment);
+
+		double s2 = 0.;
+		for (double w : this.window)
+			s2 += w * w;
+		this.scale = new double[bins];
+		for (int k = 0; k < bins; k++)
+			// potência das frequências negativas somada às positivas
+			this.scale[k] = (k == 0 || 2 * k == segment ? 1. : 2.) / (fs * s2);
+
+		this.bx = new double[segment];
+		this.by = cross ? new double[segment] : null;
+		this.re = new double[segment];
+		this.im = new double[segment];
+		this.sxx = new double[bins];
+		this.syy = cross ? new double[bins] : null;
+		this.sxyRe = cross ? new double[bins] : null;
+		this.sxyIm = cross ? new double[bins] : null;
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	/**
+	 * Função que retorna o número de componentes das estimativas
+	 *
+	 * @return número de componentes, de 0 até a frequência de Nyquist
+	 */
+	public int getBins() {
+		return bins;
+	}
+
+	/**
+	 * Função que retorna as frequências dos componentes
+	 *
+	 * @return frequência de cada componente, em ciclos/u.t.
+	 */
+	public double[] getFrequencies() {
+		double[] out = new double[bins];
+		for (int k = 0; k < bins; k++)
+			out[k] = k * fs / segment;
+		return out;
+	}
+
+	/**
+	 * Função que retorna o número de segmentos já acumulados
+	 *
+	 * @return número de segmentos
+	 */
+	public long getSegments() {
+		return segments;
+	}
+
+	/**
+	 * Função que descarta todas as amostras e somas já acumuladas
+	 */
+	public void reset() {
+		fill = 0;
+		segments = 0L;
+		for (int k = 0; k < bins; k++) {
+			sxx[k] = 0.;
+			if (cross)
+				syy[k] = sxyRe[k] = sxyIm[k] = 0.;
+		}
+	}
+
+	// ------------------------------ ACUMULAÇÃO ------------------------------
+
+	/**
+	 * Função que fornece um bloco de amostras de um sinal
+	 *
+	 * @param x      amostras do sinal
+	 * @param offset posição da primeira amostra
+	 * @param n      número de amostras
+	 */
+	public void push(double[] x, int offset, int n) {
+		if (cross)
+			throw new IllegalStateException("O estimador foi criado para dois sinais");
+		push(x, null, offset, n);
+	}
+
+	/**
+	 * Função que fornece um bloco de amostras simultâneas de dois sinais
+	 *
+	 * @param x      amostras do primeiro sinal
+	 * @param y      amostras do segundo sinal
+	 * @param offset posição da primeira amostra
+	 * @param n      número de amostras
+	 */
+	public void push(double[] x, double[] y, int offset, int n) {
+		if (cross == (y == null))
+			throw new IllegalStateException("O estimador foi criado para " + (cross ? "dois sinais" : "um sinal"));
+
+		while (n > 0) {
+			int c = Math.min(segment - fill, n);
+			System.arraycopy(x, offset, bx, fill, c);
+			if (cross)
+				System.arraycopy(y, offset, by, fill, c);
+			fill += c;
+			offset += c;
+			n -= c;
+
+			if (fill == segment) {
+				accumulate();
+
+				System.arraycopy(bx, hop, bx, 0, segment - hop);
+				if (cross)
+					System.arraycopy(by, hop, by, 0, segment - hop);
+				fill = segment - hop;
+			}
+		}
+	}
+
+	private void accumulate() {
+		System.arraycopy(bx, 0, re, 0, segment);
+		Kernels.multiply(re, 0, window, segment);
+		if (cross) {
+			// os dois sinais reais numa única FFT: z = x + iy
+			System.arraycopy(by, 0, im, 0, segment);
+			Kernels.multiply(im, 0, window, segment);
+		} else
+			for (int i = 0; i < segment; i++)
+				im[i] = 0.;
+
+		fft.transform(re, im);
+
+		if (!cross) {
+			for (int k = 0; k < bins; k++)
+				sxx[k] += re[k] * re[k] + im[k] * im[k];
+		} else {
+			for (int k = 0; k < bins; k++) {
+				int nk = k == 0 ? 0 : segment - k;
+				// X = (Z[k] + conj(Z[N-k]))/2, Y = (Z[k] - conj(Z[N-k]))/2i
+				double xr = .5 * (re[k] + re[nk]), xi = .5 * (im[k] - im[nk]);
+				double yr = .5 * (im[k] + im[nk]), yi = -.5 * (re[k] - re[nk]);
+				sxx[k] += xr * xr + xi * xi;
+				syy[k] += yr * yr + yi * yi;
+				sxyRe[k] += xr * yr + xi * yi;
+				sxyIm[k] += xi * yr - xr * yi;
+			}
+		}
+		segments++;
+	}
+
+	// ------------------------------ ESTIMATIVAS ------------------------------
+
+	/**
+	 * Função que retorna a densidade espectral de potência do (primeiro) sinal
+	 *
+	 * @return PSD de cada componente (<code>NaN</code> se nenhum segmento foi
+	 *         completado)
+	 */
+	public double[] getPsd() {
+		return density(sxx);
+	}
+
+	/**
+	 * Função que retorna a densidade espectral de potência do segundo sinal
+	 *
+	 * @return PSD de cada componente
+	 */
+	public double[] getPsdY() {
+		checkCross();
+		return density(syy);
+	}
+
+	/**
+	 * Função que retorna a densidade espectral cruzada entre os dois sinais,
+	 * <code>E[X·conj(Y)]</code>
+	 *
+	 * @return matriz com duas linhas: a primeira com as partes reais e a segunda
+	 *         com as partes imaginárias da CSD de cada componente
+	 */
+	public double[][] getCsd() {
+		checkCross();
+		return new double[][] { density(sxyRe), density(sxyIm) };
+	}
+
+	/**
+	 * Função que retorna a coerência quadrática entre os dois sinais,
+	 * <code>|Sxy|²/(Sxx·Syy)</code>
+	 *
+	 * @return coerência de cada componente, entre 0 e 1
+	 */
+	public double[] getCoherence() {
+		checkCross();
+		double[] out = new double[bins];
+		for (int k = 0; k < bins; k++) {
+			double den = sxx[k] * syy[k];
+			out[k] = den == 0. ? 0. : (sxyRe[k] * sxyRe[k] + sxyIm[k] * sxyIm[k]) / den;
+		}
+		return out;
+	}
+
+	private double[] density(double[] sum) {
+		double[] out = new double[bins];
+		for (int k = 0; k < bins; k++)
+			out[k] = sum[k] * scale[k] / segments;
+		return out;
+	}
+
+	private void checkCross() {
+		if (!cross)
+			throw new IllegalStateException("O estimador foi criado para um sinal");
+	}
+
+	/**
+	 * Função que estima a densidade espectral de potência de um sinal inteiro
+	 *
+	 * @param y       amostras do sinal
+	 * @param segment número de amostras de cada segmento
+	 * @param type    janela aplicada sobre cada segmento
+	 * @param fs      taxa de amostragem, em amostras/u.t.
+	 * @return PSD de cada componente (segmentos com 50% de sobreposição)
+	 */
+	public static double[] psd(double[] y, int segment, WindowType type, double fs) {
+		Welch w = new Welch(segment, segment / 2, type, fs);
+		w.push(y, 0, y.length);
+		return w.getPsd();
+	}
+}
@@ -1,80 +1,305 @@
 package br.com.pereiraeng.math.advanced.dsp;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import br.com.pereiraeng.core.ExtendedMath;
 
+/**
+ * Classe do objeto que aplica uma janela sobre uma sequência de amostras.<br>
+ *
+ * Para amostras regularmente espaçadas, os coeficientes de cada janela são
+ * calculados uma única vez para cada tamanho e guardados numa tabela
+ * compartilhada por todos os objetos (e por todas as threads).
+ *
+ * @author Philipe PEREIRA
+ *
+ */
 public class Windowing {
 
-	private WindowType type;
+	/**
+	 * número máximo de tabelas de coeficientes guardadas
+	 */
+	private static final int MAX_TABLES = 64;
+
+	/**
+	 * tabelas de coeficientes já calculadas, para cada janela e tamanho
+	 */
+	private static final Map<TableKey, double[]> TABLES = new ConcurrentHashMap<>();
+
+	private final WindowType type;
+
+	/**
+	 * parâmetro da janela (β da janela de Kaiser, α da janela de Tukey)
+	 */
+	private final double param;
 
 	public enum WindowType {
-		HANNING, HAMMING;
+		HANNING, HAMMING,
+		/**
+		 * janela de Blackman-Harris de 4 termos (lóbulos laterais a -92 dB)
+		 */
+		BLACKMAN_HARRIS,
+		/**
+		 * janela de topo plano (erro de amplitude desprezível mesmo fora do centro do
+		 * componente espectral)
+		 */
+		FLAT_TOP,
+		/**
+		 * janela de Kaiser, de parâmetro β
+		 */
+		KAISER,
+		/**
+		 * janela de Tukey (cosseno truncado), de parâmetro α: fração do tamanho
+		 * ocupada pelas bordas cossenoidais
+		 */
+		TUKEY;
+
+		/**
+		 * Função que retorna o valor padrão do parâmetro da janela
+		 *
+		 * @return parâmetro padrão (β = 8.6 para Kaiser, α = 0.5 para Tukey)
+		 */
+		public double getDefaultParam() {
+			switch (this) {
+			case KAISER:
+				return 8.6;
+			case TUKEY:
+				return .5;
+			default:
+				return 0.;
+			}
+		}
 	}
 
 	public Windowing(WindowType type) {
+		this(type, type.getDefaultParam());
+	}
+
+	/**
+	 * Construtor de uma janela parametrizada
+	 *
+	 * @param type  tipo de janela
+	 * @param param parâmetro da janela (β da janela de Kaiser, α da janela de
+	 *              Tukey; ignorado nas demais)
+	 */
+	public Windowing(WindowType type, double param) {
 		this.type = type;
+		this.param = type == WindowType.KAISER || type == WindowType.TUKEY ? param : 0.;
 	}
 
-	// ---------------- regularly espaced ----------------
+	public WindowType getType() {
+		return type;
+	}
 
-	public double[] apply(double[] xn) {
-		double[] out = new double[xn.length];
+	public double getParam() {
+		return param;
+	}
+
+	// ---------------- coeficientes ----------------
+
+	/**
+	 * Função que calcula o valor da janela
+	 *
+	 * @param x posição relativa, de 0 (início) a 1 (fim da janela)
+	 * @return coeficiente da janela
+	 */
+	public double value(double x) {
 		switch (type) {
 		case HANNING:
-			for (int i = 0; i < xn.length; i++)
-				out[i] = xn[i] * ExtendedMath.haversin(ExtendedMath.TWO_PI * i / (xn.length - 1));
-			break;
+			return ExtendedMath.haversin(ExtendedMath.TWO_PI * x);
 		case HAMMING:
-			for (int i = 0; i < xn.length; i++)
-				out[i] = xn[i] * (0.54 - 0.46 * Math.cos(ExtendedMath.TWO_PI * i / (xn.length - 1)));
-			break;
+			return 0.54 - 0.46 * Math.cos(ExtendedMath.TWO_PI * x);
+		case BLACKMAN_HARRIS: {
+			double a = ExtendedMath.TWO_PI * x;
+			return 0.35875 - 0.48829 * Math.cos(a) + 0.14128 * Math.cos(2. * a) - 0.01168 * Math.cos(3. * a);
+		}
+		case FLAT_TOP: {
+			double a = ExtendedMath.TWO_PI * x;
+			return 0.21557895 - 0.41663158 * Math.cos(a) + 0.277263158 * Math.cos(2. * a)
+					- 0.083578947 * Math.cos(3. * a) + 0.006947368 * Math.cos(4. * a);
+		}
+		case KAISER: {
+			double r = 2. * x - 1.;
+			double s = 1. - r * r;
+			return besselI0(param * Math.sqrt(s < 0. ? 0. : s)) / besselI0(param);
+		}
+		case TUKEY: {
+			if (param <= 0.)
+				return 1.;
+			double h = param / 2.;
+			if (x < h)
+				return ExtendedMath.haversin(Math.PI * x / h);
+			if (x > 1. - h)
+				return ExtendedMath.haversin(Math.PI * (1. - x) / h);
+			return 1.;
+		}
+		default:
+			throw new UnsupportedOperationException("Janela " + type + " não implementada");
+		}
+	}
+
+	/**
+	 * Função que retorna os coeficientes da janela para amostras regularmente
+	 * espaçadas (janela simétrica: o primeiro e o último coeficiente são as bordas
+	 * da janela)
+	 *
+	 * @param n número de amostras
+	 * @return cópia dos coeficientes
+	 */
+	public double[] getCoefficients(int n) {
+		return table(n).clone();
+	}
+
+	/**
+	 * Função que retorna o ganho coerente da janela, isto é, a média de seus
+	 * coeficientes. A amplitude de um componente espectral de um sinal janelado
+	 * deve ser dividida por este valor
+	 *
+	 * @param n número de amostras
+	 * @return ganho coerente
+	 */
+	public double getCoherentGain(int n) {
+		double[] w = table(n);
+		double out = 0.;
+		for (int i = 0; i < n; i++)
+			out += w[i];
+		return out / n;
+	}
+
+	/**
+	 * Função que retorna a tabela compartilhada de coeficientes, calculando-a na
+	 * primeira chamada. O vetor retornado não deve ser alterado
+	 *
+	 * @param n número de amostras
+	 * @return coeficientes
+	 */
+	double[] table(int n) {
+		TableKey key = new TableKey(type, param, n);
+		double[] out = TABLES.get(key);
+		if (out == null) {
+			out = new double[n];
+			if (n == 1)
+				out[0] = 1.;
+			else
+				for (int i = 0; i < n; i++)
+					out[i] = value((double) i / (n - 1));
+
+			if (TABLES.size() >= MAX_TABLES)
+				TABLES.clear();
+			TABLES.put(key, out);
 		}
 		return out;
 	}
 
-	public double[] reverse(double[] xn) {
-		double[] out = new double[xn.length];
-		switch (type) {
-		case HANNING:
-			for (int i = 0; i < xn.length; i++)
-				out[i] = xn[i] / ExtendedMath.haversin(ExtendedMath.TWO_PI * i / (xn.length - 1));
-			break;
-		case HAMMING:
-			for (int i = 0; i < xn.length; i++)
-				out[i] = xn[i] / (0.54 - 0.46 * Math.cos(ExtendedMath.TWO_PI * i / (xn.length - 1)));
-			break;
+	/**
+	 * Função de Bessel modificada de primeira espécie e ordem zero, pela sua série
+	 * de potências
+	 *
+	 * @param x argumento
+	 * @return I<sub>0</sub>(x)
+	 */
+	private static double besselI0(double x) {
+		double q = x * x / 4., term = 1., out = 1.;
+		for (int k = 1; term > 1E-17 * out; k++) {
+			term *= q / ((double) k * k);
+			out += term;
 		}
 		return out;
 	}
 
+	// ---------------- regularly espaced ----------------
+
+	public double[] apply(double[] xn) {
+		double[] out = xn.clone();
+		applyInPlace(out);
+		return out;
+	}
+
+	public double[] reverse(double[] xn) {
+		double[] out = xn.clone();
+		reverseInPlace(out);
+		return out;
+	}
+
+	/**
+	 * Função que aplica a janela sobre as amostras, no próprio vetor
+	 *
+	 * @param xn amostras regularmente espaçadas
+	 */
+	public void applyInPlace(double[] xn) {
+		applyInPlace(xn, 0, xn.length);
+	}
+
+	/**
+	 * Função que aplica a janela sobre um trecho de um vetor de amostras, no
+	 * próprio vetor
+	 *
+	 * @param xn     vetor de amostras regularmente espaçadas
+	 * @param offset posição da primeira amostra
+	 * @param n      número de amostras (tamanho da janela)
+	 */
+	public void applyInPlace(double[] xn, int offset, int n) {
+		Kernels.multiply(xn, offset, table(n), n);
+	}
+
+	/**
+	 * Função que desfaz a aplicação da janela sobre as amostras, no próprio vetor
+	 *
+	 * @param xn amostras regularmente espaçadas
+	 */
+	public void reverseInPlace(double[] xn) {
+		double[] w = table(xn.length);
+		for (int i = 0; i < xn.length; i++)
+			xn[i] /= w[i];
+	}
+
 	// ---------------- non-uniform espaced ----------------
 
 	public double[] apply(double[] tn, double[] xn, double T) {
 		double[] out = new double[xn.length];
-		switch (type) {
-		case HANNING:
-			for (int i = 0; i < tn.length; i++)
-				out[i] = xn[i] * ExtendedMath.haversin(ExtendedMath.TWO_PI * (tn[i] - tn[0]) / T);
-			break;
-		case HAMMING:
-			for (int i = 0; i < xn.length; i++)
-				out[i] = xn[i] * (0.54 - 0.46 * Math.cos(ExtendedMath.TWO_PI * (tn[i] - tn[0]) / T));
-			break;
-		}
+		for (int i = 0; i < xn.length; i++)
+			out[i] = xn[i] * value((tn[i] - tn[0]) / T);
 		return out;
 	}
 
 	public double[] reverse(double[] tn, double[] xn, double T) {
 		double[] out = new double[xn.length];
-		switch (type) {
-		case HANNING:
-			for (int i = 0; i < tn.length; i++)
-				out[i] = xn[i] / ExtendedMath.haversin(ExtendedMath.TWO_PI * (tn[i] - tn[0]) / T);
-			break;
-		case HAMMING:
-			for (int i = 0; i < xn.length; i++)
-				out[i] = xn[i] / (0.54 - 0.46 * Math.cos(ExtendedMath.TWO_PI * (tn[i] - tn[0]) / T));
-			break;
-		}
+		for (int i = 0; i < xn.length; i++)
+			out[i] = xn[i] / value((tn[i] - tn[0]) / T);
 		return out;
 	}
+
+	// ---------------- tabela ----------------
+
+	private static class TableKey {
+
+		private final WindowType type;
+
+		private final double param;
+
+		private final int n;
+
+		private TableKey(WindowType type, double param, int n) {
+			this.type = type;
+			this.param = param;
+			this.n = n;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * type.hashCode() + Double.hashCode(param)) * 31 + n;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof TableKey))
+				return false;
+			TableKey other = (TableKey) obj;
+			return type == other.type && n == other.n
+					&& Double.doubleToLongBits(param) == Double.doubleToLongBits(other.param);
+		}
+	}
 }
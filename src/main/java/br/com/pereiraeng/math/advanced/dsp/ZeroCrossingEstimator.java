@@ -0,0 +1,261 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import br.com.pereiraeng.core.ExtendedMath;
+import br.com.pereiraeng.math.Spline;
+
+/**
+ * Classe do objeto que estima continuamente a frequência de um sinal a partir
+ * dos instantes em que ele cruza o zero. As amostras são fornecidas uma a uma
+ * por {@link #push(double, double)}, em O(1) e sem criar objetos; a cada novo
+ * cruzamento (a partir do segundo) uma estimativa é entregue ao
+ * {@link Listener}.<br>
+ *
+ * O instante do cruzamento é encontrado pela reta que passa pelas duas amostras
+ * de sinais opostos ou, alternativamente, por um {@link Spline} que passa por
+ * algumas amostras ao redor do cruzamento (como em
+ * {@link DSP#getFreq(br.com.pereiraeng.math.timeseries.SrT, int, double)}).
+ * Um mesmo objeto não deve ser usado por mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class ZeroCrossingEstimator {
+
+	/**
+	 * Interface do objeto que recebe as estimativas de frequência
+	 */
+	public interface Listener {
+
+		/**
+		 * Função chamada a cada nova estimativa
+		 *
+		 * @param time      instante da estimativa (ponto médio entre os dois últimos
+		 *                  cruzamentos por zero)
+		 * @param frequency frequência estimada (dividida pelo fator de escala
+		 *                  temporal)
+		 */
+		void onFrequency(double time, double frequency);
+	}
+
+	/**
+	 * <code>true</code> para encontrar o zero pela reta, <code>false</code> pelo
+	 * spline
+	 */
+	private final boolean zeroLine;
+
+	private final double timeFactor;
+
+	private final Listener listener;
+
+	// ---- estado ----
+
+	private boolean started;
+
+	private double lastTime, lastValue;
+
+	private boolean previousSign;
+
+	private double lastZero;
+
+	private double time, frequency;
+
+	// ---- spline ----
+
+	/**
+	 * últimas amostras (buffer circular, a mais antiga na posição pos)
+	 */
+	private final double[] bt, bv;
+
+	/**
+	 * amostras em ordem cronológica, passadas ao spline
+	 */
+	private final double[] st, sv;
+
+	private int pos;
+
+	/**
+	 * estado do spline: positivo enquanto o buffer enche, zero à espera de um
+	 * cruzamento, negativo contando as amostras após o cruzamento
+	 */
+	private int c;
+
+	/**
+	 * Construtor do estimador com os modos padrão de {@link DSP}
+	 *
+	 * @param timeFactor fator de escala temporal (a frequência calculada será
+	 *                   dividida por este fator)
+	 * @param listener   objeto que recebe as estimativas (pode ser nulo)
+	 */
+	public ZeroCrossingEstimator(double timeFactor, Listener listener) {
+		this(DSP.ZERO_LINE, DSP.SPLINE_POINTS, timeFactor, listener);
+	}
+
+	/**
+	 * Construtor do estimador
+	 *
+	 * @param zeroLine     <code>true</code> para encontrar o zero a partir da reta
+	 *                     que passa pelos pontos de sinais opostos,
+	 *                     <code>false</code> para calcular o spline
+	 * @param splinePoints pontos utilizados para se calcular o {@link Spline} (só é
+	 *                     utilizado se <code>zeroLine</code> for
+	 *                     <code>false</code>)
+	 * @param timeFactor   fator de escala temporal (a frequência calculada será
+	 *                     dividida por este fator)
+	 * @param listener     objeto que recebe as estimativas (pode ser nulo)
+	 */
+	public ZeroCrossingEstimator(boolean zeroLine, int splinePoints, double timeFactor, Listener listener) {
+		this.zeroLine = zeroLine;
+		this.timeFactor = timeFactor;
+		this.listener = listener;
+		if (zeroLine) {
+			this.bt = this.bv = this.st = this.sv = null;
+		} else {
+			if (splinePoints < 2)
+				throw new IllegalArgumentException("O spline requer ao menos 2 pontos");
+			this.bt = new double[splinePoints];
+			this.bv = new double[splinePoints];
+			this.st = new double[splinePoints];
+			this.sv = new double[splinePoints];
+		}
+		reset();
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	/**
+	 * Função que retorna o instante da última estimativa
+	 *
+	 * @return instante da última estimativa, ou <code>NaN</code> se ainda não houve
+	 *         nenhuma
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Função que retorna a última frequência estimada
+	 *
+	 * @return última frequência estimada, ou <code>NaN</code> se ainda não houve
+	 *         nenhuma
+	 */
+	public double getFrequency() {
+		return frequency;
+	}
+
+	/**
+	 * Função que descarta todas as amostras já fornecidas
+	 */
+	public void reset() {
+		started = false;
+		lastZero = time = frequency = Double.NaN;
+		if (!zeroLine) {
+			for (int i = 0; i < bt.length; i++)
+				bt[i] = bv[i] = 0.;
+			pos = 0;
+		}
+		c = 1;
+	}
+
+	// ------------------------------ ESTIMAÇÃO ------------------------------
+
+	/**
+	 * Função que fornece uma nova amostra do sinal
+	 *
+	 * @param t instante da amostra (crescente)
+	 * @param v valor da amostra
+	 * @return <code>true</code> se uma nova estimativa de frequência foi produzida
+	 */
+	public boolean push(double t, double v) {
+		if (!started) {
+			started = true;
+			lastTime = t;
+			lastValue = v;
+			previousSign = v > 0;
+			if (!zeroLine)
+				store(t, v);
+			return false;
+		}
+
+		boolean sign = v > 0;
+		double timeAtZeroCrossing = Double.NaN;
+
+		if (zeroLine) {
+			// aproximar por uma reta
+			if (sign ^ previousSign)
+				timeAtZeroCrossing = ExtendedMath.getZero(lastTime, t, lastValue, v);
+		} else {
+			// aproximar por um spline
+			store(t, v);
+			int points = bt.length;
+			if (c > 0) {
+				// enchendo
+				c++;
+				if (c == points)
+					c = 0;
+			} else if (c == 0) {
+				// cheio, esperando zero
+				if (sign ^ previousSign)
+					c = -1;
+			} else {
+				// cheio, achou o zero
+				c--;
+
+				if (-c == points / 2) {
+					// zero pronto para ser calculado
+					for (int i = 0, j = pos; i < points; i++) {
+						st[i] = bt[j];
+						sv[i] = bv[j];
+						if (++j == points)
+							j = 0;
+					}
+					double[] m = Spline.getSpline(st, sv);
+					timeAtZeroCrossing = Spline.solve(st, sv, m, 0);
+					c = 0;
+				}
+			}
+		}
+
+		boolean out = false;
+		if (!Double.isNaN(timeAtZeroCrossing)) {
+			// achou um novo zero!
+			if (!Double.isNaN(lastZero)) {
+				frequency = .5 / ((timeAtZeroCrossing - lastZero) * timeFactor);
+				time = (timeAtZeroCrossing + lastZero) * .5;
+				if (listener != null)
+					listener.onFrequency(time, frequency);
+				out = true;
+			}
+
+			previousSign = sign;
+			lastZero = timeAtZeroCrossing;
+		}
+
+		lastTime = t;
+		lastValue = v;
+		return out;
+	}
+
+	/**
+	 * Função que fornece um bloco de amostras do sinal
+	 *
+	 * @param t      instantes das amostras (crescentes)
+	 * @param v      valores das amostras
+	 * @param offset posição da primeira amostra
+	 * @param n      número de amostras
+	 * @return número de estimativas produzidas
+	 */
+	public int push(double[] t, double[] v, int offset, int n) {
+		int out = 0;
+		for (int i = offset, end = offset + n; i < end; i++)
+			if (push(t[i], v[i]))
+				out++;
+		return out;
+	}
+
+	private void store(double t, double v) {
+		bt[pos] = t;
+		bv[pos] = v;
+		if (++pos == bt.length)
+			pos = 0;
+	}
+}
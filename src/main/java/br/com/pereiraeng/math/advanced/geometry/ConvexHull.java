@@ -1,110 +1,572 @@
 package br.com.pereiraeng.math.advanced.geometry;
 
 import java.awt.geom.Point2D;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-
-import br.com.pereiraeng.core.collections.ListUtils;
-import br.com.pereiraeng.math.geometry.Geom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Classe que contém as funções para o cálculo da envoltória complexa de um
- * conjunto de pontos
- * 
+ * conjunto de pontos.<br>
+ *
+ * As funções que recebem vetores de coordenadas retornam os índices dos
+ * vértices da envoltória em sentido anti-horário, a partir do ponto de menor
+ * abscissa (e, em caso de empate, de menor ordenada). Os pontos sobre as
+ * arestas não são vértices e, de pontos repetidos, só o de menor índice pode
+ * ser vértice, de modo que todas elas dão o mesmo resultado.
+ *
  * @author Philipe Pereira
  *
  */
 public class ConvexHull {
 
+	/**
+	 * número de pontos abaixo do qual um trecho da envoltória é calculado numa
+	 * única tarefa
+	 */
+	private static final int SEQUENTIAL = 1 << 15;
+
+	/**
+	 * número de pontos de cada bloco das etapas paralelas
+	 */
+	private static final int BLOCK = 1 << 13;
+
 	/**
 	 * Find convex hull from the set S of n points
-	 * 
+	 *
 	 * @param points
-	 * @return
+	 * @return vértices da envoltória em sentido horário, a partir do ponto de menor
+	 *         abscissa (e, em caso de empate, de menor ordenada); pontos sobre as
+	 *         arestas não são vértices e, de pontos com as mesmas coordenadas,
+	 *         entra um só (se todos forem colineares, só os dois extremos)
 	 */
 	public static List<Point2D.Double> quickhull(Set<? extends Point2D.Double> points) {
-		List<Point2D.Double> ch = new LinkedList<>();
-
-		// Find left and right most points, say A & B...
-		Point2D.Double a = Geom.getExtreme(points, 2), b = Geom.getExtreme(points, 0);
-
-		// ... and add A & B to convex hull
-		ch.add(a);
-		ch.add(b);
-
-		// Segment AB divides the remaining (n-2) points into 2 groups S1 and S2 where
-		// S1 are points in S that are on the right side of the oriented line from A to
-		// B, and S2 are points in S that are on the right side of the oriented line
-		// from B to A
-		Set<Point2D.Double> s1 = new HashSet<>();
-		Set<Point2D.Double> s2 = new HashSet<>();
-
-		for (Point2D.Double pd : points) {
-			if (pd != a && pd != b) {
-				double det = Geom.area(a.x, a.y, b.x, b.y, pd.x, pd.y);
-				if (det > 0.)
-					s1.add(pd);
-				else
-					s2.add(pd);
+		int n = points.size();
+		Point2D.Double[] ps = points.toArray(new Point2D.Double[n]);
+		double[] xs = new double[n], ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = ps[i].x;
+			ys[i] = ps[i].y;
+		}
+		int[] h = hull(xs, ys);
+
+		List<Point2D.Double> ch = new ArrayList<>(h.length);
+		if (h.length > 0)
+			ch.add(ps[h[0]]);
+		for (int i = h.length - 1; i > 0; i--)
+			ch.add(ps[h[i]]);
+		return ch;
+	}
+
+	// ------------------------------ CADEIA MONÓTONA ------------------------------
+
+	/**
+	 * Função que calcula a envoltória convexa de pontos já ordenados pela abscissa
+	 * e, em caso de empate, pela ordenada, em tempo linear (algoritmo da cadeia
+	 * monótona de Andrew)
+	 *
+	 * @param xs abscissas dos pontos
+	 * @param ys ordenadas dos pontos
+	 * @return índices dos vértices da envoltória
+	 */
+	public static int[] monotoneChain(double[] xs, double[] ys) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("Os vetores de coordenadas devem ter o mesmo tamanho");
+		int n = xs.length;
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			if (i > 0 && less(xs, ys, i, i - 1))
+				throw new IllegalArgumentException("Os pontos devem estar ordenados pela abscissa e pela ordenada");
+			order[i] = i;
+		}
+		int[] out = new int[2 * n + 1];
+		return Arrays.copyOf(out, chain(xs, ys, order, 0, n, out, 0));
+	}
+
+	/**
+	 * Função que calcula a envoltória de um intervalo de pontos ordenados
+	 *
+	 * @param order índices dos pontos em ordem lexicográfica (e, em caso de
+	 *              empate, de índice)
+	 * @param out   vetor onde os vértices são escritos (com pelo menos
+	 *              <code>2(to - from) + 1</code> posições a partir de
+	 *              <code>at</code>)
+	 * @return número de vértices
+	 */
+	private static int chain(double[] xs, double[] ys, int[] order, int from, int to, int[] out, int at) {
+		int k = at;
+		// metade de baixo, da esquerda para a direita
+		for (int i = from; i < to; i++) {
+			int p = order[i];
+			if (i > from && same(xs, ys, p, order[i - 1]))
+				continue;
+			while (k >= at + 2 && orient(xs, ys, out[k - 2], out[k - 1], p) <= 0.)
+				k--;
+			out[k++] = p;
+		}
+		if (k - at <= 1)
+			return k - at;
+		// metade de cima, da direita para a esquerda (de pontos repetidos, sempre o
+		// primeiro)
+		int lower = k + 1;
+		for (int i = to - 2; i >= from; i--) {
+			int p = order[i];
+			if ((i > from && same(xs, ys, p, order[i - 1])) || same(xs, ys, p, out[k - 1]))
+				continue;
+			while (k >= lower && orient(xs, ys, out[k - 2], out[k - 1], p) <= 0.)
+				k--;
+			out[k++] = p;
+		}
+		// o último é o primeiro de novo
+		return k - 1 - at;
+	}
+
+	// ------------------------------ CHAN ------------------------------
+
+	/**
+	 * Função que calcula a envoltória convexa de um conjunto de pontos em tempo
+	 * O(n log h), onde h é o número de vértices (algoritmo de Chan): os pontos são
+	 * divididos em grupos de m pontos, a envoltória de cada grupo é calculada pela
+	 * cadeia monótona e a envoltória de todos é percorrida como no embrulho de
+	 * presente (Jarvis), mas escolhendo o próximo vértice só entre as tangentes
+	 * das envoltórias dos grupos. Se a envoltória tiver mais de m vértices, m é
+	 * elevado ao quadrado e tudo recomeça.
+	 *
+	 * @param xs abscissas dos pontos
+	 * @param ys ordenadas dos pontos
+	 * @return índices dos vértices da envoltória
+	 */
+	public static int[] hull(double[] xs, double[] ys) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("Os vetores de coordenadas devem ter o mesmo tamanho");
+		int n = xs.length;
+		if (n == 0)
+			return new int[0];
+		int[] order = new int[n], tmp = new int[n];
+		int p0 = 0;
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+			if (less(xs, ys, i, p0))
+				p0 = i;
+		}
+
+		int[] hulls = new int[2 * n + 1], offsets = null, pointers = null, out = null;
+		for (int t = 1;; t++) {
+			int m = t >= 5 ? n : (int) Math.min(n, 1L << (1 << t));
+			int groups = (n + m - 1) / m;
+
+			// envoltória de cada grupo (ordenar grupos já ordenados pela rodada anterior
+			// custa pouco)
+			if (offsets == null || offsets.length < groups + 1) {
+				offsets = new int[groups + 1];
+				pointers = new int[groups];
+			}
+			for (int g = 0; g < groups; g++) {
+				int from = g * m, to = Math.min(from + m, n);
+				sort(xs, ys, order, tmp, from, to);
+				offsets[g + 1] = offsets[g] + chain(xs, ys, order, from, to, hulls, offsets[g]);
+			}
+			if (groups == 1)
+				// a envoltória do único grupo começa pelo menor ponto
+				return Arrays.copyOf(hulls, offsets[1]);
+
+			// tangente inicial de cada grupo, por busca linear
+			for (int g = 0; g < groups; g++) {
+				int best = -1;
+				for (int j = offsets[g]; j < offsets[g + 1]; j++)
+					if (!same(xs, ys, hulls[j], p0) && (best < 0 || better(xs, ys, p0, hulls[best], hulls[j])))
+						best = j;
+				pointers[g] = best < 0 ? offsets[g] : best;
+			}
+
+			// embrulho de presente com no máximo m vértices
+			if (out == null || out.length < m)
+				out = new int[m];
+			for (int h = 0, p = p0;; p = out[h]) {
+				out[h++] = p;
+				int next = -1;
+				for (int g = 0; g < groups; g++) {
+					int q = tangent(xs, ys, hulls, offsets[g], offsets[g + 1], pointers, g, p);
+					if (q >= 0 && (next < 0 || better(xs, ys, p, next, q)))
+						next = q;
+				}
+				if (next < 0 || same(xs, ys, next, p0))
+					return Arrays.copyOf(out, h);
+				if (h == m)
+					break;
+				out[h] = next;
 			}
 		}
+	}
 
-		findHull(ch, s1, a, b);
-		findHull(ch, s2, b, a);
+	/**
+	 * Função que avança o ponteiro de um grupo até a tangente da sua envoltória
+	 * vista de um ponto da envoltória de todos os pontos. Como esse ponto dá a
+	 * volta em sentido anti-horário, a tangente também, e o ponteiro nunca volta.
+	 *
+	 * @param from posição do primeiro vértice do grupo
+	 * @param to   posição seguinte à do último vértice do grupo
+	 * @param p    ponto de onde a tangente é traçada
+	 * @return vértice da tangente (todos os outros à esquerda de p→q ou sobre o
+	 *         segmento), ou -1 se todos os vértices coincidem com p
+	 */
+	private static int tangent(double[] xs, double[] ys, int[] hulls, int from, int to, int[] pointers, int g,
+			int p) {
+		int k = to - from, j = pointers[g] - from;
+		for (int s = 0; s < k; s++) {
+			int v = hulls[from + j];
+			if (!same(xs, ys, v, p)) {
+				// o vértice seguinte, pulando o que coincide com p (há no máximo um)
+				int w = hulls[from + (j + 1) % k];
+				if (same(xs, ys, w, p))
+					w = hulls[from + (j + 2) % k];
+				if (!better(xs, ys, p, v, w))
+					break;
+			}
+			j = (j + 1) % k;
+		}
+		pointers[g] = from + j;
+		int q = hulls[from + j];
+		return same(xs, ys, q, p) ? -1 : q;
+	}
 
-		return ch;
+	/**
+	 * Função que indica se, vista de p, a direção de c é melhor que a de b para o
+	 * próximo vértice da envoltória: c à direita de p→b, ou na mesma reta e mais
+	 * longe (ou no mesmo lugar e de menor índice)
+	 */
+	private static boolean better(double[] xs, double[] ys, int p, int b, int c) {
+		double o = orient(xs, ys, p, b, c);
+		if (o != 0.)
+			return o < 0.;
+		double db = distanceSq(xs, ys, p, b), dc = distanceSq(xs, ys, p, c);
+		return dc > db || (dc == db && c < b);
 	}
 
+	// ------------------------------ QUICKHULL PARALELO ------------------------------
+
 	/**
-	 * Find points on convex hull from the set Sk of points that are on the right
-	 * side of the oriented line from P to Q
-	 * 
-	 * @param ch
-	 * @param sd
-	 * @param a
-	 * @param b
+	 * Função que calcula a envoltória convexa de um conjunto de pontos em paralelo
+	 * (algoritmo quickhull): o segmento entre os pontos extremos divide os pontos
+	 * em dois lados; em cada lado, o ponto mais longe do segmento é um vértice e
+	 * divide os pontos restantes de fora em dois novos lados, que são tratados em
+	 * tarefas independentes. Os pontos são particionados em blocos, também em
+	 * paralelo, em vetores de índices.
+	 *
+	 * @param xs   abscissas dos pontos
+	 * @param ys   ordenadas dos pontos
+	 * @param pool pool de threads onde a envoltória será calculada
+	 * @return índices dos vértices da envoltória
 	 */
-	private static void findHull(List<Point2D.Double> ch, Set<Point2D.Double> sk, Point2D.Double p, Point2D.Double q) {
-		// If Sk has no point, then return.
-		if (sk.size() == 0)
-			return;
+	public static int[] hull(double[] xs, double[] ys, ForkJoinPool pool) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("Os vetores de coordenadas devem ter o mesmo tamanho");
+		int n = xs.length;
+		if (n == 0)
+			return new int[0];
+		int[] a = new int[n];
+		int left = 0, right = 0;
+		for (int i = 0; i < n; i++) {
+			a[i] = i;
+			if (less(xs, ys, i, left))
+				left = i;
+			if (xs[i] > xs[right] || (xs[i] == xs[right] && ys[i] > ys[right]))
+				right = i;
+		}
+		if (same(xs, ys, left, right))
+			return new int[] { left };
+
+		// os dois lados do segmento são tratados como os de um vértice "right" entre
+		// "left" e ele mesmo
+		int[] h = pool.invoke(new Side(xs, ys, a, new int[n], 0, n, left, right, left));
+		int[] out = new int[h.length + 1];
+		out[0] = left;
+		System.arraycopy(h, 0, out, 1, h.length);
+		return out;
+	}
+
+	/**
+	 * Classe da tarefa que calcula o trecho da envoltória entre dois vértices p e
+	 * q a partir dos pontos que estão à direita de p→q
+	 */
+	private static final class Side extends RecursiveTask<int[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] xs, ys;
+
+		/**
+		 * vetor com os pontos (no intervalo da tarefa) e vetor auxiliar
+		 */
+		private final int[] a, b;
+
+		private final int lo, hi, p, q;
+
+		/**
+		 * vértice que divide o trecho, se já for conhecido (-1 se não)
+		 */
+		private final int c;
 
-		// From the given set of points in Sk, find farthest point, say C, from segment
-		// PQ
-		double max = -1.;
-		Point2D.Double c = null;
-		for (Point2D.Double pd : sk) {
-			double det = Geom.area(p.x, p.y, q.x, q.y, pd.x, pd.y);
-			if (det > max) {
-				c = pd;
-				max = det;
+		private Side(double[] xs, double[] ys, int[] a, int[] b, int lo, int hi, int p, int c, int q) {
+			this.xs = xs;
+			this.ys = ys;
+			this.a = a;
+			this.b = b;
+			this.lo = lo;
+			this.hi = hi;
+			this.p = p;
+			this.c = c;
+			this.q = q;
+		}
+
+		/**
+		 * @return vértices estritamente entre p e q, na ordem
+		 */
+		@Override
+		protected int[] compute() {
+			if (hi - lo <= SEQUENTIAL && c < 0) {
+				Vertices out = new Vertices();
+				side(xs, ys, a, lo, hi, p, q, out);
+				return Arrays.copyOf(out.v, out.size);
+			}
+			int c = this.c >= 0 ? this.c : farthest();
+
+			// partição em blocos: contagem, posições e cópia para o vetor auxiliar
+			int blocks = (hi - lo + BLOCK - 1) / BLOCK;
+			int[] counts = new int[2 * blocks];
+			invokeAll(new Blocks(this, c, counts, null, 0, blocks));
+			int[] offsets = new int[2 * blocks];
+			int n1 = 0, n2 = 0;
+			for (int k = 0; k < blocks; k++) {
+				offsets[2 * k] = lo + n1;
+				n1 += counts[2 * k];
+			}
+			for (int k = 0; k < blocks; k++) {
+				offsets[2 * k + 1] = lo + n1 + n2;
+				n2 += counts[2 * k + 1];
+			}
+			invokeAll(new Blocks(this, c, counts, offsets, 0, blocks));
+
+			Side s1 = new Side(xs, ys, b, a, lo, lo + n1, p, -1, c);
+			Side s2 = new Side(xs, ys, b, a, lo + n1, lo + n1 + n2, c, -1, q);
+			invokeAll(s1, s2);
+			int[] h1 = s1.join(), h2 = s2.join();
+			int[] h = new int[h1.length + 1 + h2.length];
+			System.arraycopy(h1, 0, h, 0, h1.length);
+			h[h1.length] = c;
+			System.arraycopy(h2, 0, h, h1.length + 1, h2.length);
+			return h;
+		}
+
+		/**
+		 * Função que busca o ponto mais longe de p→q, em paralelo
+		 */
+		private int farthest() {
+			int blocks = (hi - lo + BLOCK - 1) / BLOCK;
+			int[] best = new int[blocks];
+			invokeAll(new Blocks(this, -1, best, null, 0, blocks));
+			int c = best[0];
+			for (int k = 1; k < blocks; k++)
+				if (farther(xs, ys, p, q, best[k], c))
+					c = best[k];
+			return c;
+		}
+	}
+
+	/**
+	 * Classe da tarefa que processa um intervalo de blocos de pontos de um
+	 * {@link Side}: busca do mais longe em cada bloco, contagem dos pontos de cada
+	 * lado do vértice que divide o trecho, ou cópia desses pontos para o vetor
+	 * auxiliar
+	 */
+	private static final class Blocks extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Side side;
+
+		/**
+		 * vértice que divide o trecho (-1 na busca do mais longe)
+		 */
+		private final int c;
+
+		/**
+		 * resultado de cada bloco (o mais longe, ou o número de pontos de cada lado)
+		 */
+		private final int[] results;
+
+		/**
+		 * posição, no vetor auxiliar, dos pontos de cada lado de cada bloco
+		 * (<code>null</code> na busca e na contagem)
+		 */
+		private final int[] offsets;
+
+		private final int from, to;
+
+		private Blocks(Side side, int c, int[] results, int[] offsets, int from, int to) {
+			this.side = side;
+			this.c = c;
+			this.results = results;
+			this.offsets = offsets;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Blocks(side, c, results, offsets, from, mid),
+						new Blocks(side, c, results, offsets, mid, to));
+				return;
+			}
+			double[] xs = side.xs, ys = side.ys;
+			int[] a = side.a;
+			int lo = side.lo + from * BLOCK, hi = Math.min(lo + BLOCK, side.hi);
+			if (c < 0) {
+				int best = a[lo];
+				for (int i = lo + 1; i < hi; i++)
+					if (farther(xs, ys, side.p, side.q, a[i], best))
+						best = a[i];
+				results[from] = best;
+			} else if (offsets == null) {
+				int n1 = 0, n2 = 0;
+				for (int i = lo; i < hi; i++)
+					if (orient(xs, ys, side.p, c, a[i]) < 0.)
+						n1++;
+					else if (orient(xs, ys, c, side.q, a[i]) < 0.)
+						n2++;
+				results[2 * from] = n1;
+				results[2 * from + 1] = n2;
+			} else {
+				int k1 = offsets[2 * from], k2 = offsets[2 * from + 1];
+				for (int i = lo; i < hi; i++)
+					if (orient(xs, ys, side.p, c, a[i]) < 0.)
+						side.b[k1++] = a[i];
+					else if (orient(xs, ys, c, side.q, a[i]) < 0.)
+						side.b[k2++] = a[i];
 			}
 		}
+	}
 
-		// Add point C to convex hull at the location between P and Q
-		ListUtils.addAfter(ch, c, p);
-
-		// Three points P, Q, and C partition the remaining points of Sk into 3 subsets:
-		// S0, S1, and S2 where S0 are points inside triangle PCQ, S1 are points on the
-		// right side of the oriented line from P to C, and S2 are points on the right
-		// side of the oriented line from C to Q.
-		Set<Point2D.Double> s1 = new HashSet<>();
-		Set<Point2D.Double> s2 = new HashSet<>();
-
-		for (Point2D.Double pd : sk) {
-			if (pd != p && pd != q && pd != c) {
-				double det1 = Geom.area(p.x, p.y, c.x, c.y, pd.x, pd.y);
-				double det2 = Geom.area(c.x, c.y, q.x, q.y, pd.x, pd.y);
-				if (det1 > 0.)
-					s1.add(pd);
-				if (det2 > 0.)
-					s2.add(pd);
+	/**
+	 * Função que calcula, numa única thread, o trecho da envoltória entre p e q a
+	 * partir dos pontos de <code>a[lo..hi)</code>, que estão à direita de p→q
+	 * (os pontos são reordenados no próprio vetor)
+	 */
+	private static void side(double[] xs, double[] ys, int[] a, int lo, int hi, int p, int q, Vertices out) {
+		if (lo == hi)
+			return;
+		int c = a[lo];
+		for (int k = lo + 1; k < hi; k++)
+			if (farther(xs, ys, p, q, a[k], c))
+				c = a[k];
+
+		// a[lo..i): à direita de p→c; a[i..j): à direita de c→q; a[j..k): dentro
+		int i = lo, j = lo;
+		for (int k = lo; k < hi; k++) {
+			int v = a[k];
+			if (orient(xs, ys, p, c, v) < 0.) {
+				a[k] = a[j];
+				a[j] = a[i];
+				a[i++] = v;
+				j++;
+			} else if (orient(xs, ys, c, q, v) < 0.) {
+				a[k] = a[j];
+				a[j++] = v;
 			}
 		}
+		side(xs, ys, a, lo, i, p, c, out);
+		out.add(c);
+		side(xs, ys, a, i, j, c, q, out);
+	}
 
-		findHull(ch, s1, p, c);
-		findHull(ch, s2, c, q);
+	/**
+	 * Função que indica se o ponto v está mais longe de p→q (à direita) que o
+	 * ponto c; em caso de empate, o mais próximo de p, que é um vértice (e, no
+	 * mesmo lugar, o de menor índice). As distâncias são comparadas de forma exata,
+	 * pois o módulo de {@link Predicates#orient2d} é só uma aproximação e um ponto
+	 * quase colinear a um vértice poderia ser tomado por mais longe que ele
+	 */
+	private static boolean farther(double[] xs, double[] ys, int p, int q, int v, int c) {
+		double d = Predicates.compareOrient2d(xs[p], ys[p], xs[q], ys[q], xs[c], ys[c], xs[v], ys[v]);
+		if (d != 0.)
+			return d > 0.;
+		double t = (xs[v] - xs[c]) * (xs[q] - xs[p]) + (ys[v] - ys[c]) * (ys[q] - ys[p]);
+		return t < 0. || (t == 0. && same(xs, ys, v, c) && v < c);
+	}
+
+	/**
+	 * Classe do objeto que acumula os vértices de um trecho da envoltória
+	 */
+	private static final class Vertices {
+
+		private int[] v = new int[16];
+
+		private int size;
+
+		private void add(int i) {
+			if (size == v.length)
+				v = Arrays.copyOf(v, 2 * size);
+			v[size++] = i;
+		}
+	}
+
+	// ------------------------------ AUXILIARES ------------------------------
+
+	private static double orient(double[] xs, double[] ys, int a, int b, int c) {
+		return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+	}
+
+	private static double distanceSq(double[] xs, double[] ys, int a, int b) {
+		double dx = xs[b] - xs[a], dy = ys[b] - ys[a];
+		return dx * dx + dy * dy;
+	}
+
+	private static boolean same(double[] xs, double[] ys, int a, int b) {
+		return xs[a] == xs[b] && ys[a] == ys[b];
+	}
+
+	/**
+	 * Função que compara dois pontos pela abscissa, pela ordenada e, por fim, pelo
+	 * índice
+	 */
+	private static boolean less(double[] xs, double[] ys, int a, int b) {
+		return xs[a] < xs[b] || (xs[a] == xs[b] && (ys[a] < ys[b] || (ys[a] == ys[b] && a < b)));
+	}
+
+	/**
+	 * Função que ordena um intervalo de índices de pontos em ordem lexicográfica
+	 * (ordenação por intercalação, rápida para intervalos já quase ordenados)
+	 */
+	private static void sort(double[] xs, double[] ys, int[] a, int[] tmp, int from, int to) {
+		if (to - from < 16) {
+			for (int i = from + 1; i < to; i++) {
+				int v = a[i], j = i;
+				while (j > from && less(xs, ys, v, a[j - 1])) {
+					a[j] = a[j - 1];
+					j--;
+				}
+				a[j] = v;
+			}
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		sort(xs, ys, a, tmp, from, mid);
+		sort(xs, ys, a, tmp, mid, to);
+		if (!less(xs, ys, a[mid], a[mid - 1]))
+			return;
+		System.arraycopy(a, from, tmp, from, to - from);
+		int i = from, j = mid, k = from;
+		while (i < mid && j < to)
+			a[k++] = less(xs, ys, tmp[j], tmp[i]) ? tmp[j++] : tmp[i++];
+		while (i < mid)
+			a[k++] = tmp[i++];
+		while (j < to)
+			a[k++] = tmp[j++];
 	}
 }
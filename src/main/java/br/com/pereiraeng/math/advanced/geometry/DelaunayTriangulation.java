@@ -0,0 +1,293 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Classe do objeto que mantém a triangularização de Delaunay de um conjunto de
+ * pontos que muda com o tempo: os pontos são inseridos e removidos um a um e só
+ * os triângulos próximos do ponto alterado são refeitos.<br>
+ *
+ * A localização usa uma hierarquia de Delaunay (O. Devillers, <i>The Delaunay
+ * hierarchy</i>): cada vértice também pertence, com probabilidade 1/30, à
+ * triangularização do nível de cima, e assim por diante. A caminhada começa no
+ * nível mais alto, que tem poucos pontos, e em cada nível parte do vértice mais
+ * próximo encontrado no nível de cima, de modo que o tempo esperado de cada
+ * inserção ou remoção é O(log n).<br>
+ *
+ * Os índices dos vértices são os retornados por {@link #insert(double, double)}
+ * e não mudam com as remoções (o índice de um vértice removido não é
+ * reaproveitado). Um mesmo objeto não deve ser usado por mais de uma thread ao
+ * mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class DelaunayTriangulation {
+
+	/**
+	 * número de níveis da hierarquia
+	 */
+	private static final int LEVELS = 5;
+
+	/**
+	 * razão entre o número de vértices de um nível e o do nível de cima
+	 */
+	private static final int RATIO = 30;
+
+	private double[] xs, ys;
+
+	/**
+	 * número de índices de vértices já usados
+	 */
+	private int n;
+
+	/**
+	 * nível mais alto de cada vértice (-1 se o vértice foi removido ou se era
+	 * repetido)
+	 */
+	private byte[] level;
+
+	/**
+	 * número de vértices na triangularização
+	 */
+	private int count;
+
+	/**
+	 * triangularização de cada nível (a do nível 0 tem todos os vértices)
+	 */
+	private final IncrementalDelaunay[] levels = new IncrementalDelaunay[LEVELS];
+
+	/**
+	 * triângulo que contém o último ponto localizado, em cada nível
+	 */
+	private final int[] start = new int[LEVELS];
+
+	private final Random random = new Random(0L);
+
+	/**
+	 * Construtor de uma triangularização vazia
+	 */
+	public DelaunayTriangulation() {
+		this(new double[0], new double[0]);
+	}
+
+	/**
+	 * Construtor de uma triangularização com um conjunto inicial de pontos (o
+	 * vértice <code>i</code> é o ponto <code>(xs[i], ys[i])</code>; de pontos
+	 * repetidos, só fica o de menor índice)
+	 *
+	 * @param xs abscissas dos pontos
+	 * @param ys ordenadas dos pontos
+	 */
+	public DelaunayTriangulation(double[] xs, double[] ys) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("Os vetores de coordenadas devem ter o mesmo tamanho");
+		this.n = xs.length;
+		this.xs = xs.clone();
+		this.ys = ys.clone();
+		this.level = new byte[n];
+		Arrays.fill(level, (byte) -1);
+
+		// nível de baixo: construção de uma só vez
+		IncrementalDelaunay d = IncrementalDelaunay.build(this.xs, this.ys);
+		boolean built = d.real > 0;
+		if (!built)
+			// pontos colineares: são guardados até que apareça um ponto fora da reta
+			d = new IncrementalDelaunay(this.xs, this.ys, n);
+		levels[0] = d;
+		for (int l = 1; l < LEVELS; l++)
+			levels[l] = new IncrementalDelaunay(this.xs, this.ys, n);
+
+		for (int i = 0; i < n; i++)
+			if (built ? d.vt[i] >= 0 : d.add(i) == i) {
+				level[i] = 0;
+				count++;
+				promote(i);
+			}
+	}
+
+	// ------------------------------ ALTERAÇÃO ------------------------------
+
+	/**
+	 * Função que insere um ponto
+	 *
+	 * @param x abscissa do ponto
+	 * @param y ordenada do ponto
+	 * @return índice do novo vértice ou, se já houver um vértice com as mesmas
+	 *         coordenadas, o índice dele
+	 */
+	public int insert(double x, double y) {
+		if (n == xs.length) {
+			int cap = Math.max(16, 2 * n);
+			xs = Arrays.copyOf(xs, cap);
+			ys = Arrays.copyOf(ys, cap);
+			level = Arrays.copyOf(level, cap);
+			Arrays.fill(level, n, cap, (byte) -1);
+		}
+		int p = n;
+		xs[p] = x;
+		ys[p] = y;
+		for (IncrementalDelaunay d : levels)
+			d.setPoints(xs, ys, n + 1);
+
+		locate(x, y);
+		levels[0].last = start[0];
+		int q = levels[0].add(p);
+		if (q != p) {
+			for (IncrementalDelaunay d : levels)
+				d.setPoints(xs, ys, n);
+			return q;
+		}
+		n++;
+		level[p] = 0;
+		count++;
+		promote(p);
+		return p;
+	}
+
+	/**
+	 * Função que remove um vértice
+	 *
+	 * @param v índice do vértice
+	 */
+	public void remove(int v) {
+		if (!contains(v))
+			throw new IllegalArgumentException("Vértice inexistente: " + v);
+		for (int l = level[v]; l >= 0; l--)
+			levels[l].delete(v);
+		level[v] = -1;
+		count--;
+	}
+
+	/**
+	 * Função que sorteia até que nível um novo vértice pertence e o insere nos
+	 * níveis de cima
+	 *
+	 * @param p índice do vértice (já inserido no nível 0)
+	 */
+	private void promote(int p) {
+		int top = 0;
+		while (top < LEVELS - 1 && random.nextInt(RATIO) == 0)
+			top++;
+		if (top == 0)
+			return;
+		locate(xs[p], ys[p]);
+		for (int l = 1; l <= top; l++) {
+			levels[l].last = start[l];
+			levels[l].add(p);
+		}
+		level[p] = (byte) top;
+	}
+
+	/**
+	 * Função que localiza um ponto em todos os níveis, guardando em
+	 * {@link #start} o triângulo de cada nível que o contém (-1 nos níveis que
+	 * ainda não têm triângulos)
+	 */
+	private void locate(double x, double y) {
+		int u = -1;
+		for (int l = LEVELS - 1; l >= 0; l--) {
+			IncrementalDelaunay d = levels[l];
+			if (d.real == 0) {
+				start[l] = -1;
+				continue;
+			}
+			// o vértice mais próximo no nível de cima também está neste nível
+			int t = d.locate(x, y, u >= 0 ? d.vt[u] : d.last);
+			start[l] = t;
+			double best = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < 3; i++) {
+				int w = d.tv[3 * t + i];
+				if (w < 0)
+					continue;
+				double dx = xs[w] - x, dy = ys[w] - y, dd = dx * dx + dy * dy;
+				if (dd < best) {
+					best = dd;
+					u = w;
+				}
+			}
+		}
+	}
+
+	// ------------------------------ EVENTOS ------------------------------
+
+	/**
+	 * Interface do objeto avisado das mudanças da triangularização
+	 */
+	public interface Listener {
+
+		/**
+		 * Função chamada quando um triângulo é criado
+		 *
+		 * @param a primeiro vértice
+		 * @param b segundo vértice
+		 * @param c terceiro vértice (os vértices em sentido anti-horário)
+		 */
+		void onCreated(int a, int b, int c);
+
+		/**
+		 * Função chamada quando um triângulo deixa de existir (sempre antes da
+		 * criação dos triângulos que o substituem)
+		 *
+		 * @param a primeiro vértice
+		 * @param b segundo vértice
+		 * @param c terceiro vértice (os vértices em sentido anti-horário)
+		 */
+		void onDestroyed(int a, int b, int c);
+	}
+
+	/**
+	 * Função que define o objeto avisado das mudanças da triangularização (os
+	 * triângulos já existentes não são informados)
+	 *
+	 * @param listener objeto que recebe os avisos, ou <code>null</code> para não
+	 *                 avisar ninguém
+	 */
+	public void setListener(Listener listener) {
+		levels[0].listener = listener;
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	/**
+	 * Função que indica se um índice corresponde a um vértice da triangularização
+	 *
+	 * @param v índice do vértice
+	 * @return <code>true</code> se o vértice existe (foi inserido e não foi
+	 *         removido)
+	 */
+	public boolean contains(int v) {
+		return v >= 0 && v < n && level[v] >= 0;
+	}
+
+	public double getX(int v) {
+		return xs[v];
+	}
+
+	public double getY(int v) {
+		return ys[v];
+	}
+
+	/**
+	 * Função que retorna o número de vértices da triangularização
+	 *
+	 * @return número de vértices (sem os removidos)
+	 */
+	public int getVertexCount() {
+		return count;
+	}
+
+	public int getTriangleCount() {
+		return levels[0].real;
+	}
+
+	/**
+	 * Função que cria uma malha com os triângulos atuais
+	 *
+	 * @return malha em ordem canônica, indexada pelos índices dos vértices
+	 */
+	public TriangleMesh toMesh() {
+		return levels[0].toMesh();
+	}
+}
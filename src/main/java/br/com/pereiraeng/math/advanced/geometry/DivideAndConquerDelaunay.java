@@ -0,0 +1,460 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Classe do objeto que constrói a triangularização de Delaunay pelo algoritmo
+ * de divisão e conquista de Guibas e Stolfi: os pontos, ordenados pela abscissa,
+ * são divididos recursivamente em duas metades, cada metade é triangularizada e
+ * as duas triangularizações são costuradas de baixo para cima.<br>
+ *
+ * As metades são independentes e triangularizadas em paralelo num
+ * {@link ForkJoinPool}. As arestas são guardadas em vetores de inteiros
+ * (estrutura quad-edge); cada intervalo de pontos usa uma faixa própria desses
+ * vetores, de modo que as tarefas não compartilham nada até a costura. Os
+ * empates de pontos cocirculares são desfeitos como em
+ * {@link IncrementalDelaunay}, de modo que as duas triangularizações são
+ * idênticas.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+final class DivideAndConquerDelaunay {
+
+	/**
+	 * número de pontos abaixo do qual um intervalo é triangularizado numa única
+	 * tarefa
+	 */
+	private static final int SEQUENTIAL = 1 << 13;
+
+	private final double[] xs, ys;
+
+	/**
+	 * pontos distintos em ordem lexicográfica (abscissa, ordenada)
+	 */
+	private final int[] sorted;
+
+	/**
+	 * aresta seguinte em torno da origem (onext) de cada uma das quatro arestas
+	 * orientadas de cada quad-edge (primais e duais)
+	 */
+	private final int[] next;
+
+	/**
+	 * origem de cada aresta primal (posição <code>e/2</code>), -1 se a quad-edge
+	 * está livre
+	 */
+	private final int[] org;
+
+	/**
+	 * próxima quad-edge livre
+	 */
+	private final int[] freeNext;
+
+	private DivideAndConquerDelaunay(double[] xs, double[] ys, int[] sorted) {
+		this.xs = xs;
+		this.ys = ys;
+		this.sorted = sorted;
+		int q = 3 * sorted.length;
+		this.next = new int[4 * q];
+		this.org = new int[2 * q];
+		this.freeNext = new int[q];
+		Arrays.fill(this.org, -1);
+	}
+
+	/**
+	 * Função que triangulariza um conjunto de pontos
+	 *
+	 * @param xs   abscissas dos pontos
+	 * @param ys   ordenadas dos pontos
+	 * @param pool pool de threads onde as metades serão triangularizadas
+	 * @return malha em ordem canônica
+	 */
+	static TriangleMesh triangulate(double[] xs, double[] ys, ForkJoinPool pool) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("Os vetores de coordenadas devem ter o mesmo tamanho");
+		int n = xs.length;
+		int[] idx = new int[n];
+		for (int i = 0; i < n; i++)
+			idx[i] = i;
+		pool.invoke(new Sort(xs, ys, idx, new int[n], 0, n));
+
+		// pontos repetidos: fica o de menor índice (a ordenação é estável)
+		int m = 0;
+		for (int i = 0; i < n; i++)
+			if (m == 0 || xs[idx[i]] != xs[idx[m - 1]] || ys[idx[i]] != ys[idx[m - 1]])
+				idx[m++] = idx[i];
+
+		if (m < 3)
+			return TriangleMesh.of(n, new int[0], new int[0]);
+
+		DivideAndConquerDelaunay d = new DivideAndConquerDelaunay(xs, ys, Arrays.copyOf(idx, m));
+		pool.invoke(d.new Part(0, m));
+		return d.toMesh(n);
+	}
+
+	// ------------------------------ QUAD-EDGE ------------------------------
+
+	private static int rot(int e) {
+		return (e & ~3) | ((e + 1) & 3);
+	}
+
+	private static int rotInv(int e) {
+		return (e & ~3) | ((e + 3) & 3);
+	}
+
+	private static int sym(int e) {
+		return e ^ 2;
+	}
+
+	private int onext(int e) {
+		return next[e];
+	}
+
+	private int oprev(int e) {
+		return rot(next[rot(e)]);
+	}
+
+	private int lnext(int e) {
+		return rot(next[rotInv(e)]);
+	}
+
+	private int rprev(int e) {
+		return next[sym(e)];
+	}
+
+	private int org(int e) {
+		return org[e >> 1];
+	}
+
+	private int dest(int e) {
+		return org[(e ^ 2) >> 1];
+	}
+
+	/**
+	 * Classe do objeto que guarda as quad-edges livres de uma tarefa
+	 */
+	private static final class Free {
+
+		private int head, tail;
+	}
+
+	private int makeEdge(Free f, int a, int b) {
+		int q = f.head;
+		f.head = freeNext[q];
+		if (f.head < 0)
+			f.tail = -1;
+		int e = 4 * q;
+		next[e] = e;
+		next[e + 1] = e + 3;
+		next[e + 2] = e + 2;
+		next[e + 3] = e + 1;
+		org[e >> 1] = a;
+		org[(e >> 1) + 1] = b;
+		return e;
+	}
+
+	private void splice(int a, int b) {
+		int alpha = rot(next[a]), beta = rot(next[b]);
+		int t = next[a];
+		next[a] = next[b];
+		next[b] = t;
+		t = next[alpha];
+		next[alpha] = next[beta];
+		next[beta] = t;
+	}
+
+	private int connect(Free f, int a, int b) {
+		int e = makeEdge(f, dest(a), org(b));
+		splice(e, lnext(a));
+		splice(sym(e), b);
+		return e;
+	}
+
+	private void deleteEdge(Free f, int e) {
+		splice(e, oprev(e));
+		splice(sym(e), oprev(sym(e)));
+		int q = e >> 2;
+		org[2 * q] = org[2 * q + 1] = -1;
+		freeNext[q] = f.head;
+		if (f.head < 0)
+			f.tail = q;
+		f.head = q;
+	}
+
+	// ------------------------------ PREDICADOS ------------------------------
+
+	private boolean ccw(int a, int b, int c) {
+		return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) > 0.;
+	}
+
+	private boolean rightOf(int p, int e) {
+		return ccw(p, dest(e), org(e));
+	}
+
+	private boolean leftOf(int p, int e) {
+		return ccw(p, org(e), dest(e));
+	}
+
+	private boolean inCircle(int a, int b, int c, int d) {
+		return Predicates.incirclePerturbed(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]) > 0.;
+	}
+
+	// ------------------------------ DIVISÃO E CONQUISTA ------------------------------
+
+	/**
+	 * Função que triangulariza um intervalo de pontos ordenados
+	 *
+	 * @return arestas da envoltória convexa: a que sai do ponto mais à esquerda
+	 *         (em sentido anti-horário) e a que sai do ponto mais à direita (em
+	 *         sentido horário), empacotadas num <code>long</code>
+	 */
+	private long delaunay(Free f, int lo, int hi) {
+		int m = hi - lo;
+		if (m == 2) {
+			int a = makeEdge(f, sorted[lo], sorted[lo + 1]);
+			return pack(a, sym(a));
+		}
+		if (m == 3) {
+			int s0 = sorted[lo], s1 = sorted[lo + 1], s2 = sorted[lo + 2];
+			int a = makeEdge(f, s0, s1), b = makeEdge(f, s1, s2);
+			splice(sym(a), b);
+			if (ccw(s0, s1, s2)) {
+				connect(f, b, a);
+				return pack(a, sym(b));
+			} else if (ccw(s0, s2, s1)) {
+				int c = connect(f, b, a);
+				return pack(sym(c), c);
+			}
+			// colineares
+			return pack(a, sym(b));
+		}
+		int mid = (lo + hi) >>> 1;
+		long l = delaunay(f, lo, mid), r = delaunay(f, mid, hi);
+		return merge(f, l, r);
+	}
+
+	/**
+	 * Função que costura as triangularizações de dois intervalos adjacentes
+	 */
+	private long merge(Free f, long left, long right) {
+		int ldo = first(left), ldi = second(left), rdi = first(right), rdo = second(right);
+
+		// tangente inferior comum
+		while (true) {
+			if (leftOf(org(rdi), ldi))
+				ldi = lnext(ldi);
+			else if (rightOf(org(ldi), rdi))
+				rdi = rprev(rdi);
+			else
+				break;
+		}
+
+		int basel = connect(f, sym(rdi), ldi);
+		if (org(ldi) == org(ldo))
+			ldo = sym(basel);
+		if (org(rdi) == org(rdo))
+			rdo = basel;
+
+		while (true) {
+			// candidato da esquerda: remove as arestas que deixam de ser de Delaunay
+			int lcand = onext(sym(basel));
+			if (rightOf(dest(lcand), basel))
+				while (inCircle(dest(basel), org(basel), dest(lcand), dest(onext(lcand)))) {
+					int t = onext(lcand);
+					deleteEdge(f, lcand);
+					lcand = t;
+				}
+
+			int rcand = oprev(basel);
+			if (rightOf(dest(rcand), basel))
+				while (inCircle(dest(basel), org(basel), dest(rcand), dest(oprev(rcand)))) {
+					int t = oprev(rcand);
+					deleteEdge(f, rcand);
+					rcand = t;
+				}
+
+			boolean lvalid = rightOf(dest(lcand), basel), rvalid = rightOf(dest(rcand), basel);
+			if (!lvalid && !rvalid)
+				break;
+
+			if (!lvalid || (rvalid && inCircle(dest(lcand), org(lcand), org(rcand), dest(rcand))))
+				basel = connect(f, rcand, sym(basel));
+			else
+				basel = connect(f, sym(basel), sym(lcand));
+		}
+		return pack(ldo, rdo);
+	}
+
+	private static long pack(int a, int b) {
+		return (long) a << 32 | (b & 0xFFFFFFFFL);
+	}
+
+	private static int first(long p) {
+		return (int) (p >>> 32);
+	}
+
+	private static int second(long p) {
+		return (int) p;
+	}
+
+	/**
+	 * Classe da tarefa que triangulariza um intervalo de pontos, dividindo-o em
+	 * duas tarefas enquanto ele for grande
+	 */
+	private final class Part extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int lo, hi;
+
+		/**
+		 * quad-edges livres ao fim da tarefa
+		 */
+		private Free free;
+
+		private Part(int lo, int hi) {
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected Long compute() {
+			if (hi - lo <= SEQUENTIAL) {
+				// a faixa de quad-edges do intervalo: 3 por ponto
+				free = new Free();
+				int q0 = 3 * lo, q1 = 3 * hi;
+				for (int q = q0; q < q1 - 1; q++)
+					freeNext[q] = q + 1;
+				freeNext[q1 - 1] = -1;
+				free.head = q0;
+				free.tail = q1 - 1;
+				return delaunay(free, lo, hi);
+			}
+			int mid = (lo + hi) >>> 1;
+			Part l = new Part(lo, mid), r = new Part(mid, hi);
+			invokeAll(l, r);
+
+			// as quad-edges livres das duas metades passam a ser desta tarefa
+			free = l.free;
+			if (free.head < 0) {
+				free.head = r.free.head;
+				free.tail = r.free.tail;
+			} else if (r.free.head >= 0) {
+				freeNext[free.tail] = r.free.head;
+				free.tail = r.free.tail;
+			}
+			return merge(free, l.join(), r.join());
+		}
+	}
+
+	// ------------------------------ SAÍDA ------------------------------
+
+	private TriangleMesh toMesh(int vertices) {
+		int q = org.length / 2;
+
+		// triângulo à esquerda de cada aresta primal orientada (-1 se a face não é
+		// um triângulo) e uma aresta de cada triângulo
+		int[] face = new int[2 * q], edge = new int[2 * q];
+		Arrays.fill(face, -2);
+		int m = 0;
+		for (int e = 0; e < 4 * q; e += 2) {
+			if (org[e >> 1] < 0 || face[e >> 1] != -2)
+				continue;
+			int e1 = lnext(e), e2 = lnext(e1);
+			if (lnext(e2) == e && ccw(org(e), org(e1), org(e2))) {
+				face[e >> 1] = face[e1 >> 1] = face[e2 >> 1] = m;
+				edge[m++] = e;
+			} else
+				face[e >> 1] = -1;
+		}
+
+		int[] ts = new int[3 * m], ns = new int[3 * m];
+		for (int t = 0; t < m; t++) {
+			int e = edge[t], e1 = lnext(e), e2 = lnext(e1);
+			ts[3 * t] = org(e);
+			ts[3 * t + 1] = org(e1);
+			ts[3 * t + 2] = org(e2);
+			// vizinho pela aresta oposta a cada vértice
+			ns[3 * t] = Math.max(face[sym(e1) >> 1], -1);
+			ns[3 * t + 1] = Math.max(face[sym(e2) >> 1], -1);
+			ns[3 * t + 2] = Math.max(face[sym(e) >> 1], -1);
+		}
+		return TriangleMesh.of(vertices, ts, ns);
+	}
+
+	// ------------------------------ ORDENAÇÃO ------------------------------
+
+	/**
+	 * Classe da tarefa que ordena índices de pontos pela abscissa e, em caso de
+	 * empate, pela ordenada (ordenação por intercalação, estável)
+	 */
+	private static final class Sort extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] xs, ys;
+
+		private final int[] a, tmp;
+
+		private final int lo, hi;
+
+		private Sort(double[] xs, double[] ys, int[] a, int[] tmp, int lo, int hi) {
+			this.xs = xs;
+			this.ys = ys;
+			this.a = a;
+			this.tmp = tmp;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= SEQUENTIAL)
+				sort(lo, hi);
+			else {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Sort(xs, ys, a, tmp, lo, mid), new Sort(xs, ys, a, tmp, mid, hi));
+				merge(lo, mid, hi);
+			}
+		}
+
+		private void sort(int from, int to) {
+			if (to - from < 16) {
+				for (int i = from + 1; i < to; i++) {
+					int v = a[i], j = i;
+					while (j > from && less(v, a[j - 1])) {
+						a[j] = a[j - 1];
+						j--;
+					}
+					a[j] = v;
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			sort(from, mid);
+			sort(mid, to);
+			merge(from, mid, to);
+		}
+
+		private void merge(int from, int mid, int to) {
+			if (!less(a[mid], a[mid - 1]))
+				return;
+			System.arraycopy(a, from, tmp, from, to - from);
+			int i = from, j = mid, k = from;
+			while (i < mid && j < to)
+				a[k++] = less(tmp[j], tmp[i]) ? tmp[j++] : tmp[i++];
+			while (i < mid)
+				a[k++] = tmp[i++];
+			while (j < to)
+				a[k++] = tmp[j++];
+		}
+
+		private boolean less(int p, int q) {
+			return xs[p] < xs[q] || (xs[p] == xs[q] && ys[p] < ys[q]);
+		}
+	}
+}
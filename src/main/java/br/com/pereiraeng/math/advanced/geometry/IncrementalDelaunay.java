@@ -0,0 +1,780 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Classe do objeto que constrói a triangularização de Delaunay de um conjunto de
+ * pontos pelo algoritmo incremental de Bowyer-Watson.<br>
+ *
+ * Os triângulos são guardados em vetores de inteiros: os vértices do triângulo
+ * <code>t</code>, em sentido anti-horário, ficam nas posições
+ * <code>3t, 3t+1, 3t+2</code> de {@link #tv} e o triângulo vizinho pela aresta
+ * oposta a cada vértice fica na mesma posição de {@link #tn}. O exterior da
+ * envoltória convexa é coberto por triângulos "fantasmas", que têm como
+ * primeiro vértice o {@link #GHOST vértice no infinito} e como aresta finita uma
+ * aresta da envoltória; assim todo triângulo tem sempre três vizinhos e pontos
+ * fora da envoltória são inseridos da mesma forma que pontos internos.<br>
+ *
+ * Os pontos são inseridos numa ordem aleatória por rodadas (BRIO), cada rodada
+ * ordenada ao longo de uma curva de Hilbert, e cada ponto é localizado por uma
+ * caminhada que parte do último triângulo criado, de modo que o tempo esperado
+ * é O(n log n). Pontos repetidos são inseridos uma única vez (fica o de menor
+ * índice). Os testes de orientação e de circuncírculo são feitos pelos
+ * {@link Predicates predicados robustos}, de modo que pontos colineares ou
+ * cocirculares não corrompem a estrutura; os empates de pontos cocirculares
+ * são desfeitos por {@link Predicates#incirclePerturbed}, o que torna a
+ * triangularização independente da ordem de inserção.<br>
+ *
+ * A estrutura também pode ser alterada ponto a ponto ({@link #add(int)} e
+ * {@link #delete(int)}), o que é usado pela {@link DelaunayTriangulation}.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+final class IncrementalDelaunay {
+
+	/**
+	 * índice do vértice no infinito
+	 */
+	static final int GHOST = -1;
+
+	/**
+	 * marcação dos triângulos removidos (primeiro vértice)
+	 */
+	private static final int DEAD = -2;
+
+	/**
+	 * número de pontos da primeira rodada de inserção
+	 */
+	private static final int FIRST_ROUND = 64;
+
+	/**
+	 * resolução (em bits por coordenada) da curva de Hilbert
+	 */
+	private static final int HILBERT_ORDER = 16;
+
+	/**
+	 * posição do vértice seguinte e do anterior no triângulo
+	 */
+	private static final int[] NEXT = { 1, 2, 0 }, PREV = { 2, 0, 1 };
+
+	double[] xs, ys;
+
+	/**
+	 * número de vértices
+	 */
+	int n;
+
+	/**
+	 * vértices e vizinhos de cada triângulo
+	 */
+	int[] tv, tn;
+
+	/**
+	 * número de posições de triângulos em uso (vivos ou removidos)
+	 */
+	int size;
+
+	/**
+	 * um triângulo que contém cada vértice (-1 se o vértice não está na
+	 * triangularização)
+	 */
+	int[] vt;
+
+	/**
+	 * último triângulo criado, ponto de partida da próxima localização
+	 */
+	int last = -1;
+
+	/**
+	 * número de triângulos reais
+	 */
+	int real;
+
+	/**
+	 * objeto avisado da criação e da remoção de triângulos reais (nulo se não há)
+	 */
+	DelaunayTriangulation.Listener listener;
+
+	/**
+	 * pontos que ainda não estão na triangularização porque, até agora, todos são
+	 * colineares (só usado enquanto não há triângulos reais)
+	 */
+	private int[] pending = new int[4];
+
+	private int nPending;
+
+	private int[] free = new int[16];
+
+	private int nFree;
+
+	// ---- áreas de trabalho da inserção ----
+
+	private int[] stamp;
+
+	private int epoch;
+
+	private int[] stack = new int[32], cavity = new int[32];
+
+	/**
+	 * arestas da fronteira da cavidade, posição do vizinho externo que aponta para
+	 * a cavidade e novo triângulo criado sobre cada aresta
+	 */
+	private int[] bu = new int[32], bv = new int[32], bo = new int[32], bt = new int[32];
+
+	/**
+	 * aresta da fronteira da cavidade que começa em cada vértice
+	 * (deslocado de uma posição por causa do vértice no infinito)
+	 */
+	private int[] startAt;
+
+	private long seed = 0x2545F4914F6CDD1DL;
+
+	/**
+	 * Construtor
+	 *
+	 * @param xs abscissas dos pontos
+	 * @param ys ordenadas dos pontos
+	 * @param n  número de pontos
+	 */
+	IncrementalDelaunay(double[] xs, double[] ys, int n) {
+		this.xs = xs;
+		this.ys = ys;
+		this.n = n;
+		int cap = Math.max(2 * n + 8, 16);
+		this.tv = new int[3 * cap];
+		this.tn = new int[3 * cap];
+		this.stamp = new int[cap];
+		this.vt = new int[Math.max(n, 1)];
+		Arrays.fill(this.vt, -1);
+		this.startAt = new int[n + 1];
+	}
+
+	/**
+	 * Função que troca os vetores de coordenadas (quando eles são realocados para
+	 * receber mais pontos)
+	 *
+	 * @param xs abscissas dos pontos
+	 * @param ys ordenadas dos pontos
+	 * @param n  número de pontos
+	 */
+	void setPoints(double[] xs, double[] ys, int n) {
+		this.xs = xs;
+		this.ys = ys;
+		this.n = n;
+		if (vt.length < xs.length) {
+			int old = vt.length;
+			vt = Arrays.copyOf(vt, xs.length);
+			Arrays.fill(vt, old, vt.length, -1);
+			startAt = new int[xs.length + 1];
+		}
+	}
+
+	/**
+	 * Função que triangulariza um conjunto de pontos
+	 *
+	 * @param xs abscissas dos pontos
+	 * @param ys ordenadas dos pontos
+	 * @return triangularização (sem triângulos se houver menos de três pontos
+	 *         distintos ou se todos forem colineares)
+	 */
+	static IncrementalDelaunay build(double[] xs, double[] ys) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("Os vetores de coordenadas devem ter o mesmo tamanho");
+		int n = xs.length;
+		IncrementalDelaunay d = new IncrementalDelaunay(xs, ys, n);
+		if (n < 3)
+			return d;
+
+		int[] order = order(xs, ys);
+
+		// triângulo inicial: os dois primeiros pontos distintos e o primeiro ponto
+		// não colinear a eles
+		int a = order[0], b = -1, c = -1, ib = -1, ic = -1;
+		for (int i = 1; i < n && b < 0; i++)
+			if (xs[order[i]] != xs[a] || ys[order[i]] != ys[a])
+				b = order[ib = i];
+		if (b < 0)
+			return d;
+		for (int i = ib + 1; i < n && c < 0; i++)
+			if (d.orient(a, b, order[i]) != 0.)
+				c = order[ic = i];
+		if (c < 0)
+			return d;
+
+		d.init(a, b, c);
+		for (int i = 1; i < n; i++)
+			if (i != ib && i != ic)
+				d.insert(order[i]);
+		return d;
+	}
+
+	// ------------------------------ ESTRUTURA ------------------------------
+
+	/**
+	 * Função que cria a triangularização inicial de três pontos não colineares
+	 * (um triângulo real e três fantasmas)
+	 */
+	void init(int a, int b, int c) {
+		if (orient(a, b, c) < 0.) {
+			int t = b;
+			b = c;
+			c = t;
+		}
+		int t0 = alloc(a, b, c);
+		int g0 = alloc(GHOST, c, b), g1 = alloc(GHOST, a, c), g2 = alloc(GHOST, b, a);
+		// vizinhos do triângulo real: pela aresta oposta a cada vértice
+		tn[3 * t0] = g0;
+		tn[3 * t0 + 1] = g1;
+		tn[3 * t0 + 2] = g2;
+		// vizinhos dos fantasmas: o real e, pelas arestas que contêm o infinito, os
+		// outros fantasmas (em g0 = (G, c, b), a aresta (b, G) é compartilhada com g2)
+		tn[3 * g0] = tn[3 * g1] = tn[3 * g2] = t0;
+		tn[3 * g0 + 1] = g2;
+		tn[3 * g0 + 2] = g1;
+		tn[3 * g1 + 1] = g0;
+		tn[3 * g1 + 2] = g2;
+		tn[3 * g2 + 1] = g1;
+		tn[3 * g2 + 2] = g0;
+		vt[a] = vt[b] = vt[c] = t0;
+		last = t0;
+		if (listener != null)
+			listener.onCreated(a, b, c);
+	}
+
+	/**
+	 * Função que cria um triângulo, colocando o vértice no infinito (se houver) na
+	 * primeira posição
+	 */
+	private int alloc(int a, int b, int c) {
+		int t;
+		if (nFree > 0)
+			t = free[--nFree];
+		else {
+			if (3 * (size + 1) > tv.length) {
+				int cap = 2 * (size + 1);
+				tv = Arrays.copyOf(tv, 3 * cap);
+				tn = Arrays.copyOf(tn, 3 * cap);
+				stamp = Arrays.copyOf(stamp, cap);
+			}
+			t = size++;
+		}
+		if (b == GHOST) {
+			b = c;
+			c = a;
+			a = GHOST;
+		} else if (c == GHOST) {
+			c = b;
+			b = a;
+			a = GHOST;
+		}
+		tv[3 * t] = a;
+		tv[3 * t + 1] = b;
+		tv[3 * t + 2] = c;
+		stamp[t] = 0;
+		if (a >= 0)
+			real++;
+		return t;
+	}
+
+	private void release(int t) {
+		if (tv[3 * t] >= 0) {
+			real--;
+			if (listener != null)
+				listener.onDestroyed(tv[3 * t], tv[3 * t + 1], tv[3 * t + 2]);
+		}
+		tv[3 * t] = DEAD;
+		if (nFree == free.length)
+			free = Arrays.copyOf(free, 2 * nFree);
+		free[nFree++] = t;
+	}
+
+	/**
+	 * Função que indica se um triângulo é real (nem fantasma, nem removido)
+	 */
+	boolean isReal(int t) {
+		return tv[3 * t] >= 0;
+	}
+
+	boolean isGhost(int t) {
+		return tv[3 * t] == GHOST;
+	}
+
+	/**
+	 * Função que retorna a posição de um vértice num triângulo
+	 */
+	int indexOf(int t, int v) {
+		return tv[3 * t] == v ? 0 : tv[3 * t + 1] == v ? 1 : 2;
+	}
+
+	/**
+	 * Função que cria uma malha com os triângulos reais
+	 *
+	 * @return malha em ordem canônica
+	 */
+	TriangleMesh toMesh() {
+		// posição de cada triângulo real na malha
+		int[] index = new int[size];
+		int m = 0;
+		for (int t = 0; t < size; t++)
+			index[t] = tv[3 * t] >= 0 ? m++ : -1;
+
+		int[] ts = new int[3 * m], ns = new int[3 * m];
+		for (int t = 0; t < size; t++) {
+			int j = index[t];
+			if (j >= 0)
+				for (int i = 0; i < 3; i++) {
+					ts[3 * j + i] = tv[3 * t + i];
+					ns[3 * j + i] = index[tn[3 * t + i]];
+				}
+		}
+		return TriangleMesh.of(n, ts, ns);
+	}
+
+	// ------------------------------ INSERÇÃO ------------------------------
+
+	/**
+	 * Função que insere um ponto na triangularização
+	 *
+	 * @param p índice do ponto
+	 * @return índice do vértice que ficou na triangularização (o próprio ponto ou,
+	 *         se houver outro com as mesmas coordenadas, o de menor índice)
+	 */
+	int insert(int p) {
+		double px = xs[p], py = ys[p];
+		int t = locate(px, py, last);
+
+		if (!isGhost(t))
+			for (int i = 0; i < 3; i++) {
+				int q = tv[3 * t + i];
+				if (xs[q] == px && ys[q] == py) {
+					if (p < q)
+						rename(q, p);
+					return Math.min(p, q);
+				}
+			}
+
+		// cavidade: triângulos cujo circuncírculo contém o ponto
+		epoch += 2;
+		int in = epoch, out = epoch + 1, nc = 0, ns = 0;
+		stamp[t] = in;
+		stack[ns++] = t;
+		while (ns > 0) {
+			int c = stack[--ns];
+			if (nc == cavity.length)
+				cavity = Arrays.copyOf(cavity, 2 * nc);
+			cavity[nc++] = c;
+			for (int i = 0; i < 3; i++) {
+				int o = tn[3 * c + i];
+				if (stamp[o] == in || stamp[o] == out)
+					continue;
+				if (conflict(o, px, py)) {
+					stamp[o] = in;
+					if (ns == stack.length)
+						stack = Arrays.copyOf(stack, 2 * ns);
+					stack[ns++] = o;
+				} else
+					stamp[o] = out;
+			}
+		}
+
+		// fronteira da cavidade (arestas orientadas como nos triângulos removidos)
+		int nb = 0;
+		for (int k = 0; k < nc; k++) {
+			int c = cavity[k];
+			for (int i = 0; i < 3; i++) {
+				int o = tn[3 * c + i];
+				if (stamp[o] != in) {
+					if (nb == bu.length) {
+						bu = Arrays.copyOf(bu, 2 * nb);
+						bv = Arrays.copyOf(bv, 2 * nb);
+						bo = Arrays.copyOf(bo, 2 * nb);
+						bt = Arrays.copyOf(bt, 2 * nb);
+					}
+					bu[nb] = tv[3 * c + NEXT[i]];
+					bv[nb] = tv[3 * c + PREV[i]];
+					// posição, no vizinho externo, da referência ao triângulo removido
+					bo[nb++] = 3 * o + (tn[3 * o] == c ? 0 : tn[3 * o + 1] == c ? 1 : 2);
+				}
+			}
+		}
+
+		for (int k = 0; k < nc; k++)
+			release(cavity[k]);
+
+		// estrela do novo vértice: um triângulo por aresta da fronteira
+		for (int k = 0; k < nb; k++) {
+			int u = bu[k], v = bv[k];
+			int nt = bt[k] = alloc(u, v, p);
+			tn[3 * nt + indexOf(nt, p)] = bo[k] / 3;
+			tn[bo[k]] = nt;
+			startAt[u + 1] = k;
+			if (u >= 0)
+				vt[u] = nt;
+			if (v >= 0)
+				vt[v] = nt;
+			if (listener != null && u >= 0 && v >= 0)
+				listener.onCreated(u, v, p);
+		}
+		for (int k = 0; k < nb; k++) {
+			// a aresta (v, p), oposta a u, é compartilhada com o triângulo cuja aresta
+			// da fronteira começa em v, e nele ela é oposta ao segundo vértice da aresta
+			int nt = bt[k], m = startAt[bv[k] + 1];
+			tn[3 * nt + indexOf(nt, bu[k])] = bt[m];
+			tn[3 * bt[m] + indexOf(bt[m], bv[m])] = nt;
+		}
+
+		vt[p] = last = bt[0];
+		return p;
+	}
+
+	/**
+	 * Função que troca o índice de um vértice em todos os triângulos que o contêm
+	 */
+	private void rename(int from, int to) {
+		int start = vt[from], t = start;
+		do {
+			int i = indexOf(t, from);
+			tv[3 * t + i] = to;
+			t = tn[3 * t + NEXT[i]];
+		} while (t != start);
+		vt[to] = start;
+		vt[from] = -1;
+	}
+
+	/**
+	 * Função que indica se um ponto está em conflito com um triângulo, isto é, se
+	 * ele está no interior do circuncírculo (para um fantasma: se ele está do lado
+	 * de fora da aresta da envoltória ou sobre ela)
+	 */
+	private boolean conflict(int t, double px, double py) {
+		return conflict(tv[3 * t], tv[3 * t + 1], tv[3 * t + 2], px, py);
+	}
+
+	/**
+	 * Função que indica se um ponto está em conflito com o triângulo de vértices
+	 * a, b e c (o vértice no infinito, se houver, deve ser o primeiro)
+	 */
+	private boolean conflict(int a, int b, int c, double px, double py) {
+		if (a == GHOST) {
+			double o = Predicates.orient2d(xs[b], ys[b], xs[c], ys[c], px, py);
+			if (o != 0.)
+				return o > 0.;
+			// colinear: só há conflito se o ponto estiver entre os extremos da aresta
+			return (px - xs[b]) * (xs[c] - xs[b]) + (py - ys[b]) * (ys[c] - ys[b]) > 0.
+					&& (px - xs[c]) * (xs[b] - xs[c]) + (py - ys[c]) * (ys[b] - ys[c]) > 0.;
+		}
+		return Predicates.incirclePerturbed(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], px, py) > 0.;
+	}
+
+	// ------------------------------ ALTERAÇÃO ------------------------------
+
+	/**
+	 * Função que acrescenta um ponto, mesmo que ainda não haja triângulos (nesse
+	 * caso o ponto fica guardado até que apareça um ponto não colinear aos demais)
+	 *
+	 * @param p índice do ponto
+	 * @return índice do vértice que ficou na triangularização (o próprio ponto ou o
+	 *         que já tinha as mesmas coordenadas)
+	 */
+	int add(int p) {
+		if (real > 0)
+			return insert(p);
+
+		for (int k = 0; k < nPending; k++) {
+			int q = pending[k];
+			if (xs[q] == xs[p] && ys[q] == ys[p])
+				return q;
+		}
+		if (nPending == pending.length)
+			pending = Arrays.copyOf(pending, 2 * nPending);
+		pending[nPending++] = p;
+
+		// os pontos guardados são todos colineares: basta testar o novo ponto
+		if (nPending >= 3 && orient(pending[0], pending[1], p) != 0.) {
+			int m = nPending;
+			nPending = 0;
+			init(pending[0], pending[1], p);
+			for (int k = 2; k < m - 1; k++)
+				insert(pending[k]);
+		}
+		return p;
+	}
+
+	/**
+	 * Função que remove um vértice. O buraco deixado pela estrela do vértice é
+	 * preenchido cortando "orelhas" do seu contorno: a cada passo é escolhido um
+	 * triângulo de três vértices consecutivos do contorno que seja convexo e cujo
+	 * circuncírculo não contenha nenhum outro vértice do contorno, o que dá os
+	 * mesmos triângulos que a triangularização de Delaunay sem o vértice. Se o
+	 * vértice está na envoltória, o contorno passa pelo vértice no infinito e os
+	 * triângulos fantasmas criados formam as novas arestas da envoltória
+	 *
+	 * @param v índice do vértice
+	 */
+	void delete(int v) {
+		if (real == 0) {
+			for (int k = 0; k < nPending; k++)
+				if (pending[k] == v) {
+					System.arraycopy(pending, k + 1, pending, k, --nPending - k);
+					break;
+				}
+			return;
+		}
+
+		// contorno da estrela em sentido anti-horário: o primeiro vértice de cada
+		// aresta do contorno e a posição, no triângulo externo, da referência à
+		// estrela
+		int k = 0, start = vt[v], t = start;
+		do {
+			int i = indexOf(t, v);
+			if (k == bu.length) {
+				bu = Arrays.copyOf(bu, 2 * k);
+				bv = Arrays.copyOf(bv, 2 * k);
+				bo = Arrays.copyOf(bo, 2 * k);
+				bt = Arrays.copyOf(bt, 2 * k);
+			}
+			if (k == cavity.length)
+				cavity = Arrays.copyOf(cavity, 2 * k);
+			int o = tn[3 * t + i];
+			bu[k] = tv[3 * t + NEXT[i]];
+			bo[k] = 3 * o + (tn[3 * o] == t ? 0 : tn[3 * o + 1] == t ? 1 : 2);
+			cavity[k++] = t;
+			t = tn[3 * t + NEXT[i]];
+		} while (t != start);
+
+		for (int j = 0; j < k; j++)
+			release(cavity[j]);
+		vt[v] = -1;
+
+		if (real == 0) {
+			// todos os triângulos continham o vértice: os demais pontos podem ser
+			// colineares, então a triangularização é refeita a partir deles
+			size = nFree = 0;
+			last = -1;
+			for (int j = 0; j < k; j++)
+				if (bu[j] >= 0)
+					vt[bu[j]] = -1;
+			for (int j = 0; j < k; j++)
+				if (bu[j] >= 0)
+					add(bu[j]);
+			return;
+		}
+
+		// o contorno é uma lista circular: bv guarda o seguinte, bt o anterior
+		for (int j = 0; j < k; j++) {
+			bv[j] = j + 1 < k ? j + 1 : 0;
+			bt[j] = j > 0 ? j - 1 : k - 1;
+		}
+		int j = 0;
+		for (int m = k, tries = 0; m > 3; m--) {
+			while (!isEar(j)) {
+				j = bv[j];
+				if (++tries > 2 * m)
+					throw new IllegalStateException("Contorno sem orelha de Delaunay");
+			}
+			tries = 0;
+			// o triângulo (a, b, c) sai do contorno, que passa a ter a aresta (a, c)
+			int pa = bt[j], pc = bv[j];
+			int nt = fill(bu[pa], bu[j], bu[pc], bo[pa], bo[j]);
+			bo[pa] = 3 * nt + indexOf(nt, bu[j]);
+			bv[pa] = pc;
+			bt[pc] = pa;
+			j = pa;
+		}
+		int pa = bt[j], pc = bv[j];
+		int nt = fill(bu[pa], bu[j], bu[pc], bo[pa], bo[j]);
+		tn[3 * nt + indexOf(nt, bu[j])] = bo[pc] / 3;
+		tn[bo[pc]] = nt;
+		last = tv[3 * nt] == GHOST ? tn[3 * nt] : nt;
+	}
+
+	/**
+	 * Função que cria um triângulo no buraco de uma remoção, ligando-o aos
+	 * vizinhos pelas arestas (a, b) e (b, c)
+	 *
+	 * @param ab posição, no vizinho pela aresta (a, b), da referência ao buraco
+	 * @param bc posição, no vizinho pela aresta (b, c), da referência ao buraco
+	 * @return índice do triângulo
+	 */
+	private int fill(int a, int b, int c, int ab, int bc) {
+		int nt = alloc(a, b, c);
+		tn[3 * nt + indexOf(nt, c)] = ab / 3;
+		tn[ab] = nt;
+		tn[3 * nt + indexOf(nt, a)] = bc / 3;
+		tn[bc] = nt;
+		for (int i = 0; i < 3; i++)
+			if (tv[3 * nt + i] >= 0)
+				vt[tv[3 * nt + i]] = nt;
+		if (listener != null && tv[3 * nt] >= 0)
+			listener.onCreated(a, b, c);
+		return nt;
+	}
+
+	/**
+	 * Função que indica se o vértice de uma posição do contorno de uma remoção é
+	 * a ponta de uma orelha de Delaunay
+	 *
+	 * @param j posição do vértice no contorno
+	 */
+	private boolean isEar(int j) {
+		int a = bu[bt[j]], b = bu[j], c = bu[bv[j]];
+		// o vértice no infinito, se houver, vai para a primeira posição
+		if (b == GHOST) {
+			b = c;
+			c = a;
+			a = GHOST;
+		} else if (c == GHOST) {
+			c = b;
+			b = a;
+			a = GHOST;
+		} else if (a != GHOST && orient(a, b, c) <= 0.)
+			return false;
+		for (int q = bv[bv[j]]; q != bt[j]; q = bv[q]) {
+			int u = bu[q];
+			if (u >= 0 && conflict(a, b, c, xs[u], ys[u]))
+				return false;
+		}
+		return true;
+	}
+
+	// ------------------------------ LOCALIZAÇÃO ------------------------------
+
+	/**
+	 * Função que localiza um ponto por uma caminhada entre triângulos vizinhos
+	 *
+	 * @param px    abscissa do ponto
+	 * @param py    ordenada do ponto
+	 * @param start triângulo de partida
+	 * @return triângulo real que contém o ponto (no interior ou na borda) ou, se o
+	 *         ponto estiver fora da envoltória convexa, um triângulo fantasma cuja
+	 *         aresta o separa da triangularização
+	 */
+	int locate(double px, double py, int start) {
+		int t = start;
+		if (t < 0 || tv[3 * t] == DEAD)
+			t = anyTriangle();
+		if (tv[3 * t] == GHOST)
+			t = tn[3 * t];
+		walk: while (true) {
+			// a ordem de teste das arestas é sorteada para que a caminhada não entre em
+			// ciclo
+			int r = random3();
+			for (int k = 0; k < 3; k++) {
+				int i = r + k < 3 ? r + k : r + k - 3;
+				int a = tv[3 * t + NEXT[i]], b = tv[3 * t + PREV[i]];
+				if (Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], px, py) < 0.) {
+					t = tn[3 * t + i];
+					if (tv[3 * t] == GHOST)
+						return t;
+					continue walk;
+				}
+			}
+			return t;
+		}
+	}
+
+	private int anyTriangle() {
+		for (int t = 0; t < size; t++)
+			if (tv[3 * t] >= 0)
+				return t;
+		throw new IllegalStateException("Triangularização vazia");
+	}
+
+	private int random3() {
+		seed ^= seed << 13;
+		seed ^= seed >>> 7;
+		seed ^= seed << 17;
+		return (int) ((seed >>> 33) % 3);
+	}
+
+	// ------------------------------ PREDICADOS ------------------------------
+
+	double orient(int a, int b, int c) {
+		return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]);
+	}
+
+	// ------------------------------ ORDEM DE INSERÇÃO ------------------------------
+
+	/**
+	 * Função que define a ordem de inserção dos pontos: uma permutação aleatória
+	 * dividida em rodadas de tamanho crescente (cada rodada com o dobro de pontos
+	 * da anterior), e os pontos de cada rodada ordenados ao longo de uma curva de
+	 * Hilbert
+	 *
+	 * @param xs abscissas dos pontos
+	 * @param ys ordenadas dos pontos
+	 * @return índices dos pontos na ordem de inserção
+	 */
+	static int[] order(double[] xs, double[] ys) {
+		int n = xs.length;
+		double xm = Double.POSITIVE_INFINITY, ym = Double.POSITIVE_INFINITY, xM = Double.NEGATIVE_INFINITY,
+				yM = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			xm = Math.min(xm, xs[i]);
+			xM = Math.max(xM, xs[i]);
+			ym = Math.min(ym, ys[i]);
+			yM = Math.max(yM, ys[i]);
+		}
+		int side = 1 << HILBERT_ORDER;
+		double sx = xM > xm ? (side - 1) / (xM - xm) : 0., sy = yM > ym ? (side - 1) / (yM - ym) : 0.;
+
+		// semente fixa: a mesma entrada gera sempre a mesma triangularização
+		int[] perm = new int[n];
+		for (int i = 0; i < n; i++)
+			perm[i] = i;
+		Random rnd = new Random(n);
+		for (int i = n - 1; i > 0; i--) {
+			int j = rnd.nextInt(i + 1), t = perm[i];
+			perm[i] = perm[j];
+			perm[j] = t;
+		}
+
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			int p = perm[i];
+			long h = hilbert(side, (int) ((xs[p] - xm) * sx), (int) ((ys[p] - ym) * sy));
+			keys[i] = h << 31 | p;
+		}
+
+		// rodadas: [0, n/2^k), ..., [n/4, n/2), [n/2, n)
+		int to = n;
+		while (to > 0) {
+			int from = to > FIRST_ROUND ? to / 2 : 0;
+			Arrays.sort(keys, from, to);
+			to = from;
+		}
+
+		int[] out = new int[n];
+		for (int i = 0; i < n; i++)
+			out[i] = (int) (keys[i] & 0x7FFFFFFFL);
+		return out;
+	}
+
+	/**
+	 * Função que calcula a posição de uma célula ao longo da curva de Hilbert
+	 *
+	 * @param side número de células de cada lado do quadrado (potência de 2)
+	 * @param x    coluna da célula
+	 * @param y    linha da célula
+	 * @return posição da célula na curva
+	 */
+	private static long hilbert(int side, int x, int y) {
+		long d = 0L;
+		for (int s = side >>> 1; s > 0; s >>>= 1) {
+			int rx = (x & s) > 0 ? 1 : 0, ry = (y & s) > 0 ? 1 : 0;
+			d += (long) s * s * ((3 * rx) ^ ry);
+			if (ry == 0) {
+				if (rx == 1) {
+					x = side - 1 - x;
+					y = side - 1 - y;
+				}
+				int t = x;
+				x = y;
+				y = t;
+			}
+		}
+		return d;
+	}
+}
@@ -0,0 +1,246 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+/**
+ * Classe do objeto que indexa pontos numa árvore k-d estática e balanceada. A
+ * árvore é implícita: os pontos são reordenados de modo que, em cada intervalo,
+ * o ponto do meio é a mediana da coordenada do nível (abscissa e ordenada
+ * alternadamente), o que dispensa nós e ponteiros. A construção é
+ * O(n log n) e cada consulta do ponto mais próximo é O(log n) em média.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class KdTree implements SpatialIndex {
+
+	/**
+	 * número máximo de pontos de um intervalo que é percorrido sem subdivisão
+	 */
+	private static final int LEAF = 8;
+
+	/**
+	 * índice original dos pontos, na ordem da árvore
+	 */
+	private final int[] ids;
+
+	/**
+	 * coordenadas dos pontos, na ordem da árvore
+	 */
+	private final double[] xs, ys;
+
+	/**
+	 * Construtor
+	 *
+	 * @param xs abscissas dos pontos
+	 * @param ys ordenadas dos pontos
+	 */
+	public KdTree(double[] xs, double[] ys) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("Os vetores de coordenadas devem ter o mesmo tamanho");
+		int n = xs.length;
+		this.ids = new int[n];
+		this.xs = xs.clone();
+		this.ys = ys.clone();
+		for (int i = 0; i < n; i++)
+			ids[i] = i;
+		build(0, n, 0);
+	}
+
+	// ------------------------------ CONSTRUÇÃO ------------------------------
+
+	private void build(int lo, int hi, int axis) {
+		while (hi - lo > LEAF) {
+			int m = (lo + hi) >>> 1;
+			select(lo, hi - 1, m, axis);
+			build(lo, m, 1 - axis);
+			lo = m + 1;
+			axis = 1 - axis;
+		}
+	}
+
+	/**
+	 * Função que reordena um intervalo de modo que o ponto da posição k fique com
+	 * o k-ésimo valor da coordenada, os menores antes e os maiores depois (seleção
+	 * de Hoare)
+	 */
+	private void select(int left, int right, int k, int axis) {
+		double[] c = axis == 0 ? xs : ys;
+		while (right > left) {
+			// mediana de três como pivô
+			int mid = (left + right) >>> 1;
+			if (c[mid] < c[left])
+				swap(mid, left);
+			if (c[right] < c[left])
+				swap(right, left);
+			if (c[right] < c[mid])
+				swap(right, mid);
+			double pivot = c[mid];
+
+			int i = left, j = right;
+			while (i <= j) {
+				while (c[i] < pivot)
+					i++;
+				while (c[j] > pivot)
+					j--;
+				if (i <= j)
+					swap(i++, j--);
+			}
+			if (k <= j)
+				right = j;
+			else if (k >= i)
+				left = i;
+			else
+				return;
+		}
+	}
+
+	private void swap(int i, int j) {
+		int id = ids[i];
+		ids[i] = ids[j];
+		ids[j] = id;
+		double t = xs[i];
+		xs[i] = xs[j];
+		xs[j] = t;
+		t = ys[i];
+		ys[i] = ys[j];
+		ys[j] = t;
+	}
+
+	// ------------------------------ CONSULTAS ------------------------------
+
+	@Override
+	public int size() {
+		return ids.length;
+	}
+
+	@Override
+	public int nearest(double x, double y) {
+		if (ids.length == 0)
+			return -1;
+		return ids[nearest(0, ids.length, 0, x, y, -1, Double.POSITIVE_INFINITY)];
+	}
+
+	/**
+	 * Função que busca o ponto mais próximo num intervalo da árvore
+	 *
+	 * @param best  posição do melhor ponto encontrado até agora (-1 se nenhum)
+	 * @param bestD quadrado da distância do melhor ponto
+	 * @return posição do melhor ponto
+	 */
+	private int nearest(int lo, int hi, int axis, double x, double y, int best, double bestD) {
+		if (hi - lo <= LEAF) {
+			for (int i = lo; i < hi; i++) {
+				double dx = xs[i] - x, dy = ys[i] - y, d = dx * dx + dy * dy;
+				if (d < bestD || (d == bestD && (best < 0 || ids[i] < ids[best]))) {
+					best = i;
+					bestD = d;
+				}
+			}
+			return best;
+		}
+		int m = (lo + hi) >>> 1;
+		double dx = xs[m] - x, dy = ys[m] - y, d = dx * dx + dy * dy;
+		if (d < bestD || (d == bestD && (best < 0 || ids[m] < ids[best]))) {
+			best = m;
+			bestD = d;
+		}
+		// primeiro o lado do ponto, depois o outro se a fronteira estiver perto
+		double diff = axis == 0 ? x - xs[m] : y - ys[m];
+		boolean left = diff < 0.;
+		best = left ? nearest(lo, m, 1 - axis, x, y, best, bestD) : nearest(m + 1, hi, 1 - axis, x, y, best, bestD);
+		bestD = distance(best, x, y);
+		if (diff * diff <= bestD)
+			best = left ? nearest(m + 1, hi, 1 - axis, x, y, best, bestD)
+					: nearest(lo, m, 1 - axis, x, y, best, bestD);
+		return best;
+	}
+
+	@Override
+	public int nearest(double x, double y, int k, int[] out, double[] distances) {
+		if (k > out.length || k > distances.length)
+			throw new IllegalArgumentException("Os vetores de saída devem ter pelo menos " + k + " posições");
+		if (k <= 0)
+			return 0;
+		return nearest(0, ids.length, 0, x, y, k, out, distances, 0);
+	}
+
+	private int nearest(int lo, int hi, int axis, double x, double y, int k, int[] out, double[] distances,
+			int count) {
+		if (hi - lo <= LEAF) {
+			for (int i = lo; i < hi; i++)
+				count = offer(out, distances, count, k, ids[i], distance(i, x, y));
+			return count;
+		}
+		int m = (lo + hi) >>> 1;
+		count = offer(out, distances, count, k, ids[m], distance(m, x, y));
+		double diff = axis == 0 ? x - xs[m] : y - ys[m];
+		boolean left = diff < 0.;
+		count = left ? nearest(lo, m, 1 - axis, x, y, k, out, distances, count)
+				: nearest(m + 1, hi, 1 - axis, x, y, k, out, distances, count);
+		if (count < k || diff * diff <= distances[k - 1])
+			count = left ? nearest(m + 1, hi, 1 - axis, x, y, k, out, distances, count)
+					: nearest(lo, m, 1 - axis, x, y, k, out, distances, count);
+		return count;
+	}
+
+	@Override
+	public int within(double x, double y, double radius, int[] out) {
+		if (!(radius >= 0.))
+			return 0;
+		return within(0, ids.length, 0, x, y, radius, radius * radius, out, 0);
+	}
+
+	private int within(int lo, int hi, int axis, double x, double y, double r, double r2, int[] out, int count) {
+		if (hi - lo <= LEAF) {
+			for (int i = lo; i < hi; i++)
+				if (distance(i, x, y) <= r2) {
+					if (count < out.length)
+						out[count] = ids[i];
+					count++;
+				}
+			return count;
+		}
+		int m = (lo + hi) >>> 1;
+		if (distance(m, x, y) <= r2) {
+			if (count < out.length)
+				out[count] = ids[m];
+			count++;
+		}
+		double c = axis == 0 ? xs[m] : ys[m], q = axis == 0 ? x : y;
+		if (q - r <= c)
+			count = within(lo, m, 1 - axis, x, y, r, r2, out, count);
+		if (q + r >= c)
+			count = within(m + 1, hi, 1 - axis, x, y, r, r2, out, count);
+		return count;
+	}
+
+	private double distance(int i, double x, double y) {
+		double dx = xs[i] - x, dy = ys[i] - y;
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Função que insere um ponto na lista dos k mais próximos encontrados até
+	 * agora, ordenada pela distância (e pelo índice, em caso de empate)
+	 *
+	 * @param out       índices dos pontos da lista
+	 * @param distances quadrados das distâncias
+	 * @param count     tamanho atual da lista
+	 * @param k         tamanho máximo da lista
+	 * @param id        índice do ponto
+	 * @param d         quadrado da distância do ponto
+	 * @return novo tamanho da lista
+	 */
+	static int offer(int[] out, double[] distances, int count, int k, int id, double d) {
+		if (count == k && (d > distances[k - 1] || (d == distances[k - 1] && id > out[k - 1])))
+			return count;
+		int j = count < k ? count++ : k - 1;
+		while (j > 0 && (distances[j - 1] > d || (distances[j - 1] == d && out[j - 1] > id))) {
+			out[j] = out[j - 1];
+			distances[j] = distances[j - 1];
+			j--;
+		}
+		out[j] = id;
+		distances[j] = d;
+		return count;
+	}
+}
@@ -0,0 +1,173 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Classe do objeto que mantém a envoltória convexa de um conjunto de pontos que
+ * chegam um a um, sem guardar os pontos que ficam no seu interior.<br>
+ *
+ * A envoltória é guardada como duas cadeias ordenadas pela abscissa, a de cima
+ * e a de baixo. Um novo ponto é localizado em cada cadeia em O(log h), onde h é
+ * o número de vértices; se estiver fora, ele entra na cadeia e os vizinhos que
+ * deixam de ser convexos saem. Como cada vértice sai no máximo uma vez, a
+ * inserção custa O(log h) amortizado. Um mesmo objeto não deve ser usado por
+ * mais de uma thread ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class OnlineConvexHull {
+
+	/**
+	 * cadeia de cima (abscissa → maior ordenada) e de baixo (abscissa → menor
+	 * ordenada); as duas têm as mesmas abscissas nas pontas
+	 */
+	private final TreeMap<Double, Double> upper = new TreeMap<>(), lower = new TreeMap<>();
+
+	// ------------------------------ ALTERAÇÃO ------------------------------
+
+	/**
+	 * Função que acrescenta um ponto
+	 *
+	 * @param x abscissa do ponto
+	 * @param y ordenada do ponto
+	 * @return <code>true</code> se a envoltória mudou, <code>false</code> se o
+	 *         ponto está no interior ou sobre a borda
+	 */
+	public boolean add(double x, double y) {
+		// -0 vira 0, para que as chaves e as comparações não os distingam
+		x += 0.;
+		y += 0.;
+		return add(upper, x, y, -1.) | add(lower, x, y, 1.);
+	}
+
+	/**
+	 * Função que acrescenta os vértices de outra envoltória, de modo que esta
+	 * passa a ser a envoltória da união dos dois conjuntos de pontos
+	 *
+	 * @param other outra envoltória (não é alterada)
+	 */
+	public void merge(OnlineConvexHull other) {
+		if (other == this)
+			return;
+		for (Entry<Double, Double> e : other.upper.entrySet())
+			add(e.getKey(), e.getValue());
+		for (Entry<Double, Double> e : other.lower.entrySet())
+			add(e.getKey(), e.getValue());
+	}
+
+	/**
+	 * Função que acrescenta um ponto a uma cadeia
+	 *
+	 * @param chain cadeia
+	 * @param x     abscissa do ponto
+	 * @param y     ordenada do ponto
+	 * @param side  -1 para a cadeia de cima (que gira em sentido horário), 1 para
+	 *              a de baixo (que gira em sentido anti-horário)
+	 * @return <code>true</code> se a cadeia mudou
+	 */
+	private static boolean add(TreeMap<Double, Double> chain, double x, double y, double side) {
+		Double old = chain.get(x);
+		if (old != null) {
+			// mesma abscissa de um vértice: só interessa se for mais extremo
+			if (side * (y - old) >= 0.)
+				return false;
+		} else {
+			Entry<Double, Double> a = chain.lowerEntry(x), b = chain.higherEntry(x);
+			if (a != null && b != null && side * orient(a, b, x, y) >= 0.)
+				return false;
+		}
+		chain.put(x, y);
+
+		// vizinhos que deixaram de ser convexos, à esquerda e à direita
+		for (Entry<Double, Double> b = chain.lowerEntry(x), a; b != null
+				&& (a = chain.lowerEntry(b.getKey())) != null && side * orient(a, b, x, y) <= 0.; b = a)
+			chain.remove(b.getKey());
+		for (Entry<Double, Double> b = chain.higherEntry(x), c; b != null
+				&& (c = chain.higherEntry(b.getKey())) != null && side * orient(x, y, b, c) <= 0.; b = c)
+			chain.remove(b.getKey());
+		return true;
+	}
+
+	// ------------------------------ CONSULTAS ------------------------------
+
+	/**
+	 * Função que indica se um ponto está dentro da envoltória
+	 *
+	 * @param x abscissa do ponto
+	 * @param y ordenada do ponto
+	 * @return <code>true</code> se o ponto está no interior ou sobre a borda
+	 */
+	public boolean contains(double x, double y) {
+		x += 0.;
+		return contains(upper, x, y, -1.) && contains(lower, x, y, 1.);
+	}
+
+	private static boolean contains(TreeMap<Double, Double> chain, double x, double y, double side) {
+		Entry<Double, Double> a = chain.floorEntry(x), b = chain.ceilingEntry(x);
+		if (a == null || b == null)
+			return false;
+		if (a.getKey() == x)
+			return side * (y - a.getValue()) >= 0.;
+		return side * orient(a, b, x, y) >= 0.;
+	}
+
+	private static double orient(Entry<Double, Double> a, Entry<Double, Double> b, double x, double y) {
+		return Predicates.orient2d(a.getKey(), a.getValue(), b.getKey(), b.getValue(), x, y);
+	}
+
+	private static double orient(double x, double y, Entry<Double, Double> b, Entry<Double, Double> c) {
+		return Predicates.orient2d(x, y, b.getKey(), b.getValue(), c.getKey(), c.getValue());
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	public boolean isEmpty() {
+		return upper.isEmpty();
+	}
+
+	/**
+	 * Função que retorna o número de vértices da envoltória
+	 *
+	 * @return número de vértices (1 se todos os pontos coincidem, 2 se são
+	 *         colineares)
+	 */
+	public int getVertexCount() {
+		if (upper.isEmpty())
+			return 0;
+		int count = upper.size() + lower.size();
+		if (upper.firstEntry().getValue().equals(lower.firstEntry().getValue()))
+			count--;
+		if (upper.size() > 1 && upper.lastEntry().getValue().equals(lower.lastEntry().getValue()))
+			count--;
+		return count;
+	}
+
+	/**
+	 * Função que retorna as coordenadas dos vértices da envoltória em sentido
+	 * anti-horário, a partir do de menor abscissa (e, em caso de empate, de menor
+	 * ordenada)
+	 *
+	 * @return vetor com a abscissa e a ordenada de cada vértice (um vetor novo a
+	 *         cada chamada)
+	 */
+	public double[] getCoordinates() {
+		double[] xy = new double[2 * getVertexCount()];
+		int k = 0;
+		for (Entry<Double, Double> e : lower.entrySet()) {
+			xy[k++] = e.getKey();
+			xy[k++] = e.getValue();
+		}
+		Entry<Double, Double> first = lower.firstEntry(), last = lower.lastEntry();
+		for (Entry<Double, Double> e : upper.descendingMap().entrySet()) {
+			// as pontas que coincidem com as da cadeia de baixo já foram incluídas
+			if (e.getKey().equals(last.getKey()) && e.getValue().equals(last.getValue())
+					|| e.getKey().equals(first.getKey()) && e.getValue().equals(first.getValue()))
+				continue;
+			xy[k++] = e.getKey();
+			xy[k++] = e.getValue();
+		}
+		return xy;
+	}
+}
@@ -0,0 +1,331 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Classe que contém os predicados geométricos robustos de orientação e de
+ * circuncírculo, segundo o método adaptativo de J. R. Shewchuk
+ * (<a href="https://www.cs.cmu.edu/~quake/robust.html">Adaptive Precision
+ * Floating-Point Arithmetic and Fast Robust Geometric Predicates</a>).<br>
+ *
+ * Cada predicado é primeiro calculado em ponto flutuante e o resultado é aceito
+ * se for maior que a cota do erro de arredondamento, o que acontece em quase
+ * todos os casos. Senão (pontos quase colineares ou quase cocirculares), o
+ * determinante é recalculado de forma exata por expansões em ponto flutuante
+ * (somas de números <code>double</code> sem sobreposição), de modo que o sinal
+ * retornado é sempre o correto.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public final class Predicates {
+
+	private static final double EPSILON = 0x1p-53;
+
+	/**
+	 * 2<sup>27</sup> + 1, usado para dividir um número em duas metades de 26 bits
+	 */
+	private static final double SPLITTER = 0x1p27 + 1.;
+
+	private static final double CCW_BOUND = (3. + 16. * EPSILON) * EPSILON;
+
+	private static final double ICC_BOUND = (10. + 96. * EPSILON) * EPSILON;
+
+	private Predicates() {
+	}
+
+	// ------------------------------ PREDICADOS ------------------------------
+
+	/**
+	 * Função que determina a orientação de três pontos
+	 *
+	 * @return valor positivo se os pontos a, b e c estão em sentido anti-horário,
+	 *         negativo se estão em sentido horário e nulo se são colineares (o
+	 *         módulo aproxima o dobro da área do triângulo)
+	 */
+	public static double orient2d(double ax, double ay, double bx, double by, double cx, double cy) {
+		double left = (ax - cx) * (by - cy), right = (ay - cy) * (bx - cx);
+		double det = left - right;
+		double sum;
+		if (left > 0.) {
+			if (right <= 0.)
+				return det;
+			sum = left + right;
+		} else if (left < 0.) {
+			if (right >= 0.)
+				return det;
+			sum = -left - right;
+		} else
+			return det;
+
+		if (Math.abs(det) >= CCW_BOUND * sum)
+			return det;
+		return orient2dExact(ax, ay, bx, by, cx, cy);
+	}
+
+	/**
+	 * Função que compara as orientações de dois pontos em relação a um mesmo
+	 * segmento, isto é, as suas distâncias (com sinal) à reta que passa por a e b.
+	 * A diferença <code>orient2d(a, b, c) - orient2d(a, b, d)</code> é o
+	 * determinante <code>(b - a) × (c - d)</code>, calculado como
+	 * {@link #orient2d}: em ponto flutuante e, se o resultado não for maior que a
+	 * cota do erro, de forma exata
+	 *
+	 * @return valor positivo se <code>orient2d(a, b, c)</code> é maior que
+	 *         <code>orient2d(a, b, d)</code>, negativo se é menor e nulo se são
+	 *         iguais (o módulo aproxima a diferença)
+	 */
+	public static double compareOrient2d(double ax, double ay, double bx, double by, double cx, double cy,
+			double dx, double dy) {
+		double left = (bx - ax) * (cy - dy), right = (by - ay) * (cx - dx);
+		double det = left - right;
+		double sum;
+		if (left > 0.) {
+			if (right <= 0.)
+				return det;
+			sum = left + right;
+		} else if (left < 0.) {
+			if (right >= 0.)
+				return det;
+			sum = -left - right;
+		} else
+			return det;
+
+		if (Math.abs(det) >= CCW_BOUND * sum)
+			return det;
+		return compareOrient2dExact(ax, ay, bx, by, cx, cy, dx, dy);
+	}
+
+	/**
+	 * Função que determina a posição de um ponto em relação ao circuncírculo de
+	 * três pontos em sentido anti-horário
+	 *
+	 * @return valor positivo se o ponto d está no interior do círculo que passa
+	 *         por a, b e c, negativo se está no exterior e nulo se está sobre ele
+	 *         (se a, b e c estão em sentido horário, o sinal é o inverso)
+	 */
+	public static double incircle(double ax, double ay, double bx, double by, double cx, double cy, double dx,
+			double dy) {
+		double adx = ax - dx, bdx = bx - dx, cdx = cx - dx;
+		double ady = ay - dy, bdy = by - dy, cdy = cy - dy;
+
+		double bdxcdy = bdx * cdy, cdxbdy = cdx * bdy;
+		double alift = adx * adx + ady * ady;
+
+		double cdxady = cdx * ady, adxcdy = adx * cdy;
+		double blift = bdx * bdx + bdy * bdy;
+
+		double adxbdy = adx * bdy, bdxady = bdx * ady;
+		double clift = cdx * cdx + cdy * cdy;
+
+		double det = alift * (bdxcdy - cdxbdy) + blift * (cdxady - adxcdy) + clift * (adxbdy - bdxady);
+		double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+				+ (Math.abs(cdxady) + Math.abs(adxcdy)) * blift + (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+
+		if (Math.abs(det) > ICC_BOUND * permanent)
+			return det;
+		return incircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+	}
+
+	/**
+	 * Função que determina a posição de um ponto em relação ao circuncírculo de
+	 * três pontos, como {@link #incircle}, mas desempatando os casos cocirculares
+	 * por uma perturbação simbólica: a altura <code>x² + y²</code> de cada ponto é
+	 * acrescida de um infinitésimo tanto maior quanto maior o ponto na ordem
+	 * lexicográfica (abscissa, ordenada). O desempate depende só das coordenadas,
+	 * de modo que algoritmos diferentes que o usem constroem a mesma
+	 * triangularização de Delaunay mesmo com pontos cocirculares
+	 *
+	 * @return valor positivo se o ponto d está no interior do círculo perturbado
+	 *         que passa por a, b e c, negativo se está no exterior; nulo só se a,
+	 *         b e c são colineares e d é colinear a dois deles ou se há pontos
+	 *         repetidos (no desempate, o módulo não tem significado geométrico)
+	 */
+	public static double incirclePerturbed(double ax, double ay, double bx, double by, double cx, double cy,
+			double dx, double dy) {
+		double det = incircle(ax, ay, bx, by, cx, cy, dx, dy);
+		if (det != 0.)
+			return det;
+
+		// derivada do determinante em relação à altura de cada ponto: o cofator, que
+		// é a orientação dos outros três com sinal alternado
+		double[] px = { ax, bx, cx, dx }, py = { ay, by, cy, dy };
+		for (int i = 0; i < 4; i++)
+			for (int j = i + 1; j < 4; j++)
+				if (px[i] == px[j] && py[i] == py[j])
+					// pontos repetidos têm a mesma perturbação, que se anula
+					return 0.;
+		boolean[] used = new boolean[4];
+		for (int k = 0; k < 4; k++) {
+			// o maior ponto ainda não considerado domina a perturbação
+			int p = -1;
+			for (int i = 0; i < 4; i++)
+				if (!used[i] && (p < 0 || px[i] > px[p] || (px[i] == px[p] && py[i] > py[p])))
+					p = i;
+			used[p] = true;
+
+			int i = p == 0 ? 1 : 0, j = p <= 1 ? 2 : 1, l = p == 3 ? 2 : 3;
+			double o = orient2d(px[i], py[i], px[j], py[j], px[l], py[l]);
+			if (o != 0.)
+				return (p & 1) == 0 ? o : -o;
+		}
+		return 0.;
+	}
+
+	// ------------------------------ CÁLCULO EXATO ------------------------------
+
+	private static double orient2dExact(double ax, double ay, double bx, double by, double cx, double cy) {
+		double[] acx = twoDiff(ax, cx), bcy = twoDiff(by, cy), acy = twoDiff(ay, cy), bcx = twoDiff(bx, cx);
+		return estimate(sum(product(acx, bcy), negate(product(acy, bcx))));
+	}
+
+	private static double compareOrient2dExact(double ax, double ay, double bx, double by, double cx, double cy,
+			double dx, double dy) {
+		double[] bax = twoDiff(bx, ax), cdy = twoDiff(cy, dy), bay = twoDiff(by, ay), cdx = twoDiff(cx, dx);
+		return estimate(sum(product(bax, cdy), negate(product(bay, cdx))));
+	}
+
+	private static double incircleExact(double ax, double ay, double bx, double by, double cx, double cy,
+			double dx, double dy) {
+		double[] adx = twoDiff(ax, dx), ady = twoDiff(ay, dy);
+		double[] bdx = twoDiff(bx, dx), bdy = twoDiff(by, dy);
+		double[] cdx = twoDiff(cx, dx), cdy = twoDiff(cy, dy);
+
+		double[] alift = sum(product(adx, adx), product(ady, ady));
+		double[] blift = sum(product(bdx, bdx), product(bdy, bdy));
+		double[] clift = sum(product(cdx, cdx), product(cdy, cdy));
+
+		double[] bc = sum(product(bdx, cdy), negate(product(cdx, bdy)));
+		double[] ca = sum(product(cdx, ady), negate(product(adx, cdy)));
+		double[] ab = sum(product(adx, bdy), negate(product(bdx, ady)));
+
+		return estimate(sum(sum(product(alift, bc), product(blift, ca)), product(clift, ab)));
+	}
+
+	// ------------------------------ EXPANSÕES ------------------------------
+
+	/**
+	 * Função que calcula a diferença exata de dois números
+	 *
+	 * @return expansão com o erro de arredondamento e a diferença arredondada
+	 */
+	private static double[] twoDiff(double a, double b) {
+		double x = a - b;
+		double bvirt = a - x, avirt = x + bvirt;
+		double y = (a - avirt) + (bvirt - b);
+		return y == 0. ? new double[] { x } : new double[] { y, x };
+	}
+
+	/**
+	 * Função que multiplica uma expansão por um número
+	 *
+	 * @return expansão com o produto exato (componentes nulas eliminadas)
+	 */
+	private static double[] scale(double[] e, double b) {
+		double[] h = new double[2 * e.length];
+		int hi = 0;
+
+		double bhi = splitHi(b), blo = b - bhi;
+		double q = e[0] * b;
+		double hh = productTail(e[0], b, q, bhi, blo);
+		if (hh != 0.)
+			h[hi++] = hh;
+		for (int i = 1; i < e.length; i++) {
+			double p1 = e[i] * b;
+			double p0 = productTail(e[i], b, p1, bhi, blo);
+			// q + p0, exato
+			double sum = q + p0, bvirt = sum - q, avirt = sum - bvirt;
+			hh = (q - avirt) + (p0 - bvirt);
+			if (hh != 0.)
+				h[hi++] = hh;
+			// p1 + sum, exato (|p1| >= |sum|)
+			q = p1 + sum;
+			hh = sum - (q - p1);
+			if (hh != 0.)
+				h[hi++] = hh;
+		}
+		if (q != 0. || hi == 0)
+			h[hi++] = q;
+		return Arrays.copyOf(h, hi);
+	}
+
+	/**
+	 * Função que soma duas expansões
+	 *
+	 * @return expansão com a soma exata (componentes nulas eliminadas)
+	 */
+	private static double[] sum(double[] e, double[] f) {
+		double[] h = new double[e.length + f.length];
+		int ei = 0, fi = 0, hi = 0;
+		double enow = e[0], fnow = f[0], q;
+
+		if ((fnow > enow) == (fnow > -enow)) {
+			q = enow;
+			enow = ++ei < e.length ? e[ei] : 0.;
+		} else {
+			q = fnow;
+			fnow = ++fi < f.length ? f[fi] : 0.;
+		}
+		while (ei < e.length || fi < f.length) {
+			double next;
+			if (fi == f.length || (ei < e.length && (fnow > enow) == (fnow > -enow))) {
+				next = enow;
+				enow = ++ei < e.length ? e[ei] : 0.;
+			} else {
+				next = fnow;
+				fnow = ++fi < f.length ? f[fi] : 0.;
+			}
+			double s = q + next, bvirt = s - q, avirt = s - bvirt;
+			double hh = (q - avirt) + (next - bvirt);
+			q = s;
+			if (hh != 0.)
+				h[hi++] = hh;
+		}
+		if (q != 0. || hi == 0)
+			h[hi++] = q;
+		return Arrays.copyOf(h, hi);
+	}
+
+	private static double[] product(double[] e, double[] f) {
+		double[] out = scale(e, f[0]);
+		for (int i = 1; i < f.length; i++)
+			out = sum(out, scale(e, f[i]));
+		return out;
+	}
+
+	private static double[] negate(double[] e) {
+		double[] out = new double[e.length];
+		for (int i = 0; i < e.length; i++)
+			out[i] = -e[i];
+		return out;
+	}
+
+	/**
+	 * Função que retorna a componente mais significativa de uma expansão, que tem
+	 * o sinal do valor exato
+	 */
+	private static double estimate(double[] e) {
+		return e[e.length - 1];
+	}
+
+	private static double splitHi(double a) {
+		double c = SPLITTER * a;
+		return c - (c - a);
+	}
+
+	/**
+	 * Função que calcula o erro de arredondamento de um produto
+	 *
+	 * @param a   primeiro fator
+	 * @param b   segundo fator
+	 * @param x   produto arredondado
+	 * @param bhi metade superior de b
+	 * @param blo metade inferior de b
+	 * @return <code>a·b - x</code>, exato
+	 */
+	private static double productTail(double a, double b, double x, double bhi, double blo) {
+		double ahi = splitHi(a), alo = a - ahi;
+		double err = x - ahi * bhi - alo * bhi - ahi * blo;
+		return alo * blo - err;
+	}
+}
@@ -0,0 +1,61 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+/**
+ * Interface do objeto que indexa um conjunto fixo de pontos para consultas de
+ * proximidade. O ponto mais próximo de uma coordenada é o dono da célula de
+ * Voronoi que a contém, de modo que {@link #nearest(double, double)} também
+ * responde a que célula pertence um ponto.<br>
+ *
+ * As consultas não criam objetos (os resultados vão para vetores fornecidos por
+ * quem chama) e não alteram o índice, que pode então ser consultado por várias
+ * threads ao mesmo tempo.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public interface SpatialIndex {
+
+	/**
+	 * Função que retorna o número de pontos indexados
+	 *
+	 * @return número de pontos
+	 */
+	int size();
+
+	/**
+	 * Função que busca o ponto mais próximo de uma coordenada
+	 *
+	 * @param x abscissa
+	 * @param y ordenada
+	 * @return índice do ponto mais próximo (em caso de empate, o de menor índice),
+	 *         ou -1 se não há pontos
+	 */
+	int nearest(double x, double y);
+
+	/**
+	 * Função que busca os k pontos mais próximos de uma coordenada
+	 *
+	 * @param x         abscissa
+	 * @param y         ordenada
+	 * @param k         número de pontos
+	 * @param out       vetor que recebe os índices dos pontos, do mais próximo ao
+	 *                  mais distante (com pelo menos k posições)
+	 * @param distances vetor que recebe o quadrado da distância de cada ponto (com
+	 *                  pelo menos k posições)
+	 * @return número de pontos encontrados (menor que k se há menos de k pontos)
+	 */
+	int nearest(double x, double y, int k, int[] out, double[] distances);
+
+	/**
+	 * Função que busca os pontos que estão a até uma dada distância de uma
+	 * coordenada
+	 *
+	 * @param x      abscissa
+	 * @param y      ordenada
+	 * @param radius distância máxima
+	 * @param out    vetor que recebe os índices dos pontos, em qualquer ordem
+	 * @return número de pontos encontrados (se for maior que o tamanho do vetor,
+	 *         só os primeiros foram guardados)
+	 */
+	int within(double x, double y, double radius, int[] out);
+}
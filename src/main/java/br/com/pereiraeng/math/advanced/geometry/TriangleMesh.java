@@ -0,0 +1,148 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+/**
+ * Classe do objeto que representa uma malha de triângulos por vetores de
+ * índices: os vértices do triângulo <code>t</code>, em sentido anti-horário,
+ * ficam nas posições <code>3t, 3t+1, 3t+2</code> de {@link #getTriangles()} e o
+ * triângulo vizinho pela aresta oposta a cada um desses vértices fica na mesma
+ * posição de {@link #getNeighbors()} (-1 se a aresta está na envoltória).<br>
+ *
+ * A ordem é canônica: cada triângulo começa pelo seu vértice de menor índice e
+ * os triângulos estão em ordem lexicográfica, de modo que malhas com os mesmos
+ * triângulos são idênticas, qualquer que seja o algoritmo que as gerou.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class TriangleMesh {
+
+	private final int vertices;
+
+	private final int[] triangles, neighbors;
+
+	private TriangleMesh(int vertices, int[] triangles, int[] neighbors) {
+		this.vertices = vertices;
+		this.triangles = triangles;
+		this.neighbors = neighbors;
+	}
+
+	/**
+	 * Função que cria uma malha a partir de triângulos em qualquer ordem
+	 *
+	 * @param vertices  número de vértices
+	 * @param triangles vetor com três índices de vértices (em sentido
+	 *                  anti-horário) por triângulo
+	 * @param neighbors vetor com o índice do triângulo vizinho pela aresta oposta
+	 *                  a cada vértice (-1 na envoltória)
+	 * @return malha em ordem canônica
+	 */
+	static TriangleMesh of(int vertices, int[] triangles, int[] neighbors) {
+		int m = triangles.length / 3;
+
+		// cada triângulo começa pelo vértice de menor índice
+		for (int t = 0; t < m; t++) {
+			int a = triangles[3 * t], b = triangles[3 * t + 1], c = triangles[3 * t + 2];
+			int r = b < a && b < c ? 1 : c < a && c < b ? 2 : 0;
+			if (r > 0) {
+				int na = neighbors[3 * t], nb = neighbors[3 * t + 1], nc = neighbors[3 * t + 2];
+				triangles[3 * t] = r == 1 ? b : c;
+				triangles[3 * t + 1] = r == 1 ? c : a;
+				triangles[3 * t + 2] = r == 1 ? a : b;
+				neighbors[3 * t] = r == 1 ? nb : nc;
+				neighbors[3 * t + 1] = r == 1 ? nc : na;
+				neighbors[3 * t + 2] = r == 1 ? na : nb;
+			}
+		}
+
+		// ordenação por contagem do primeiro vértice e, em cada grupo, por inserção
+		// do segundo (a aresta orientada dos dois primeiros vértices é única)
+		int[] start = new int[vertices + 1];
+		for (int t = 0; t < m; t++)
+			start[triangles[3 * t] + 1]++;
+		for (int v = 0; v < vertices; v++)
+			start[v + 1] += start[v];
+		int[] fill = start.clone(), order = new int[m];
+		for (int t = 0; t < m; t++) {
+			int a = triangles[3 * t], j = fill[a]++, b = triangles[3 * t + 1];
+			while (j > start[a] && triangles[3 * order[j - 1] + 1] > b) {
+				order[j] = order[j - 1];
+				j--;
+			}
+			order[j] = t;
+		}
+
+		int[] position = new int[m];
+		for (int j = 0; j < m; j++)
+			position[order[j]] = j;
+
+		int[] ts = new int[3 * m], ns = new int[3 * m];
+		for (int j = 0; j < m; j++) {
+			int t = order[j];
+			for (int i = 0; i < 3; i++) {
+				ts[3 * j + i] = triangles[3 * t + i];
+				int o = neighbors[3 * t + i];
+				ns[3 * j + i] = o < 0 ? -1 : position[o];
+			}
+		}
+		return new TriangleMesh(vertices, ts, ns);
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	/**
+	 * Função que retorna o número de vértices da malha (incluindo os que não
+	 * pertencem a nenhum triângulo, como pontos repetidos)
+	 *
+	 * @return número de vértices
+	 */
+	public int getVertexCount() {
+		return vertices;
+	}
+
+	public int getTriangleCount() {
+		return triangles.length / 3;
+	}
+
+	/**
+	 * Função que retorna os vértices de todos os triângulos
+	 *
+	 * @return vetor com três índices de vértices por triângulo (o próprio vetor da
+	 *         malha, que não deve ser alterado)
+	 */
+	public int[] getTriangles() {
+		return triangles;
+	}
+
+	/**
+	 * Função que retorna os vizinhos de todos os triângulos
+	 *
+	 * @return vetor com o índice do triângulo vizinho pela aresta oposta a cada
+	 *         vértice, ou -1 se a aresta está na envoltória (o próprio vetor da
+	 *         malha, que não deve ser alterado)
+	 */
+	public int[] getNeighbors() {
+		return neighbors;
+	}
+
+	/**
+	 * Função que retorna um vértice de um triângulo
+	 *
+	 * @param t índice do triângulo
+	 * @param i posição do vértice (0, 1 ou 2)
+	 * @return índice do vértice
+	 */
+	public int getVertex(int t, int i) {
+		return triangles[3 * t + i];
+	}
+
+	/**
+	 * Função que retorna um vizinho de um triângulo
+	 *
+	 * @param t índice do triângulo
+	 * @param i posição do vértice oposto à aresta compartilhada (0, 1 ou 2)
+	 * @return índice do triângulo vizinho, ou -1 se a aresta está na envoltória
+	 */
+	public int getNeighbor(int t, int i) {
+		return neighbors[3 * t + i];
+	}
+}
@@ -0,0 +1,232 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+/**
+ * Classe do objeto que indexa pontos numa grade uniforme: a caixa envoltória
+ * dos pontos é dividida em células quadradas e os pontos de cada célula ficam
+ * contíguos na memória. Para pontos bem distribuídos, as consultas custam O(1)
+ * em média, independentemente do número de pontos; para pontos muito
+ * concentrados, a {@link KdTree} é preferível.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class UniformGrid implements SpatialIndex {
+
+	/**
+	 * número médio de pontos por célula, quando o tamanho da célula não é dado
+	 */
+	private static final double LOAD = 2.;
+
+	private final double x0, y0, inv;
+
+	/**
+	 * lado das células
+	 */
+	private final double side;
+
+	/**
+	 * número de colunas e de linhas
+	 */
+	private final int nx, ny;
+
+	/**
+	 * posição do primeiro ponto de cada célula (uma posição a mais no fim)
+	 */
+	private final int[] start;
+
+	/**
+	 * índice original e coordenadas dos pontos, agrupados por célula
+	 */
+	private final int[] ids;
+
+	private final double[] xs, ys;
+
+	/**
+	 * Construtor com células de tamanho escolhido para ter cerca de dois pontos
+	 * cada
+	 *
+	 * @param xs abscissas dos pontos
+	 * @param ys ordenadas dos pontos
+	 */
+	public UniformGrid(double[] xs, double[] ys) {
+		this(xs, ys, 0.);
+	}
+
+	/**
+	 * Construtor
+	 *
+	 * @param xs   abscissas dos pontos
+	 * @param ys   ordenadas dos pontos
+	 * @param side lado das células (0 para escolher automaticamente)
+	 */
+	public UniformGrid(double[] xs, double[] ys, double side) {
+		if (xs.length != ys.length)
+			throw new IllegalArgumentException("Os vetores de coordenadas devem ter o mesmo tamanho");
+		if (!(side >= 0.))
+			throw new IllegalArgumentException("Tamanho de célula inválido: " + side);
+		int n = xs.length;
+
+		double xm = Double.POSITIVE_INFINITY, ym = Double.POSITIVE_INFINITY, xM = Double.NEGATIVE_INFINITY,
+				yM = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			xm = Math.min(xm, xs[i]);
+			xM = Math.max(xM, xs[i]);
+			ym = Math.min(ym, ys[i]);
+			yM = Math.max(yM, ys[i]);
+		}
+		if (n == 0)
+			xm = ym = xM = yM = 0.;
+		double w = xM - xm, h = yM - ym;
+
+		if (side == 0.) {
+			// área por célula = área / (n / LOAD); para pontos colineares, o comprimento
+			double cells = Math.max(1., n / LOAD);
+			side = w > 0. && h > 0. ? Math.sqrt(w * h / cells) : Math.max(w, h) / cells;
+		}
+		// no máximo da ordem de n células, mesmo que o tamanho dado seja muito pequeno
+		double limit = Math.max(w, h) / Math.max(1., Math.sqrt(4. * n));
+		if (!(side >= limit) || side == 0.)
+			side = limit > 0. ? limit : 1.;
+
+		this.side = side;
+		this.inv = 1. / side;
+		this.x0 = xm;
+		this.y0 = ym;
+		this.nx = (int) (w * inv) + 1;
+		this.ny = (int) (h * inv) + 1;
+
+		// ordenação por contagem das células
+		int[] cell = new int[n];
+		this.start = new int[nx * ny + 1];
+		for (int i = 0; i < n; i++) {
+			cell[i] = column(xs[i]) + nx * row(ys[i]);
+			start[cell[i] + 1]++;
+		}
+		for (int c = 0; c < nx * ny; c++)
+			start[c + 1] += start[c];
+		int[] fill = start.clone();
+		this.ids = new int[n];
+		this.xs = new double[n];
+		this.ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			int j = fill[cell[i]]++;
+			ids[j] = i;
+			this.xs[j] = xs[i];
+			this.ys[j] = ys[i];
+		}
+	}
+
+	private int column(double x) {
+		double c = (x - x0) * inv;
+		return c <= 0. ? 0 : c >= nx - 1 ? nx - 1 : (int) c;
+	}
+
+	private int row(double y) {
+		double r = (y - y0) * inv;
+		return r <= 0. ? 0 : r >= ny - 1 ? ny - 1 : (int) r;
+	}
+
+	// ------------------------------ CONSULTAS ------------------------------
+
+	@Override
+	public int size() {
+		return ids.length;
+	}
+
+	@Override
+	public int nearest(double x, double y) {
+		if (ids.length == 0)
+			return -1;
+		int cx = column(x), cy = row(y), best = -1;
+		double bestD = Double.POSITIVE_INFINITY;
+		for (int r = 0;; r++) {
+			// anel de células à distância r (na norma do máximo) da célula do ponto: as
+			// linhas de cima e de baixo inteiras, e só as duas pontas das outras
+			int c0 = Math.max(cx - r, 0), c1 = Math.min(cx + r, nx - 1);
+			int r0 = Math.max(cy - r, 0), r1 = Math.min(cy + r, ny - 1);
+			for (int j = r0; j <= r1; j++) {
+				boolean full = j == cy - r || j == cy + r;
+				for (int i = full ? c0 : cx - r; i <= c1; i += full ? 1 : 2 * r) {
+					if (i < 0)
+						continue;
+					int c = i + nx * j;
+					for (int p = start[c]; p < start[c + 1]; p++) {
+						double dx = xs[p] - x, dy = ys[p] - y, d = dx * dx + dy * dy;
+						if (d < bestD || (d == bestD && (best < 0 || ids[p] < ids[best]))) {
+							best = p;
+							bestD = d;
+						}
+					}
+				}
+			}
+			if (done(x, y, cx, cy, r, bestD))
+				return ids[best];
+		}
+	}
+
+	@Override
+	public int nearest(double x, double y, int k, int[] out, double[] distances) {
+		if (k > out.length || k > distances.length)
+			throw new IllegalArgumentException("Os vetores de saída devem ter pelo menos " + k + " posições");
+		if (k <= 0)
+			return 0;
+		int cx = column(x), cy = row(y), count = 0;
+		for (int r = 0;; r++) {
+			int c0 = Math.max(cx - r, 0), c1 = Math.min(cx + r, nx - 1);
+			int r0 = Math.max(cy - r, 0), r1 = Math.min(cy + r, ny - 1);
+			for (int j = r0; j <= r1; j++) {
+				boolean full = j == cy - r || j == cy + r;
+				for (int i = full ? c0 : cx - r; i <= c1; i += full ? 1 : 2 * r) {
+					if (i < 0)
+						continue;
+					int c = i + nx * j;
+					for (int p = start[c]; p < start[c + 1]; p++) {
+						double dx = xs[p] - x, dy = ys[p] - y;
+						count = KdTree.offer(out, distances, count, k, ids[p], dx * dx + dy * dy);
+					}
+				}
+			}
+			if (done(x, y, cx, cy, r, count < k ? Double.POSITIVE_INFINITY : distances[k - 1]))
+				return count;
+		}
+	}
+
+	/**
+	 * Função que indica se a busca em anéis pode parar: se os anéis até r cobrem
+	 * toda a grade ou se todas as células além deles estão mais longe que a
+	 * distância dada
+	 *
+	 * @param d quadrado da distância do pior ponto que interessa
+	 */
+	private boolean done(double x, double y, int cx, int cy, int r, double d) {
+		double gap = Double.POSITIVE_INFINITY;
+		if (cx - r > 0)
+			gap = Math.min(gap, x - (x0 + (cx - r) * side));
+		if (cx + r < nx - 1)
+			gap = Math.min(gap, x0 + (cx + r + 1) * side - x);
+		if (cy - r > 0)
+			gap = Math.min(gap, y - (y0 + (cy - r) * side));
+		if (cy + r < ny - 1)
+			gap = Math.min(gap, y0 + (cy + r + 1) * side - y);
+		return gap == Double.POSITIVE_INFINITY || (gap > 0. && gap * gap > d);
+	}
+
+	@Override
+	public int within(double x, double y, double radius, int[] out) {
+		if (!(radius >= 0.) || ids.length == 0)
+			return 0;
+		double r2 = radius * radius;
+		int c0 = column(x - radius), c1 = column(x + radius), r0 = row(y - radius), r1 = row(y + radius);
+		int count = 0;
+		for (int j = r0; j <= r1; j++)
+			for (int p = start[c0 + nx * j], e = start[c1 + nx * j + 1]; p < e; p++) {
+				double dx = xs[p] - x, dy = ys[p] - y;
+				if (dx * dx + dy * dy <= r2) {
+					if (count < out.length)
+						out[count] = ids[p];
+					count++;
+				}
+			}
+		return count;
+	}
+}
@@ -9,14 +9,11 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.Stack;
 
 import br.com.pereiraeng.core.ExtendedMath;
-import br.com.pereiraeng.core.collections.sortedlist.SortedList;
-import br.com.pereiraeng.graph.tree.BinaryNode;
 import br.com.pereiraeng.math.DuplaO;
-import br.com.pereiraeng.math.Vec;
 import br.com.pereiraeng.math.geometry.Circle;
 import br.com.pereiraeng.math.geometry.Geom;
 import br.com.pereiraeng.math.geometry.Line;
@@ -59,8 +56,6 @@ public class Voronoi {
 		for (F f : points)
 			d2f.put(new Point2D.Double(f.getX(), f.getY()), f);
 
-		System.out.println("Tabelas prontas!");
-
 		// faz-se a diagramação de Voronoi
 		Map<Line, Line> ts = voronoiDiagram(d2f.keySet(), mM);
 
@@ -74,17 +69,33 @@ public class Voronoi {
 		return out;
 	}
 
+	/**
+	 * Função que obtém as células de Voronoi de um conjunto de pontos a partir da
+	 * sua triangularização de Delaunay, em tempo linear, de modo que as duas
+	 * estruturas são sempre coerentes
+	 * 
+	 * @param mesh triangularização de Delaunay dos pontos (por exemplo, de
+	 *             {@link Delaunay#triangulate(double[], double[])})
+	 * @param xs   abscissas dos pontos
+	 * @param ys   ordenadas dos pontos
+	 * @param xMin menor abscissa da caixa que recorta as células
+	 * @param yMin menor ordenada da caixa
+	 * @param xMax maior abscissa da caixa
+	 * @param yMax maior ordenada da caixa
+	 * @return células de Voronoi, uma por ponto, em vetores de tipos primitivos
+	 */
+	public static VoronoiCells cells(TriangleMesh mesh, double[] xs, double[] ys, double xMin, double yMin,
+			double xMax, double yMax) {
+		return VoronoiCells.of(mesh, xs, ys, xMin, yMin, xMax, yMax);
+	}
+
 	// =====================================================================
 
 	/**
-	 * Função que procede com a diagramação de Delaunay de um conjunto de pontos. O
-	 * algoritmo empregado está descrito no capítulo 7 do livro
+	 * Função que procede com a diagramação de Voronoi de um conjunto de pontos pelo
+	 * algoritmo de varredura de Fortune, descrito no capítulo 7 do livro
 	 * <a href= "http://www.cs.uu.nl/geobook/">Computational Geometry: Algorithms
-	 * and Applications</a>.<br>
-	 * 
-	 * O algoritmo funciona para todos os casos, exceto um: <strong>não pode haver
-	 * mais de um ponto com a ordenada máxima</strong> (esta restrição também se
-	 * aplica ao algoritmo de {@link Delaunay#delaunayTriangulation(Set) Delaunay})
+	 * and Applications</a>.
 	 * 
 	 * @param points conjunto de pontos
 	 * @param mM     vetor com dois pontos, a ser preenchido com os limites da caixa
@@ -93,11 +104,34 @@ public class Voronoi {
 	 *         vértice comum das células de Voronoi destes pontos
 	 */
 	public static Map<Line, Line> voronoiDiagram(Set<Point2D.Double> points, Point2D.Double[] mM) {
+		return voronoiDiagram(points, mM, null);
+	}
 
-		SortedList<Point2D.Double> events = new SortedList<>(new Geom.PointComparator(false, false));
-		events.addAll(points);
+	/**
+	 * Função que procede com a diagramação de Voronoi de um conjunto de pontos pelo
+	 * algoritmo de varredura de Fortune, descrito no capítulo 7 do livro
+	 * <a href= "http://www.cs.uu.nl/geobook/">Computational Geometry: Algorithms
+	 * and Applications</a>.<br>
+	 * 
+	 * Os eventos ficam numa fila de prioridade; os eventos de círculo que deixam de
+	 * valer (alarmes falsos) são apenas marcados e descartados quando chegam ao
+	 * topo da fila. A linha de praia é uma árvore balanceada (<i>treap</i>) de
+	 * arcos, de modo que cada evento custa O(log n) e o diagrama, O(n log n).
+	 * 
+	 * @param points   conjunto de pontos
+	 * @param mM       vetor com dois pontos, a ser preenchido com os limites da
+	 *                 caixa envoltória do diagrama
+	 * @param listener objeto que acompanha o andamento da varredura, ou
+	 *                 <code>null</code>
+	 * @return tabela de dispersão que associa para os pares de pontos da entrada o
+	 *         vértice comum das células de Voronoi destes pontos
+	 */
+	public static Map<Line, Line> voronoiDiagram(Set<Point2D.Double> points, Point2D.Double[] mM,
+			Listener listener) {
 
-		System.out.println("Lista ordenada!");
+		Sweep sweep = new Sweep(points.size());
+		for (Point2D.Double p : points)
+			sweep.events.add(new Event(p));
 
 		Point2D.Double m = new Point2D.Double(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY),
 				M = new Point2D.Double(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
@@ -112,26 +146,20 @@ public class Voronoi {
 				M.y = p.y;
 		}
 
-		System.out.println("Máximos calculados!");
-
-		Map<Point2D.Double, BinaryNode> circleEvents = new HashMap<>();
-
-		LinkedHashMap<Line, Line> edgeList = new LinkedHashMap<>();
-
-		BinaryNode tree = new BinaryNode(null);
-
 		int count = 0;
-		while (events.size() > 0) {
-			Point2D.Double e = events.poll();
-			BinaryNode bn = circleEvents.remove(e);
-
-			if (bn == null) // site event
-				handleSiteEvent(e, tree, events, circleEvents, edgeList);
-			else // circle event
-				handleCircleEvent(e, bn, events, circleEvents, edgeList);
+		while (!sweep.events.isEmpty()) {
+			Event e = sweep.events.poll();
+			if (e.arc == null) // site event
+				sweep.handleSiteEvent(e.site);
+			else if (e.arc.event == e) // circle event
+				sweep.handleCircleEvent(e);
+			else // alarme falso
+				continue;
 			count++;
-			System.out.printf("%d/%d\n", count, events.size());
+			if (listener != null)
+				listener.onProgress(count, sweep.pending);
 		}
+		LinkedHashMap<Line, Line> edgeList = sweep.edgeList;
 
 		// ----------------------------------------------
 
@@ -139,6 +167,8 @@ public class Voronoi {
 		for (Entry<Line, Line> e : edgeList.entrySet()) {
 			Line l = e.getValue();
 			Point2D.Double p = l.getFrom();
+			if (p == null)
+				continue;
 
 			if (p.x < bm.x)
 				bm.x = p.x;
@@ -162,31 +192,18 @@ public class Voronoi {
 			}
 		}
 
-		// The internal nodes still present in T correspond to the half-infinite edges
-		// of the Voronoi diagram. Compute a bounding box that contains all vertices of
-		// the Voronoi diagram in its interior, and attach the half-infinite edges to
-		// the bounding box by updating the doubly-connected edge list appropriately.
-
-		Stack<BinaryNode> arguments = new Stack<>();
-		arguments.push(tree);
-		while (!arguments.empty()) {
-			BinaryNode bn = arguments.pop();
-			if (!bn.isLeaf()) {
-				// os nós internos da árvore contém duplas de pontos (site events) numa ordem
-				// tal que o "vértice no infinito" do diagrama de Voronoi está sempre à direita
-				// da direção definida pelos pontos (assim é possível saber qual das
-				// intersecções com a caixa envoltória é aquela que representará o vértice no
-				// infinito)
-				Point2D.Double[] e = (Point2D.Double[]) bn.getUserObject();
-				Line edge = new Line(e[0], e[1]);
-				Line halfEdge = edgeList.get(edge);
-
-				if (halfEdge != null ? halfEdge.getFrom() != null : false)
-					halfEdge.addVertex(getBisectorIntersection(edge, halfEdge.getFrom(), bm, bM));
-
-				arguments.push((BinaryNode) bn.getChildAt(0));
-				arguments.push((BinaryNode) bn.getChildAt(1));
-			}
+		// os pontos de parada que restam na linha de praia correspondem às arestas
+		// semi-infinitas do diagrama, que são ligadas à caixa envoltória. Cada dupla
+		// de arcos vizinhos está numa ordem tal que o "vértice no infinito" do
+		// diagrama de Voronoi está sempre à direita da direção definida pelos pontos
+		// (assim é possível saber qual das intersecções com a caixa envoltória é
+		// aquela que representará o vértice no infinito)
+		for (Arc a = sweep.beach.first(); a != null && a.next != null; a = a.next) {
+			Line edge = new Line(a.site, a.next.site);
+			Line halfEdge = edgeList.get(edge);
+
+			if (halfEdge != null ? halfEdge.getFrom() != null : false)
+				halfEdge.addVertex(getBisectorIntersection(edge, halfEdge.getFrom(), bm, bM));
 		}
 
 		// adicionar borda (mas não maior que o delimitado pelos vértices externos)
@@ -223,224 +240,372 @@ public class Voronoi {
 		return edgeList;
 	}
 
-	private static void handleSiteEvent(Point2D.Double pi, BinaryNode tree, SortedList<Point2D.Double> events,
-			Map<Point2D.Double, BinaryNode> circleEvent, Map<Line, Line> edgeList) {
-		if (tree.getUserObject() == null) {
-			// If T is empty, insert pi into it (so that T consists of a single leaf storing
-			// pi) and return.
-			tree.setUserObject(new Object[] { pi, null, null }); //
-		} else {
-			// Search in T for the arc vertically above pi.
-			BinaryNode arcAbove = search(pi, tree);
-			Object[] obj = (Object[]) arcAbove.getUserObject();
-			if (obj[1] != null) {
-				// If the leaf representing the arc has a pointer to a circle event in Q, then
-				// this circle event is a false alarm and it must be deleted from Q
-
-				circleEvent.remove(obj[1]);
-				events.remove(obj[1]);
-				obj[1] = null;
-				obj[2] = null;
-			}
+	/**
+	 * Interface do objeto que acompanha o andamento da diagramação de Voronoi
+	 */
+	public interface Listener {
+
+		/**
+		 * Função chamada a cada evento processado
+		 *
+		 * @param processed número de eventos já processados
+		 * @param pending   número de eventos que ainda estão na fila (sem os alarmes
+		 *                  falsos)
+		 */
+		void onProgress(int processed, int pending);
+	}
 
-			// Replace the leaf of T that represents the arc with a subtree having three
-			// leaves. The middle leaf stores the new site pi and the other two leaves store
-			// the site pj that was originally stored with the arc. Store the tuples <pj,
-			// pi> and <pi, pj> representing the new breakpoints at the two new internal
-			// nodes.
+	// ------------------------ VARREDURA ------------------------
 
-			Point2D.Double pj = (Point2D.Double) obj[0];
+	/**
+	 * Classe do objeto que representa um evento da varredura: um ponto da entrada
+	 * (<i>site event</i>) ou o ponto mais baixo do círculo que passa por três
+	 * pontos de arcos vizinhos (<i>circle event</i>), quando o arco do meio
+	 * desaparece. A varredura é de cima para baixo e, na mesma ordenada, da
+	 * esquerda para a direita
+	 */
+	private static final class Event implements Comparable<Event> {
 
-			BinaryNode arcLeafL = null, arcLeafR = null;
-			if (pi.y == pj.y) {
-				if (pi.x > pj.x) {
-					arcAbove.setUserObject(new Point2D.Double[] { pj, pi });
+		private final double x, y;
 
-					arcAbove.insert(arcLeafL = new BinaryNode(new Object[] { pj, null, null }), 0);
-					arcAbove.insert(arcLeafR = new BinaryNode(new Object[] { pi, null, null }), 1);
-				} else {
-					arcAbove.setUserObject(new Point2D.Double[] { pi, pj });
+		private final Point2D.Double site;
 
-					arcAbove.insert(arcLeafL = new BinaryNode(new Object[] { pi, null, null }), 0);
-					arcAbove.insert(arcLeafR = new BinaryNode(new Object[] { pj, null, null }), 1);
-				}
-			} else {
-				if (pi.x > pj.x) {
-					arcAbove.setUserObject(new Point2D.Double[] { pj, pi });
+		/**
+		 * arco que desaparece no evento de círculo (nulo para um ponto da entrada)
+		 */
+		private final Arc arc;
 
-					arcAbove.insert(arcLeafL = new BinaryNode(new Object[] { pj, null, null }), 0);
+		/**
+		 * centro do círculo, que é um vértice do diagrama
+		 */
+		private final Point2D.Double center;
 
-					BinaryNode m2 = new BinaryNode(new Point2D.Double[] { pi, pj });
-					m2.insert(new BinaryNode(new Object[] { pi, null, null }), 0);
-					m2.insert(arcLeafR = new BinaryNode(new Object[] { pj, null, null }), 1);
-					arcAbove.insert(m2, 1);
-				} else {
-					arcAbove.setUserObject(new Point2D.Double[] { pi, pj });
+		private Event(Point2D.Double site) {
+			this.x = site.x;
+			this.y = site.y;
+			this.site = site;
+			this.arc = null;
+			this.center = null;
+		}
 
-					BinaryNode m2 = new BinaryNode(new Point2D.Double[] { pj, pi });
-					m2.insert(arcLeafL = new BinaryNode(new Object[] { pj, null, null }), 0);
-					m2.insert(new BinaryNode(new Object[] { pi, null, null }), 1);
-					arcAbove.insert(m2, 0);
+		private Event(double x, double y, Arc arc, Point2D.Double center) {
+			this.x = x;
+			this.y = y;
+			this.site = null;
+			this.arc = arc;
+			this.center = center;
+		}
 
-					arcAbove.insert(arcLeafR = new BinaryNode(new Object[] { pj, null, null }), 1);
-				}
-			}
+		@Override
+		public int compareTo(Event o) {
+			int c = Double.compare(o.y, y);
+			return c != 0 ? c : Double.compare(x, o.x);
+		}
+	}
 
-			// Create new half-edge records in the Voronoi diagram structure for the edge
-			// separating V(pi) and V(pj), which will be traced out by the two new
-			// breakpoints.
+	/**
+	 * Classe do objeto que representa um arco da linha de praia, que é ao mesmo
+	 * tempo um elemento da lista dos arcos da esquerda para a direita e um nó da
+	 * árvore de busca
+	 */
+	private static final class Arc {
 
-			edgeList.put(new Line(pi, pj), new Line());
+		private final Point2D.Double site;
 
-			// Check the triple of consecutive arcs where the new arc for pi is the left arc
-			// to see if the breakpoints converge. If so, insert the circle event into Q and
-			// add pointers between the node in T and the node in Q. Do the same for the
-			// triple where the new arc is the right arc.
-
-			BinaryNode n = arcAbove.getPredecessor();
-			if (n != null) {
-				Point2D.Double pk = (Point2D.Double) ((Object[]) n.getUserObject())[0];
-				Point2D.Double ce = checkTriple(pk, pj, pi, arcLeafL);
-				if (ce != null) {
-					events.add(ce);
-					circleEvent.put(ce, arcLeafL);
-				}
-			}
+		private final int priority;
 
-			n = arcAbove.getSuccessor();
-			if (n != null) {
-				Point2D.Double pk = (Point2D.Double) ((Object[]) n.getUserObject())[0];
-				Point2D.Double ce = checkTriple(pi, pj, pk, arcLeafR);
-				if (ce != null) {
-					events.add(ce);
-					circleEvent.put(ce, arcLeafR);
-				}
-			}
-		}
-	}
+		private Arc prev, next, left, right, parent;
 
-	private static BinaryNode search(Point2D.Double pi, BinaryNode tree) {
-		if (tree.isLeaf())
-			return tree;
-		else {
-			Point2D.Double[] pipj = (Point2D.Double[]) tree.getUserObject();
-			double breakPointX = getBreakpointX(pipj[0], pipj[1], pi.y);
-			return search(pi, (BinaryNode) tree.getChildAt(pi.x < breakPointX ? 0 : 1));
+		/**
+		 * evento de círculo em que o arco desaparece (nulo se não houver)
+		 */
+		private Event event;
+
+		private Arc(Point2D.Double site, int priority) {
+			this.site = site;
+			this.priority = priority;
 		}
 	}
 
-	private static void handleCircleEvent(Point2D.Double ce, BinaryNode n, SortedList<Point2D.Double> events,
-			Map<Point2D.Double, BinaryNode> circleEvent, Map<Line, Line> edgeList) {
-		BinaryNode l = n.getPredecessor();
-		BinaryNode r = n.getSuccessor();
+	/**
+	 * Classe do objeto que guarda o estado da varredura
+	 */
+	private static final class Sweep {
+
+		private final PriorityQueue<Event> events;
+
+		private final BeachLine beach = new BeachLine();
 
-		// Delete the leaf that represents the disappearing arc from T. Update the
-		// tuples representing the breakpoints at the internal nodes. Perform
-		// rebalancing operations on T if necessary.
+		private final LinkedHashMap<Line, Line> edgeList = new LinkedHashMap<>();
 
-		BinaryNode p = (BinaryNode) n.getParent();
-		BinaryNode gp = (BinaryNode) p.getParent();
+		/**
+		 * número de eventos válidos na fila
+		 */
+		private int pending;
 
-		int indexR = p.getIndex(n);
-		int indexF = 1 - indexR;
-		Point2D.Double[] ps = (Point2D.Double[]) p.getUserObject();
+		private Sweep(int n) {
+			this.events = new PriorityQueue<>(Math.max(2 * n, 1));
+			this.pending = n;
+		}
 
-		BinaryNode anc = n.getCommonParent();
-		Point2D.Double[] tuplet = (Point2D.Double[]) anc.getUserObject();
-		tuplet[indexF] = ps[indexF];
+		private void handleSiteEvent(Point2D.Double pi) {
+			pending--;
+			if (beach.root == null) {
+				// If T is empty, insert pi into it (so that T consists of a single leaf storing
+				// pi) and return.
+				beach.root = beach.newArc(pi);
+				return;
+			}
 
-		gp.insert((BinaryNode) p.getChildAt(indexF), gp.getIndex(p));
+			// Search in T for the arc vertically above pi. If the leaf representing the
+			// arc has a pointer to a circle event in Q, then this circle event is a false
+			// alarm and it must be deleted from Q
+			Arc above = beach.search(pi.x, pi.y);
+			discard(above);
+			Point2D.Double pj = above.site;
+
+			// Replace the arc by three arcs: the middle one stores the new site pi and the
+			// other two store the site pj that was originally stored with the arc. If pj
+			// has the same ordinate (both on the sweep line), the arc is only split in two.
+			Arc arc = beach.newArc(pi);
+			if (pi.y == pj.y) {
+				if (pi.x > pj.x)
+					beach.insertAfter(above, arc);
+				else
+					beach.insertBefore(above, arc);
+			} else {
+				beach.insertAfter(above, arc);
+				beach.insertAfter(arc, beach.newArc(pj));
+			}
 
-		// Delete all circle events involving the arc from Q; these can be found using
-		// the pointers from the predecessor and the successor of the left in T. (The
-		// circle event where the arc is the middle arc is currently being handled, and
-		// has already been deleted from Q.)
+			// Create new half-edge records in the Voronoi diagram structure for the edge
+			// separating V(pi) and V(pj), which will be traced out by the two new
+			// breakpoints.
+			edgeList.put(new Line(pi, pj), new Line());
 
-		Object[] obj = (Object[]) l.getUserObject();
-		if (obj[1] != null) {
-			circleEvent.remove(obj[1]);
-			events.remove(obj[1]);
-			obj[1] = null;
-			obj[2] = null;
+			// Check the triples of consecutive arcs where the new arc for pi is the left
+			// or the right arc to see if the breakpoints converge. If so, insert the
+			// circle event into Q.
+			if (arc.prev != null)
+				checkTriple(arc.prev);
+			if (arc.next != null)
+				checkTriple(arc.next);
 		}
 
-		obj = (Object[]) r.getUserObject();
-		if (obj[1] != null) {
-			circleEvent.remove(obj[1]);
-			events.remove(obj[1]);
-			obj[1] = null;
-			obj[2] = null;
+		private void handleCircleEvent(Event e) {
+			Arc n = e.arc, l = n.prev, r = n.next;
+			n.event = null;
+			pending--;
+
+			// Delete the arc from T and all circle events involving it from Q (the circle
+			// event where the arc is the middle arc is the one being handled).
+			beach.remove(n);
+			discard(l);
+			discard(r);
+
+			// Add the center of the circle causing the event as a vertex of the edges
+			// traced by the two breakpoints that meet and start the edge traced by the
+			// new breakpoint.
+			Point2D.Double pi = l.site, pj = n.site, pk = r.site, vv = e.center;
+
+			Line ve = edgeList.get(new Line(pi, pj));
+			ve.addVertex(vv);
+
+			ve = edgeList.get(new Line(pj, pk));
+			ve.addVertex(vv);
+
+			edgeList.put(new Line(pi, pk), new Line(vv));
+
+			// Check the new triples of consecutive arcs that have the former neighbors of
+			// the arc as the middle arc.
+			checkTriple(l);
+			checkTriple(r);
 		}
 
-		// Add the center of the circle causing the event as a vertex record to the
-		// doubly-connected edge list D storing the Voronoi diagram under construction.
-		// Create two half-edge records corresponding to the new breakpoint of the beach
-		// line. Set the pointers between them appropriately. Attach the three new
-		// records to the half-edge records that end at the vertex.
+		/**
+		 * Função que verifica se um arco e os seus vizinhos têm pontos de parada
+		 * convergentes e, se for o caso, põe na fila o evento de círculo em que o arco
+		 * desaparece
+		 */
+		private void checkTriple(Arc arc) {
+			if (arc.prev == null || arc.next == null)
+				return;
+			Point2D.Double pi = arc.prev.site, pj = arc.site, pk = arc.next.site;
+			if (Predicates.orient2d(pi.x, pi.y, pj.x, pj.y, pk.x, pk.y) < 0.) {
+				// se os pontos de parada forem convergentes (pontos em sentido horário, o
+				// que exclui os colineares)...
+				Point2D.Double vv = new Point2D.Double();
+				double radius = Circle.getCircle(pi, pj, pk, vv);
+				arc.event = new Event(vv.x, vv.y - Math.abs(radius), arc, vv);
+				events.add(arc.event);
+				pending++;
+			}
+		}
 
-		obj = (Object[]) n.getUserObject();
+		/**
+		 * Função que invalida o evento de círculo de um arco (ele é descartado quando
+		 * sair da fila)
+		 */
+		private void discard(Arc arc) {
+			if (arc.event != null) {
+				arc.event = null;
+				pending--;
+			}
+		}
+	}
 
-		Point2D.Double pi = (Point2D.Double) ((Object[]) l.getUserObject())[0];
-		Point2D.Double pj = (Point2D.Double) obj[0];
-		Point2D.Double pk = (Point2D.Double) ((Object[]) r.getUserObject())[0];
+	/**
+	 * Classe do objeto que representa a linha de praia: os arcos estão ordenados
+	 * da esquerda para a direita numa <i>treap</i> (árvore binária de busca em que
+	 * cada nó tem uma prioridade aleatória maior que a dos seus filhos), cuja
+	 * altura esperada é O(log n)
+	 */
+	private static final class BeachLine {
 
-		Point2D.Double vv = (Point2D.Double) obj[2];
+		private Arc root;
 
-		// três novas arestas
-		Line ve = edgeList.get(new Line(pi, pj));
-		ve.addVertex(vv);
+		private long seed = 0x2545F4914F6CDD1DL;
 
-		ve = edgeList.get(new Line(pj, pk));
-		ve.addVertex(vv);
+		private Arc newArc(Point2D.Double site) {
+			seed ^= seed << 13;
+			seed ^= seed >>> 7;
+			seed ^= seed << 17;
+			return new Arc(site, (int) (seed >>> 32));
+		}
 
-		edgeList.put(new Line(pi, pk), new Line(vv));
+		private Arc first() {
+			Arc a = root;
+			if (a != null)
+				while (a.left != null)
+					a = a.left;
+			return a;
+		}
 
-		// Check the new triple of consecutive arcs that has the former left neighbor
-		// of the arc as its middle arc to see if the two breakpoints of the triple
-		// converge. If so, insert the corresponding circle event into Q. and set
-		// pointers between the new circle event in Q and the corresponding leaf of T.
-		// Do the same for the triple where the former right neighbor is the middle arc.
+		/**
+		 * Função que busca o arco que está acima de um ponto
+		 *
+		 * @param x  abscissa do ponto
+		 * @param ly ordenada da linha de varredura
+		 * @return arco
+		 */
+		private Arc search(double x, double ly) {
+			Arc a = root;
+			while (true) {
+				Arc c;
+				if (a.prev != null && x < getBreakpointX(a.prev.site, a.site, ly))
+					c = a.left;
+				else if (a.next != null && x >= getBreakpointX(a.site, a.next.site, ly))
+					c = a.right;
+				else
+					return a;
+				if (c == null)
+					return a;
+				a = c;
+			}
+		}
 
-		n = l.getPredecessor();
-		if (n != null) {
-			Point2D.Double pl = (Point2D.Double) ((Object[]) n.getUserObject())[0];
-			Point2D.Double nce = checkTriple(pl, pi, pk, l);
-			if (nce != null) {
-				events.add(nce);
-				circleEvent.put(nce, l);
+		/**
+		 * Função que insere um arco logo depois de outro
+		 */
+		private void insertAfter(Arc a, Arc b) {
+			b.prev = a;
+			b.next = a.next;
+			if (a.next != null)
+				a.next.prev = b;
+			a.next = b;
+
+			if (a.right == null) {
+				a.right = b;
+				b.parent = a;
+			} else {
+				Arc c = a.right;
+				while (c.left != null)
+					c = c.left;
+				c.left = b;
+				b.parent = c;
 			}
+			siftUp(b);
 		}
 
-		n = r.getSuccessor();
-		if (n != null) {
-			Point2D.Double pl = (Point2D.Double) ((Object[]) n.getUserObject())[0];
-			Point2D.Double nce = checkTriple(pi, pk, pl, r);
-			if (nce != null) {
-				events.add(nce);
-				circleEvent.put(nce, r);
+		/**
+		 * Função que insere um arco logo antes de outro
+		 */
+		private void insertBefore(Arc a, Arc b) {
+			b.next = a;
+			b.prev = a.prev;
+			if (a.prev != null)
+				a.prev.next = b;
+			a.prev = b;
+
+			if (a.left == null) {
+				a.left = b;
+				b.parent = a;
+			} else {
+				Arc c = a.left;
+				while (c.right != null)
+					c = c.right;
+				c.right = b;
+				b.parent = c;
 			}
+			siftUp(b);
 		}
-	}
 
-	// ------------------------ CARTESIANA ------------------------
+		private void remove(Arc a) {
+			if (a.prev != null)
+				a.prev.next = a.next;
+			if (a.next != null)
+				a.next.prev = a.prev;
+
+			// desce o nó até que ele tenha no máximo um filho
+			while (a.left != null && a.right != null)
+				rotate(a.left.priority > a.right.priority ? a.left : a.right);
+			Arc c = a.left != null ? a.left : a.right;
+			replace(a, c);
+		}
+
+		private void siftUp(Arc a) {
+			while (a.parent != null && a.priority > a.parent.priority)
+				rotate(a);
+		}
+
+		/**
+		 * Função que faz uma rotação que põe um nó no lugar do seu pai
+		 */
+		private void rotate(Arc a) {
+			Arc p = a.parent;
+			if (p.left == a) {
+				p.left = a.right;
+				if (a.right != null)
+					a.right.parent = p;
+				a.right = p;
+			} else {
+				p.right = a.left;
+				if (a.left != null)
+					a.left.parent = p;
+				a.left = p;
+			}
+			replace(p, a);
+			p.parent = a;
+		}
 
-	private static Point2D.Double checkTriple(Point2D.Double pi, Point2D.Double pj, Point2D.Double pk,
-			BinaryNode arcLeaf) {
-		Point2D.Double vv = new Point2D.Double();
-		double radius = Circle.getCircle(pi, pj, pk, vv);
-
-		Point2D.Double ce = null;
-		if (radius < 0.) {
-			// se os pontos não forem colineares (radius = +inf) e se os pontos de parada
-			// forem convergentes...
-			ce = new Point2D.Double(vv.x, vv.y - Math.abs(radius));
-			Object[] obj = (Object[]) arcLeaf.getUserObject();
-			obj[1] = ce;
-			obj[2] = vv;
+		/**
+		 * Função que põe um nó (ou nada) no lugar de outro, em relação ao pai deste
+		 */
+		private void replace(Arc old, Arc a) {
+			Arc g = old.parent;
+			if (a != null)
+				a.parent = g;
+			if (g == null)
+				root = a;
+			else if (g.left == old)
+				g.left = a;
+			else
+				g.right = a;
 		}
-		return ce;
 	}
 
+	// ------------------------ CARTESIANA ------------------------
+
 	private static double getBreakpointX(Point2D.Double pi, Point2D.Double pj, double ly) {
 		if (pi.y == pj.y)
 			return .5 * (pi.x + pj.x);
@@ -453,10 +618,12 @@ public class Voronoi {
 				double r = (pi.y - ly) / (pj.y - ly);
 				double[] xs = ExtendedMath.bhaskara(r - 1, -2. * pj.x * r + 2. * pi.x,
 						r * cj - (pi.x * pi.x + pi.y * pi.y - mly2));
+				// o arco do ponto mais distante da linha de varredura é o mais aberto: à
+				// esquerda do outro, o ponto de parada é a menor raiz
 				if (pi.y > pj.y)
-					return xs[0];
+					return Math.min(xs[0], xs[1]);
 				else
-					return xs[1];
+					return Math.max(xs[0], xs[1]);
 			}
 		}
 	}
@@ -514,8 +681,8 @@ public class Voronoi {
 			}
 		}
 
-		double a = Vec.det3(new double[][] { { edge.getFrom().x, edge.getFrom().y, 1. },
-				{ edge.getTo().x, edge.getTo().y, 1. }, { out[0].x, out[0].y, 1. } });
+		double a = Predicates.orient2d(edge.getFrom().x, edge.getFrom().y, edge.getTo().x, edge.getTo().y, out[0].x,
+				out[0].y);
 		if (a <= 0.)
 			return out[0];
 		else
@@ -0,0 +1,414 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Classe do objeto que representa as células de Voronoi de um conjunto de
+ * pontos, recortadas por uma caixa, por vetores de tipos primitivos: os
+ * vértices da célula do ponto <code>i</code>, em sentido anti-horário, são os
+ * de índices <code>getOffsets()[i]</code> até <code>getOffsets()[i+1] - 1</code>
+ * e as coordenadas do vértice <code>k</code> ficam nas posições
+ * <code>2k, 2k+1</code> de {@link #getCoordinates()}.<br>
+ *
+ * As células são obtidas da triangularização de Delaunay (o dual do diagrama de
+ * Voronoi) em tempo linear: os vértices da célula de um ponto interior são os
+ * circuncentros dos triângulos que o contêm, na ordem em que eles estão ao
+ * redor do ponto; a célula de um ponto da envoltória, que é ilimitada, é a
+ * caixa recortada pelas mediatrizes das arestas que o ligam aos seus vizinhos.
+ * Os circuncentros são calculados em ponto flutuante: se algum triângulo ao
+ * redor de um ponto interior é quase degenerado e o polígono dos circuncentros
+ * não resulta finito e estritamente convexo, a célula também é obtida pelas
+ * mediatrizes.
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+public class VoronoiCells {
+
+	private final int[] offsets;
+
+	private final double[] coordinates;
+
+	private VoronoiCells(int[] offsets, double[] coordinates) {
+		this.offsets = offsets;
+		this.coordinates = coordinates;
+	}
+
+	/**
+	 * Função que calcula as células de Voronoi a partir da triangularização de
+	 * Delaunay
+	 *
+	 * @param mesh triangularização de Delaunay dos pontos
+	 * @param xs   abscissas dos pontos
+	 * @param ys   ordenadas dos pontos
+	 * @param xMin menor abscissa da caixa
+	 * @param yMin menor ordenada da caixa
+	 * @param xMax maior abscissa da caixa
+	 * @param yMax maior ordenada da caixa
+	 * @return células (vazias para os pontos repetidos, exceto o de menor índice,
+	 *         e para os que ficam inteiramente fora da caixa)
+	 */
+	static VoronoiCells of(TriangleMesh mesh, double[] xs, double[] ys, double xMin, double yMin, double xMax,
+			double yMax) {
+		int n = xs.length;
+		if (ys.length != n || mesh.getVertexCount() != n)
+			throw new IllegalArgumentException("A malha e os vetores de coordenadas devem ter o mesmo número de pontos");
+		if (!(xMin <= xMax && yMin <= yMax))
+			throw new IllegalArgumentException("Caixa inválida");
+
+		Builder b = new Builder(n, xMin, yMin, xMax, yMax);
+		int m = mesh.getTriangleCount();
+		if (m == 0) {
+			collinear(b, xs, ys);
+			return b.build();
+		}
+
+		int[] ts = mesh.getTriangles(), ns = mesh.getNeighbors();
+
+		// circuncentro de cada triângulo (calculado em relação ao primeiro vértice)
+		double[] cx = new double[m], cy = new double[m];
+		for (int t = 0; t < m; t++) {
+			int a = ts[3 * t], p = ts[3 * t + 1], q = ts[3 * t + 2];
+			double bx = xs[p] - xs[a], by = ys[p] - ys[a], qx = xs[q] - xs[a], qy = ys[q] - ys[a];
+			double bb = bx * bx + by * by, qq = qx * qx + qy * qy, d = 2. * (bx * qy - by * qx);
+			cx[t] = xs[a] + (qy * bb - by * qq) / d;
+			cy[t] = ys[a] + (bx * qq - qx * bb) / d;
+		}
+
+		// um triângulo que contém cada vértice
+		int[] vt = new int[n];
+		Arrays.fill(vt, -1);
+		for (int i = 0; i < 3 * m; i++)
+			if (vt[ts[i]] < 0)
+				vt[ts[i]] = i / 3;
+
+		for (int v = 0; v < n; v++) {
+			int t0 = vt[v];
+			if (t0 < 0) {
+				b.end();
+				continue;
+			}
+
+			// volta ao redor do vértice em sentido anti-horário: o triângulo seguinte é o
+			// vizinho pela aresta (v, terceiro vértice), oposta ao segundo
+			int t = t0;
+			b.clear();
+			do {
+				b.add(cx[t], cy[t]);
+				t = ns[3 * t + next(ts, t, v)];
+			} while (t >= 0 && t != t0);
+
+			if (t == t0 && b.isConvexAround(xs[v], ys[v])) {
+				// ponto interior: polígono dos circuncentros
+				b.clipToBox();
+			} else if (t == t0) {
+				// ponto interior com triângulos quase degenerados (circuncentros distantes
+				// ou não finitos, polígono que não é estritamente convexo): recorta a caixa
+				// pelas mediatrizes dos vizinhos
+				b.box();
+				do {
+					b.clip(xs, ys, v, ts[3 * t + next(ts, t, v)]);
+					t = ns[3 * t + next(ts, t, v)];
+				} while (t != t0);
+			} else {
+				// ponto da envoltória: volta em sentido horário até a envoltória e recorta a
+				// caixa pelas mediatrizes de todos os vizinhos
+				t = t0;
+				for (int p = ns[3 * t + prev(ts, t, v)]; p >= 0; p = ns[3 * t + prev(ts, t, v)])
+					t = p;
+				b.box();
+				b.clip(xs, ys, v, ts[3 * t + next(ts, t, v)]);
+				for (; t >= 0; t = ns[3 * t + next(ts, t, v)])
+					b.clip(xs, ys, v, ts[3 * t + prev(ts, t, v)]);
+			}
+			b.end();
+		}
+		return b.build();
+	}
+
+	/**
+	 * Função que calcula as células de pontos colineares (faixas limitadas pelas
+	 * mediatrizes dos pontos vizinhos na reta)
+	 */
+	private static void collinear(Builder b, double[] xs, double[] ys) {
+		int n = xs.length;
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++)
+			order[i] = i;
+		Arrays.sort(order, (i, j) -> {
+			int c = Double.compare(xs[i], xs[j]);
+			if (c == 0)
+				c = Double.compare(ys[i], ys[j]);
+			return c != 0 ? c : Integer.compare(i, j);
+		});
+
+		// vizinhos de cada ponto distinto na reta (-1 se não há); repetidos ficam sem
+		// célula
+		int[] before = new int[n], after = new int[n];
+		boolean[] kept = new boolean[n];
+		int last = -1;
+		for (int k = 0; k < n; k++) {
+			int i = order[k];
+			if (last >= 0 && xs[i] == xs[last] && ys[i] == ys[last])
+				continue;
+			kept[i] = true;
+			before[i] = last;
+			after[i] = -1;
+			if (last >= 0)
+				after[last] = i;
+			last = i;
+		}
+
+		for (int v = 0; v < n; v++) {
+			if (kept[v]) {
+				b.box();
+				if (before[v] >= 0)
+					b.clip(xs, ys, v, before[v]);
+				if (after[v] >= 0)
+					b.clip(xs, ys, v, after[v]);
+			} else
+				b.clear();
+			b.end();
+		}
+	}
+
+	/**
+	 * Função que retorna a posição, num triângulo, do vértice seguinte a um dado
+	 * vértice
+	 */
+	private static int next(int[] ts, int t, int v) {
+		return ts[3 * t] == v ? 1 : ts[3 * t + 1] == v ? 2 : 0;
+	}
+
+	/**
+	 * Função que retorna a posição, num triângulo, do vértice anterior a um dado
+	 * vértice
+	 */
+	private static int prev(int[] ts, int t, int v) {
+		return ts[3 * t] == v ? 2 : ts[3 * t + 1] == v ? 0 : 1;
+	}
+
+	/**
+	 * Classe do objeto que monta as células, uma de cada vez, recortando o
+	 * polígono da célula corrente por semiplanos
+	 */
+	private static final class Builder {
+
+		private final double xMin, yMin, xMax, yMax;
+
+		private final int[] offsets;
+
+		private int cells;
+
+		private double[] coordinates;
+
+		private int size;
+
+		/**
+		 * polígono da célula corrente e área de trabalho do recorte
+		 */
+		private double[] poly = new double[32], work = new double[32];
+
+		private int np;
+
+		private Builder(int n, double xMin, double yMin, double xMax, double yMax) {
+			this.xMin = xMin;
+			this.yMin = yMin;
+			this.xMax = xMax;
+			this.yMax = yMax;
+			this.offsets = new int[n + 1];
+			this.coordinates = new double[16 * Math.max(n, 1)];
+		}
+
+		private void clear() {
+			np = 0;
+		}
+
+		private void add(double x, double y) {
+			if (2 * np + 2 > poly.length)
+				poly = Arrays.copyOf(poly, 2 * poly.length);
+			poly[2 * np] = x;
+			poly[2 * np + 1] = y;
+			np++;
+		}
+
+		/**
+		 * Função que indica se o polígono corrente é estritamente convexo, em sentido
+		 * anti-horário e com um ponto no seu interior (vértices repetidos em sequência
+		 * são ignorados)
+		 *
+		 * @param x abscissa do ponto
+		 * @param y ordenada do ponto
+		 * @return <code>false</code> se algum vértice não é finito ou se o polígono
+		 *         não é estritamente convexo ao redor do ponto
+		 */
+		private boolean isConvexAround(double x, double y) {
+			int k = 0;
+			for (int i = 0; i < np; i++) {
+				double px = poly[2 * i], py = poly[2 * i + 1];
+				if (!Double.isFinite(px) || !Double.isFinite(py))
+					return false;
+				if (k > 0 && work[2 * k - 2] == px && work[2 * k - 1] == py)
+					continue;
+				if (work.length < 2 * k + 2)
+					work = Arrays.copyOf(work, 2 * work.length);
+				work[2 * k] = px;
+				work[2 * k + 1] = py;
+				k++;
+			}
+			if (k > 1 && work[0] == work[2 * k - 2] && work[1] == work[2 * k - 1])
+				k--;
+			if (k < 3)
+				return false;
+			for (int i = 0; i < k; i++) {
+				int j = i + 1 < k ? i + 1 : 0, l = j + 1 < k ? j + 1 : 0;
+				double ax = work[2 * i], ay = work[2 * i + 1], bx = work[2 * j], by = work[2 * j + 1];
+				if (Predicates.orient2d(ax, ay, bx, by, work[2 * l], work[2 * l + 1]) <= 0.
+						|| Predicates.orient2d(ax, ay, bx, by, x, y) <= 0.)
+					return false;
+			}
+			return true;
+		}
+
+		private void box() {
+			np = 0;
+			add(xMin, yMin);
+			add(xMax, yMin);
+			add(xMax, yMax);
+			add(xMin, yMax);
+		}
+
+		private void clipToBox() {
+			clip(-1., 0., -xMin);
+			clip(1., 0., xMax);
+			clip(0., -1., -yMin);
+			clip(0., 1., yMax);
+		}
+
+		/**
+		 * Função que recorta o polígono corrente pela mediatriz de dois pontos,
+		 * mantendo o lado do primeiro
+		 */
+		private void clip(double[] xs, double[] ys, int v, int u) {
+			double a = xs[u] - xs[v], b = ys[u] - ys[v];
+			clip(a, b, a * .5 * (xs[u] + xs[v]) + b * .5 * (ys[u] + ys[v]));
+		}
+
+		/**
+		 * Função que recorta o polígono corrente (convexo) pelo semiplano
+		 * <code>a·x + b·y &le; c</code> (algoritmo de Sutherland-Hodgman)
+		 */
+		private void clip(double a, double b, double c) {
+			if (np == 0)
+				return;
+			// um polígono convexo ganha no máximo um vértice
+			if (work.length < 2 * np + 2)
+				work = new double[2 * poly.length];
+			int k = 0;
+			double px = poly[2 * np - 2], py = poly[2 * np - 1], pd = a * px + b * py - c;
+			for (int i = 0; i < np; i++) {
+				double qx = poly[2 * i], qy = poly[2 * i + 1], qd = a * qx + b * qy - c;
+				if ((pd <= 0.) != (qd <= 0.) && k + 2 <= work.length) {
+					double s = pd / (pd - qd);
+					work[k++] = px + s * (qx - px);
+					work[k++] = py + s * (qy - py);
+				}
+				if (qd <= 0. && k + 2 <= work.length) {
+					work[k++] = qx;
+					work[k++] = qy;
+				}
+				px = qx;
+				py = qy;
+				pd = qd;
+			}
+			double[] t = poly;
+			poly = work;
+			work = t;
+			np = k / 2;
+		}
+
+		/**
+		 * Função que termina a célula corrente (os vértices repetidos em sequência
+		 * são descartados)
+		 */
+		private void end() {
+			int start = size;
+			for (int i = 0; i < np; i++) {
+				double x = poly[2 * i], y = poly[2 * i + 1];
+				if (size > start && coordinates[size - 2] == x && coordinates[size - 1] == y)
+					continue;
+				if (size + 2 > coordinates.length)
+					coordinates = Arrays.copyOf(coordinates, 2 * coordinates.length);
+				coordinates[size++] = x;
+				coordinates[size++] = y;
+			}
+			if (size - start >= 4 && coordinates[start] == coordinates[size - 2]
+					&& coordinates[start + 1] == coordinates[size - 1])
+				size -= 2;
+			np = 0;
+			offsets[++cells] = size / 2;
+		}
+
+		private VoronoiCells build() {
+			return new VoronoiCells(offsets, Arrays.copyOf(coordinates, size));
+		}
+	}
+
+	// ---------------------- MÉTODOS DE INTERFACEAMENTO -------------------------
+
+	public int getCellCount() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Função que retorna o índice do primeiro vértice de cada célula
+	 *
+	 * @return vetor com uma posição a mais que o número de células (o próprio vetor
+	 *         do objeto, que não deve ser alterado)
+	 */
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	/**
+	 * Função que retorna as coordenadas de todos os vértices
+	 *
+	 * @return vetor com a abscissa e a ordenada de cada vértice (o próprio vetor do
+	 *         objeto, que não deve ser alterado)
+	 */
+	public double[] getCoordinates() {
+		return coordinates;
+	}
+
+	/**
+	 * Função que retorna o número de vértices de uma célula
+	 *
+	 * @param i índice do ponto
+	 * @return número de vértices (0 se a célula é vazia)
+	 */
+	public int getVertexCount(int i) {
+		return offsets[i + 1] - offsets[i];
+	}
+
+	/**
+	 * Função que retorna a abscissa de um vértice de uma célula
+	 *
+	 * @param i índice do ponto
+	 * @param k posição do vértice na célula
+	 * @return abscissa
+	 */
+	public double getX(int i, int k) {
+		return coordinates[2 * (offsets[i] + k)];
+	}
+
+	/**
+	 * Função que retorna a ordenada de um vértice de uma célula
+	 *
+	 * @param i índice do ponto
+	 * @param k posição do vértice na célula
+	 * @return ordenada
+	 */
+	public double getY(int i, int k) {
+		return coordinates[2 * (offsets[i] + k) + 1];
+	}
+}
@@ -0,0 +1,100 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementação das operações de {@link Kernels} com a Vector API (JDK 17 ou
+ * superior, módulo <code>jdk.incubator.vector</code>). Os laços processam
+ * {@link #SPECIES} componentes por iteração e terminam com um laço escalar para
+ * o resto
+ *
+ * @author Philipe PEREIRA
+ *
+ */
+final class VectorKernels implements Kernels.Impl {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	@Override
+	public void multiply(double[] x, int off, double[] w, int n) {
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+			DoubleVector a = DoubleVector.fromArray(SPECIES, x, off + i);
+			DoubleVector b = DoubleVector.fromArray(SPECIES, w, i);
+			a.mul(b).intoArray(x, off + i);
+		}
+		for (; i < n; i++)
+			x[off + i] *= w[i];
+	}
+
+	@Override
+	public void multiplyComplex(double[] re, double[] im, double[] wRe, double[] wIm, int n) {
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+			DoubleVector ar = DoubleVector.fromArray(SPECIES, re, i);
+			DoubleVector ai = DoubleVector.fromArray(SPECIES, im, i);
+			DoubleVector br = DoubleVector.fromArray(SPECIES, wRe, i);
+			DoubleVector bi = DoubleVector.fromArray(SPECIES, wIm, i);
+			ar.mul(br).sub(ai.mul(bi)).intoArray(re, i);
+			ar.mul(bi).add(ai.mul(br)).intoArray(im, i);
+		}
+		for (; i < n; i++) {
+			double r = re[i] * wRe[i] - im[i] * wIm[i];
+			im[i] = re[i] * wIm[i] + im[i] * wRe[i];
+			re[i] = r;
+		}
+	}
+
+	@Override
+	public void magnitude2(double[] re, double[] im, double[] out, int n) {
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+			DoubleVector r = DoubleVector.fromArray(SPECIES, re, i);
+			DoubleVector m = DoubleVector.fromArray(SPECIES, im, i);
+			r.mul(r).add(m.mul(m)).intoArray(out, i);
+		}
+		for (; i < n; i++)
+			out[i] = re[i] * re[i] + im[i] * im[i];
+	}
+
+	@Override
+	public double sumOfSquares(double[] re, double[] im, int n) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+			DoubleVector r = DoubleVector.fromArray(SPECIES, re, i);
+			DoubleVector m = DoubleVector.fromArray(SPECIES, im, i);
+			acc = r.fma(r, m.fma(m, acc));
+		}
+		double out = acc.reduceLanes(VectorOperators.ADD);
+		for (; i < n; i++)
+			out += re[i] * re[i] + im[i] * im[i];
+		return out;
+	}
+
+	@Override
+	public void scale(double[] x, int off, int n, double d) {
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length())
+			DoubleVector.fromArray(SPECIES, x, off + i).mul(d).intoArray(x, off + i);
+		for (; i < n; i++)
+			x[off + i] *= d;
+	}
+
+	@Override
+	public double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+			DoubleVector x = DoubleVector.fromArray(SPECIES, a, aOff + i);
+			DoubleVector y = DoubleVector.fromArray(SPECIES, b, bOff + i);
+			acc = x.fma(y, acc);
+		}
+		double out = acc.reduceLanes(VectorOperators.ADD);
+		for (; i < n; i++)
+			out += a[aOff + i] * b[bOff + i];
+		return out;
+	}
+}
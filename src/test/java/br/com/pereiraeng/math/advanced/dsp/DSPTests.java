@@ -0,0 +1,1064 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.pereiraeng.core.ExtendedMath;
+import br.com.pereiraeng.core.ReflectionUtils;
+import br.com.pereiraeng.math.Complex;
+import br.com.pereiraeng.math.advanced.dsp.Filter.FilterType;
+import br.com.pereiraeng.math.advanced.dsp.Windowing.WindowType;
+import br.com.pereiraeng.math.timeseries.SrT;
+
+public class DSPTests {
+
+	/**
+	 * DFT pela definição, sem normalização: sum x[j]·e^(sign·i2pi·kj/n)
+	 */
+	private static double[][] dft(double[] re, double[] im, int sign) {
+		int n = re.length;
+		double[][] out = new double[2][n];
+		for (int k = 0; k < n; k++)
+			for (int j = 0; j < n; j++) {
+				double a = sign * 2. * Math.PI * ((long) k * j % n) / n;
+				out[0][k] += re[j] * Math.cos(a) - im[j] * Math.sin(a);
+				out[1][k] += re[j] * Math.sin(a) + im[j] * Math.cos(a);
+			}
+		return out;
+	}
+
+	private static double[] random(int n, long seed) {
+		Random r = new Random(seed);
+		double[] out = new double[n];
+		for (int i = 0; i < n; i++)
+			out[i] = r.nextGaussian();
+		return out;
+	}
+
+	/**
+	 * registro com um sinal por coluna, amostrado a cada milissegundo
+	 */
+	private static SrT<Float> record(double[]... channels) {
+		SrT<Float> out = new SrT<>();
+		for (int i = 0; i < channels[0].length; i++) {
+			float[] v = new float[channels.length];
+			for (int c = 0; c < channels.length; c++)
+				v[c] = (float) channels[c][i];
+			out.put(i * 1E-3f, v);
+		}
+		return out;
+	}
+
+	@Test
+	void testGoertzel() {
+		// nível médio e harmônicos 1, 3 e 7 com amplitudes e fases conhecidas
+		int n = 360;
+		double[] y = new double[n];
+		for (int j = 0; j < n; j++) {
+			double t = 2. * Math.PI * j / n;
+			y[j] = .5 + 2. * Math.cos(t + .3) + .7 * Math.cos(3. * t - 1.2) + .2 * Math.cos(7. * t + 2.5);
+		}
+		double[][] d = dft(y, new double[n], -1);
+
+		int[] hs = { 0, 1, 2, 3, 7 };
+		double[][] g = Goertzel.harmonics(y, hs);
+		for (int i = 0; i < hs.length; i++) {
+			assertEquals(d[0][hs[i]] / n, g[0][i], 1e-12);
+			assertEquals(d[1][hs[i]] / n, g[1][i], 1e-12);
+		}
+		// coeficiente do harmônico h de A·cos(h·t + phi) é A/2·e^(i·phi)
+		assertEquals(.5, g[0][0], 1e-12);
+		assertEquals(1., Math.hypot(g[0][1], g[1][1]), 1e-12);
+		assertEquals(.3, Math.atan2(g[1][1], g[0][1]), 1e-12);
+		assertEquals(.35, Math.hypot(g[0][3], g[1][3]), 1e-12);
+		assertEquals(-1.2, Math.atan2(g[1][3], g[0][3]), 1e-12);
+		assertEquals(.1, Math.hypot(g[0][4], g[1][4]), 1e-12);
+		assertEquals(2.5, Math.atan2(g[1][4], g[0][4]), 1e-12);
+
+		Complex[] c = FourierSerie.goertzel(y, 8);
+		for (int h = 0; h < 8; h++) {
+			assertEquals(d[0][h] / n, c[h].getRe(), 1e-12);
+			assertEquals(d[1][h] / n, c[h].getIm(), 1e-12);
+		}
+
+		// frequência que não é múltipla da fundamental: soma direta
+		double dt = 1E-3, w = 2. * Math.PI * 61.7;
+		double[][] f = Goertzel.frequencies(y, dt, w);
+		double sr = 0., si = 0.;
+		for (int j = 0; j < n; j++) {
+			sr += y[j] * Math.cos(w * j * dt);
+			si -= y[j] * Math.sin(w * j * dt);
+		}
+		assertEquals(sr / n, f[0][0], 1e-12);
+		assertEquals(si / n, f[1][0], 1e-12);
+	}
+
+	@Test
+	void testFFT() {
+		// potências de dois (radix-2) e tamanhos primos ou compostos (Bluestein)
+		for (int n : new int[] { 1, 2, 64, 256, 31, 97, 100, 360 }) {
+			double[] re = random(n, n), im = random(n, -n);
+			double[][] d = dft(re, im, -1);
+
+			double[] fr = re.clone(), fi = im.clone();
+			FFT.get(n).transform(fr, fi);
+			assertArrayEquals(d[0], fr, 1e-9 * n);
+			assertArrayEquals(d[1], fi, 1e-9 * n);
+
+			FFT.get(n).inverse(fr, fi);
+			assertArrayEquals(re, fr, 1e-12 * n);
+			assertArrayEquals(im, fi, 1e-12 * n);
+		}
+
+		// lote em paralelo = cada sinal transformado separadamente
+		int n = 300, nc = 5;
+		double[][] re = new double[nc][], im = new double[nc][];
+		for (int c = 0; c < nc; c++) {
+			re[c] = random(n, 10 + c);
+			im[c] = new double[n];
+		}
+		SrT<Float> srt = record(re);
+		double[][] ch = DSP.getChannels(srt);
+		for (int c = 0; c < nc; c++)
+			for (int i = 0; i < n; i++)
+				re[c][i] = (float) re[c][i];
+		for (int c = 0; c < nc; c++)
+			assertArrayEquals(re[c], ch[c]);
+
+		double[][][] batch = DSP.fft(srt, new ForkJoinPool(3));
+		for (int c = 0; c < nc; c++) {
+			FFT.get(n).transform(re[c], im[c]);
+			for (int i = 0; i < n; i++) {
+				assertEquals(re[c][i] / n, batch[0][c][i], 1e-15);
+				assertEquals(im[c][i] / n, batch[1][c][i], 1e-15);
+			}
+		}
+
+		// planos compartilhados: o mesmo objeto enquanto estiver guardado; com muitos
+		// tamanhos diferentes, os guardados são descartados
+		FFT plan = FFT.get(97);
+		assertSame(plan, FFT.get(97));
+		for (int m = 1000; m < 1040; m++)
+			FFT.get(m);
+		FFT again = FFT.get(97);
+		assertNotSame(plan, again);
+		double[] fr = random(97, 27), fi = new double[97], gr = fr.clone(), gi = new double[97];
+		plan.transform(fr, fi);
+		again.transform(gr, gi);
+		assertArrayEquals(fr, gr);
+		assertArrayEquals(fi, gi);
+	}
+
+	@Test
+	void testFourierSynthesis() {
+		int n = 12;
+		double[] re = random(n, 1), im = random(n, 2);
+		double w = 2. * Math.PI * 60.;
+
+		// passo que divide o período (FFT), período longo demais em amostras e passo
+		// incomensurável (Clenshaw), em ambos os sentidos
+		double[][] steps = { { 1. / 3000., 500 }, { 1. / 3E6, 40 }, { 1.234E-4, 300 }, { -1. / 3000., 500 },
+				{ -1. / 3E6, 40 } };
+		for (double[] step : steps) {
+			double t0 = .0123, dt = step[0];
+			double[] out = new double[(int) step[1]];
+			FourierSynthesis.uniform(re, im, w, t0, dt, out);
+			for (int j = 0; j < out.length; j++) {
+				double t = t0 + j * dt, y = 0.;
+				for (int k = 0; k < n; k++)
+					y += re[k] * Math.cos(k * w * t) - im[k] * Math.sin(k * w * t);
+				assertEquals(y, out[j], 1e-10);
+				assertEquals(y, FourierSynthesis.eval(t, re, im, w), 1e-10);
+			}
+		}
+	}
+
+	/**
+	 * resposta do filtro calculada como na versão original de
+	 * {@link Filter#get(double, int)}, fator a fator, e normalizada
+	 */
+	private static double[][] baseline(FilterType type, int n, double wc, double w, int nc) {
+		double[][] out = new double[2][nc];
+		double norm = 0.;
+		for (int i = 0; i < nc; i++) {
+			double s = w * i;
+			double[] h = { 1., 0. };
+			switch (type) {
+			case BUTTERWORTH:
+			case SPECIAL:
+				// 1/prod((s - sk)/wc), com sinal trocado e pólos girados no SPECIAL
+				for (int k = 1; k <= n; k++) {
+					double a = (2 * (type == FilterType.SPECIAL ? k - 1 : k) + n - 1) * Math.PI / (2 * n);
+					h = mult(h, -Math.cos(a), (s - wc * Math.sin(a)) / wc);
+				}
+				h = div(type == FilterType.SPECIAL ? -1. : 1., 0., h);
+				break;
+			case CHEBYSHEV_1:
+				double eps = .5, arg = Math.log(1 / eps + Math.sqrt(1 / (eps * eps) + 1)) / n;
+				for (int m = 1; m <= n; m++) {
+					double tm = (2 * m - 1) * Math.PI / 2 / n;
+					h = mult(h, Math.sinh(arg) * Math.sin(tm), s / wc - Math.cosh(arg) * Math.cos(tm));
+				}
+				h = div(1. / (eps * Math.pow(2, n - 1)), 0., h);
+				break;
+			case CHEBYSHEV_2:
+				// n par: todos os zeros são finitos
+				double A = Math.sqrt(2), gamma = Math.pow(A + Math.sqrt(A * A - 1), 1. / n);
+				double[] h0 = { 1., 0. };
+				for (int k = 1; k <= n; k++) {
+					double a = Math.PI * (2 * k - 1) / 2. / n, z = wc / Math.cos(a);
+					double alpha = -(gamma - 1 / gamma) * Math.sin(a) / 2.;
+					double betha = (gamma + 1 / gamma) * Math.cos(a) / 2.;
+					double pr = wc * alpha / Math.hypot(alpha, betha), pi = -wc * betha / Math.hypot(alpha, betha);
+					h0 = div(mult(h0, -pr, -pi), 0., -z);
+					h = div(mult(h, 0., s - z), -pr, s - pi);
+				}
+				h = mult(h, h0[0], h0[1]);
+				break;
+			case BESSEL:
+				// theta(0)/theta(s/wc), theta_n = (2n-1)·theta_(n-1) + s²·theta_(n-2)
+				double[] t0 = { 1., 0. }, t1 = { 1., s / wc };
+				double c0 = 1., c1 = 1.;
+				for (int k = 2; k <= n; k++) {
+					double[] t = mult(t0, -(s / wc) * (s / wc), 0.);
+					t[0] += (2 * k - 1) * t1[0];
+					t[1] += (2 * k - 1) * t1[1];
+					t0 = t1;
+					t1 = t;
+					double c = (2 * k - 1) * c1;
+					c0 = c1;
+					c1 = c;
+				}
+				h = div(n == 0 ? c0 : c1, 0., n == 0 ? t0 : t1);
+				break;
+			default:
+			}
+			out[0][i] = h[0];
+			out[1][i] = h[1];
+			norm += h[0] * h[0] + h[1] * h[1];
+		}
+		for (int i = 0; i < nc; i++) {
+			out[0][i] /= Math.sqrt(norm);
+			out[1][i] /= Math.sqrt(norm);
+		}
+		return out;
+	}
+
+	private static double[] mult(double[] a, double br, double bi) {
+		return new double[] { a[0] * br - a[1] * bi, a[0] * bi + a[1] * br };
+	}
+
+	private static double[] div(double[] a, double br, double bi) {
+		double d2 = br * br + bi * bi;
+		return new double[] { (a[0] * br + a[1] * bi) / d2, (a[1] * br - a[0] * bi) / d2 };
+	}
+
+	private static double[] div(double ar, double ai, double[] b) {
+		return div(new double[] { ar, ai }, b[0], b[1]);
+	}
+
+	@Test
+	void testFilterResponse() {
+		double wc = 10., w = .5;
+		int nc = 60;
+		FilterType[] types = { FilterType.BUTTERWORTH, FilterType.CHEBYSHEV_1, FilterType.CHEBYSHEV_2,
+				FilterType.BESSEL, FilterType.SPECIAL };
+		for (FilterType type : types)
+			for (int n : type == FilterType.CHEBYSHEV_2 ? new int[] { 2, 4, 6 } : new int[] { 1, 2, 3, 4, 5 }) {
+				double[][] b = baseline(type, n, wc, w, nc);
+				Complex[] h = new Filter(type, n, wc).get(w, nc);
+				for (int i = 0; i < nc; i++) {
+					assertEquals(b[0][i], h[i].getRe(), 1e-12, type + " " + n);
+					assertEquals(b[1][i], h[i].getIm(), 1e-12, type + " " + n);
+				}
+			}
+
+		// o elíptico ainda não foi implementado: é recusado já na construção
+		assertThrows(IllegalArgumentException.class, () -> new Filter(FilterType.ELLIPTIC, 3, wc));
+	}
+
+	@Test
+	void testFilterApply() {
+		double w = .5;
+		int nc = 50;
+		Filter filter = new Filter(FilterType.CHEBYSHEV_1, 4, 10.);
+		double[] re = random(nc, 3), im = random(nc, 4);
+		Complex[] cn = new Complex[nc];
+		for (int i = 0; i < nc; i++)
+			cn[i] = new Complex(re[i], im[i]);
+
+		// projeção sobre a resposta normalizada, componente a componente
+		Complex[] fn = filter.get(w, nc);
+		double pr = 0., pi = 0.;
+		for (int j = 0; j < nc; j++) {
+			pr += re[j] * fn[j].getRe() + im[j] * fn[j].getIm();
+			pi += im[j] * fn[j].getRe() - re[j] * fn[j].getIm();
+		}
+		Complex[] a = filter.apply(w, cn);
+		double[] ar = filter.apply(w, re);
+		double p = 0.;
+		for (int j = 0; j < nc; j++)
+			p += re[j] * fn[j].getRe();
+		for (int i = 0; i < nc; i++) {
+			assertEquals(pr * fn[i].getRe() - pi * fn[i].getIm(), a[i].getRe(), 1e-12);
+			assertEquals(pr * fn[i].getIm() + pi * fn[i].getRe(), a[i].getIm(), 1e-12);
+			assertEquals(p * fn[i].getRe(), ar[i], 1e-12);
+		}
+
+		// filtragem espectral: cn[k]·H(iwk), componente a componente
+		double[] hr = new double[nc], hi = new double[nc];
+		filter.response(w, hr, hi);
+		Complex[] s = filter.applySpectral(w, cn);
+		double[] sr = filter.applySpectral(w, re);
+		for (int i = 0; i < nc; i++) {
+			assertEquals(re[i] * hr[i] - im[i] * hi[i], s[i].getRe(), 1e-12);
+			assertEquals(re[i] * hi[i] + im[i] * hr[i], s[i].getIm(), 1e-12);
+			assertEquals(re[i] * Math.hypot(hr[i], hi[i]), sr[i], 1e-12);
+		}
+		// o espectro de entrada não é alterado
+		assertEquals(re[7], cn[7].getRe());
+		assertEquals(im[7], cn[7].getIm());
+
+		// respostas guardadas por (w, N), no máximo 32 por filtro
+		ComplexArray h = filter.getResponse(w, nc);
+		assertSame(h, filter.getResponse(w, nc));
+		assertNotSame(h, filter.getResponse(w, nc + 1));
+		assertNotSame(h, filter.getResponse(w * 2., nc));
+		for (int i = 0; i < 32; i++)
+			filter.getResponse(w, 100 + i);
+		ComplexArray again = filter.getResponse(w, nc);
+		assertNotSame(h, again);
+		assertArrayEquals(h.getRe(), again.getRe());
+		assertArrayEquals(h.getIm(), again.getIm());
+		assertSame(again, filter.getResponse(w, nc));
+	}
+
+	/**
+	 * resposta em frequência da cascata de biquads em z = e^(i·omega)
+	 */
+	private static double[] response(IIRFilter f, double omega) {
+		double c1 = Math.cos(omega), s1 = -Math.sin(omega), c2 = Math.cos(2. * omega), s2 = -Math.sin(2. * omega);
+		double[] h = { 1., 0. };
+		for (double[] q : f.getSos()) {
+			h = mult(h, q[0] + q[1] * c1 + q[2] * c2, q[1] * s1 + q[2] * s2);
+			h = div(h, 1. + q[3] * c1 + q[4] * c2, q[3] * s1 + q[4] * s2);
+		}
+		return h;
+	}
+
+	/**
+	 * resposta do protótipo analógico em s = i·w
+	 */
+	private static double[] analog(Filter f, double w) {
+		double[] re = new double[2], im = new double[2];
+		f.response(w, re, im);
+		return new double[] { re[1], im[1] };
+	}
+
+	@Test
+	void testIIRFilter() {
+		double dt = 1E-3, wc = 2. * Math.PI * 50., fs2 = 2. / dt;
+		double r = fs2 * Math.tan(wc * dt / 2.) / wc;
+		FilterType[] types = { FilterType.BUTTERWORTH, FilterType.CHEBYSHEV_1, FilterType.CHEBYSHEV_2,
+				FilterType.BESSEL };
+		for (FilterType type : types)
+			for (int n = 1; n <= 6; n++) {
+				Filter filter = new Filter(type, n, wc);
+				IIRFilter iir = filter.toIIR(dt);
+				assertEquals((n + 1) / 2, iir.getSections(), type + " " + n);
+
+				// ganho DC igual ao do analógico
+				double[] d = response(iir, 0.), a = analog(filter, 0.);
+				assertEquals(a[0], d[0], 1e-9, type + " " + n);
+				assertEquals(a[1], d[1], 1e-9, type + " " + n);
+
+				// z = e^(i·omega) corresponde a s = i·fs2·tan(omega/2)/r; em omega = wc·dt,
+				// s = i·wc (pré-distorção)
+				for (double omega : new double[] { .01, wc * dt, .5, 1., 2., 3. }) {
+					d = response(iir, omega);
+					a = analog(filter, fs2 * Math.tan(omega / 2.) / r);
+					assertEquals(a[0], d[0], 1e-9, type + " " + n + " " + omega);
+					assertEquals(a[1], d[1], 1e-9, type + " " + n + " " + omega);
+				}
+			}
+
+		// Butterworth: ganho unitário em DC e -3 dB na frequência de corte
+		for (int n = 1; n <= 6; n++) {
+			IIRFilter iir = new Filter(FilterType.BUTTERWORTH, n, wc).toIIR(dt);
+			double[] h = response(iir, 0.);
+			assertEquals(1., Math.hypot(h[0], h[1]), 1e-12);
+			h = response(iir, wc * dt);
+			assertEquals(Math.sqrt(.5), Math.hypot(h[0], h[1]), 1e-12);
+
+			// filtrar em blocos = filtrar amostra por amostra
+			double[] x = random(300, n), y = new double[300];
+			iir.process(x, 0, y, 0, 137);
+			iir.process(x, 137, y, 137, 163);
+			iir.reset();
+			for (int j = 0; j < x.length; j++)
+				assertEquals(iir.process(x[j]), y[j], 1e-12);
+		}
+
+		// Chebyshev II de ordem ímpar: o zero do meio está no infinito e não entra no
+		// protótipo; os demais ficam em wc/cos(a)
+		for (int n = 3; n <= 7; n += 2) {
+			Filter filter = new Filter(FilterType.CHEBYSHEV_2, n, wc);
+			double[][] zpk = filter.getPrototype();
+			assertEquals(n - 1, zpk[0].length);
+			for (int k = 1, j = 0; k <= n; k++) {
+				if (2 * k - 1 == n)
+					continue;
+				assertEquals(0., zpk[0][j]);
+				assertEquals(wc / Math.cos(Math.PI * (2 * k - 1) / 2. / n), zpk[1][j++], 1e-9);
+			}
+			double[] h = analog(filter, wc / Math.cos(Math.PI / 2. / n));
+			assertEquals(0., Math.hypot(h[0], h[1]), 1e-12);
+			h = response(filter.toIIR(dt), Math.PI);
+			assertEquals(0., Math.hypot(h[0], h[1]), 1e-12);
+		}
+	}
+
+	/**
+	 * convolução direta, com estado inicial nulo
+	 */
+	private static double[] convolve(double[] h, double[] x) {
+		double[] y = new double[x.length];
+		for (int i = 0; i < x.length; i++)
+			for (int k = 0; k < h.length && k <= i; k++)
+				y[i] += h[k] * x[i - k];
+		return y;
+	}
+
+	@Test
+	void testFIRFilter() {
+		double dt = 1E-3;
+		for (int taps : new int[] { 5, 63, 65, 201 }) {
+			double[] h = FIRFilter.lowPass(taps, 2. * Math.PI * 80., dt, WindowType.HAMMING);
+			for (int len : new int[] { 1344, 1000 }) {
+				double[] x = random(len, taps + len), y = convolve(h, x);
+				for (boolean fast : new boolean[] { false, true }) {
+					FIRFilter fir = new FIRFilter(h, fast);
+					// blocos que dividem e que não dividem o tamanho do sinal (o bloco
+					// interno da overlap-save com 65 coeficientes é 448)
+					for (int chunk : new int[] { len, 448, 112, 333, 7, 1 }) {
+						fir.reset();
+						double[] out = new double[len];
+						for (int i = 0; i < len; i += chunk)
+							fir.process(x, i, out, i, Math.min(chunk, len - i));
+						assertArrayEquals(y, out, 1e-12, taps + " " + len + " " + fast + " " + chunk);
+					}
+				}
+			}
+		}
+
+		// ganho unitário em DC (passa-baixa), em Nyquist (passa-alta) e no centro
+		// da faixa (passa-faixa)
+		double[] lp = FIRFilter.lowPass(101, 2. * Math.PI * 50., dt, WindowType.HAMMING);
+		double[] hp = FIRFilter.highPass(101, 2. * Math.PI * 50., dt, WindowType.HAMMING);
+		double[] bp = FIRFilter.bandPass(101, 2. * Math.PI * 100., 2. * Math.PI * 200., dt, WindowType.HAMMING);
+		double g0 = 0., gn = 0., gc = 0., w0 = 2. * Math.PI * 150. * dt;
+		for (int k = 0; k < 101; k++) {
+			g0 += lp[k];
+			gn += hp[k] * (k % 2 == 0 ? 1. : -1.);
+			gc += bp[k] * Math.cos(w0 * (k - 50));
+		}
+		assertEquals(1., g0, 1e-12);
+		assertEquals(1., Math.abs(gn), 1e-3);
+		assertEquals(1., gc, 1e-12);
+	}
+
+	/**
+	 * estágio de reamostragem pela definição: intercala l - 1 zeros entre as
+	 * amostras, filtra com o mesmo passa-baixa do {@link Resampler} e toma uma a
+	 * cada m amostras
+	 */
+	private static double[] naiveResample(double[] x, int l, int m) {
+		int r = Math.max(l, m);
+		if (r == 1)
+			return x.clone();
+		int k = (2 * Resampler.DEFAULT_HALF_LENGTH * r + l) / l, taps = k * l - 1;
+		double[] h = FIRFilter.lowPass(taps, .9 * Math.PI / r, 1., WindowType.HAMMING);
+
+		double[] u = new double[x.length * l];
+		for (int i = 0; i < x.length; i++)
+			u[i * l] = x[i];
+		double[] y = convolve(h, u);
+		double[] out = new double[(u.length + m - 1) / m];
+		for (int j = 0; j < out.length; j++)
+			out[j] = l * y[j * m];
+		return out;
+	}
+
+	@Test
+	void testResampler() {
+		double[] x = random(1000, 33);
+
+		// (up, down, fatores de cada estágio)
+		int[][][] cases = { { { 3, 2 }, { 3, 2 } }, { { 1, 4 }, { 1, 4 } }, { { 5, 1 }, { 5, 1 } },
+				{ { 48, 5 }, { 8, 5 }, { 6, 1 } }, { { 2, 21 }, { 2, 7 }, { 1, 3 } } };
+		for (int[][] c : cases) {
+			int up = c[0][0], down = c[0][1];
+			double[] expected = x;
+			for (int i = 1; i < c.length; i++)
+				expected = naiveResample(expected, c[i][0], c[i][1]);
+
+			Resampler r = new Resampler(up, down);
+			assertEquals(c.length - 1, r.getStages());
+			double[] out = Resampler.resample(x, up, down);
+			assertArrayEquals(expected, out, 1e-12, up + "/" + down);
+
+			// em blocos, que cortam os estágios em posições arbitrárias
+			for (int chunk : new int[] { 1, 7, 100, 333 }) {
+				r.reset();
+				double[] y = new double[out.length];
+				int n = 0;
+				for (int i = 0; i < x.length; i += chunk) {
+					int len = Math.min(chunk, x.length - i);
+					double[] tmp = new double[r.getMaxOutput(len)];
+					int m = r.process(x, i, len, tmp, 0);
+					System.arraycopy(tmp, 0, y, n, m);
+					n += m;
+				}
+				assertEquals(out.length, n);
+				assertArrayEquals(out, y, 1e-12, up + "/" + down + " " + chunk);
+			}
+		}
+
+		// senoide na banda passante: sai a mesma senoide na nova taxa, atrasada
+		double w = .05;
+		double[] sin = new double[2000];
+		for (int i = 0; i < sin.length; i++)
+			sin[i] = Math.sin(w * i);
+		Resampler r = new Resampler(48, 5);
+		double[] y = Resampler.resample(sin, 48, 5);
+		double delay = r.getDelay();
+		for (int j = 2000; j < y.length - 100; j++)
+			assertEquals(Math.sin(w * (j * 5. / 48. - delay)), y[j], 1e-2);
+	}
+
+	/**
+	 * I<sub>0</sub>(x) pela representação integral (1/pi)·int_0^pi e^(x·cos t) dt
+	 */
+	private static double besselI0(double x) {
+		int n = 2000;
+		double out = 0.;
+		for (int i = 0; i <= n; i++)
+			out += (i == 0 || i == n ? .5 : 1.) * Math.exp(x * Math.cos(Math.PI * i / n));
+		return out / n;
+	}
+
+	@Test
+	void testWindowing() {
+		int n = 101, c = n / 2;
+		// {janela, parâmetro, bordas, pico}
+		Object[][] cases = { { WindowType.HANNING, 0., 0., 1. }, { WindowType.HAMMING, 0., .08, 1. },
+				{ WindowType.BLACKMAN_HARRIS, 0., 6E-5, 1. }, { WindowType.FLAT_TOP, 0., -4.21051E-4, 1. },
+				{ WindowType.KAISER, 8.6, 1. / besselI0(8.6), 1. }, { WindowType.KAISER, 0., 1., 1. },
+				{ WindowType.TUKEY, .5, 0., 1. }, { WindowType.TUKEY, 0., 1., 1. } };
+		for (Object[] k : cases) {
+			WindowType type = (WindowType) k[0];
+			double[] w = new Windowing(type, (double) k[1]).getCoefficients(n);
+			String msg = type + " " + k[1];
+			for (int i = 0; i < n; i++)
+				assertEquals(w[i], w[n - 1 - i], 1e-14, msg);
+			assertEquals((double) k[2], w[0], 1e-8, msg);
+			assertEquals((double) k[3], w[c], 1e-8, msg);
+			for (int i = 0; i < n; i++)
+				assertTrue(w[i] <= w[c] + 1e-8, msg);
+		}
+
+		// Tukey de α = 0.5: bordas cossenoidais no primeiro e no último quarto
+		Windowing tukey = new Windowing(WindowType.TUKEY, .5);
+		assertEquals(.5, tukey.value(.125), 1e-15);
+		assertEquals(.5, tukey.value(.875), 1e-15);
+		for (double x = .25; x <= .75; x += .05)
+			assertEquals(1., tukey.value(x));
+
+		// tabelas compartilhadas por janela, parâmetro e tamanho
+		Windowing kaiser = new Windowing(WindowType.KAISER, 5.);
+		double[] t = kaiser.table(n);
+		assertSame(t, kaiser.table(n));
+		assertSame(t, new Windowing(WindowType.KAISER, 5.).table(n));
+		assertNotSame(t, new Windowing(WindowType.KAISER, 6.).table(n));
+		assertNotSame(t, kaiser.table(n + 1));
+		assertSame(new Windowing(WindowType.HAMMING).table(n), new Windowing(WindowType.HAMMING, 3.).table(n));
+		double[] copy = kaiser.getCoefficients(n);
+		assertNotSame(t, copy);
+		assertArrayEquals(t, copy);
+		for (int i = 0; i < n; i++)
+			assertEquals(kaiser.value((double) i / (n - 1)), t[i]);
+	}
+
+	/**
+	 * frequência pelos cruzamentos por zero (pela reta), como na versão original
+	 * de {@link DSP#getFreq(SrT, int, double)}: cada cruzamento é convertido para o
+	 * tipo do instante antes de ser usado
+	 */
+	private static <T extends Number> TreeMap<T, Float> zeroCrossings(SrT<T> srt, int pos, double timeFactor) {
+		TreeMap<T, Float> out = new TreeMap<>();
+		Iterator<Entry<T, float[]>> it = srt.entrySet().iterator();
+		Entry<T, float[]> entry = it.next();
+		T lastTime = entry.getKey(), lastZero = null;
+		float lastValue = entry.getValue()[pos];
+		boolean previousSign = lastValue > 0;
+		while (it.hasNext()) {
+			entry = it.next();
+			T time = entry.getKey();
+			float value = entry.getValue()[pos];
+			boolean sign = value > 0;
+			if (sign ^ previousSign) {
+				T newZero = ReflectionUtils.double2number(time,
+						ExtendedMath.getZero(lastTime.doubleValue(), time.doubleValue(), lastValue, value));
+				if (lastZero != null) {
+					double f = .5 / ((newZero.doubleValue() - lastZero.doubleValue()) * timeFactor);
+					out.put(ReflectionUtils.double2number(time, (newZero.doubleValue() + lastZero.doubleValue()) * .5),
+							(float) f);
+				}
+				previousSign = sign;
+				lastZero = newZero;
+			}
+			lastTime = time;
+			lastValue = value;
+		}
+		return out;
+	}
+
+	@Test
+	void testZeroCrossing() {
+		// 47 Hz com um pouco de ruído, amostrado a cada milissegundo
+		Random r = new Random(36);
+		int n = 2000;
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++)
+			y[i] = Math.sin(2. * Math.PI * 47. * i * 1E-3 + .3) + .01 * r.nextGaussian();
+
+		// instantes em precisão dupla: mesmo resultado da versão original
+		SrT<Double> exact = new SrT<>();
+		for (int i = 0; i < n; i++)
+			exact.put(i * 1E-3, new float[] { (float) y[i] });
+		TreeMap<Double, Float> reference = zeroCrossings(exact, 0, 1.);
+		DSP.filtroMedia(reference, 10);
+		assertEquals(reference, DSP.getFreq(exact, 0, 1.));
+
+		// instantes em precisão simples: os cruzamentos não são mais arredondados
+		// para float antes de cada diferença, e o resultado só difere por esse
+		// arredondamento
+		SrT<Float> seconds = record(y);
+		TreeMap<Float, Float> expected = zeroCrossings(seconds, 0, 1.);
+		DSP.filtroMedia(expected, 10);
+		TreeMap<Float, Float> actual = DSP.getFreq(seconds, 0, 1.);
+		assertEquals(expected.size(), actual.size());
+		Iterator<Entry<Float, Float>> ia = actual.entrySet().iterator();
+		for (Entry<Float, Float> e : expected.entrySet()) {
+			Entry<Float, Float> a = ia.next();
+			assertEquals(e.getKey(), a.getKey(), 1e-6);
+			assertEquals(e.getValue(), a.getValue(), 1e-5 * e.getValue());
+		}
+
+		// o estimador amostra a amostra entrega as mesmas estimativas, antes da média
+		TreeMap<Float, Float> raw = zeroCrossings(seconds, 0, 1.);
+		TreeMap<Double, Double> pushed = new TreeMap<>();
+		ZeroCrossingEstimator zc = new ZeroCrossingEstimator(1., (t, f) -> pushed.put(t, f));
+		int count = 0;
+		for (Entry<Float, float[]> e : seconds.entrySet())
+			if (zc.push(e.getKey(), e.getValue()[0]))
+				count++;
+		assertEquals(raw.size(), count);
+		assertEquals(raw.size(), pushed.size());
+		Iterator<Float> it = raw.values().iterator();
+		for (double f : pushed.values())
+			assertEquals(it.next(), f, 1e-5 * f);
+		assertEquals(pushed.lastEntry().getValue().doubleValue(), zc.getFrequency());
+		assertEquals(pushed.lastKey().doubleValue(), zc.getTime());
+
+		// instantes inteiros (milissegundos): os cruzamentos não são mais arredondados
+		// para o inteiro mais próximo, e cada estimativa fica próxima de 47 Hz ao
+		// invés de alternar entre 1/(2·10 ms) e 1/(2·11 ms)
+		SrT<Integer> millis = new SrT<>();
+		for (int i = 0; i < n; i++)
+			millis.put(i, new float[] { (float) y[i] });
+		for (float f : DSP.getFreq(millis, 0, 1E-3).values())
+			assertEquals(47., f, .05);
+		for (float f : zeroCrossings(millis, 0, 1E-3).values())
+			assertTrue(Math.abs(f - 50.) < 1E-3 || Math.abs(f - 1. / .022) < 1E-3, Float.toString(f));
+	}
+
+	@Test
+	void testMovingStatistics() {
+		Random r = new Random(37);
+		for (int trial = 0; trial < 50; trial++) {
+			int window = 1 + r.nextInt(20), n = 1 + r.nextInt(200);
+			// valores repetidos, para exercitar empates na janela ordenada
+			double[] y = new double[n];
+			for (int i = 0; i < n; i++)
+				y[i] = r.nextInt(4) == 0 ? Math.round(r.nextGaussian()) : r.nextGaussian();
+
+			MovingMedian median = new MovingMedian(window);
+			MovingAverage mean = new MovingAverage(window);
+			for (int i = 0; i < n; i++) {
+				double[] w = Arrays.copyOfRange(y, Math.max(0, i - window + 1), i + 1);
+				double sum = 0.;
+				for (double v : w)
+					sum += v;
+				Arrays.sort(w);
+				int h = w.length / 2;
+				double m = w.length % 2 == 1 ? w[h] : .5 * (w[h - 1] + w[h]);
+
+				assertEquals(m, median.push(y[i]));
+				assertEquals(sum / w.length, mean.push(y[i]), 1e-12);
+				assertEquals(i + 1 >= window, median.isFull());
+				assertEquals(i + 1 >= window, mean.isFull());
+			}
+			// o filtro reiniciado sobre o sinal inteiro dá o mesmo resultado
+			median.reset();
+			double[] out = new double[n];
+			median.process(y, 0, out, 0, n);
+			assertArrayEquals(MovingMedian.filter(y, window), out);
+		}
+
+		// amostras não finitas: a média é NaN ou infinita enquanto elas estão na
+		// janela e volta à média direta depois que elas saem
+		double[] z = random(60, 39);
+		z[5] = Double.POSITIVE_INFINITY;
+		z[20] = Double.NaN;
+		z[35] = Double.NEGATIVE_INFINITY;
+		z[37] = Double.POSITIVE_INFINITY;
+		z[50] = Double.NEGATIVE_INFINITY;
+		MovingAverage ma = new MovingAverage(4);
+		for (int i = 0; i < z.length; i++) {
+			double sum = 0.;
+			for (int k = Math.max(0, i - 3); k <= i; k++)
+				sum += z[k];
+			double expected = sum / Math.min(i + 1, 4);
+			double m = ma.push(z[i]);
+			if (Double.isFinite(expected))
+				assertEquals(expected, m, 1e-12);
+			else
+				assertEquals(expected, m, 0.);
+			assertEquals(m, ma.getMean(), 0.);
+		}
+		assertTrue(Double.isFinite(ma.getMean()));
+
+		// suavização exponencial: s[n] = s[n-1] + α·(x[n] - s[n-1]), s[0] = x[0]
+		double[] y = random(100, 38);
+		double[] s = ExponentialSmoothing.filter(y, .2);
+		assertEquals(y[0], s[0]);
+		for (int i = 1; i < y.length; i++)
+			assertEquals(s[i - 1] + .2 * (y[i] - s[i - 1]), s[i], 1e-15);
+		// resposta ao degrau de primeira ordem: 1 - e^(-t/tau)
+		ExponentialSmoothing es = ExponentialSmoothing.ofTimeConstant(.05, 1E-3);
+		es.push(0.);
+		for (int i = 1; i <= 50; i++)
+			es.push(1.);
+		assertEquals(1. - Math.exp(-1.), es.getValue(), 1e-12);
+		es.reset();
+		assertTrue(Double.isNaN(es.getValue()));
+		assertThrows(IllegalArgumentException.class, () -> new ExponentialSmoothing(0.));
+		assertThrows(IllegalArgumentException.class, () -> new MovingMedian(0));
+	}
+
+	@Test
+	void testFiltroMedia() {
+		TreeMap<Integer, Float> serie = new TreeMap<>();
+		for (int i = 0; i < 6; i++)
+			serie.put(i, (float) (i * i));
+
+		// janela de um ponto: a série fica como está (antes, era esvaziada)
+		TreeMap<Integer, Float> one = new TreeMap<>(serie);
+		DSP.filtroMedia(one, 1);
+		assertEquals(serie, one);
+
+		// janela de três pontos: saem os dois primeiros, os demais viram médias
+		DSP.filtroMedia(serie, 3);
+		assertEquals(4, serie.size());
+		assertEquals(2, (int) serie.firstKey());
+		assertEquals(5f / 3f, serie.get(2), 1e-6);
+		assertEquals(14f / 3f, serie.get(3), 1e-6);
+		assertEquals(29f / 3f, serie.get(4), 1e-6);
+		assertEquals(50f / 3f, serie.get(5), 1e-6);
+
+		// frequência infinita (dois cruzamentos no mesmo instante): só as médias
+		// cuja janela a contém ficam infinitas
+		serie.clear();
+		for (int i = 0; i < 8; i++)
+			serie.put(i, i == 2 ? Float.POSITIVE_INFINITY : 1f);
+		DSP.filtroMedia(serie, 3);
+		assertEquals(Float.POSITIVE_INFINITY, serie.get(2), 0f);
+		assertEquals(Float.POSITIVE_INFINITY, serie.get(4), 0f);
+		assertEquals(1f, serie.get(5), 1e-6);
+		assertEquals(1f, serie.get(7), 1e-6);
+	}
+
+	/**
+	 * relatórios do estimador de fasores: {amostra, módulo, ângulo, frequência,
+	 * ROCOF} de cada sinal
+	 */
+	private static List<double[][]> phasors(double[][] x, double fs, double f0, int cycles, double reportRate,
+			int chunk) {
+		List<double[][]> out = new ArrayList<>();
+		PhasorEstimator pe = new PhasorEstimator(x.length, fs, f0, cycles, reportRate, frame -> {
+			double[][] f = new double[x.length][];
+			for (int c = 0; c < x.length; c++)
+				f[c] = new double[] { frame.getSample(), frame.getMagnitude()[c], frame.getAngle()[c],
+						frame.getFrequency()[c], frame.getRocof()[c] };
+			out.add(f);
+		});
+		int n = x[0].length;
+		if (chunk == 1) {
+			double[] sample = new double[x.length];
+			for (int m = 0; m < n; m++) {
+				for (int c = 0; c < x.length; c++)
+					sample[c] = x[c][m];
+				pe.push(sample);
+			}
+		} else
+			for (int m = 0; m < n; m += chunk)
+				pe.process(x, m, Math.min(chunk, n - m));
+		return out;
+	}
+
+	@Test
+	void testPhasorEstimator() {
+		double fs = 3840., f0 = 60., rate = 60.;
+		int n = 3840;
+
+		// fora da frequência nominal, com módulos e fases diferentes em cada sinal
+		double[] amp = { 100., 1., 13.8 }, phi = { .4, -2., 3. };
+		for (double f : new double[] { 59.3, 60., 60.7 })
+			for (int cycles = 1; cycles <= 2; cycles++) {
+				double[][] x = new double[amp.length][n];
+				for (int c = 0; c < amp.length; c++)
+					for (int m = 0; m < n; m++)
+						x[c][m] = amp[c] * Math.sqrt(2.) * Math.cos(ExtendedMath.TWO_PI * f * m / fs + phi[c]);
+
+				List<double[][]> frames = phasors(x, fs, f0, cycles, rate, 1);
+				assertEquals(n / 64 - cycles + 1, frames.size());
+				for (int k = 2; k < frames.size(); k++)
+					for (int c = 0; c < amp.length; c++) {
+						double[] p = frames.get(k)[c];
+						double t = p[0] / fs;
+						// ângulo referido a cos(2pi·f0·t)
+						double angle = ExtendedMath.TWO_PI * (f - f0) * t + phi[c];
+						String msg = f + " " + cycles + " " + k + " " + c;
+						assertEquals(amp[c], p[1], 1e-5 * amp[c], msg);
+						assertEquals(0., Math.IEEEremainder(p[2] - angle, ExtendedMath.TWO_PI), 1e-4, msg);
+						assertEquals(f, p[3], 1e-3, msg);
+						assertEquals(0., p[4], 1e-2, msg);
+					}
+
+				// em blocos, cortados em posições arbitrárias: os mesmos relatórios
+				for (int chunk : new int[] { 7, 64, 1000 }) {
+					List<double[][]> blocks = phasors(x, fs, f0, cycles, rate, chunk);
+					assertEquals(frames.size(), blocks.size());
+					for (int k = 0; k < frames.size(); k++)
+						for (int c = 0; c < amp.length; c++)
+							assertArrayEquals(frames.get(k)[c], blocks.get(k)[c], 1e-9);
+				}
+			}
+
+		// rampa de frequência de 1 Hz/s: a frequência é a do meio do intervalo entre
+		// dois relatórios, atrasada ainda de meia janela
+		double f1 = 59.5, rocof = 1.;
+		double[][] x = new double[1][n];
+		for (int m = 0; m < n; m++) {
+			double t = m / fs;
+			x[0][m] = 100. * Math.sqrt(2.) * Math.cos(ExtendedMath.TWO_PI * (f1 * t + rocof * t * t / 2.) + .4);
+		}
+		List<double[][]> frames = phasors(x, fs, f0, 2, rate, 1);
+		for (int k = 2; k < frames.size(); k++) {
+			double[] p = frames.get(k)[0];
+			double t = p[0] / fs - .5 / rate - (128 - 1) / 2. / fs;
+			assertEquals(100., p[1], 1e-2);
+			assertEquals(f1 + rocof * t, p[3], 5e-3);
+			assertEquals(rocof, p[4], 1e-2);
+		}
+	}
+
+	@Test
+	void testSTFT() {
+		double[] y = random(5000, 39);
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		// passo menor, igual e maior que o quadro; quadro que não é potência de 2
+		for (int[] fh : new int[][] { { 64, 16 }, { 64, 64 }, { 64, 100 }, { 60, 7 } }) {
+			int frame = fh[0], hop = fh[1];
+			STFT stft = new STFT(frame, hop, WindowType.HANNING);
+			int frames = stft.getFrames(y.length), bins = stft.getBins();
+			assertEquals(1 + (y.length - frame) / hop, frames);
+
+			// quadros em paralelo, um a um e pela definição
+			float[][] s = stft.spectrogram(y);
+			float[] par = new float[frames * bins];
+			assertEquals(frames, stft.process(y, 0, y.length, par, pool));
+			float[] one = new float[bins];
+			double[] w = new Windowing(WindowType.HANNING).getCoefficients(frame);
+			double sum = 0.;
+			for (double v : w)
+				sum += v;
+			for (int f = 0; f < frames; f++) {
+				assertEquals(1, stft.process(y, f * hop, frame, one, ForkJoinPool.commonPool()));
+				assertArrayEquals(one, s[f]);
+				assertArrayEquals(one, Arrays.copyOfRange(par, f * bins, (f + 1) * bins));
+
+				double[] re = new double[frame];
+				for (int i = 0; i < frame; i++)
+					re[i] = y[f * hop + i] * w[i];
+				double[][] d = dft(re, new double[frame], -1);
+				for (int k = 0; k < bins; k++) {
+					double m = Math.hypot(d[0][k], d[1][k]) * (k == 0 || 2 * k == frame ? 1. : 2.) / sum;
+					assertEquals(m, one[k], 1e-5 * (1. + m));
+				}
+			}
+
+			// fluxo em blocos de tamanhos arbitrários: os mesmos quadros
+			Random r = new Random(frame + hop);
+			long[] next = { 0L };
+			STFT.Stream stream = stft.stream((index, magnitudes) -> {
+				assertEquals(next[0]++, index);
+				assertArrayEquals(s[(int) index], magnitudes);
+			});
+			for (int m = 0; m < y.length;) {
+				int c = Math.min(1 + r.nextInt(3 * frame), y.length - m);
+				stream.push(y, m, c);
+				m += c;
+			}
+			assertEquals(frames, next[0]);
+
+			// após reiniciar, recomeça do quadro 0
+			stream.reset();
+			next[0] = 0L;
+			stream.push(y, 0, y.length);
+			assertEquals(frames, next[0]);
+		}
+
+		// senoide no centro de um componente: amplitude de pico
+		int frame = 128;
+		double[] x = new double[1024];
+		for (int i = 0; i < x.length; i++)
+			x[i] = 3. * Math.cos(2. * Math.PI * 10 * i / frame + .3);
+		for (float[] f : new STFT(frame, 32, WindowType.HANNING).spectrogram(x))
+			assertEquals(3., f[10], 1e-2);
+
+		assertEquals(0, new STFT(64, 16, WindowType.HANNING).spectrogram(new double[63]).length);
+		assertThrows(IllegalArgumentException.class, () -> new STFT(64, 0, WindowType.HANNING));
+	}
+
+	@Test
+	void testWelch() {
+		double fs = 1000.;
+		int segment = 256, bins = segment / 2 + 1;
+
+		// ruído branco de variância s²: densidade unilateral 2s²/fs (s²/fs nas pontas)
+		double sigma = 3.;
+		double[] noise = random(1 << 17, 40);
+		for (int i = 0; i < noise.length; i++)
+			noise[i] *= sigma;
+		double[] psd = Welch.psd(noise, segment, WindowType.HANNING, fs);
+		assertEquals(bins, psd.length);
+		double mean = 0.;
+		for (int k = 1; k < bins - 1; k++)
+			mean += psd[k] / (bins - 2);
+		assertEquals(2. * sigma * sigma / fs, mean, .01 * 2. * sigma * sigma / fs);
+
+		// senoide no centro de um componente: a integral da PSD é a potência A²/2
+		// (a menos de um erro pequeno, pois a janela é simétrica e não periódica)
+		double a = 2.5;
+		double[] tone = new double[8192];
+		for (int i = 0; i < tone.length; i++)
+			tone[i] = a * Math.cos(2. * Math.PI * 20 * i / segment + .7);
+		psd = Welch.psd(tone, segment, WindowType.HANNING, fs);
+		double power = 0.;
+		for (int k = 0; k < bins; k++)
+			power += psd[k] * fs / segment;
+		assertEquals(a * a / 2., power, 1e-6 * a * a);
+		assertEquals(20 * fs / segment, new Welch(segment, 128, WindowType.HANNING, fs).getFrequencies()[20], 0.);
+
+		// dois sinais numa única FFT: o mesmo que duas FFTs separadas
+		double[] x = random(4000, 41), y = random(4000, 42);
+		int overlap = 100;
+		Windowing hann = new Windowing(WindowType.HANNING);
+		Welch cross = new Welch(segment, overlap, hann, fs, true);
+		Random r = new Random(43);
+		for (int m = 0; m < x.length;) {
+			int c = Math.min(1 + r.nextInt(500), x.length - m);
+			cross.push(x, y, m, c);
+			m += c;
+		}
+		int hop = segment - overlap, segments = 1 + (x.length - segment) / hop;
+		assertEquals(segments, cross.getSegments());
+
+		double[] w = hann.getCoefficients(segment);
+		double s2 = 0.;
+		for (double v : w)
+			s2 += v * v;
+		double[] sxx = new double[bins], syy = new double[bins], sxyRe = new double[bins], sxyIm = new double[bins];
+		for (int g = 0; g < segments; g++) {
+			double[] xs = new double[segment], ys = new double[segment];
+			for (int i = 0; i < segment; i++) {
+				xs[i] = x[g * hop + i] * w[i];
+				ys[i] = y[g * hop + i] * w[i];
+			}
+			double[][] fx = dft(xs, new double[segment], -1), fy = dft(ys, new double[segment], -1);
+			for (int k = 0; k < bins; k++) {
+				double f = (k == 0 || 2 * k == segment ? 1. : 2.) / (fs * s2 * segments);
+				sxx[k] += (fx[0][k] * fx[0][k] + fx[1][k] * fx[1][k]) * f;
+				syy[k] += (fy[0][k] * fy[0][k] + fy[1][k] * fy[1][k]) * f;
+				sxyRe[k] += (fx[0][k] * fy[0][k] + fx[1][k] * fy[1][k]) * f;
+				sxyIm[k] += (fx[1][k] * fy[0][k] - fx[0][k] * fy[1][k]) * f;
+			}
+		}
+		double tol = 1e-9 * 2. / fs;
+		assertArrayEquals(sxx, cross.getPsd(), tol);
+		assertArrayEquals(syy, cross.getPsdY(), tol);
+		assertArrayEquals(sxyRe, cross.getCsd()[0], tol);
+		assertArrayEquals(sxyIm, cross.getCsd()[1], tol);
+
+		// e o mesmo que o estimador de um único sinal
+		Welch single = new Welch(segment, overlap, hann, fs, false);
+		single.push(x, 0, x.length);
+		assertArrayEquals(single.getPsd(), cross.getPsd(), tol);
+		single.reset();
+		single.push(y, 0, y.length);
+		assertArrayEquals(single.getPsd(), cross.getPsdY(), tol);
+
+		// sinais idênticos ou proporcionais: coerência unitária
+		for (double gain : new double[] { 1., -.5 }) {
+			double[] z = x.clone();
+			for (int i = 0; i < z.length; i++)
+				z[i] *= gain;
+			cross.reset();
+			assertEquals(0L, cross.getSegments());
+			cross.push(x, z, 0, x.length);
+			for (double c : cross.getCoherence())
+				assertEquals(1., c, 1e-9);
+		}
+
+		// sinais independentes: coerência pequena
+		cross.reset();
+		cross.push(x, y, 0, x.length);
+		double coh = 0.;
+		for (double c : cross.getCoherence())
+			coh += c / bins;
+		assertTrue(coh < .2, "coerência média " + coh);
+
+		assertThrows(IllegalStateException.class, () -> single.push(x, y, 0, 10));
+		assertThrows(IllegalStateException.class, () -> cross.push(x, 0, 10));
+		assertThrows(IllegalStateException.class, () -> single.getCoherence());
+		assertThrows(IllegalArgumentException.class, () -> new Welch(segment, segment, WindowType.HANNING, fs));
+	}
+}
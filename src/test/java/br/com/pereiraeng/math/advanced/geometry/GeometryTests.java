@@ -0,0 +1,505 @@
+package br.com.pereiraeng.math.advanced.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.pereiraeng.math.geometry.Line;
+import br.com.pereiraeng.math.geometry.Triangle;
+
+public class GeometryTests {
+
+	private static double[][] randomPoints(int n, long seed) {
+		Random r = new Random(seed);
+		double[][] out = new double[2][n];
+		for (int i = 0; i < n; i++) {
+			out[0][i] = r.nextDouble();
+			out[1][i] = r.nextDouble();
+		}
+		return out;
+	}
+
+	@Test
+	void testDelaunayEmptyCircle() {
+		double[][] p = randomPoints(300, 1L);
+		double[] xs = p[0], ys = p[1];
+		TriangleMesh m = Delaunay.triangulate(xs, ys);
+		int[] t = m.getTriangles();
+
+		// 2n - 2 - h triângulos para n pontos em posição geral com h na envoltória
+		int h = 0;
+		for (int nb : m.getNeighbors())
+			if (nb < 0)
+				h++;
+		assertEquals(2 * xs.length - 2 - h, m.getTriangleCount());
+
+		for (int i = 0; i < t.length; i += 3) {
+			int a = t[i], b = t[i + 1], c = t[i + 2];
+			assertTrue(Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) > 0.);
+			for (int d = 0; d < xs.length; d++)
+				assertTrue(Predicates.incircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]) <= 0.);
+		}
+	}
+
+	/**
+	 * verifica os triângulos (seis coordenadas cada) de uma triangularização de
+	 * pontos distintos: sentido anti-horário, circuncírculos vazios e 2n - 2 - b
+	 * triângulos, onde b é o número de pontos sobre a borda da envoltória
+	 */
+	private static void checkTriangles(List<double[]> ts, double[] xs, double[] ys) {
+		int n = xs.length, b = 0;
+		int[] h = ConvexHull.hull(xs, ys);
+		for (int d = 0; d < n; d++)
+			for (int k = 0; k < h.length; k++) {
+				int u = h[k], v = h[(k + 1) % h.length];
+				if (Predicates.orient2d(xs[u], ys[u], xs[v], ys[v], xs[d], ys[d]) == 0.
+						&& (xs[d] - xs[u]) * (xs[v] - xs[d]) + (ys[d] - ys[u]) * (ys[v] - ys[d]) >= 0.) {
+					b++;
+					break;
+				}
+			}
+		assertEquals(h.length < 3 ? 0 : 2 * n - 2 - b, ts.size());
+
+		Set<Point2D.Double> vertices = new HashSet<>();
+		for (double[] t : ts) {
+			assertTrue(Predicates.orient2d(t[0], t[1], t[2], t[3], t[4], t[5]) > 0.);
+			for (int d = 0; d < n; d++)
+				assertTrue(Predicates.incircle(t[0], t[1], t[2], t[3], t[4], t[5], xs[d], ys[d]) <= 0.);
+			for (int k = 0; k < 6; k += 2)
+				vertices.add(new Point2D.Double(t[k], t[k + 1]));
+		}
+		if (!ts.isEmpty())
+			assertEquals(n, vertices.size());
+	}
+
+	@Test
+	void testDelaunaySets() {
+		Random r = new Random(41L);
+		List<double[][]> cases = new ArrayList<>();
+		// pontos aleatórios
+		cases.add(randomPoints(200, 41L));
+		// vários pontos com a maior ordenada (e com a menor), e pontos no interior
+		double[][] p = new double[2][60];
+		for (int i = 0; i < 60; i++) {
+			p[0][i] = i < 20 ? i % 10 / 9. : r.nextDouble();
+			p[1][i] = i < 10 ? 1. : i < 20 ? 0. : .05 + .9 * r.nextDouble();
+		}
+		cases.add(p);
+		// todos colineares
+		p = new double[2][20];
+		for (int i = 0; i < 20; i++) {
+			p[0][i] = i;
+			p[1][i] = 2. * i + 1.;
+		}
+		cases.add(p);
+		// quadrado (quatro pontos cocirculares)
+		cases.add(new double[][] { { 0., 1., 1., 0. }, { 0., 0., 1., 1. } });
+
+		for (double[][] c : cases) {
+			double[] xs = c[0], ys = c[1];
+			int n = xs.length;
+
+			// cada ponto aparece duas vezes, em objetos distintos
+			Set<Point2D.Double> points = Collections.newSetFromMap(new IdentityHashMap<>());
+			Set<Point2D.Float> pointsF = Collections.newSetFromMap(new IdentityHashMap<>());
+			float[] fx = new float[n], fy = new float[n];
+			for (int i = 0; i < n; i++) {
+				fx[i] = (float) xs[i];
+				fy[i] = (float) ys[i];
+				for (int k = 0; k < 2; k++) {
+					points.add(new Point2D.Double(xs[i], ys[i]));
+					pointsF.add(new Point2D.Float(fx[i], fy[i]));
+				}
+			}
+			assertEquals(2 * n, points.size());
+
+			List<double[]> ts = new ArrayList<>();
+			for (Triangle t : Delaunay.delaunayTriangulation(points)) {
+				double[] v = new double[6];
+				for (int k = 0; k < 3; k++) {
+					v[2 * k] = t.getVertice(k).x;
+					v[2 * k + 1] = t.getVertice(k).y;
+				}
+				ts.add(v);
+			}
+			checkTriangles(ts, xs, ys);
+
+			Collection<List<Point2D.Float>> tf = Delaunay.delaunayTriangulationF(pointsF);
+			ts.clear();
+			for (List<Point2D.Float> t : tf) {
+				assertEquals(3, t.size());
+				double[] v = new double[6];
+				for (int k = 0; k < 3; k++) {
+					v[2 * k] = t.get(k).x;
+					v[2 * k + 1] = t.get(k).y;
+				}
+				ts.add(v);
+			}
+			double[] dx = new double[n], dy = new double[n];
+			for (int i = 0; i < n; i++) {
+				dx[i] = fx[i];
+				dy[i] = fy[i];
+			}
+			checkTriangles(ts, dx, dy);
+		}
+	}
+
+	@Test
+	void testDelaunayNeighbors() {
+		// grade regular: muitos pontos cocirculares e colineares, e pontos repetidos
+		int n = 400;
+		double[] xs = new double[n], ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = i % 17;
+			ys[i] = (i * 7) % 13;
+		}
+		TriangleMesh m = Delaunay.triangulate(xs, ys);
+		int[] t = m.getTriangles(), nb = m.getNeighbors();
+
+		double area = 0.;
+		for (int i = 0; i < t.length; i++) {
+			int o = nb[i];
+			if (i % 3 == 0)
+				area += .5 * Predicates.orient2d(xs[t[i]], ys[t[i]], xs[t[i + 1]], ys[t[i + 1]], xs[t[i + 2]],
+						ys[t[i + 2]]);
+			if (o < 0)
+				continue;
+			// o vizinho tem a mesma aresta, no sentido oposto, e aponta de volta
+			int u = t[i - i % 3 + (i + 1) % 3], v = t[i - i % 3 + (i + 2) % 3], back = 0;
+			for (int j = 0; j < 3; j++)
+				if (nb[3 * o + j] == i / 3 && t[3 * o + (j + 1) % 3] == v && t[3 * o + (j + 2) % 3] == u)
+					back++;
+			assertEquals(1, back);
+		}
+		assertEquals(16. * 12., area, 1e-9);
+	}
+
+	@Test
+	void testParallelDelaunay() {
+		double[][] p = randomPoints(50000, 2L);
+		TriangleMesh s = Delaunay.triangulate(p[0], p[1]);
+		TriangleMesh d = Delaunay.triangulate(p[0], p[1], new ForkJoinPool(4));
+		assertArrayEquals(s.getTriangles(), d.getTriangles());
+		assertArrayEquals(s.getNeighbors(), d.getNeighbors());
+
+		// grade (quatro pontos cocirculares em cada célula), em ordem aleatória, com
+		// pontos repetidos e um círculo de pontos: o desempate é o mesmo nos dois
+		// algoritmos
+		for (int side : new int[] { 5, 40, 200 }) {
+			int n = side * side;
+			double[] xs = new double[n + 64], ys = new double[n + 64];
+			for (int i = 0; i < n; i++) {
+				xs[i] = i % side;
+				ys[i] = i / side;
+			}
+			for (int i = 0; i < 32; i++) {
+				double a = Math.PI * i / 16;
+				xs[n + i] = side / 2 + 3 * Math.cos(a);
+				ys[n + i] = side / 2 + 3 * Math.sin(a);
+				xs[n + 32 + i] = xs[i * 7 % n];
+				ys[n + 32 + i] = ys[i * 7 % n];
+			}
+			Random r = new Random(side);
+			for (int i = xs.length - 1; i > 0; i--) {
+				int j = r.nextInt(i + 1);
+				double t = xs[i];
+				xs[i] = xs[j];
+				xs[j] = t;
+				t = ys[i];
+				ys[i] = ys[j];
+				ys[j] = t;
+			}
+			s = Delaunay.triangulate(xs, ys);
+			d = Delaunay.triangulate(xs, ys, new ForkJoinPool(4));
+			assertArrayEquals(s.getTriangles(), d.getTriangles());
+			assertArrayEquals(s.getNeighbors(), d.getNeighbors());
+		}
+	}
+
+	@Test
+	void testLiveDelaunay() {
+		Set<String> live = new HashSet<>();
+		DelaunayTriangulation d = new DelaunayTriangulation();
+		d.setListener(new DelaunayTriangulation.Listener() {
+			@Override
+			public void onCreated(int a, int b, int c) {
+				assertTrue(live.add(key(a, b, c)));
+			}
+
+			@Override
+			public void onDestroyed(int a, int b, int c) {
+				assertTrue(live.remove(key(a, b, c)));
+			}
+		});
+
+		Random r = new Random(3L);
+		for (int i = 0; i < 300; i++)
+			assertEquals(i, d.insert(r.nextDouble(), r.nextDouble()));
+		assertEquals(7, d.insert(d.getX(7), d.getY(7)));
+		for (int i = 0; i < 300; i += 3)
+			d.remove(i);
+		assertEquals(200, d.getVertexCount());
+
+		TriangleMesh m = d.toMesh();
+		int[] t = m.getTriangles();
+		assertEquals(live.size(), m.getTriangleCount());
+		for (int i = 0; i < t.length; i += 3) {
+			int a = t[i], b = t[i + 1], c = t[i + 2];
+			assertTrue(live.contains(key(a, b, c)));
+			for (int v = 0; v < 300; v++)
+				if (d.contains(v))
+					assertTrue(Predicates.incircle(d.getX(a), d.getY(a), d.getX(b), d.getY(b), d.getX(c), d.getY(c),
+							d.getX(v), d.getY(v)) <= 0.);
+		}
+	}
+
+	@Test
+	void testVoronoiEdges() {
+		Random r = new Random(4L);
+		Set<Point2D.Double> ps = new HashSet<>();
+		// vários pontos com a ordenada máxima
+		for (int i = 0; i < 5; i++)
+			ps.add(new Point2D.Double(i, 1.));
+		for (int i = 0; i < 500; i++)
+			ps.add(new Point2D.Double(4. * r.nextDouble(), r.nextDouble()));
+
+		int[] events = new int[1];
+		Map<Line, Line> v = Voronoi.voronoiDiagram(ps, new Point2D.Double[2], (processed, pending) -> {
+			assertEquals(events[0] + 1, processed);
+			events[0] = processed;
+		});
+		assertTrue(events[0] > ps.size());
+		assertTrue(v.size() > 1000);
+
+		// cada aresta equidista dos dois pontos e nenhum outro ponto está mais perto
+		for (Map.Entry<Line, Line> e : v.entrySet()) {
+			Point2D.Double pi = e.getKey().getFrom(), pj = e.getKey().getTo();
+			for (Point2D.Double x : e.getValue().getPointArray()) {
+				double d = x.distance(pi);
+				assertEquals(d, x.distance(pj), 1e-9);
+				for (Point2D.Double q : ps)
+					assertTrue(x.distance(q) > d - 1e-9);
+			}
+		}
+	}
+
+	/**
+	 * verifica que as células cobrem a caixa [-1, 2]² e que cada vértice é finito e
+	 * está à mesma distância do seu ponto e do ponto mais próximo
+	 */
+	private static void checkCells(double[] xs, double[] ys) {
+		VoronoiCells c = Voronoi.cells(Delaunay.triangulate(xs, ys), xs, ys, -1., -1., 2., 2.);
+		assertEquals(xs.length, c.getCellCount());
+
+		double area = 0.;
+		for (int i = 0; i < xs.length; i++) {
+			int k = c.getVertexCount(i);
+			for (int j = 0; j < k; j++) {
+				double x = c.getX(i, j), y = c.getY(i, j), d = Math.hypot(x - xs[i], y - ys[i]);
+				assertTrue(Double.isFinite(x) && Double.isFinite(y));
+				area += .5 * (x * c.getY(i, (j + 1) % k) - c.getX(i, (j + 1) % k) * y);
+				for (int q = 0; q < xs.length; q++)
+					assertTrue(Math.hypot(x - xs[q], y - ys[q]) > d - 1e-9);
+			}
+		}
+		assertEquals(9., area, 1e-9);
+	}
+
+	@Test
+	void testVoronoiCells() {
+		double[][] p = randomPoints(500, 5L);
+		checkCells(p[0], p[1]);
+
+		// três pontos quase colineares (o determinante do circuncentro, em ponto
+		// flutuante, é nulo) e outros de um só lado da reta, de modo que o triângulo
+		// degenerado é de Delaunay e o ponto do meio é interior
+		checkCells(new double[] { 0.8779525190098495, 0.7546462452610667, 0.4242532408562105, .2, .5, .3, .6 },
+				new double[] { 0.662892816024772, 0.5697911490564527, 0.3203298805452303, .6, .9, .8, .95 });
+
+		// pontos sobre uma reta, a menos de uma unidade na última casa, entre pontos
+		// dos dois lados
+		Random r = new Random(47L);
+		double[] xs = new double[33], ys = new double[33];
+		for (int i = 0; i < 30; i++) {
+			xs[i] = .1 + .8 * r.nextDouble();
+			ys[i] = .1 + .7 * (xs[i] - .1);
+			ys[i] = r.nextBoolean() ? Math.nextUp(ys[i]) : Math.nextDown(ys[i]);
+		}
+		xs[30] = .5;
+		ys[30] = .95;
+		xs[31] = .9;
+		ys[31] = .05;
+		xs[32] = .05;
+		ys[32] = .6;
+		checkCells(xs, ys);
+	}
+
+	@Test
+	void testSpatialIndex() {
+		double[][] p = randomPoints(1000, 6L);
+		double[] xs = p[0], ys = p[1];
+		Random r = new Random(7L);
+		int[] out = new int[5], all = new int[xs.length];
+		double[] d = new double[5];
+		for (SpatialIndex index : new SpatialIndex[] { new KdTree(xs, ys), new UniformGrid(xs, ys) }) {
+			for (int s = 0; s < 200; s++) {
+				double x = r.nextDouble(), y = r.nextDouble(), radius = .05;
+
+				// comparação com a busca exaustiva
+				int best = -1, near = 0;
+				for (int i = 0; i < xs.length; i++) {
+					double di = Point2D.distanceSq(x, y, xs[i], ys[i]);
+					if (best < 0 || di < Point2D.distanceSq(x, y, xs[best], ys[best]))
+						best = i;
+					if (di <= radius * radius)
+						near++;
+				}
+				assertEquals(best, index.nearest(x, y));
+				assertEquals(5, index.nearest(x, y, 5, out, d));
+				assertEquals(best, out[0]);
+				for (int k = 1; k < 5; k++)
+					assertTrue(d[k - 1] <= d[k]);
+				assertEquals(near, index.within(x, y, radius, all));
+			}
+		}
+	}
+
+	@Test
+	void testConvexHull() {
+		// pontos num círculo, repetidos, e pontos no interior
+		Random r = new Random(8L);
+		int n = 3000;
+		double[] xs = new double[n], ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			double t = 2. * Math.PI * r.nextInt(64) / 64., d = i % 2 == 0 ? 1. : r.nextDouble();
+			xs[i] = d * Math.cos(t);
+			ys[i] = d * Math.sin(t);
+		}
+		int[] h = ConvexHull.hull(xs, ys);
+		assertEquals(64, h.length);
+		assertArrayEquals(h, ConvexHull.hull(xs, ys, ForkJoinPool.commonPool()));
+		// envoltória estritamente convexa, com todos os pontos à esquerda das arestas
+		for (int i = 0; i < h.length; i++) {
+			int a = h[i], b = h[(i + 1) % h.length], c = h[(i + 2) % h.length];
+			assertTrue(Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) > 0.);
+			for (int k = 0; k < n; k++)
+				assertTrue(Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[k], ys[k]) >= 0.);
+		}
+
+		// cadeia monótona de pontos ordenados
+		assertArrayEquals(new int[] { 0, 3, 4, 1 },
+				ConvexHull.monotoneChain(new double[] { 0., 0., 1., 2., 2. }, new double[] { 0., 2., 1., 0., 2. }));
+
+		// pontos quase colineares: o ponto 1 está à esquerda de 2→0 e não é vértice,
+		// mas, pelo módulo aproximado da orientação, pareceria mais longe de 3→0 que o
+		// ponto 2
+		xs = new double[] { 0.4753340869325733, 0.30578725131539786, 0.30504112869117606, 0.18678097859991405 };
+		ys = new double[] { 0.04753340869325733, 0.030578725131539797, 0.030504112869117618, 0.018678097859991395 };
+		assertArrayEquals(new int[] { 3, 0, 2 }, ConvexHull.hull(xs, ys));
+		assertArrayEquals(new int[] { 3, 0, 2 }, ConvexHull.hull(xs, ys, ForkJoinPool.commonPool()));
+
+		// muitos pontos sobre uma reta, a menos de uma unidade na última casa
+		n = 100000;
+		xs = new double[n];
+		ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = r.nextDouble();
+			ys[i] = .1 * xs[i];
+			ys[i] = r.nextBoolean() ? Math.nextUp(ys[i]) : Math.nextDown(ys[i]);
+		}
+		assertArrayEquals(ConvexHull.hull(xs, ys), ConvexHull.hull(xs, ys, new ForkJoinPool(4)));
+	}
+
+	@Test
+	void testQuickhull() {
+		// quadrado com pontos sobre as arestas, um ponto interior e pontos repetidos
+		// (objetos distintos com as mesmas coordenadas)
+		double[][] square = { { 0., 0. }, { 2., 0. }, { 2., 2. }, { 0., 2. }, { 1., 0. }, { 2., 1. }, { 1., 2. },
+				{ 0., 1. }, { 1., 1. }, { 0., 0. }, { 2., 2. }, { 0., 1. }, { 2., 0. } };
+		Set<Point2D.Double> points = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (double[] p : square)
+			points.add(new Point2D.Double(p[0], p[1]));
+		List<Point2D.Double> h = ConvexHull.quickhull(points);
+		// sentido horário, a partir do ponto de menor abscissa (e de menor ordenada)
+		assertEquals(Arrays.asList(new Point2D.Double(0., 0.), new Point2D.Double(0., 2.),
+				new Point2D.Double(2., 2.), new Point2D.Double(2., 0.)), h);
+		for (Point2D.Double p : h)
+			assertTrue(points.contains(p));
+
+		// pontos aleatórios: sentido horário, estritamente convexa, todos os pontos à
+		// direita das arestas ou sobre elas
+		double[][] p = randomPoints(1000, 49L);
+		points = new HashSet<>();
+		for (int i = 0; i < p[0].length; i++)
+			points.add(new Point2D.Double(p[0][i], p[1][i]));
+		h = ConvexHull.quickhull(points);
+		Point2D.Double first = h.get(0);
+		for (Point2D.Double q : points)
+			assertTrue(first.x < q.x || (first.x == q.x && first.y <= q.y));
+		for (int i = 0; i < h.size(); i++) {
+			Point2D.Double a = h.get(i), b = h.get((i + 1) % h.size()), c = h.get((i + 2) % h.size());
+			assertTrue(Predicates.orient2d(a.x, a.y, b.x, b.y, c.x, c.y) < 0.);
+			for (Point2D.Double q : points)
+				assertTrue(Predicates.orient2d(a.x, a.y, b.x, b.y, q.x, q.y) <= 0.);
+		}
+
+		// pontos colineares: os dois extremos; um único ponto; nenhum
+		points.clear();
+		for (int i = 0; i < 5; i++)
+			points.add(new Point2D.Double(3. - i, 1. + 2. * (3. - i)));
+		assertEquals(Arrays.asList(new Point2D.Double(-1., -1.), new Point2D.Double(3., 7.)),
+				ConvexHull.quickhull(points));
+		assertEquals(Arrays.asList(new Point2D.Double(.5, .5)),
+				ConvexHull.quickhull(Collections.singleton(new Point2D.Double(.5, .5))));
+		assertTrue(ConvexHull.quickhull(new HashSet<Point2D.Double>()).isEmpty());
+	}
+
+	@Test
+	void testOnlineConvexHull() {
+		double[][] p = randomPoints(2000, 9L);
+		double[] xs = p[0], ys = p[1];
+		OnlineConvexHull h = new OnlineConvexHull(), h1 = new OnlineConvexHull(), h2 = new OnlineConvexHull();
+		for (int i = 0; i < xs.length; i++) {
+			assertEquals(!h.contains(xs[i], ys[i]), h.add(xs[i], ys[i]));
+			(i < xs.length / 2 ? h1 : h2).add(xs[i], ys[i]);
+		}
+
+		// mesmos vértices da envoltória calculada de uma só vez
+		int[] hull = ConvexHull.hull(xs, ys);
+		double[] xy = h.getCoordinates();
+		assertEquals(hull.length, h.getVertexCount());
+		for (int k = 0; k < hull.length; k++) {
+			assertEquals(xs[hull[k]], xy[2 * k]);
+			assertEquals(ys[hull[k]], xy[2 * k + 1]);
+		}
+
+		h1.merge(h2);
+		assertArrayEquals(xy, h1.getCoordinates());
+		for (int i = 0; i < xs.length; i++)
+			assertTrue(h1.contains(xs[i], ys[i]));
+	}
+
+	private static String key(int a, int b, int c) {
+		// mesma rotação da malha: começa pelo menor índice
+		if (b < a && b < c)
+			return b + "," + c + "," + a;
+		if (c < a && c < b)
+			return c + "," + a + "," + b;
+		return a + "," + b + "," + c;
+	}
+}
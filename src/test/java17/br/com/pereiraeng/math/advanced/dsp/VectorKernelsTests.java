@@ -0,0 +1,73 @@
+package br.com.pereiraeng.math.advanced.dsp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes da implementação de {@link Kernels} com a Vector API, compilados e
+ * executados apenas no perfil <code>vector-api</code> (JDK 17 ou superior)
+ */
+public class VectorKernelsTests {
+
+	private static double[] random(Random r, int n) {
+		double[] out = new double[n];
+		for (int i = 0; i < n; i++)
+			out[i] = r.nextGaussian();
+		return out;
+	}
+
+	@Test
+	void testSelected() {
+		assertTrue(Kernels.isVectorized());
+	}
+
+	@Test
+	void testAgainstScalar() {
+		Kernels.Impl vector = new VectorKernels(), scalar = new Kernels.Scalar();
+		Random r = new Random(35);
+
+		// tamanhos abaixo, iguais e acima de múltiplos do número de lanes, com e
+		// sem deslocamento
+		for (int n = 0; n <= 70; n++)
+			for (int off : new int[] { 0, 3 }) {
+				double[] x = random(r, off + n), w = random(r, n);
+				double[] re = random(r, n), im = random(r, n), wRe = random(r, n), wIm = random(r, n);
+
+				double[] a = x.clone(), b = x.clone();
+				vector.multiply(a, off, w, n);
+				scalar.multiply(b, off, w, n);
+				assertArrayEquals(b, a);
+
+				a = x.clone();
+				b = x.clone();
+				vector.scale(a, off, n, 1.7);
+				scalar.scale(b, off, n, 1.7);
+				assertArrayEquals(b, a);
+
+				double[] ar = re.clone(), ai = im.clone(), br = re.clone(), bi = im.clone();
+				vector.multiplyComplex(ar, ai, wRe, wIm, n);
+				scalar.multiplyComplex(br, bi, wRe, wIm, n);
+				assertArrayEquals(br, ar);
+				assertArrayEquals(bi, ai);
+
+				a = new double[n];
+				b = new double[n];
+				vector.magnitude2(re, im, a, n);
+				scalar.magnitude2(re, im, b, n);
+				assertArrayEquals(b, a);
+
+				// reduções: a ordem das somas difere
+				double s = scalar.sumOfSquares(re, im, n);
+				assertEquals(s, vector.sumOfSquares(re, im, n), 1e-13 * (1. + s));
+				double d = scalar.dot(x, off, w, 0, n), abs = 0.;
+				for (int i = 0; i < n; i++)
+					abs += Math.abs(x[off + i] * w[i]);
+				assertEquals(d, vector.dot(x, off, w, 0, n), 1e-13 * (1. + abs));
+			}
+	}
+}